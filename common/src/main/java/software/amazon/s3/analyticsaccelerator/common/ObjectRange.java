@@ -0,0 +1,61 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.common;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import lombok.Getter;
+
+/**
+ * A range of an object requested as part of a vectored read. The reader completes {@link
+ * #getByteBuffer()} with a buffer holding exactly {@link #getLength()} bytes, positioned at the
+ * start of the data, or completes it exceptionally if the range could not be read.
+ */
+@Getter
+public class ObjectRange {
+  private final long offset;
+  private final int length;
+  private final CompletableFuture<ByteBuffer> byteBuffer;
+
+  /**
+   * Creates a new {@link ObjectRange}.
+   *
+   * @param offset the position of the first byte of the range in the object
+   * @param length the number of bytes in the range
+   */
+  public ObjectRange(long offset, int length) {
+    Preconditions.checkArgument(0 <= offset, "`offset` must not be negative");
+    Preconditions.checkArgument(0 <= length, "`length` must not be negative");
+
+    this.offset = offset;
+    this.length = length;
+    this.byteBuffer = new CompletableFuture<>();
+  }
+
+  /**
+   * Returns the position just past the last byte of the range.
+   *
+   * @return the exclusive end of the range
+   */
+  public long getEndExclusive() {
+    return offset + length;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("ObjectRange[offset=%s, length=%s]", offset, length);
+  }
+}
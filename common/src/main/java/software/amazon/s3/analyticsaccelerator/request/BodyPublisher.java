@@ -0,0 +1,38 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.request;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The body of a response, pushed by the object client as it arrives. Clients that receive bodies
+ * asynchronously expose them this way, so that each chunk can be written straight into its
+ * destination, without a thread blocking on the stream of the response.
+ */
+public interface BodyPublisher {
+  /**
+   * Delivers the body to a consumer. A body is only delivered once, either to a consumer or through
+   * the stream of its {@link ObjectContent}. Closing that stream aborts the delivery.
+   *
+   * @param consumer called with each chunk of the body in order, on the thread that received it.
+   *     Chunks may be reused once the call returns.
+   * @return a future completing once the whole body has been delivered, or exceptionally if
+   *     receiving it failed or was aborted
+   */
+  CompletableFuture<Void> subscribe(Consumer<ByteBuffer> consumer);
+}
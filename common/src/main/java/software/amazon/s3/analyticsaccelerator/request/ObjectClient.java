@@ -15,6 +15,7 @@
  */
 package software.amazon.s3.analyticsaccelerator.request;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.util.concurrent.CompletableFuture;
 
@@ -45,4 +46,60 @@ public interface ObjectClient extends Closeable {
    * @return an instance of {@link CompletableFuture} of type {@link ObjectContent}
    */
   CompletableFuture<ObjectContent> getObject(GetRequest getRequest, StreamContext streamContext);
+
+  /**
+   * Make a getObject request for the last bytes of an object, without knowing its size. The
+   * returned {@link ObjectContent} carries the metadata of the object and the range that was read,
+   * which is the whole object if it is shorter than requested.
+   *
+   * <p>The default implementation makes a headObject request followed by a ranged getObject
+   * request. Clients that can express a suffix range should override it, so that a single request
+   * is made.
+   *
+   * @param tailRequest The request to be sent
+   * @return an instance of {@link CompletableFuture} of type {@link ObjectContent}
+   */
+  default CompletableFuture<ObjectContent> getObjectTail(TailRequest tailRequest) {
+    return headObject(HeadRequest.builder().s3Uri(tailRequest.getS3Uri()).build())
+        .thenCompose(
+            metadata -> {
+              long contentLength = metadata.getContentLength();
+              if (contentLength == 0) {
+                return CompletableFuture.completedFuture(
+                    ObjectContent.builder()
+                        .stream(new ByteArrayInputStream(new byte[0]))
+                        .metadata(metadata)
+                        .build());
+              }
+
+              Range range =
+                  new Range(
+                      Math.max(0, contentLength - tailRequest.getLength()), contentLength - 1);
+              return getObject(
+                      GetRequest.builder()
+                          .s3Uri(tailRequest.getS3Uri())
+                          .range(range)
+                          .etag(metadata.getEtag())
+                          .referrer(tailRequest.getReferrer())
+                          .build())
+                  .thenApply(
+                      content ->
+                          ObjectContent.builder()
+                              .stream(content.getStream())
+                              .metadata(metadata)
+                              .range(range)
+                              .build());
+            });
+  }
+
+  /**
+   * Returns whether this client fetches large ranges as several parallel part requests on its own.
+   * Callers should then avoid splitting large sequential reads into many small requests, as a
+   * single large request lets the client reach its configured throughput.
+   *
+   * @return true if large ranges are split into parts by the client
+   */
+  default boolean splitsRangesIntoParts() {
+    return false;
+  }
 }
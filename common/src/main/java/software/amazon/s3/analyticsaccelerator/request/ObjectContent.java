@@ -16,12 +16,31 @@
 package software.amazon.s3.analyticsaccelerator.request;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import lombok.Builder;
 import lombok.Data;
 
-/** Wrapper class around GetObjectResponse abstracting away from S3-specific details */
+/**
+ * Wrapper class around GetObjectResponse abstracting away from S3-specific details. Responses to
+ * {@link TailRequest}s also carry the metadata of the object and the range that was returned, as
+ * neither is known before the request is made. Clients that receive the whole body into memory
+ * also expose it as a buffer, and clients that receive it asynchronously as a {@link
+ * BodyPublisher}, so that it can be copied without going through the stream.
+ */
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ObjectContent {
   InputStream stream;
+
+  /** The metadata of the object, or null if the response does not describe it. */
+  ObjectMetadata metadata;
+
+  /** The range held by the stream, or null if the response does not describe it. */
+  Range range;
+
+  /** The body of the response, if it was received into memory, or null if it must be streamed. */
+  ByteBuffer data;
+
+  /** The body of the response, if the client pushes it as it arrives, or null otherwise. */
+  BodyPublisher publisher;
 }
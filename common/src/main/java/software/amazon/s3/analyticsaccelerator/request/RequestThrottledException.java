@@ -0,0 +1,37 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.request;
+
+import java.io.IOException;
+
+/**
+ * Signals that the object store rejected a request because it is receiving requests too fast, for
+ * example an HTTP 503 Slow Down from Amazon S3. Callers should reduce their request rate before
+ * retrying.
+ */
+public class RequestThrottledException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructs a new RequestThrottledException.
+   *
+   * @param message the detail message
+   * @param cause the exception returned by the object store
+   */
+  public RequestThrottledException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
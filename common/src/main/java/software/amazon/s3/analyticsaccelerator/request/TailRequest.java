@@ -0,0 +1,60 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.request;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Object representing arguments to a GetObject call for the last bytes of an object, whose size
+ * is not known yet. This class helps us abstract away from S3 SDK constructs.
+ */
+@Value
+public class TailRequest {
+  @NonNull S3URI s3Uri;
+  long length;
+  @NonNull Referrer referrer;
+
+  private static final String TO_HTTP_STRING_FORMAT = "bytes=-%d";
+
+  /**
+   * Construct a tail request.
+   *
+   * @param s3Uri the object to read
+   * @param length the number of bytes to read from the end of the object
+   * @param referrer the referrer to attach to the request
+   */
+  @Builder
+  private TailRequest(@NonNull S3URI s3Uri, long length, @NonNull Referrer referrer) {
+    Preconditions.checkArgument(length > 0, "`length` must be positive");
+
+    this.s3Uri = s3Uri;
+    this.length = length;
+    this.referrer = referrer;
+  }
+
+  /**
+   * Returns the suffix range of this request used in S3 requests, as defined by the Http RFC.
+   *
+   * @return the HTTP RFC compatible suffix range, such as "bytes=-1024"
+   */
+  public String toHttpString() {
+    return String.format(TO_HTTP_STRING_FORMAT, length);
+  }
+}
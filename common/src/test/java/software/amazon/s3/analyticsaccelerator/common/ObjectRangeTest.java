@@ -0,0 +1,41 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class ObjectRangeTest {
+
+  @Test
+  void testConstructor() {
+    ObjectRange objectRange = new ObjectRange(10, 5);
+
+    assertEquals(10, objectRange.getOffset());
+    assertEquals(5, objectRange.getLength());
+    assertEquals(15, objectRange.getEndExclusive());
+    assertFalse(objectRange.getByteBuffer().isDone());
+    assertEquals("ObjectRange[offset=10, length=5]", objectRange.toString());
+  }
+
+  @Test
+  void testConstructorValidatesArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new ObjectRange(-1, 5));
+    assertThrows(IllegalArgumentException.class, () -> new ObjectRange(0, -1));
+    assertEquals(0, new ObjectRange(0, 0).getLength());
+  }
+}
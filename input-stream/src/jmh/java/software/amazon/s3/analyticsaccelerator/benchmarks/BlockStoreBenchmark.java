@@ -0,0 +1,165 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Block;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.BlockStore;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.IOPlanner;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Micro-benchmarks for position lookups and read planning on a {@link BlockStore}, sweeping the
+ * number of blocks held by the store. Every other block-sized range of the object is populated, so
+ * that planning a read over the whole object has to find one gap per block.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BlockStoreBenchmark {
+  private static final long BLOCK_SIZE = 1024;
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder().s3URI(S3URI.of("bucket", "key")).etag("etag").build();
+
+  @Param({"16", "256", "4096", "65536"})
+  public int blockCount;
+
+  private BlockStore blockStore;
+  private IOPlanner ioPlanner;
+  private long contentLength;
+
+  /**
+   * Populates the block store
+   *
+   * @throws IOException thrown on IO error
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    this.contentLength = 2 * BLOCK_SIZE * blockCount;
+    ObjectMetadata metadata =
+        ObjectMetadata.builder().contentLength(contentLength).etag(OBJECT_KEY.getEtag()).build();
+    this.blockStore = new BlockStore(OBJECT_KEY, metadata);
+    this.ioPlanner = new IOPlanner(blockStore);
+
+    ObjectClient objectClient = new PendingObjectClient();
+    for (int i = 0; i < blockCount; i++) {
+      long start = 2 * BLOCK_SIZE * i;
+      blockStore.add(
+          new Block(
+              OBJECT_KEY,
+              objectClient,
+              Telemetry.NOOP,
+              start,
+              start + BLOCK_SIZE - 1,
+              0,
+              ReadMode.SYNC,
+              120_000,
+              1));
+    }
+  }
+
+  /** Closes the block store */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.blockStore.close();
+  }
+
+  /**
+   * Looks up the block holding a random position
+   *
+   * @return whether the position was found
+   */
+  @Benchmark
+  public boolean getBlock() {
+    return blockStore.getBlock(randomPosition()).isPresent();
+  }
+
+  /**
+   * Finds the next missing byte from a random position
+   *
+   * @return next missing byte
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public long findNextMissingByte() throws IOException {
+    return blockStore.findNextMissingByte(randomPosition()).orElse(-1);
+  }
+
+  /**
+   * Finds the next loaded byte from a random position
+   *
+   * @return next loaded byte
+   */
+  @Benchmark
+  public long findNextLoadedByte() {
+    return blockStore.findNextLoadedByte(randomPosition()).orElse(-1);
+  }
+
+  /**
+   * Plans a read over the whole object
+   *
+   * @return the missing ranges
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public List<Range> planWholeObjectRead() throws IOException {
+    return ioPlanner.planRead(0, contentLength - 1, contentLength - 1);
+  }
+
+  private long randomPosition() {
+    return ThreadLocalRandom.current().nextLong(contentLength);
+  }
+
+  /** An {@link ObjectClient} whose requests never complete, so blocks never hold any data */
+  private static class PendingObjectClient implements ObjectClient {
+    @Override
+    public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+      return new CompletableFuture<>();
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+      return new CompletableFuture<>();
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(
+        GetRequest getRequest, StreamContext streamContext) {
+      return new CompletableFuture<>();
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMappers;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMetadata;
+
+/**
+ * Micro-benchmarks for finding column chunks by position in {@link ColumnMappers}, sweeping the
+ * number of column chunks in the footer. The footer has 2,000 columns, with as many row groups as
+ * needed to reach the column chunk count, so the largest setting matches a wide table with 50 row
+ * groups.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ColumnMappersBenchmark {
+  private static final int COLUMN_COUNT = 2_000;
+  private static final long COLUMN_CHUNK_SIZE = 64 * 1024;
+
+  @Param({"2000", "20000", "100000"})
+  public int columnChunkCount;
+
+  private ColumnMappers columnMappers;
+  private long contentLength;
+
+  /** Builds column mappers for the footer */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Map<Long, ColumnMetadata> offsetIndexToColumnMap = new HashMap<>();
+    Map<String, List<ColumnMetadata>> columnNameToColumnMap = new LinkedHashMap<>();
+    for (int i = 0; i < columnChunkCount; i++) {
+      String columnName = "column_" + (i % COLUMN_COUNT);
+      long startPos = 4 + i * COLUMN_CHUNK_SIZE;
+      ColumnMetadata columnMetadata =
+          new ColumnMetadata(
+              i / COLUMN_COUNT, columnName, startPos, 0, startPos, COLUMN_CHUNK_SIZE, 0);
+      offsetIndexToColumnMap.put(startPos, columnMetadata);
+      columnNameToColumnMap
+          .computeIfAbsent(columnName, name -> new ArrayList<>())
+          .add(columnMetadata);
+    }
+    this.columnMappers = new ColumnMappers(offsetIndexToColumnMap, columnNameToColumnMap);
+    this.contentLength = 4 + columnChunkCount * COLUMN_CHUNK_SIZE;
+  }
+
+  /**
+   * Looks up the column chunk starting at the offset of a random column chunk
+   *
+   * @return the column chunk
+   */
+  @Benchmark
+  public ColumnMetadata getColumnStartingAt() {
+    long index = ThreadLocalRandom.current().nextInt(columnChunkCount);
+    return columnMappers.getColumnStartingAt(4 + index * COLUMN_CHUNK_SIZE);
+  }
+
+  /**
+   * Looks up the column chunk containing a random position
+   *
+   * @return the column chunk
+   */
+  @Benchmark
+  public ColumnMetadata getColumnContaining() {
+    return columnMappers.getColumnContaining(randomPosition());
+  }
+
+  /**
+   * Looks up the column chunk containing a random position by sorting the boxed offsets and
+   * scanning them, which is what every unaligned read used to do
+   *
+   * @return the column chunk
+   */
+  @Benchmark
+  public ColumnMetadata sortAndScanOffsets() {
+    long position = randomPosition();
+    List<Long> columnPositions =
+        new ArrayList<>(columnMappers.getOffsetIndexToColumnMap().keySet());
+    Collections.sort(columnPositions);
+    for (int i = 0; i < columnPositions.size() - 1; i++) {
+      if (position > columnPositions.get(i) && position < columnPositions.get(i + 1)) {
+        return columnMappers.getOffsetIndexToColumnMap().get(columnPositions.get(i));
+      }
+    }
+    return null;
+  }
+
+  private long randomPosition() {
+    return ThreadLocalRandom.current().nextLong(contentLength);
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Blob;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.BlockManager;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Multi-threaded micro-benchmarks for reads served by a single {@link Blob}, which is how streams
+ * opened on the same key share data. Every thread reads from its own slice of the object, so that
+ * the threads never need the same block. The whole object is resident before measuring, so the
+ * benchmark measures how much concurrent readers of cached data contend with each other.
+ */
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ConcurrentBlobReadBenchmark {
+  private static final int OBJECT_SIZE = 64 * 1024 * 1024;
+  private static final int SLICE_COUNT = 64;
+  private static final int SLICE_SIZE = OBJECT_SIZE / SLICE_COUNT;
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder().s3URI(S3URI.of("bucket", "key")).etag("etag").build();
+
+  @Param({"1", "4096"})
+  public int readSize;
+
+  private final AtomicInteger nextSlice = new AtomicInteger();
+  private Blob blob;
+
+  /** The slice of the object read by a single benchmark thread */
+  @State(Scope.Thread)
+  public static class Slice {
+    private long start;
+    private byte[] buffer;
+
+    /**
+     * Assigns a slice to the thread
+     *
+     * @param benchmark the shared benchmark state
+     */
+    @Setup(Level.Trial)
+    public void setUp(ConcurrentBlobReadBenchmark benchmark) {
+      this.start = (long) (benchmark.nextSlice.getAndIncrement() % SLICE_COUNT) * SLICE_SIZE;
+      this.buffer = new byte[benchmark.readSize];
+    }
+  }
+
+  /**
+   * Creates the blob and makes the whole object resident
+   *
+   * @throws IOException thrown on IO error
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    ObjectMetadata metadata =
+        ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(OBJECT_KEY.getEtag()).build();
+    BlockManager blockManager =
+        new BlockManager(
+            OBJECT_KEY,
+            new InMemoryObjectClient(new byte[OBJECT_SIZE]),
+            metadata,
+            Telemetry.NOOP,
+            PhysicalIOConfiguration.DEFAULT);
+    this.blob = new Blob(OBJECT_KEY, metadata, blockManager, Telemetry.NOOP);
+
+    blockManager.makeRangeAvailable(0, OBJECT_SIZE, ReadMode.SYNC);
+    byte[] buffer = new byte[SLICE_SIZE];
+    for (long pos = 0; pos < OBJECT_SIZE; pos += SLICE_SIZE) {
+      blob.read(buffer, 0, SLICE_SIZE, pos);
+    }
+  }
+
+  /** Closes the blob */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.blob.close();
+  }
+
+  /**
+   * Reads from a random position in the thread's own slice
+   *
+   * @param slice the slice of the current thread
+   * @return the number of bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public int readDisjointRanges(Slice slice) throws IOException {
+    long pos = slice.start + ThreadLocalRandom.current().nextInt(SLICE_SIZE - readSize + 1);
+    if (readSize == 1) {
+      return blob.read(pos);
+    }
+    return blob.read(slice.buffer, 0, readSize, pos);
+  }
+
+  /** An {@link ObjectClient} serving ranges of a byte array */
+  private static class InMemoryObjectClient implements ObjectClient {
+    private final byte[] content;
+
+    InMemoryObjectClient(byte[] content) {
+      this.content = content;
+    }
+
+    @Override
+    public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+      return CompletableFuture.completedFuture(
+          ObjectMetadata.builder().contentLength(content.length).etag("etag").build());
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+      return getObject(getRequest, null);
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(
+        GetRequest getRequest, StreamContext streamContext) {
+      Range range = getRequest.getRange();
+      return CompletableFuture.completedFuture(
+          ObjectContent.builder()
+              .stream(
+                  new ByteArrayInputStream(
+                      content, (int) range.getStart(), (int) range.getLength()))
+              .build());
+    }
+
+    @Override
+    public void close() {}
+  }
+}
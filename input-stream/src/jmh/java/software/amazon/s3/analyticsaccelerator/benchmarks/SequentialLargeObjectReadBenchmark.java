@@ -0,0 +1,210 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.access.S3Object;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Blob;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.BlobStore;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.RequestThrottledException;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Benchmarks a sequential scan of the {@link S3Object#RANDOM_10GB} object against an in-process
+ * fake S3, sweeping the number of GET requests in flight per object. The fake charges a fixed
+ * latency per request and streams each body at a fixed bandwidth, so a scan is only as fast as the
+ * number of requests in flight allows. It throttles requests beyond a fixed number of open
+ * connections, so that the highest setting measures how well the scheduler backs off.
+ */
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SequentialLargeObjectReadBenchmark {
+  private static final S3Object OBJECT = S3Object.RANDOM_10GB;
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder().s3URI(S3URI.of("bucket", OBJECT.getName())).etag("etag").build();
+  private static final int READ_SIZE = 8 * 1024 * 1024;
+  private static final long REQUEST_LATENCY_MILLIS = 20;
+  private static final long BYTES_PER_SECOND_PER_CONNECTION = 256L * 1024 * 1024;
+  private static final int MAX_OPEN_CONNECTIONS = 32;
+
+  @Param({"1", "8", "64"})
+  public int requestConcurrencyPerObject;
+
+  private FakeS3ObjectClient objectClient;
+  private BlobStore blobStore;
+  private byte[] buffer;
+
+  /** Creates an empty blob store, so that every scan fetches the whole object */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    this.objectClient = new FakeS3ObjectClient(OBJECT.getSize());
+    this.blobStore =
+        new BlobStore(
+            objectClient,
+            Telemetry.NOOP,
+            PhysicalIOConfiguration.builder()
+                .requestConcurrencyPerObject(requestConcurrencyPerObject)
+                .build());
+    this.buffer = new byte[READ_SIZE];
+  }
+
+  /** Closes the blob store and the fake S3 */
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    this.blobStore.close();
+    this.objectClient.close();
+  }
+
+  /**
+   * Reads the whole object from start to end
+   *
+   * @return the number of bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public long readSequentially() throws IOException {
+    ObjectMetadata metadata =
+        ObjectMetadata.builder().contentLength(OBJECT.getSize()).etag(OBJECT_KEY.getEtag()).build();
+    Blob blob = blobStore.get(OBJECT_KEY, metadata, null);
+
+    long pos = 0;
+    while (pos < OBJECT.getSize()) {
+      int len = (int) Math.min(READ_SIZE, OBJECT.getSize() - pos);
+      pos += blob.read(buffer, 0, len, pos);
+    }
+    return pos;
+  }
+
+  /**
+   * An in-process S3 which answers every GET after a fixed latency, streams the body at a fixed
+   * bandwidth per connection, and throttles requests beyond a fixed number of open connections.
+   * The content of the object is not generated, as only the timing matters here.
+   */
+  private static class FakeS3ObjectClient implements ObjectClient {
+    private final long contentLength;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    FakeS3ObjectClient(long contentLength) {
+      this.contentLength = contentLength;
+    }
+
+    @Override
+    public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+      return CompletableFuture.completedFuture(
+          ObjectMetadata.builder().contentLength(contentLength).etag("etag").build());
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+      return getObject(getRequest, null);
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(
+        GetRequest getRequest, StreamContext streamContext) {
+      CompletableFuture<ObjectContent> response = new CompletableFuture<>();
+      scheduler.schedule(
+          () -> {
+            if (openConnections.incrementAndGet() > MAX_OPEN_CONNECTIONS) {
+              openConnections.decrementAndGet();
+              // Failures are surfaced the way the S3 SDK client surfaces them
+              response.completeExceptionally(
+                  new UncheckedIOException(
+                      new RequestThrottledException("Slow down " + getRequest.getS3Uri(), null)));
+            } else {
+              response.complete(
+                  ObjectContent.builder()
+                      .stream(new BandwidthLimitedStream(getRequest.getRange().getLength()))
+                      .build());
+            }
+          },
+          REQUEST_LATENCY_MILLIS,
+          TimeUnit.MILLISECONDS);
+      return response;
+    }
+
+    @Override
+    public void close() {
+      scheduler.shutdownNow();
+    }
+
+    /** A body of the given length, which can only be read at the bandwidth of one connection */
+    private class BandwidthLimitedStream extends InputStream {
+      private final long length;
+      private final long startNanos = System.nanoTime();
+      private final AtomicBoolean closed = new AtomicBoolean();
+      private long position;
+
+      BandwidthLimitedStream(long length) {
+        this.length = length;
+      }
+
+      @Override
+      public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (position >= length) {
+          return -1;
+        }
+        int n = (int) Math.min(len, length - position);
+        position += n;
+
+        long dueNanos =
+            startNanos + position * TimeUnit.SECONDS.toNanos(1) / BYTES_PER_SECOND_PER_CONNECTION;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+          LockSupport.parkNanos(waitNanos);
+        }
+        return n;
+      }
+
+      @Override
+      public void close() {
+        if (closed.compareAndSet(false, true)) {
+          openConnections.decrementAndGet();
+        }
+      }
+    }
+  }
+}
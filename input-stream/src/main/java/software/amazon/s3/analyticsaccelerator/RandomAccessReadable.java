@@ -17,6 +17,10 @@ package software.amazon.s3.analyticsaccelerator;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntFunction;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 
 /** An InputStream-like entity implementing blocking random-access reads. */
@@ -50,6 +54,28 @@ public interface RandomAccessReadable extends Closeable {
    */
   int read(byte[] buf, int off, int len, long pos) throws IOException;
 
+  /**
+   * Reads request data into the provided buffer. Up to {@code buf.remaining()} bytes are written
+   * starting at the buffer's current position, which is advanced by the number of bytes read.
+   *
+   * @param buf buffer to read data into, heap or direct
+   * @param pos the position to begin reading from
+   * @return the total number of bytes read into the buffer
+   * @throws IOException if an error occurs while reading the file
+   */
+  int read(ByteBuffer buf, long pos) throws IOException;
+
+  /**
+   * Reads a list of ranges asynchronously. The method returns once the reads have been issued;
+   * each range's {@link ObjectRange#getByteBuffer()} future completes once its data is available.
+   *
+   * @param objectRanges the ranges to read
+   * @param allocate function allocating a buffer of at least the given number of bytes
+   * @throws IOException if an error occurs while issuing the reads
+   */
+  void readVectored(List<ObjectRange> objectRanges, IntFunction<ByteBuffer> allocate)
+      throws IOException;
+
   /**
    * Reads the last n bytes from the stream into a byte buffer. Blocks until end of stream is
    * reached. Leaves the position of the stream unaltered.
@@ -15,12 +15,19 @@
  */
 package software.amazon.s3.analyticsaccelerator;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
 import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIO;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnPredicate;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 
@@ -43,6 +50,8 @@ public class S3SeekableInputStream extends SeekableInputStream {
   private static final String OPERATION_READ = "stream.read";
   private static final String FLAVOR_TAIL = "tail";
   private static final String FLAVOR_BYTE = "byte";
+  private static final String FLAVOR_BYTE_BUFFER = "bytebuffer";
+  private static final String FLAVOR_VECTORED = "vectored";
 
   private static final String OPERATION_STREAM_CLOSE = "seekablestream.close";
   private final long streamBirth = System.nanoTime();
@@ -157,6 +166,136 @@ public class S3SeekableInputStream extends SeekableInputStream {
         });
   }
 
+  /**
+   * Reads up to {@code buffer.remaining()} bytes from the current position of the stream into the
+   * buffer, advancing both the position of the stream and of the buffer by the number of bytes
+   * read. Data is copied straight from the buffers backing the underlying blocks, so no
+   * intermediate byte array is involved for direct buffers.
+   *
+   * @param buffer the buffer into which the data is read
+   * @return the total number of bytes read into the buffer, or <code>-1</code> if there is no more
+   *     data because the end of the stream has been reached.
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public int read(@NonNull ByteBuffer buffer) throws IOException {
+    throwIfClosed("cannot read from closed stream");
+
+    int length = buffer.remaining();
+    if (length == 0) {
+      return 0;
+    } else if (this.position >= getContentLength()) {
+      return EOF;
+    }
+
+    return this.telemetry.measureVerbose(
+        () ->
+            Operation.builder()
+                .name(OPERATION_READ)
+                .attribute(StreamAttributes.variant(FLAVOR_BYTE_BUFFER))
+                .attribute(StreamAttributes.uri(this.s3URI))
+                .attribute(StreamAttributes.etag(this.logicalIO.metadata().getEtag()))
+                .attribute(StreamAttributes.range(position, position + length - 1))
+                .build(),
+        () -> {
+          // Delegate to the LogicalIO and advance the position accordingly
+          int bytesRead = this.logicalIO.read(buffer, position);
+          return advancePosition(bytesRead);
+        });
+  }
+
+  /**
+   * Fills the buffer with bytes read from the given position of the stream, leaving the position of
+   * the stream unaltered. The position of the buffer is advanced by the number of bytes read.
+   *
+   * @param position the position to read from
+   * @param buffer the buffer into which the data is read
+   * @throws EOFException if the end of the stream is reached before the buffer is filled
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void readFully(long position, @NonNull ByteBuffer buffer) throws IOException {
+    throwIfClosed("cannot read from closed stream");
+    Preconditions.checkArgument(position >= 0, "Position is negative");
+
+    int length = buffer.remaining();
+    if (length == 0) {
+      return;
+    } else if (position + length > getContentLength()) {
+      throw new EOFException(
+          String.format(
+              "Cannot read %s bytes from position %s of a %s byte stream",
+              length, position, getContentLength()));
+    }
+
+    this.telemetry.measureVerbose(
+        () ->
+            Operation.builder()
+                .name(OPERATION_READ)
+                .attribute(StreamAttributes.variant(FLAVOR_BYTE_BUFFER))
+                .attribute(StreamAttributes.uri(this.s3URI))
+                .attribute(StreamAttributes.etag(this.logicalIO.metadata().getEtag()))
+                .attribute(StreamAttributes.range(position, position + length - 1))
+                .build(),
+        () -> {
+          long nextPosition = position;
+          while (buffer.hasRemaining()) {
+            int bytesRead = this.logicalIO.read(buffer, nextPosition);
+            if (bytesRead <= 0) {
+              throw new EOFException(
+                  "Reached the end of stream with " + buffer.remaining() + " bytes left");
+            }
+            nextPosition += bytesRead;
+          }
+        });
+  }
+
+  /**
+   * Reads a list of ranges asynchronously, leaving the position of the stream unaltered. Nearby
+   * ranges are coalesced into a single fetch, and all fetches are issued in parallel before this
+   * method returns. Each range's {@link ObjectRange#getByteBuffer()} future then completes with a
+   * buffer from {@code allocate} holding the range's data, positioned at its start. Ranges
+   * extending past the end of the stream complete exceptionally with an {@link EOFException}.
+   *
+   * @param objectRanges the ranges to read
+   * @param allocate function allocating a buffer of at least the given number of bytes, such as
+   *     {@link ByteBuffer#allocate(int)} or {@link ByteBuffer#allocateDirect(int)}
+   * @throws IOException if an I/O error occurs while issuing the reads
+   */
+  public void readVectored(
+      @NonNull List<ObjectRange> objectRanges, @NonNull IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    throwIfClosed("cannot read from closed stream");
+
+    this.telemetry.measureVerbose(
+        () ->
+            Operation.builder()
+                .name(OPERATION_READ)
+                .attribute(StreamAttributes.variant(FLAVOR_VECTORED))
+                .attribute(StreamAttributes.uri(this.s3URI))
+                .attribute(StreamAttributes.etag(this.logicalIO.metadata().getEtag()))
+                .build(),
+        () -> this.logicalIO.readVectored(objectRanges, allocate));
+  }
+
+  /**
+   * Hints that only the rows matching all of the given predicates will be read, so that only the
+   * parts of the object that may hold them are prefetched. For Parquet files with a page index,
+   * this prefetches just the pages whose min and max values may match, instead of whole column
+   * chunks. Returns without waiting for the data, and is ignored for other objects.
+   *
+   * @param predicates predicates that rows must all satisfy
+   * @param columns other columns that will be read for the matching rows
+   * @throws IOException if the stream is closed
+   */
+  public void prefetchMatchingPages(
+      @NonNull List<ColumnPredicate> predicates, @NonNull Collection<String> columns)
+      throws IOException {
+    throwIfClosed("cannot prefetch on closed stream");
+
+    this.logicalIO.prefetchMatchingPages(predicates, columns);
+  }
+
   /**
    * Sets the offset, measured from the beginning of this stream, at which the next read occurs. The
    * offset may be set beyond the end of the file. Setting the offset beyond the end of the file
@@ -16,6 +16,9 @@
 package software.amazon.s3.analyticsaccelerator;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
@@ -29,6 +32,7 @@ import software.amazon.s3.analyticsaccelerator.io.physical.data.MetadataStore;
 import software.amazon.s3.analyticsaccelerator.io.physical.impl.PhysicalIOImpl;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.retry.RetryPolicy;
 import software.amazon.s3.analyticsaccelerator.util.ObjectFormatSelector;
 import software.amazon.s3.analyticsaccelerator.util.OpenStreamInformation;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
@@ -63,6 +67,24 @@ public class S3SeekableInputStreamFactory implements AutoCloseable {
   public S3SeekableInputStreamFactory(
       @NonNull ObjectClient objectClient,
       @NonNull S3SeekableInputStreamConfiguration configuration) {
+    this(
+        objectClient,
+        configuration,
+        BlobStore.createRetryPolicy(configuration.getPhysicalIOConfiguration()));
+  }
+
+  /**
+   * Creates a new instance of {@link S3SeekableInputStreamFactory}, retrying failed reads as
+   * decided by the given policy. The policy is shared by all streams created by this factory.
+   *
+   * @param objectClient Object client
+   * @param configuration {@link S3SeekableInputStream} configuration
+   * @param retryPolicy the policy deciding whether and when failed reads are retried
+   */
+  public S3SeekableInputStreamFactory(
+      @NonNull ObjectClient objectClient,
+      @NonNull S3SeekableInputStreamConfiguration configuration,
+      @NonNull RetryPolicy retryPolicy) {
     this.configuration = configuration;
     this.telemetry = Telemetry.createTelemetry(configuration.getTelemetryConfiguration());
     this.parquetColumnPrefetchStore =
@@ -71,7 +93,8 @@ public class S3SeekableInputStreamFactory implements AutoCloseable {
         new MetadataStore(objectClient, telemetry, configuration.getPhysicalIOConfiguration());
     this.objectFormatSelector = new ObjectFormatSelector(configuration.getLogicalIOConfiguration());
     this.objectBlobStore =
-        new BlobStore(objectClient, telemetry, configuration.getPhysicalIOConfiguration());
+        new BlobStore(
+            objectClient, telemetry, configuration.getPhysicalIOConfiguration(), retryPolicy);
   }
 
   /**
@@ -113,36 +136,62 @@ public class S3SeekableInputStreamFactory implements AutoCloseable {
         s3URI, createLogicalIO(s3URI, openStreamInformation), telemetry);
   }
 
+  /**
+   * Fetches the metadata of objects that are about to be opened, so that creating their streams
+   * does not wait on a HEAD request per object. Requests are issued concurrently, with at most
+   * {@code metadatastore.prefetch.concurrency} of them in flight. Failures are not reported here,
+   * but by the streams created for the objects that failed. The metadata is held until a stream is
+   * created for the object, regardless of the capacity and TTL of the metadata store.
+   *
+   * @param s3URIs the S3 URIs of the objects
+   * @return a future completing once the metadata of every object has been fetched or has failed
+   */
+  public CompletableFuture<Void> prefetchMetadata(@NonNull Collection<S3URI> s3URIs) {
+    return objectMetadataStore.prefetch(s3URIs);
+  }
+
+  /**
+   * Stores metadata that is already known, for example from a listing or a table manifest, so that
+   * creating streams for these objects never issues a HEAD request. The metadata is held until a
+   * stream is created for the object, regardless of the capacity and TTL of the metadata store.
+   *
+   * @param objectMetadata the metadata of each object, by S3 URI
+   */
+  public void prefetchMetadata(@NonNull Map<S3URI, ObjectMetadata> objectMetadata) {
+    objectMetadata.forEach(objectMetadataStore::pinObjectMetadata);
+  }
+
   LogicalIO createLogicalIO(S3URI s3URI) throws IOException {
     return createLogicalIO(s3URI, OpenStreamInformation.DEFAULT);
   }
 
   LogicalIO createLogicalIO(S3URI s3URI, OpenStreamInformation openStreamInformation)
       throws IOException {
+    PhysicalIOImpl physicalIO;
+    try {
+      physicalIO =
+          new PhysicalIOImpl(
+              s3URI,
+              objectMetadataStore,
+              objectBlobStore,
+              telemetry,
+              openStreamInformation.getStreamContext());
+    } finally {
+      // The stream holds the metadata of the object now, so metadata seeded for it can age normally
+      objectMetadataStore.unpin(s3URI);
+    }
+
     switch (objectFormatSelector.getObjectFormat(s3URI, openStreamInformation)) {
       case PARQUET:
         return new ParquetLogicalIOImpl(
             s3URI,
-            new PhysicalIOImpl(
-                s3URI,
-                objectMetadataStore,
-                objectBlobStore,
-                telemetry,
-                openStreamInformation.getStreamContext()),
+            physicalIO,
             telemetry,
             configuration.getLogicalIOConfiguration(),
             parquetColumnPrefetchStore);
 
       default:
-        return new DefaultLogicalIOImpl(
-            s3URI,
-            new PhysicalIOImpl(
-                s3URI,
-                objectMetadataStore,
-                objectBlobStore,
-                telemetry,
-                openStreamInformation.getStreamContext()),
-            telemetry);
+        return new DefaultLogicalIOImpl(s3URI, physicalIO, telemetry);
     }
   }
 
@@ -15,8 +15,10 @@
  */
 package software.amazon.s3.analyticsaccelerator;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 
 /**
@@ -59,6 +61,69 @@ public abstract class SeekableInputStream extends InputStream {
    */
   public abstract int readTail(byte[] buf, int off, int n) throws IOException;
 
+  /**
+   * Reads up to {@code buf.remaining()} bytes from the current position of the stream into the
+   * buffer, advancing both the position of the stream and of the buffer by the number of bytes
+   * read. This mirrors Hadoop's {@code ByteBufferReadable}.
+   *
+   * <p>The default implementation goes through {@link #read(byte[], int, int)}; implementations
+   * that can copy straight into the buffer should override it.
+   *
+   * @param buf buffer to read data into, heap or direct
+   * @return the total number of bytes read into the buffer, or <code>-1</code> if there is no more
+   *     data because the end of the stream has been reached
+   * @throws IOException if an error occurs while reading the file
+   */
+  public int read(ByteBuffer buf) throws IOException {
+    Preconditions.checkNotNull(buf, "Null destination buffer");
+
+    if (buf.hasArray()) {
+      int bytesRead = read(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+      if (bytesRead > 0) {
+        buf.position(buf.position() + bytesRead);
+      }
+      return bytesRead;
+    }
+
+    byte[] transfer = new byte[buf.remaining()];
+    int bytesRead = read(transfer, 0, transfer.length);
+    if (bytesRead > 0) {
+      buf.put(transfer, 0, bytesRead);
+    }
+    return bytesRead;
+  }
+
+  /**
+   * Fills the buffer with bytes read from the given position of the stream, leaving the position of
+   * the stream unaltered. The position of the buffer is advanced by the number of bytes read. This
+   * mirrors Hadoop's {@code ByteBufferPositionedReadable}.
+   *
+   * <p>The default implementation seeks, reads through {@link #read(ByteBuffer)} and seeks back;
+   * implementations that support positioned reads should override it.
+   *
+   * @param position the position to read from
+   * @param buf buffer to read data into, heap or direct
+   * @throws EOFException if the end of the stream is reached before the buffer is filled
+   * @throws IOException if an error occurs while reading the file
+   */
+  public void readFully(long position, ByteBuffer buf) throws IOException {
+    Preconditions.checkNotNull(buf, "Null destination buffer");
+    Preconditions.checkArgument(position >= 0, "Position is negative");
+
+    long previousPosition = getPos();
+    try {
+      seek(position);
+      while (buf.hasRemaining()) {
+        if (read(buf) < 0) {
+          throw new EOFException(
+              "Reached the end of stream with " + buf.remaining() + " bytes left");
+        }
+      }
+    } finally {
+      seek(previousPosition);
+    }
+  }
+
   /**
    * Validates the arguments for a read operation. This method is available to use in all subclasses
    * to ensure consistency.
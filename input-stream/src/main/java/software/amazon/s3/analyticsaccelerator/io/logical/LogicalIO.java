@@ -15,7 +15,10 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.logical;
 
+import java.util.Collection;
+import java.util.List;
 import software.amazon.s3.analyticsaccelerator.RandomAccessReadable;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnPredicate;
 
 /**
  * Interface responsible for implementing "logical" reads. Logical reads are not concerned with the
@@ -26,7 +29,16 @@ import software.amazon.s3.analyticsaccelerator.RandomAccessReadable;
  * name, metadata information) the logical IO layer can formulate "what" data should be read. The
  * logical layer should be able to create an IOPlan based on this and use the physical layer to
  * execute this asynchronously.
- *
- * <p>For now, this interface is a marker interface but should become more soon.
  */
-public interface LogicalIO extends RandomAccessReadable {}
+public interface LogicalIO extends RandomAccessReadable {
+  /**
+   * Hints that only the rows matching all of the given predicates will be read, so that only the
+   * parts of the object that may hold them are prefetched. Returns without waiting for the data.
+   * Implementations that cannot tell which parts of the object hold which rows ignore the hint.
+   *
+   * @param predicates predicates that rows must all satisfy
+   * @param columns other columns that will be read for the matching rows
+   */
+  default void prefetchMatchingPages(
+      List<ColumnPredicate> predicates, Collection<String> columns) {}
+}
@@ -43,6 +43,10 @@ public class LogicalIOConfiguration {
   private static final int DEFAULT_MAX_COLUMN_ACCESS_STORE_SIZE = 15;
   private static final String DEFAULT_PARQUET_FORMAT_SELECTOR_REGEX = "^.*.(parquet|par)$";
   private static final PrefetchMode DEFAULT_PREFETCHING_MODE = PrefetchMode.ROW_GROUP;
+  private static final String DEFAULT_PARQUET_METADATA_DISK_CACHE_DIRECTORY = null;
+  private static final long DEFAULT_PARQUET_METADATA_DISK_CACHE_CAPACITY = 256 * ONE_MB;
+  private static final int DEFAULT_ROW_GROUP_PREFETCH_MAX_DEPTH = 0;
+  private static final long DEFAULT_ROW_GROUP_PREFETCH_MAX_BYTES = 128 * ONE_MB;
 
   @Builder.Default private boolean prefetchFooterEnabled = DEFAULT_PREFETCH_FOOTER_ENABLED;
 
@@ -106,6 +110,26 @@ public class LogicalIOConfiguration {
 
   private static final String PARQUET_FORMAT_SELECTOR_REGEX = "parquet.format.selector.regex";
 
+  @Builder.Default
+  private String parquetMetadataDiskCacheDirectory = DEFAULT_PARQUET_METADATA_DISK_CACHE_DIRECTORY;
+
+  private static final String PARQUET_METADATA_DISK_CACHE_DIRECTORY_KEY =
+      "parquet.metadata.disk.cache.directory";
+
+  @Builder.Default
+  private long parquetMetadataDiskCacheCapacity = DEFAULT_PARQUET_METADATA_DISK_CACHE_CAPACITY;
+
+  private static final String PARQUET_METADATA_DISK_CACHE_CAPACITY_KEY =
+      "parquet.metadata.disk.cache.capacity";
+
+  @Builder.Default private int rowGroupPrefetchMaxDepth = DEFAULT_ROW_GROUP_PREFETCH_MAX_DEPTH;
+
+  private static final String ROW_GROUP_PREFETCH_MAX_DEPTH_KEY = "row.group.prefetch.max.depth";
+
+  @Builder.Default private long rowGroupPrefetchMaxBytes = DEFAULT_ROW_GROUP_PREFETCH_MAX_BYTES;
+
+  private static final String ROW_GROUP_PREFETCH_MAX_BYTES_KEY = "row.group.prefetch.max.bytes";
+
   public static final LogicalIOConfiguration DEFAULT = LogicalIOConfiguration.builder().build();
 
   /**
@@ -153,6 +177,20 @@ public class LogicalIOConfiguration {
         .prefetchingMode(
             PrefetchMode.fromString(
                 configuration.getString(PREFETCHING_MODE_KEY, DEFAULT_PREFETCHING_MODE.toString())))
+        .parquetMetadataDiskCacheDirectory(
+            configuration.getString(
+                PARQUET_METADATA_DISK_CACHE_DIRECTORY_KEY,
+                DEFAULT_PARQUET_METADATA_DISK_CACHE_DIRECTORY))
+        .parquetMetadataDiskCacheCapacity(
+            configuration.getLong(
+                PARQUET_METADATA_DISK_CACHE_CAPACITY_KEY,
+                DEFAULT_PARQUET_METADATA_DISK_CACHE_CAPACITY))
+        .rowGroupPrefetchMaxDepth(
+            configuration.getInt(
+                ROW_GROUP_PREFETCH_MAX_DEPTH_KEY, DEFAULT_ROW_GROUP_PREFETCH_MAX_DEPTH))
+        .rowGroupPrefetchMaxBytes(
+            configuration.getLong(
+                ROW_GROUP_PREFETCH_MAX_BYTES_KEY, DEFAULT_ROW_GROUP_PREFETCH_MAX_BYTES))
         .build();
   }
 
@@ -174,6 +212,12 @@ public class LogicalIOConfiguration {
     builder.append("\tmaxColumnAccessCountStoreSize: " + maxColumnAccessCountStoreSize + "\n");
     builder.append("\tparquetFormatSelectorRegex: " + parquetFormatSelectorRegex + "\n");
     builder.append("\tprefetchingMode: " + prefetchingMode + "\n");
+    builder.append(
+        "\tparquetMetadataDiskCacheDirectory: " + parquetMetadataDiskCacheDirectory + "\n");
+    builder.append(
+        "\tparquetMetadataDiskCacheCapacity: " + parquetMetadataDiskCacheCapacity + "\n");
+    builder.append("\trowGroupPrefetchMaxDepth: " + rowGroupPrefetchMaxDepth + "\n");
+    builder.append("\trowGroupPrefetchMaxBytes: " + rowGroupPrefetchMaxBytes + "\n");
 
     return builder.toString();
   }
@@ -16,7 +16,11 @@
 package software.amazon.s3.analyticsaccelerator.io.logical.impl;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntFunction;
 import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.TelemetryLevel;
@@ -93,6 +97,46 @@ public class DefaultLogicalIOImpl implements LogicalIO {
         bytesRead -> bytesRead > 1);
   }
 
+  /**
+   * Reads data into the provided buffer, starting at its current position
+   *
+   * @param buf buffer to read data into
+   * @param position the position to begin reading from
+   * @return the total number of bytes read into the buffer
+   * @throws IOException IO error, if incurred.
+   */
+  @Override
+  public int read(@NonNull ByteBuffer buf, long position) throws IOException {
+    int len = buf.remaining();
+    // Perform read
+    return telemetry.measureConditionally(
+        TelemetryLevel.VERBOSE,
+        () ->
+            Operation.builder()
+                .name(OPERATION_LOGICAL_READ)
+                .attribute(StreamAttributes.logicalReadPosition(position))
+                .attribute(StreamAttributes.logicalReadLength(len))
+                .attribute(StreamAttributes.uri(s3URI))
+                .attribute(
+                    StreamAttributes.logicalIORelativeTimestamp(System.nanoTime() - birthTimestamp))
+                .build(),
+        () -> physicalIO.read(buf, position),
+        bytesRead -> bytesRead > 1);
+  }
+
+  /**
+   * Reads a list of ranges asynchronously.
+   *
+   * @param objectRanges the ranges to read
+   * @param allocate function allocating a buffer of at least the given number of bytes
+   * @throws IOException IO error, if incurred.
+   */
+  @Override
+  public void readVectored(List<ObjectRange> objectRanges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    physicalIO.readVectored(objectRanges, allocate);
+  }
+
   @Override
   public int readTail(byte[] buf, int off, int len) throws IOException {
     long contentLength = metadata().getContentLength();
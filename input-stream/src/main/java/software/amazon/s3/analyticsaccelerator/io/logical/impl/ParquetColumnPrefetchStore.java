@@ -16,6 +16,8 @@
 package software.amazon.s3.analyticsaccelerator.io.logical.impl;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -23,12 +25,18 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMappers;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMetadata;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetMetadataDiskCache;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetMetadataParsingTask;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetPredictivePrefetchingTask;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.PrefetchMode;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
@@ -39,11 +47,16 @@ import software.amazon.s3.analyticsaccelerator.util.S3URI;
  * streams as calling applications may open and close a stream to a file several times while
  * reading. For Spark, this was observed to happen as a stream to a Parquet file is first opened to
  * read the footer, and then a separate stream is opened to read the data.
+ *
+ * <p>If a parquet metadata disk cache directory is configured, column mappers are also kept in a
+ * {@link ParquetMetadataDiskCache}, so that other processes on the same host, and later streams
+ * whose mappers were evicted from memory, do not need to read and parse the footer again.
  */
 @SuppressFBWarnings(
     value = "SE_BAD_FIELD",
     justification = "The closure classes trigger this. We never use serialization on this class")
 public class ParquetColumnPrefetchStore {
+  private static final Logger LOG = LoggerFactory.getLogger(ParquetColumnPrefetchStore.class);
 
   /**
    * * This is a mapping of S3 URI's of Parquet files to their {@link ColumnMappers}. When a stream
@@ -120,6 +133,9 @@ public class ParquetColumnPrefetchStore {
    */
   private final Map<S3URI, List<Integer>> dictionaryRowGroupsPrefetched;
 
+  /** Second tier of the column mappers store, or null if no directory is configured. */
+  private final ParquetMetadataDiskCache diskCache;
+
   private final LogicalIOConfiguration configuration;
 
   /**
@@ -159,7 +175,8 @@ public class ParquetColumnPrefetchStore {
           protected boolean removeEldestEntry(final Map.Entry<S3URI, List<Integer>> eldest) {
             return this.size() > configuration.getParquetMetadataStoreSize();
           }
-        });
+        },
+        createDiskCache(configuration));
   }
 
   /**
@@ -182,7 +199,40 @@ public class ParquetColumnPrefetchStore {
       Map<Integer, LinkedList<String>> recentlyReadDictionariesPerSchema,
       Map<S3URI, List<Integer>> columnRowGroupsPrefetched,
       Map<S3URI, List<Integer>> dictionaryRowGroupsPrefetched) {
+    this(
+        configuration,
+        columnMappersStore,
+        recentlyReadColumnsPerSchema,
+        recentlyReadDictionariesPerSchema,
+        columnRowGroupsPrefetched,
+        dictionaryRowGroupsPrefetched,
+        null);
+  }
+
+  /**
+   * Creates a new instance of ParquetMetadataStore. This constructor is used for dependency
+   * injection.
+   *
+   * @param configuration LogicalIO configuration
+   * @param columnMappersStore Store of column mappings
+   * @param recentlyReadColumnsPerSchema List of recent read columns for each schema
+   * @param recentlyReadDictionariesPerSchema List of recent read dictionaries for each schema
+   * @param columnRowGroupsPrefetched Map of Parquet file URI to row groups that have been
+   *     prefetched for it
+   * @param dictionaryRowGroupsPrefetched Map of Parquet file URI to row groups that have been
+   *     prefetched for it
+   * @param diskCache Second tier store of column mappings, or null to keep them in memory only
+   */
+  ParquetColumnPrefetchStore(
+      LogicalIOConfiguration configuration,
+      Map<S3URI, ColumnMappers> columnMappersStore,
+      Map<Integer, LinkedList<String>> recentlyReadColumnsPerSchema,
+      Map<Integer, LinkedList<String>> recentlyReadDictionariesPerSchema,
+      Map<S3URI, List<Integer>> columnRowGroupsPrefetched,
+      Map<S3URI, List<Integer>> dictionaryRowGroupsPrefetched,
+      ParquetMetadataDiskCache diskCache) {
     this.configuration = configuration;
+    this.diskCache = diskCache;
     this.columnMappersStore = columnMappersStore;
     this.recentlyReadColumnsPerSchema = recentlyReadColumnsPerSchema;
     this.columnRowGroupsPrefetched = columnRowGroupsPrefetched;
@@ -210,6 +260,37 @@ public class ParquetColumnPrefetchStore {
     columnMappersStore.put(s3URI, columnMappers);
   }
 
+  /**
+   * Loads column mappers for a version of an object from the disk cache, if one is configured, and
+   * keeps them in memory for later lookups by URI.
+   *
+   * @param objectKey the URI and ETag of the object
+   * @return the column mappings, or empty if they are not on disk
+   */
+  public Optional<ColumnMappers> loadColumnMappers(@NonNull ObjectKey objectKey) {
+    if (diskCache == null) {
+      return Optional.empty();
+    }
+
+    Optional<ColumnMappers> columnMappers = diskCache.get(objectKey);
+    columnMappers.ifPresent(mappers -> putColumnMappers(objectKey.getS3URI(), mappers));
+    return columnMappers;
+  }
+
+  /**
+   * Writes column mappers for a version of an object to the disk cache, if one is configured.
+   * Mappers without any columns, such as those of an unreadable footer, are not persisted.
+   *
+   * @param objectKey the URI and ETag of the object
+   * @param columnMappers Parquet metadata column mappings
+   */
+  public void persistColumnMappers(
+      @NonNull ObjectKey objectKey, @NonNull ColumnMappers columnMappers) {
+    if (diskCache != null && !columnMappers.getOffsetIndexToColumnMap().isEmpty()) {
+      diskCache.put(objectKey, columnMappers);
+    }
+  }
+
   /**
    * Adds a column to the list of recent columns for a particular schema. This is a fixed sized
    * list, whose size is defined by maxColumnAccessCountStoreSize in {@link LogicalIOConfiguration}.
@@ -381,4 +462,19 @@ public class ParquetColumnPrefetchStore {
     rowGroupsPrefetchedForKey.add(rowGroupIndex);
     rowGroupsPrefetched.put(s3URI, rowGroupsPrefetchedForKey);
   }
+
+  private static ParquetMetadataDiskCache createDiskCache(LogicalIOConfiguration configuration) {
+    String directory = configuration.getParquetMetadataDiskCacheDirectory();
+    if (directory == null || directory.isEmpty()) {
+      return null;
+    }
+
+    try {
+      return new ParquetMetadataDiskCache(
+          Paths.get(directory), configuration.getParquetMetadataDiskCacheCapacity());
+    } catch (IOException e) {
+      LOG.warn("Unable to use {} for the parquet metadata disk cache", directory, e);
+      return null;
+    }
+  }
 }
@@ -16,9 +16,15 @@
 package software.amazon.s3.analyticsaccelerator.io.logical.impl;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
 import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnPredicate;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
@@ -72,4 +78,54 @@ public class ParquetLogicalIOImpl extends DefaultLogicalIOImpl {
 
     return super.read(buf, off, len, position);
   }
+
+  /**
+   * Reads data into the provided buffer, starting at its current position
+   *
+   * @param buf buffer to read data into
+   * @param position the position to begin reading from
+   * @return the total number of bytes read into the buffer
+   * @throws IOException IO error, if incurred.
+   */
+  @Override
+  public int read(@NonNull ByteBuffer buf, long position) throws IOException {
+    // Perform async prefetching before doing the blocking read
+    this.parquetPrefetcher.prefetchRemainingColumnChunk(position, buf.remaining());
+    this.parquetPrefetcher.addToRecentColumnList(position, buf.remaining());
+
+    return super.read(buf, position);
+  }
+
+  /**
+   * Reads a list of ranges asynchronously. Every range is recorded as a column access, so that
+   * vectored reads feed predictive prefetching just like single reads do.
+   *
+   * @param objectRanges the ranges to read
+   * @param allocate function allocating a buffer of at least the given number of bytes
+   * @throws IOException IO error, if incurred.
+   */
+  @Override
+  public void readVectored(
+      @NonNull List<ObjectRange> objectRanges, @NonNull IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    for (ObjectRange objectRange : objectRanges) {
+      this.parquetPrefetcher.addToRecentColumnList(
+          objectRange.getOffset(), objectRange.getLength());
+    }
+
+    super.readVectored(objectRanges, allocate);
+  }
+
+  /**
+   * Prefetches only the pages that may hold rows matching all of the given predicates, using the
+   * page index of the file.
+   *
+   * @param predicates predicates that rows must all satisfy
+   * @param columns other columns that will be read for the matching rows
+   */
+  @Override
+  public void prefetchMatchingPages(
+      @NonNull List<ColumnPredicate> predicates, @NonNull Collection<String> columns) {
+    this.parquetPrefetcher.prefetchMatchingPages(predicates, columns);
+  }
 }
@@ -15,8 +15,12 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.logical.impl;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
@@ -29,6 +33,7 @@ import software.amazon.s3.analyticsaccelerator.io.logical.parquet.*;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanExecution;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanState;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.PrefetchMode;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
@@ -54,6 +59,11 @@ public class ParquetPrefetcher {
   @NonNull private final ParquetReadTailTask parquetReadTailTask;
   @NonNull private final ParquetPrefetchRemainingColumnTask parquetPrefetchRemainingColumnTask;
   @NonNull private final ParquetPredictivePrefetchingTask parquetPredictivePrefetchingTask;
+  @NonNull private final ParquetPredicatePrefetchingTask parquetPredicatePrefetchingTask;
+
+  // Footer parse started when the stream was opened, which later prefetches wait for
+  private final AtomicReference<CompletableFuture<ColumnMappers>> columnMappersInFlight =
+      new AtomicReference<>();
 
   private static final Logger LOG = LoggerFactory.getLogger(ParquetPrefetcher.class);
 
@@ -61,6 +71,8 @@ public class ParquetPrefetcher {
       "parquet.prefetcher.prefetch.column.chunk.async";
   private static final String OPERATION_PARQUET_PREFETCH_FOOTER_AND_METADATA =
       "parquet.prefetcher.prefetch.footer.and.metadata.async";
+  private static final String OPERATION_PARQUET_PREFETCH_MATCHING_PAGES =
+      "parquet.prefetcher.prefetch.matching.pages.async";
 
   /**
    * Constructs a ParquetPrefetcher.
@@ -89,7 +101,8 @@ public class ParquetPrefetcher {
         new ParquetPrefetchRemainingColumnTask(
             s3Uri, telemetry, physicalIO, parquetColumnPrefetchStore),
         new ParquetPredictivePrefetchingTask(
-            s3Uri, telemetry, logicalIOConfiguration, physicalIO, parquetColumnPrefetchStore));
+            s3Uri, telemetry, logicalIOConfiguration, physicalIO, parquetColumnPrefetchStore),
+        new ParquetPredicatePrefetchingTask(s3Uri, telemetry, physicalIO));
   }
 
   /**
@@ -160,11 +173,12 @@ public class ParquetPrefetcher {
 
     if (shouldPrefetch()) {
       // TODO: https://github.com/awslabs/analytics-accelerator-s3/issues/88
+      CompletableFuture<ColumnMappers> columnMappersFuture =
+          CompletableFuture.supplyAsync(this::loadOrBuildColumnMappers);
+      columnMappersInFlight.set(columnMappersFuture);
       CompletableFuture<ColumnMappers> columnMappersCompletableFuture =
-          CompletableFuture.supplyAsync(parquetReadTailTask::readFileTail)
-              .thenApply(parquetMetadataParsingTask::storeColumnMappers)
-              .exceptionally(
-                  (e) -> new ColumnMappers(Collections.emptyMap(), Collections.emptyMap()));
+          columnMappersFuture.exceptionally(
+              (e) -> new ColumnMappers(Collections.emptyMap(), Collections.emptyMap()));
 
       return prefetchPredictedColumns(columnMappersCompletableFuture);
     }
@@ -173,6 +187,78 @@ public class ParquetPrefetcher {
         IOPlanExecution.builder().state(IOPlanState.SKIPPED).build());
   }
 
+  /**
+   * Returns the column mappers of the object from the disk cache if they are there, otherwise reads
+   * and parses the footer, and persists the result for later streams.
+   *
+   * @return the column mappers of the object
+   */
+  private ColumnMappers loadOrBuildColumnMappers() {
+    ObjectKey objectKey = parquetReadTailTask.getObjectKey();
+    Optional<ColumnMappers> cachedColumnMappers =
+        parquetColumnPrefetchStore.loadColumnMappers(objectKey);
+    if (cachedColumnMappers.isPresent()) {
+      return cachedColumnMappers.get();
+    }
+
+    ColumnMappers columnMappers =
+        parquetMetadataParsingTask.storeColumnMappers(parquetReadTailTask.readFileTail());
+    parquetColumnPrefetchStore.persistColumnMappers(objectKey, columnMappers);
+    return columnMappers;
+  }
+
+  /**
+   * Prefetches only the pages that may hold rows matching all of the given predicates, for the
+   * columns of the predicates and the other columns given. If the footer is still being parsed,
+   * that parse is waited for, otherwise the footer is read and parsed first if that has not
+   * happened yet.
+   *
+   * @param predicates predicates that rows must all satisfy
+   * @param columns other columns to prefetch the matching rows of
+   * @return the IOPlanExecution object of the read that was pushed down to the PhysicalIO as a
+   *     result of this call
+   */
+  public CompletableFuture<IOPlanExecution> prefetchMatchingPages(
+      @NonNull List<ColumnPredicate> predicates, @NonNull Collection<String> columns) {
+    return telemetry.measureStandard(
+        () ->
+            Operation.builder()
+                .name(OPERATION_PARQUET_PREFETCH_MATCHING_PAGES)
+                .attribute(StreamAttributes.uri(this.s3URI))
+                .build(),
+        awaitColumnMappersInFlight()
+            .thenApplyAsync(
+                (ColumnMappers inFlight) ->
+                    parquetPredicatePrefetchingTask.prefetchMatchingPages(
+                        inFlight != null ? inFlight : getOrLoadColumnMappers(),
+                        predicates,
+                        columns))
+            .exceptionally(
+                (e) -> {
+                  LOG.debug("Unable to prefetch matching pages for {}.", s3URI.getKey(), e);
+                  return IOPlanExecution.builder().state(IOPlanState.SKIPPED).build();
+                }));
+  }
+
+  /**
+   * Returns the footer parse started when the stream was opened, completing with null if there is
+   * none or it failed, in which case the caller builds the column mappers itself.
+   *
+   * @return the column mappers being built, or null
+   */
+  private CompletableFuture<ColumnMappers> awaitColumnMappersInFlight() {
+    CompletableFuture<ColumnMappers> inFlight = columnMappersInFlight.get();
+    if (inFlight == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return inFlight.exceptionally((e) -> null);
+  }
+
+  private ColumnMappers getOrLoadColumnMappers() {
+    ColumnMappers columnMappers = parquetColumnPrefetchStore.getColumnMappers(s3URI);
+    return columnMappers != null ? columnMappers : loadOrBuildColumnMappers();
+  }
+
   private CompletableFuture<IOPlanExecution> prefetchPredictedColumns(
       CompletableFuture<ColumnMappers> columnMappersCompletableFuture) {
 
@@ -15,13 +15,95 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
 
-/** Mappings of parquet column file offset index to column name and vice versa. */
+/**
+ * Mappings of parquet column file offset index to column name and vice versa.
+ *
+ * <p>Looking up column chunks by position goes through a sorted array of their offsets rather than
+ * the map, so that it is a binary search without boxing, even for footers with many thousands of
+ * column chunks.
+ */
 @Value
 public class ColumnMappers {
   Map<Long, ColumnMetadata> offsetIndexToColumnMap;
   Map<String, List<ColumnMetadata>> columnNameToColumnMap;
+
+  // Keys of offsetIndexToColumnMap in ascending order, and the column chunks they map to
+  @Getter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  long[] sortedOffsets;
+
+  @Getter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  ColumnMetadata[] sortedColumns;
+
+  /**
+   * Creates a new instance of {@link ColumnMappers}.
+   *
+   * @param offsetIndexToColumnMap column chunks by the offset their reads start at
+   * @param columnNameToColumnMap column chunks by column name, in row group order
+   */
+  public ColumnMappers(
+      Map<Long, ColumnMetadata> offsetIndexToColumnMap,
+      Map<String, List<ColumnMetadata>> columnNameToColumnMap) {
+    this.offsetIndexToColumnMap = offsetIndexToColumnMap;
+    this.columnNameToColumnMap = columnNameToColumnMap;
+
+    List<Map.Entry<Long, ColumnMetadata>> entries =
+        new ArrayList<>(offsetIndexToColumnMap.entrySet());
+    entries.sort(Map.Entry.comparingByKey());
+    this.sortedOffsets = new long[entries.size()];
+    this.sortedColumns = new ColumnMetadata[entries.size()];
+    for (int i = 0; i < entries.size(); i++) {
+      sortedOffsets[i] = entries.get(i).getKey();
+      sortedColumns[i] = entries.get(i).getValue();
+    }
+  }
+
+  /**
+   * Returns the column chunk whose reads start at the given offset.
+   *
+   * @param offset the offset in the file
+   * @return the column chunk, or null if no column chunk starts at the offset
+   */
+  public ColumnMetadata getColumnStartingAt(long offset) {
+    int index = Arrays.binarySearch(sortedOffsets, offset);
+    return index >= 0 ? sortedColumns[index] : null;
+  }
+
+  /**
+   * Returns the column chunk that contains the given position, past its first byte. Positions at
+   * the start of a column chunk are looked up with {@link #getColumnStartingAt(long)} instead.
+   *
+   * @param position the position in the file
+   * @return the column chunk, or null if the position is not strictly within any column chunk
+   */
+  public ColumnMetadata getColumnContaining(long position) {
+    int index = Arrays.binarySearch(sortedOffsets, position);
+    if (index >= 0) {
+      return null;
+    }
+
+    // The last column chunk starting before the position
+    int candidate = -index - 2;
+    if (candidate < 0) {
+      return null;
+    }
+    if (candidate < sortedOffsets.length - 1) {
+      return sortedColumns[candidate];
+    }
+    ColumnMetadata lastColumn = sortedColumns[candidate];
+    return position < sortedOffsets[candidate] + lastColumn.getCompressedSize() ? lastColumn : null;
+  }
 }
@@ -16,6 +16,7 @@
 package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
 
 import lombok.Data;
+import org.apache.parquet.format.Type;
 
 /** Container for storing necessary parquet column information. */
 @Data
@@ -27,4 +28,73 @@ public class ColumnMetadata {
   private final long startPos;
   private final long compressedSize;
   private final int schemaHash;
+  // Null if not known
+  private final Type physicalType;
+  // Null if the column chunk has no page index
+  private final PageIndexLocation pageIndexLocation;
+
+  /**
+   * Creates a new instance of {@link ColumnMetadata} for a column chunk without a page index.
+   *
+   * @param rowGroupIndex index of the row group the column chunk belongs to
+   * @param columnName full path of the column
+   * @param dataPageOffset offset of the first data page
+   * @param dictionaryOffset offset of the dictionary page, or 0 if there is none
+   * @param startPos offset of the first byte of the column chunk
+   * @param compressedSize compressed size of the column chunk
+   * @param schemaHash hash of the column names of the file
+   */
+  public ColumnMetadata(
+      int rowGroupIndex,
+      String columnName,
+      long dataPageOffset,
+      long dictionaryOffset,
+      long startPos,
+      long compressedSize,
+      int schemaHash) {
+    this(
+        rowGroupIndex,
+        columnName,
+        dataPageOffset,
+        dictionaryOffset,
+        startPos,
+        compressedSize,
+        schemaHash,
+        null,
+        null);
+  }
+
+  /**
+   * Creates a new instance of {@link ColumnMetadata}.
+   *
+   * @param rowGroupIndex index of the row group the column chunk belongs to
+   * @param columnName full path of the column
+   * @param dataPageOffset offset of the first data page
+   * @param dictionaryOffset offset of the dictionary page, or 0 if there is none
+   * @param startPos offset of the first byte of the column chunk
+   * @param compressedSize compressed size of the column chunk
+   * @param schemaHash hash of the column names of the file
+   * @param physicalType physical type of the column, or null if not known
+   * @param pageIndexLocation location of the page index, or null if there is none
+   */
+  public ColumnMetadata(
+      int rowGroupIndex,
+      String columnName,
+      long dataPageOffset,
+      long dictionaryOffset,
+      long startPos,
+      long compressedSize,
+      int schemaHash,
+      Type physicalType,
+      PageIndexLocation pageIndexLocation) {
+    this.rowGroupIndex = rowGroupIndex;
+    this.columnName = columnName;
+    this.dataPageOffset = dataPageOffset;
+    this.dictionaryOffset = dictionaryOffset;
+    this.startPos = startPos;
+    this.compressedSize = compressedSize;
+    this.schemaHash = schemaHash;
+    this.physicalType = physicalType;
+    this.pageIndexLocation = pageIndexLocation;
+  }
 }
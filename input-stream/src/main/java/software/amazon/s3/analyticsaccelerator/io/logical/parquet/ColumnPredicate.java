@@ -0,0 +1,182 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.apache.parquet.format.Type;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+
+/**
+ * A range predicate on a column, with inclusive bounds, used to skip Parquet pages whose statistics
+ * show that none of their values can match.
+ *
+ * <p>Integer bounds apply to INT32 and INT64 columns, floating point bounds to FLOAT and DOUBLE
+ * columns, and string bounds to BYTE_ARRAY and FIXED_LEN_BYTE_ARRAY columns, which are compared as
+ * unsigned bytes. Any other page, as well as a page without statistics, is assumed to match. A page
+ * holding only nulls never matches.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ColumnPredicate {
+  @Getter @NonNull private final String columnName;
+  private final BoundType boundType;
+  private final long minLong;
+  private final long maxLong;
+  private final double minDouble;
+  private final double maxDouble;
+  private final byte[] minBytes;
+  private final byte[] maxBytes;
+
+  private enum BoundType {
+    INTEGER,
+    FLOATING_POINT,
+    BINARY
+  }
+
+  /**
+   * Creates a predicate matching values of an integer column between two bounds.
+   *
+   * @param columnName full path of the column
+   * @param min the smallest matching value
+   * @param max the largest matching value
+   * @return the predicate
+   */
+  public static ColumnPredicate between(@NonNull String columnName, long min, long max) {
+    Preconditions.checkArgument(min <= max, "`min` must not be greater than `max`");
+    return new ColumnPredicate(columnName, BoundType.INTEGER, min, max, 0, 0, null, null);
+  }
+
+  /**
+   * Creates a predicate matching values of a floating point column between two bounds.
+   *
+   * @param columnName full path of the column
+   * @param min the smallest matching value
+   * @param max the largest matching value
+   * @return the predicate
+   */
+  public static ColumnPredicate between(@NonNull String columnName, double min, double max) {
+    Preconditions.checkArgument(min <= max, "`min` must not be greater than `max`");
+    return new ColumnPredicate(columnName, BoundType.FLOATING_POINT, 0, 0, min, max, null, null);
+  }
+
+  /**
+   * Creates a predicate matching values of a string column between two bounds.
+   *
+   * @param columnName full path of the column
+   * @param min the smallest matching value
+   * @param max the largest matching value
+   * @return the predicate
+   */
+  public static ColumnPredicate between(
+      @NonNull String columnName, @NonNull String min, @NonNull String max) {
+    byte[] minBytes = min.getBytes(StandardCharsets.UTF_8);
+    byte[] maxBytes = max.getBytes(StandardCharsets.UTF_8);
+    Preconditions.checkArgument(
+        compareUnsigned(ByteBuffer.wrap(minBytes), maxBytes) <= 0,
+        "`min` must not be greater than `max`");
+    return new ColumnPredicate(columnName, BoundType.BINARY, 0, 0, 0, 0, minBytes, maxBytes);
+  }
+
+  /**
+   * Returns whether a page may hold values matching this predicate.
+   *
+   * @param physicalType physical type of the column, or null if not known
+   * @param page the page
+   * @return false if the statistics of the page show that no value matches
+   */
+  public boolean mayMatch(Type physicalType, @NonNull PageMetadata page) {
+    if (page.isNullPage()) {
+      return false;
+    }
+    if (physicalType == null || page.getMinValue() == null || page.getMaxValue() == null) {
+      return true;
+    }
+
+    ByteBuffer pageMin = page.getMinValue().duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer pageMax = page.getMaxValue().duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    switch (physicalType) {
+      case INT32:
+        return boundType != BoundType.INTEGER
+            || !hasBytes(pageMin, pageMax, Integer.BYTES)
+            || overlaps(pageMin.getInt(pageMin.position()), pageMax.getInt(pageMax.position()));
+      case INT64:
+        return boundType != BoundType.INTEGER
+            || !hasBytes(pageMin, pageMax, Long.BYTES)
+            || overlaps(pageMin.getLong(pageMin.position()), pageMax.getLong(pageMax.position()));
+      case FLOAT:
+        return boundType != BoundType.FLOATING_POINT
+            || !hasBytes(pageMin, pageMax, Float.BYTES)
+            || overlaps(pageMin.getFloat(pageMin.position()), pageMax.getFloat(pageMax.position()));
+      case DOUBLE:
+        return boundType != BoundType.FLOATING_POINT
+            || !hasBytes(pageMin, pageMax, Double.BYTES)
+            || overlaps(
+                pageMin.getDouble(pageMin.position()), pageMax.getDouble(pageMax.position()));
+      case BYTE_ARRAY:
+      case FIXED_LEN_BYTE_ARRAY:
+        return boundType != BoundType.BINARY
+            || (compareUnsigned(pageMax, minBytes) >= 0 && compareUnsigned(pageMin, maxBytes) <= 0);
+      default:
+        return true;
+    }
+  }
+
+  private boolean overlaps(long pageMin, long pageMax) {
+    return pageMax >= minLong && pageMin <= maxLong;
+  }
+
+  private boolean overlaps(double pageMin, double pageMax) {
+    // Comparisons with NaN are false, so pages with NaN statistics are never skipped
+    return !(pageMax < minDouble) && !(pageMin > maxDouble);
+  }
+
+  private static boolean hasBytes(ByteBuffer pageMin, ByteBuffer pageMax, int bytes) {
+    return pageMin.remaining() >= bytes && pageMax.remaining() >= bytes;
+  }
+
+  private static int compareUnsigned(ByteBuffer value, byte[] bound) {
+    int length = Math.min(value.remaining(), bound.length);
+    for (int i = 0; i < length; i++) {
+      int result = (value.get(value.position() + i) & 0xff) - (bound[i] & 0xff);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return value.remaining() - bound.length;
+  }
+
+  @Override
+  public String toString() {
+    switch (boundType) {
+      case INTEGER:
+        return columnName + " BETWEEN " + minLong + " AND " + maxLong;
+      case FLOATING_POINT:
+        return columnName + " BETWEEN " + minDouble + " AND " + maxDouble;
+      default:
+        return columnName
+            + " BETWEEN '"
+            + new String(minBytes, StandardCharsets.UTF_8)
+            + "' AND '"
+            + new String(maxBytes, StandardCharsets.UTF_8)
+            + "'";
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import lombok.Value;
+
+/**
+ * Location of the page index of a column chunk, as recorded in the footer. The ColumnIndex holds
+ * the min and max values of each page, the OffsetIndex holds where each page starts and which rows
+ * it holds. Either structure may be missing, in which case its length is 0.
+ */
+@Value
+public class PageIndexLocation {
+  long columnIndexOffset;
+  int columnIndexLength;
+  long offsetIndexOffset;
+  int offsetIndexLength;
+
+  /**
+   * Returns whether the column chunk has a ColumnIndex.
+   *
+   * @return true if the ColumnIndex is present
+   */
+  public boolean hasColumnIndex() {
+    return columnIndexLength > 0;
+  }
+
+  /**
+   * Returns whether the column chunk has an OffsetIndex.
+   *
+   * @return true if the OffsetIndex is present
+   */
+  public boolean hasOffsetIndex() {
+    return offsetIndexLength > 0;
+  }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.format.Type;
+
+/**
+ * Decodes the parts of a Parquet footer that are needed to locate column chunks, reading the Thrift
+ * compact protocol directly from a {@link ByteBuffer}. Only the row groups are decoded, and within
+ * them only the path, physical type, offsets, compressed size and page index location of each
+ * column chunk. Every other field, such as the schema, statistics and key/value metadata, is
+ * skipped without being materialised, and decoding stops as soon as the row groups have been read.
+ *
+ * <p>Column paths repeat in every row group, so each distinct path segment is only kept once.
+ *
+ * <p>Instances are single use and not thread safe.
+ */
+class ParquetFooterScanner {
+  // Type ids of the Thrift compact protocol
+  private static final byte TYPE_STOP = 0;
+  private static final byte TYPE_BOOLEAN_TRUE = 1;
+  private static final byte TYPE_BOOLEAN_FALSE = 2;
+  private static final byte TYPE_BYTE = 3;
+  private static final byte TYPE_I16 = 4;
+  private static final byte TYPE_I32 = 5;
+  private static final byte TYPE_I64 = 6;
+  private static final byte TYPE_DOUBLE = 7;
+  private static final byte TYPE_BINARY = 8;
+  private static final byte TYPE_LIST = 9;
+  private static final byte TYPE_SET = 10;
+  private static final byte TYPE_MAP = 11;
+  private static final byte TYPE_STRUCT = 12;
+  private static final byte TYPE_UUID = 13;
+
+  // Field ids from parquet.thrift
+  private static final short FILE_META_DATA_ROW_GROUPS = 4;
+  private static final short ROW_GROUP_COLUMNS = 1;
+  private static final short COLUMN_CHUNK_FILE_OFFSET = 2;
+  private static final short COLUMN_CHUNK_META_DATA = 3;
+  private static final short COLUMN_CHUNK_OFFSET_INDEX_OFFSET = 4;
+  private static final short COLUMN_CHUNK_OFFSET_INDEX_LENGTH = 5;
+  private static final short COLUMN_CHUNK_COLUMN_INDEX_OFFSET = 6;
+  private static final short COLUMN_CHUNK_COLUMN_INDEX_LENGTH = 7;
+  private static final short COLUMN_META_DATA_TYPE = 1;
+  private static final short COLUMN_META_DATA_PATH_IN_SCHEMA = 3;
+  private static final short COLUMN_META_DATA_TOTAL_COMPRESSED_SIZE = 7;
+  private static final short COLUMN_META_DATA_DATA_PAGE_OFFSET = 9;
+  private static final short COLUMN_META_DATA_DICTIONARY_PAGE_OFFSET = 11;
+
+  private static final int MAX_SKIP_DEPTH = 64;
+
+  private final ByteBuffer buffer;
+  private final Map<String, String> pathSegments = new HashMap<>();
+
+  /**
+   * Creates a new instance of {@link ParquetFooterScanner}.
+   *
+   * @param footer the serialized FileMetaData, from its position to its limit
+   */
+  ParquetFooterScanner(ByteBuffer footer) {
+    this.buffer = footer.slice();
+  }
+
+  /**
+   * Decodes the row groups of the footer.
+   *
+   * @return FileMetaData in which only the row groups, and the column chunk fields needed to locate
+   *     them, are set
+   * @throws IOException if the footer is malformed or truncated
+   */
+  FileMetaData scan() throws IOException {
+    try {
+      return scanRowGroups();
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Parquet footer is truncated", e);
+    }
+  }
+
+  private FileMetaData scanRowGroups() throws IOException {
+    FileMetaData fileMetaData = new FileMetaData();
+    fileMetaData.setRow_groups(new ArrayList<>());
+
+    short fieldId = 0;
+    for (byte header = buffer.get(); typeOf(header) != TYPE_STOP; header = buffer.get()) {
+      byte type = typeOf(header);
+      fieldId = readFieldId(header, fieldId);
+      if (fieldId == FILE_META_DATA_ROW_GROUPS && type == TYPE_LIST) {
+        fileMetaData.setRow_groups(readList(TYPE_STRUCT, this::readRowGroup));
+        // Nothing after the row groups is needed
+        break;
+      }
+      skip(type, 0);
+    }
+    return fileMetaData;
+  }
+
+  private RowGroup readRowGroup() throws IOException {
+    RowGroup rowGroup = new RowGroup();
+    rowGroup.setColumns(new ArrayList<>());
+    readStruct(
+        (fieldId, type) -> {
+          if (fieldId == ROW_GROUP_COLUMNS && type == TYPE_LIST) {
+            rowGroup.setColumns(readList(TYPE_STRUCT, this::readColumnChunk));
+            return true;
+          }
+          return false;
+        });
+    return rowGroup;
+  }
+
+  private ColumnChunk readColumnChunk() throws IOException {
+    ColumnChunk columnChunk = new ColumnChunk();
+    readStruct(
+        (fieldId, type) -> {
+          if (fieldId == COLUMN_CHUNK_FILE_OFFSET && type == TYPE_I64) {
+            columnChunk.setFile_offset(readI64());
+            return true;
+          }
+          if (fieldId == COLUMN_CHUNK_META_DATA && type == TYPE_STRUCT) {
+            columnChunk.setMeta_data(readColumnMetaData());
+            return true;
+          }
+          if (fieldId == COLUMN_CHUNK_OFFSET_INDEX_OFFSET && type == TYPE_I64) {
+            columnChunk.setOffset_index_offset(readI64());
+            return true;
+          }
+          if (fieldId == COLUMN_CHUNK_OFFSET_INDEX_LENGTH && type == TYPE_I32) {
+            columnChunk.setOffset_index_length(readI32());
+            return true;
+          }
+          if (fieldId == COLUMN_CHUNK_COLUMN_INDEX_OFFSET && type == TYPE_I64) {
+            columnChunk.setColumn_index_offset(readI64());
+            return true;
+          }
+          if (fieldId == COLUMN_CHUNK_COLUMN_INDEX_LENGTH && type == TYPE_I32) {
+            columnChunk.setColumn_index_length(readI32());
+            return true;
+          }
+          return false;
+        });
+    return columnChunk;
+  }
+
+  private ColumnMetaData readColumnMetaData() throws IOException {
+    ColumnMetaData columnMetaData = new ColumnMetaData();
+    readStruct(
+        (fieldId, type) -> {
+          if (fieldId == COLUMN_META_DATA_TYPE && type == TYPE_I32) {
+            // Null for types added after this version of parquet-format
+            columnMetaData.setType(Type.findByValue(readI32()));
+          } else if (fieldId == COLUMN_META_DATA_PATH_IN_SCHEMA && type == TYPE_LIST) {
+            columnMetaData.setPath_in_schema(readList(TYPE_BINARY, this::readPathSegment));
+          } else if (fieldId == COLUMN_META_DATA_TOTAL_COMPRESSED_SIZE && type == TYPE_I64) {
+            columnMetaData.setTotal_compressed_size(readI64());
+          } else if (fieldId == COLUMN_META_DATA_DATA_PAGE_OFFSET && type == TYPE_I64) {
+            columnMetaData.setData_page_offset(readI64());
+          } else if (fieldId == COLUMN_META_DATA_DICTIONARY_PAGE_OFFSET && type == TYPE_I64) {
+            columnMetaData.setDictionary_page_offset(readI64());
+          } else {
+            return false;
+          }
+          return true;
+        });
+    return columnMetaData;
+  }
+
+  /**
+   * Reads the fields of a struct until its stop marker, skipping those the reader does not consume.
+   */
+  private void readStruct(FieldReader fieldReader) throws IOException {
+    short fieldId = 0;
+    for (byte header = buffer.get(); typeOf(header) != TYPE_STOP; header = buffer.get()) {
+      byte type = typeOf(header);
+      fieldId = readFieldId(header, fieldId);
+      if (!fieldReader.read(fieldId, type)) {
+        skip(type, 0);
+      }
+    }
+  }
+
+  /** Reads a list, skipping its elements if they are not of the expected type. */
+  private <T> List<T> readList(byte elementType, ElementReader<T> elementReader)
+      throws IOException {
+    byte header = buffer.get();
+    int size = readCollectionSize(header);
+    List<T> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      if (typeOf(header) == elementType) {
+        list.add(elementReader.read());
+      } else {
+        skipElement(typeOf(header), 0);
+      }
+    }
+    return list;
+  }
+
+  private String readPathSegment() throws IOException {
+    int length = readLength();
+    String segment;
+    if (buffer.hasArray()) {
+      segment =
+          new String(
+              buffer.array(),
+              buffer.arrayOffset() + buffer.position(),
+              length,
+              StandardCharsets.UTF_8);
+      advance(length);
+    } else {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      segment = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    String existing = pathSegments.putIfAbsent(segment, segment);
+    return existing == null ? segment : existing;
+  }
+
+  private void skip(byte type, int depth) throws IOException {
+    if (depth > MAX_SKIP_DEPTH) {
+      throw new IOException("Parquet footer is nested too deeply");
+    }
+
+    switch (type) {
+      case TYPE_BOOLEAN_TRUE:
+      case TYPE_BOOLEAN_FALSE:
+        // The value of a boolean field is part of its header
+        break;
+      case TYPE_BYTE:
+        advance(1);
+        break;
+      case TYPE_I16:
+      case TYPE_I32:
+      case TYPE_I64:
+        readVarint();
+        break;
+      case TYPE_DOUBLE:
+        advance(Double.BYTES);
+        break;
+      case TYPE_UUID:
+        advance(2 * Long.BYTES);
+        break;
+      case TYPE_BINARY:
+        advance(readLength());
+        break;
+      case TYPE_LIST:
+      case TYPE_SET:
+        byte listHeader = buffer.get();
+        for (int i = readCollectionSize(listHeader); i > 0; i--) {
+          skipElement(typeOf(listHeader), depth + 1);
+        }
+        break;
+      case TYPE_MAP:
+        int size = readLength();
+        if (size > 0) {
+          byte mapHeader = buffer.get();
+          for (int i = 0; i < size; i++) {
+            skipElement((byte) ((mapHeader >> 4) & 0x0f), depth + 1);
+            skipElement(typeOf(mapHeader), depth + 1);
+          }
+        }
+        break;
+      case TYPE_STRUCT:
+        for (byte header = buffer.get(); typeOf(header) != TYPE_STOP; header = buffer.get()) {
+          readFieldId(header, (short) 0);
+          skip(typeOf(header), depth + 1);
+        }
+        break;
+      default:
+        throw new IOException("Unknown type " + type + " in parquet footer");
+    }
+  }
+
+  private void skipElement(byte type, int depth) throws IOException {
+    if (type == TYPE_BOOLEAN_TRUE || type == TYPE_BOOLEAN_FALSE) {
+      // Unlike boolean fields, boolean elements take up a byte
+      advance(1);
+    } else {
+      skip(type, depth);
+    }
+  }
+
+  private static byte typeOf(byte header) {
+    return (byte) (header & 0x0f);
+  }
+
+  /** Field ids are encoded as a delta to the previous one, or in full if the delta is too large. */
+  private short readFieldId(byte header, short previousFieldId) throws IOException {
+    int delta = (header >> 4) & 0x0f;
+    return delta == 0 ? (short) readI64() : (short) (previousFieldId + delta);
+  }
+
+  /** The size of short collections is part of their header, longer ones are followed by it. */
+  private int readCollectionSize(byte header) throws IOException {
+    int size = (header >> 4) & 0x0f;
+    return size == 0x0f ? readLength() : size;
+  }
+
+  /** Reads a length, rejecting values that cannot fit in the rest of a well formed footer. */
+  private int readLength() throws IOException {
+    long length = readVarint();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IOException("Invalid length " + length + " in parquet footer");
+    }
+    return (int) length;
+  }
+
+  private int readI32() throws IOException {
+    return (int) readI64();
+  }
+
+  private long readI64() throws IOException {
+    long value = readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private long readVarint() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Invalid varint in parquet footer");
+  }
+
+  private void advance(int length) {
+    if (length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    buffer.position(buffer.position() + length);
+  }
+
+  /** Decodes a field of a struct, returning false if the field should be skipped. */
+  @FunctionalInterface
+  private interface FieldReader {
+    boolean read(short fieldId, byte type) throws IOException;
+  }
+
+  /** Decodes an element of a list. */
+  @FunctionalInterface
+  private interface ElementReader<T> {
+    T read() throws IOException;
+  }
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+import org.apache.parquet.format.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+
+/**
+ * A second tier cache of {@link ColumnMappers} in local scratch space, shared by every process
+ * pointed at the same directory. Entries are keyed by {@link ObjectKey}, so a rewritten object is
+ * never served stale mappers, and a warm process can skip both reading and parsing the footer.
+ *
+ * <p>Each entry is a file holding a compact binary encoding of the mappers, in which every column
+ * name is stored once. Files are written to a temporary name and atomically moved into place, so
+ * readers never see partial entries, and are read through a memory mapping.
+ *
+ * <p>The cache keeps an estimate of the bytes used by the directory, and only sweeps it once the
+ * estimate exceeds the configured capacity, or periodically to account for entries written by
+ * other processes. A sweep deletes the least recently used entries until the
+ * directory is back under three quarters of the capacity, so that a full cache is not swept on
+ * every put, and deletes temporary files left behind by writers that died.
+ *
+ * <p>The cache is best effort: any failure to read or write an entry is logged and treated as a
+ * miss.
+ */
+public class ParquetMetadataDiskCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ParquetMetadataDiskCache.class);
+
+  private static final int MAGIC = 0x41414d43; // "AAMC"
+  private static final int VERSION = 2;
+  private static final String ENTRY_SUFFIX = ".colmap";
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+  private static final int PUTS_PER_SWEEP = 64;
+  private static final double LOW_WATER_MARK = 0.75;
+  // Writing an entry takes milliseconds, so older temporary files belong to writers that died
+  private static final long STALE_TEMPORARY_MILLIS = TimeUnit.MINUTES.toMillis(10);
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  @Getter private final Path directory;
+  private final long capacityBytes;
+  // Bytes used as of the last sweep plus those written by this cache since, negative until the
+  // first sweep
+  private final AtomicLong estimatedUsedBytes = new AtomicLong(-1);
+  private final AtomicInteger putsSinceSweep = new AtomicInteger();
+  private final AtomicBoolean sweeping = new AtomicBoolean();
+
+  /**
+   * Creates a new disk cache, creating its directory if needed.
+   *
+   * @param directory the directory entries are stored in
+   * @param capacityBytes the number of bytes the entries may take up before old ones are deleted
+   * @throws IOException if the directory cannot be created
+   */
+  public ParquetMetadataDiskCache(@NonNull Path directory, long capacityBytes) throws IOException {
+    Preconditions.checkArgument(capacityBytes > 0, "`capacityBytes` must be positive");
+
+    this.directory = Files.createDirectories(directory);
+    this.capacityBytes = capacityBytes;
+  }
+
+  /**
+   * Reads the column mappers of a version of an object.
+   *
+   * @param objectKey the URI and ETag of the object
+   * @return the column mappers, or empty if they are not cached or cannot be read
+   */
+  public Optional<ColumnMappers> get(@NonNull ObjectKey objectKey) {
+    Path entry = entryPath(objectKey);
+    try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      Optional<ColumnMappers> columnMappers = decode(buffer, objectKey);
+      if (columnMappers.isPresent()) {
+        // Refresh the entry, so that it is evicted last
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+      } else {
+        LOG.debug("Discarding mismatched column mappers cached at {}", entry);
+        deleteQuietly(entry);
+      }
+      return columnMappers;
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      LOG.debug("Unable to read column mappers cached at {}", entry, e);
+      return Optional.empty();
+    } catch (RuntimeException e) {
+      LOG.debug("Discarding corrupt column mappers cached at {}", entry, e);
+      deleteQuietly(entry);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Writes the column mappers of a version of an object, deleting old entries if the cache is
+   * over capacity.
+   *
+   * @param objectKey the URI and ETag of the object
+   * @param columnMappers the column mappers to cache
+   */
+  public void put(@NonNull ObjectKey objectKey, @NonNull ColumnMappers columnMappers) {
+    Path entry = entryPath(objectKey);
+    Path temporary =
+        directory.resolve(entry.getFileName() + "." + UUID.randomUUID() + TEMPORARY_SUFFIX);
+    long entryBytes;
+    try {
+      ByteBuffer encoded = encode(objectKey, columnMappers);
+      entryBytes = encoded.remaining();
+      try (FileChannel channel =
+          FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        while (encoded.hasRemaining()) {
+          channel.write(encoded);
+        }
+      }
+      Files.move(
+          temporary, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Unable to cache column mappers of {} at {}", objectKey.getS3URI(), entry, e);
+      deleteQuietly(temporary);
+      return;
+    }
+
+    evictIfOverCapacity(entryBytes);
+  }
+
+  /**
+   * Encodes column mappers. The format is a header of the magic number, the version, the URI and
+   * ETag of the object and the schema hash, followed by the table of column names and one fixed
+   * size record per column chunk, each referring to its name by index.
+   */
+  static ByteBuffer encode(ObjectKey objectKey, ColumnMappers columnMappers) {
+    Map<String, List<ColumnMetadata>> columnsByName = columnMappers.getColumnNameToColumnMap();
+    List<byte[]> names = new ArrayList<>(columnsByName.size());
+    int columnCount = 0;
+    int schemaHash = 0;
+    for (Map.Entry<String, List<ColumnMetadata>> column : columnsByName.entrySet()) {
+      names.add(column.getKey().getBytes(StandardCharsets.UTF_8));
+      columnCount += column.getValue().size();
+      for (ColumnMetadata columnMetadata : column.getValue()) {
+        schemaHash = columnMetadata.getSchemaHash();
+      }
+    }
+    byte[] uri = objectKey.getS3URI().toString().getBytes(StandardCharsets.UTF_8);
+    byte[] etag = objectKey.getEtag().getBytes(StandardCharsets.UTF_8);
+
+    long size = 5 * Integer.BYTES + uri.length + etag.length + 2 * Integer.BYTES;
+    for (byte[] name : names) {
+      size += Integer.BYTES + name.length;
+    }
+    size += (long) columnCount * ColumnRecord.BYTES;
+
+    ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size));
+    buffer.putInt(MAGIC).putInt(VERSION);
+    putBytes(buffer, uri);
+    putBytes(buffer, etag);
+    buffer.putInt(schemaHash);
+    buffer.putInt(names.size());
+    for (byte[] name : names) {
+      putBytes(buffer, name);
+    }
+    buffer.putInt(columnCount);
+    int nameIndex = 0;
+    for (List<ColumnMetadata> columns : columnsByName.values()) {
+      for (ColumnMetadata columnMetadata : columns) {
+        new ColumnRecord(
+                nameIndex,
+                columnMetadata.getRowGroupIndex(),
+                columnMetadata.getDataPageOffset(),
+                columnMetadata.getDictionaryOffset(),
+                columnMetadata.getStartPos(),
+                columnMetadata.getCompressedSize(),
+                columnMetadata.getPhysicalType(),
+                columnMetadata.getPageIndexLocation())
+            .writeTo(buffer);
+      }
+      nameIndex++;
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Decodes column mappers written by {@link #encode(ObjectKey, ColumnMappers)}.
+   *
+   * @return the column mappers, or empty if the buffer holds another format or another object
+   * @throws BufferUnderflowException if the buffer is truncated
+   */
+  static Optional<ColumnMappers> decode(ByteBuffer buffer, ObjectKey objectKey) {
+    if (buffer.remaining() < 2 * Integer.BYTES
+        || buffer.getInt() != MAGIC
+        || buffer.getInt() != VERSION
+        || !objectKey.getS3URI().toString().equals(getString(buffer))
+        || !objectKey.getEtag().equals(getString(buffer))) {
+      return Optional.empty();
+    }
+
+    int schemaHash = buffer.getInt();
+    String[] names = new String[getLength(buffer)];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = getString(buffer);
+    }
+
+    int columnCount = buffer.getInt();
+    Map<Long, ColumnMetadata> offsetIndexToColumnMap = new HashMap<>();
+    Map<String, List<ColumnMetadata>> columnNameToColumnMap = new LinkedHashMap<>();
+    for (int i = 0; i < columnCount; i++) {
+      ColumnRecord record = ColumnRecord.readFrom(buffer);
+      String name = names[record.getNameIndex()];
+      ColumnMetadata columnMetadata =
+          new ColumnMetadata(
+              record.getRowGroupIndex(),
+              name,
+              record.getDataPageOffset(),
+              record.getDictionaryOffset(),
+              record.getStartPos(),
+              record.getCompressedSize(),
+              schemaHash,
+              record.getPhysicalType(),
+              record.getPageIndexLocation());
+      offsetIndexToColumnMap.put(columnMetadata.getStartPos(), columnMetadata);
+      columnNameToColumnMap.computeIfAbsent(name, key -> new ArrayList<>()).add(columnMetadata);
+    }
+    return Optional.of(new ColumnMappers(offsetIndexToColumnMap, columnNameToColumnMap));
+  }
+
+  /** Sweeps the directory if it may be over capacity, or if it has not been swept for a while. */
+  private void evictIfOverCapacity(long entryBytes) {
+    long usedBytes =
+        estimatedUsedBytes.accumulateAndGet(
+            entryBytes, (used, added) -> used < 0 ? used : used + added);
+    boolean sweepDue = putsSinceSweep.incrementAndGet() >= PUTS_PER_SWEEP;
+    if ((usedBytes < 0 || usedBytes > capacityBytes || sweepDue)
+        && sweeping.compareAndSet(false, true)) {
+      try {
+        putsSinceSweep.set(0);
+        estimatedUsedBytes.set(sweep());
+      } finally {
+        sweeping.set(false);
+      }
+    }
+  }
+
+  /**
+   * Deletes stale temporary files, then the least recently used entries if the directory is over
+   * capacity.
+   *
+   * @return the number of bytes used by the directory afterwards, or -1 if it cannot be listed
+   */
+  private long sweep() {
+    List<Map.Entry<Path, BasicFileAttributes>> entries = new ArrayList<>();
+    long usedBytes = 0;
+    long staleBeforeMillis = System.currentTimeMillis() - STALE_TEMPORARY_MILLIS;
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory)) {
+      for (Path path : paths) {
+        String name = path.getFileName().toString();
+        boolean temporary = name.endsWith(TEMPORARY_SUFFIX);
+        if (!temporary && !name.endsWith(ENTRY_SUFFIX)) {
+          continue;
+        }
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+          if (temporary && attributes.lastModifiedTime().toMillis() < staleBeforeMillis) {
+            deleteQuietly(path);
+            continue;
+          }
+          // Temporary files being written count towards the capacity, but are not evicted
+          usedBytes += attributes.size();
+          if (!temporary) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(path, attributes));
+          }
+        } catch (NoSuchFileException e) {
+          // Deleted or moved into place by another process in the meantime
+        }
+      }
+    } catch (IOException e) {
+      LOG.debug("Unable to list column mappers cached in {}", directory, e);
+      return -1;
+    }
+
+    if (usedBytes <= capacityBytes) {
+      return usedBytes;
+    }
+    long targetBytes = (long) (capacityBytes * LOW_WATER_MARK);
+    entries.sort(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()));
+    for (Map.Entry<Path, BasicFileAttributes> entry : entries) {
+      if (usedBytes <= targetBytes) {
+        break;
+      }
+      deleteQuietly(entry.getKey());
+      usedBytes -= entry.getValue().size();
+    }
+    return usedBytes;
+  }
+
+  private Path entryPath(ObjectKey objectKey) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(objectKey.getS3URI().toString().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(objectKey.getEtag().getBytes(StandardCharsets.UTF_8));
+      byte[] hash = digest.digest();
+      char[] name = new char[2 * hash.length];
+      for (int i = 0; i < hash.length; i++) {
+        name[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+        name[2 * i + 1] = HEX_DIGITS[hash[i] & 0xf];
+      }
+      return directory.resolve(new String(name) + ENTRY_SUFFIX);
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length).put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte[] bytes = new byte[getLength(buffer)];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Reads a length, rejecting values that cannot fit in the rest of a well formed buffer. */
+  private static int getLength(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    return length;
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      LOG.debug("Unable to delete {}", path, e);
+    }
+  }
+
+  /** The fixed size record of a column chunk. */
+  @Value
+  private static class ColumnRecord {
+    static final int BYTES = 5 * Integer.BYTES + 6 * Long.BYTES;
+    private static final int UNKNOWN_TYPE = -1;
+    private static final PageIndexLocation EMPTY_PAGE_INDEX_LOCATION =
+        new PageIndexLocation(0, 0, 0, 0);
+
+    int nameIndex;
+    int rowGroupIndex;
+    long dataPageOffset;
+    long dictionaryOffset;
+    long startPos;
+    long compressedSize;
+    Type physicalType;
+    PageIndexLocation pageIndexLocation;
+
+    void writeTo(ByteBuffer buffer) {
+      buffer
+          .putInt(nameIndex)
+          .putInt(rowGroupIndex)
+          .putLong(dataPageOffset)
+          .putLong(dictionaryOffset)
+          .putLong(startPos)
+          .putLong(compressedSize)
+          .putInt(physicalType == null ? UNKNOWN_TYPE : physicalType.getValue());
+      // A column chunk without a page index is written as an empty location
+      PageIndexLocation location =
+          pageIndexLocation == null ? EMPTY_PAGE_INDEX_LOCATION : pageIndexLocation;
+      buffer
+          .putLong(location.getColumnIndexOffset())
+          .putInt(location.getColumnIndexLength())
+          .putLong(location.getOffsetIndexOffset())
+          .putInt(location.getOffsetIndexLength());
+    }
+
+    static ColumnRecord readFrom(ByteBuffer buffer) {
+      int nameIndex = buffer.getInt();
+      int rowGroupIndex = buffer.getInt();
+      long dataPageOffset = buffer.getLong();
+      long dictionaryOffset = buffer.getLong();
+      long startPos = buffer.getLong();
+      long compressedSize = buffer.getLong();
+      int physicalType = buffer.getInt();
+      long columnIndexOffset = buffer.getLong();
+      int columnIndexLength = buffer.getInt();
+      long offsetIndexOffset = buffer.getLong();
+      int offsetIndexLength = buffer.getInt();
+      PageIndexLocation pageIndexLocation =
+          new PageIndexLocation(
+              columnIndexOffset, columnIndexLength, offsetIndexOffset, offsetIndexLength);
+      return new ColumnRecord(
+          nameIndex,
+          rowGroupIndex,
+          dataPageOffset,
+          dictionaryOffset,
+          startPos,
+          compressedSize,
+          physicalType == UNKNOWN_TYPE ? null : Type.findByValue(physicalType),
+          pageIndexLocation.equals(EMPTY_PAGE_INDEX_LOCATION) ? null : pageIndexLocation);
+    }
+  }
+}
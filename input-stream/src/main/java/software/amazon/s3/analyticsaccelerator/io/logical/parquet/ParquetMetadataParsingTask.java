@@ -94,7 +94,7 @@ public class ParquetMetadataParsingTask {
   private ColumnMappers buildColumnMaps(FileMetaData fileMetaData) {
     HashMap<Long, ColumnMetadata> offsetIndexToColumnMap = new HashMap<>();
     HashMap<String, List<ColumnMetadata>> columnNameToColumnMap = new HashMap<>();
-    String concatenatedColumnNames = concatColumnNames(fileMetaData);
+    int schemaHash = concatColumnNames(fileMetaData).hashCode();
 
     int rowGroupIndex = 0;
     for (RowGroup rowGroup : fileMetaData.getRow_groups()) {
@@ -103,6 +103,13 @@ public class ParquetMetadataParsingTask {
 
         // Get the full path to support nested schema
         String columnName = String.join(".", columnChunk.getMeta_data().getPath_in_schema());
+        List<ColumnMetadata> columnMetadataList =
+            columnNameToColumnMap.computeIfAbsent(columnName, metadataList -> new ArrayList<>());
+        // Keep a single copy of each column name, however many row groups the column is in
+        if (!columnMetadataList.isEmpty()) {
+          columnName = columnMetadataList.get(0).getColumnName();
+        }
+        PageIndexLocation pageIndexLocation = getPageIndexLocation(columnChunk);
 
         if (columnChunk.getMeta_data().getDictionary_page_offset() != 0) {
           ColumnMetadata columnMetadata =
@@ -113,11 +120,11 @@ public class ParquetMetadataParsingTask {
                   columnChunk.getMeta_data().getDictionary_page_offset(),
                   columnChunk.getMeta_data().getDictionary_page_offset(),
                   columnChunk.getMeta_data().getTotal_compressed_size(),
-                  concatenatedColumnNames.hashCode());
+                  schemaHash,
+                  columnChunk.getMeta_data().getType(),
+                  pageIndexLocation);
           offsetIndexToColumnMap.put(
               columnChunk.getMeta_data().getDictionary_page_offset(), columnMetadata);
-          List<ColumnMetadata> columnMetadataList =
-              columnNameToColumnMap.computeIfAbsent(columnName, metadataList -> new ArrayList<>());
           columnMetadataList.add(columnMetadata);
         } else {
           ColumnMetadata columnMetadata =
@@ -128,10 +135,10 @@ public class ParquetMetadataParsingTask {
                   0,
                   columnChunk.getFile_offset(),
                   columnChunk.getMeta_data().getTotal_compressed_size(),
-                  concatenatedColumnNames.hashCode());
+                  schemaHash,
+                  columnChunk.getMeta_data().getType(),
+                  pageIndexLocation);
           offsetIndexToColumnMap.put(columnChunk.getFile_offset(), columnMetadata);
-          List<ColumnMetadata> columnMetadataList =
-              columnNameToColumnMap.computeIfAbsent(columnName, metadataList -> new ArrayList<>());
           columnMetadataList.add(columnMetadata);
         }
       }
@@ -142,6 +149,18 @@ public class ParquetMetadataParsingTask {
     return new ColumnMappers(offsetIndexToColumnMap, columnNameToColumnMap);
   }
 
+  private static PageIndexLocation getPageIndexLocation(ColumnChunk columnChunk) {
+    if (!columnChunk.isSetColumn_index_offset() && !columnChunk.isSetOffset_index_offset()) {
+      return null;
+    }
+
+    return new PageIndexLocation(
+        columnChunk.getColumn_index_offset(),
+        columnChunk.getColumn_index_length(),
+        columnChunk.getOffset_index_offset(),
+        columnChunk.getOffset_index_length());
+  }
+
   private String concatColumnNames(FileMetaData fileMetaData) {
     StringBuilder concatenatedColumnNames = new StringBuilder();
     RowGroup rowGroup = fileMetaData.getRow_groups().get(0);
@@ -0,0 +1,92 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.parquet.format.ColumnIndex;
+import org.apache.parquet.format.OffsetIndex;
+import org.apache.parquet.format.PageLocation;
+import shaded.parquet.org.apache.thrift.TBase;
+import shaded.parquet.org.apache.thrift.TException;
+import shaded.parquet.org.apache.thrift.protocol.TCompactProtocol;
+import shaded.parquet.org.apache.thrift.transport.TIOStreamTransport;
+
+/**
+ * Allows for parsing the ColumnIndex and OffsetIndex of a column chunk into its pages. Both are
+ * expected in heap buffers.
+ */
+class ParquetPageIndexParser {
+
+  /**
+   * Parses the page index of a column chunk.
+   *
+   * @param columnIndexBytes the serialized ColumnIndex, from its position to its limit, or null if
+   *     the column chunk has none
+   * @param offsetIndexBytes the serialized OffsetIndex, from its position to its limit
+   * @return the data pages of the column chunk, in file order. Statistics are only set if the
+   *     ColumnIndex is present and consistent with the OffsetIndex.
+   * @throws IOException if the OffsetIndex cannot be parsed
+   */
+  public List<PageMetadata> parsePageIndex(
+      ByteBuffer columnIndexBytes, ByteBuffer offsetIndexBytes) throws IOException {
+    List<PageLocation> pageLocations =
+        read(new OffsetIndex(), offsetIndexBytes).getPage_locations();
+
+    ColumnIndex columnIndex = null;
+    if (columnIndexBytes != null) {
+      columnIndex = read(new ColumnIndex(), columnIndexBytes);
+      if (columnIndex.getNull_pages().size() != pageLocations.size()
+          || columnIndex.getMin_values().size() != pageLocations.size()
+          || columnIndex.getMax_values().size() != pageLocations.size()) {
+        // Statistics that do not line up with the pages cannot be used to skip any of them
+        columnIndex = null;
+      }
+    }
+
+    List<PageMetadata> pages = new ArrayList<>(pageLocations.size());
+    for (int i = 0; i < pageLocations.size(); i++) {
+      PageLocation pageLocation = pageLocations.get(i);
+      boolean nullPage = columnIndex != null && columnIndex.getNull_pages().get(i);
+      ByteBuffer minValue = columnIndex == null ? null : columnIndex.getMin_values().get(i);
+      ByteBuffer maxValue = columnIndex == null ? null : columnIndex.getMax_values().get(i);
+      pages.add(
+          new PageMetadata(
+              pageLocation.getOffset(),
+              pageLocation.getCompressed_page_size(),
+              pageLocation.getFirst_row_index(),
+              nullPage,
+              minValue,
+              maxValue));
+    }
+    return pages;
+  }
+
+  private static <T extends TBase<?, ?>> T read(T struct, ByteBuffer buffer) throws IOException {
+    ByteArrayInputStream inputStream =
+        new ByteArrayInputStream(
+            buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    try {
+      struct.read(new TCompactProtocol(new TIOStreamTransport(inputStream)));
+      return struct;
+    } catch (TException e) {
+      throw new IOException("can not read " + struct.getClass().getSimpleName(), e);
+    }
+  }
+}
@@ -18,18 +18,12 @@ package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
 import static software.amazon.s3.analyticsaccelerator.util.Constants.PARQUET_FOOTER_LENGTH_SIZE;
 import static software.amazon.s3.analyticsaccelerator.util.Constants.PARQUET_MAGIC_STR_LENGTH;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.apache.parquet.format.FileMetaData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import shaded.parquet.org.apache.thrift.TException;
-import shaded.parquet.org.apache.thrift.protocol.TCompactProtocol;
-import shaded.parquet.org.apache.thrift.protocol.TProtocol;
-import shaded.parquet.org.apache.thrift.transport.TIOStreamTransport;
-import shaded.parquet.org.apache.thrift.transport.TTransportException;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
@@ -39,7 +33,9 @@ class ParquetParser {
   private static final Logger LOG = LoggerFactory.getLogger(ParquetParser.class);
 
   /**
-   * Parses the tail of a parquet file to obtain its FileMetaData.
+   * Parses the tail of a parquet file to obtain its FileMetaData. The footer is decoded in place by
+   * a {@link ParquetFooterScanner}, so only the row groups and the fields needed to locate their
+   * column chunks are set on the result.
    *
    * @param fileTail tail bytes of parquet file to be parsed
    * @param contentLen The length of the parquet file tail to be parsed
@@ -57,12 +53,12 @@ class ParquetParser {
     int fileMetadataLengthIndex =
         contentLen - PARQUET_MAGIC_STR_LENGTH - PARQUET_FOOTER_LENGTH_SIZE;
 
-    fileTail.position(fileMetadataLengthIndex);
-
-    byte[] buff = new byte[PARQUET_FOOTER_LENGTH_SIZE];
-    fileTail.get(buff, 0, PARQUET_FOOTER_LENGTH_SIZE);
-
-    int fileMetadataLength = readIntLittleEndian(new ByteArrayInputStream(buff));
+    int fileMetadataLength =
+        fileTail.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(fileMetadataLengthIndex);
+    if (fileMetadataLength < 0) {
+      throw new IOException(
+          "Invalid footer length " + fileMetadataLength + " for " + s3URI.getKey());
+    }
     int fileMetadataIndex = fileMetadataLengthIndex - fileMetadataLength;
 
     if (fileMetadataIndex < 0) {
@@ -80,34 +76,10 @@ class ParquetParser {
               + contentLen);
     }
 
-    fileTail.position(fileMetadataIndex);
-    byte[] footer = new byte[fileMetadataLength];
-    fileTail.get(footer, 0, fileMetadataLength);
-
-    try {
-      FileMetaData fmd = new FileMetaData();
-      fmd.read(protocol(new ByteArrayInputStream(footer)));
-      return fmd;
-    } catch (TException e) {
-      throw new IOException("can not read FileMetaData: " + e.getMessage(), e);
-    }
-  }
-
-  private static TProtocol protocol(InputStream from) throws TTransportException {
-    return protocol(new TIOStreamTransport(from));
-  }
-
-  @SuppressWarnings("deprecation")
-  private static org.apache.parquet.format.InterningProtocol protocol(TIOStreamTransport t) {
-    return new org.apache.parquet.format.InterningProtocol(new TCompactProtocol(t));
-  }
-
-  private static int readIntLittleEndian(InputStream in) throws IOException {
-    int ch1 = in.read();
-    int ch2 = in.read();
-    int ch3 = in.read();
-    int ch4 = in.read();
+    ByteBuffer footer = fileTail.duplicate();
+    footer.limit(fileMetadataLengthIndex);
+    footer.position(fileMetadataIndex);
 
-    return ((ch4 << 24) + (ch3 << 16) + (ch2 << 8) + (ch1 << 0));
+    return new ParquetFooterScanner(footer).scan();
   }
 }
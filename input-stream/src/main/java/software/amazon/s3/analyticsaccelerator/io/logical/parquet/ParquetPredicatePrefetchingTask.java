@@ -0,0 +1,309 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
+import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
+import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanExecution;
+import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanState;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
+
+/**
+ * Task for prefetching only the pages of column chunks that may hold rows matching a set of {@link
+ * ColumnPredicate}s, using the ColumnIndex and OffsetIndex of the file.
+ *
+ * <p>In each row group, the predicates are evaluated against the min and max values of the pages
+ * of their columns, and the rows of the pages that may match are intersected across predicates.
+ * Row groups left without any rows are skipped entirely. Otherwise, only the pages holding those
+ * rows are prefetched, along with the dictionary page of their column chunk. Column chunks without
+ * an OffsetIndex are prefetched in full, and predicates on columns without a ColumnIndex do not
+ * exclude any rows.
+ *
+ * <p>The page index structures are read through the {@link PhysicalIO}, so that they are served
+ * from the tail of the file if it has been prefetched already. They are read for planning, which
+ * neither moves the stream nor counts as it reading those bytes.
+ */
+public class ParquetPredicatePrefetchingTask {
+  private final S3URI s3Uri;
+  private final Telemetry telemetry;
+  private final PhysicalIO physicalIO;
+  private final ParquetPageIndexParser parquetPageIndexParser;
+  // Pages of the column chunks whose page index has been parsed, by the start of the column chunk
+  private final Map<Long, List<PageMetadata>> pagesByColumnChunk = new ConcurrentHashMap<>();
+
+  private static final String OPERATION_PARQUET_PREFETCH_MATCHING_PAGES =
+      "parquet.task.prefetch.matching.pages";
+  private static final Logger LOG = LoggerFactory.getLogger(ParquetPredicatePrefetchingTask.class);
+
+  /**
+   * Creates a new instance of {@link ParquetPredicatePrefetchingTask}.
+   *
+   * @param s3Uri the object's S3URI
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param physicalIO PhysicalIO instance
+   */
+  public ParquetPredicatePrefetchingTask(
+      @NonNull S3URI s3Uri, @NonNull Telemetry telemetry, @NonNull PhysicalIO physicalIO) {
+    this(s3Uri, telemetry, physicalIO, new ParquetPageIndexParser());
+  }
+
+  /**
+   * Creates a new instance of {@link ParquetPredicatePrefetchingTask}. This version of the
+   * constructor is useful for testing as it allows dependency injection.
+   *
+   * @param s3Uri the object's S3URI
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param physicalIO PhysicalIO instance
+   * @param parquetPageIndexParser parser for the page index structures
+   */
+  ParquetPredicatePrefetchingTask(
+      @NonNull S3URI s3Uri,
+      @NonNull Telemetry telemetry,
+      @NonNull PhysicalIO physicalIO,
+      @NonNull ParquetPageIndexParser parquetPageIndexParser) {
+    this.s3Uri = s3Uri;
+    this.telemetry = telemetry;
+    this.physicalIO = physicalIO;
+    this.parquetPageIndexParser = parquetPageIndexParser;
+  }
+
+  /**
+   * Prefetches the pages that may hold rows matching all of the predicates, for the columns of the
+   * predicates and the other columns given.
+   *
+   * @param columnMappers Parquet file column mappings
+   * @param predicates predicates that rows must all satisfy
+   * @param columns other columns to prefetch the matching rows of
+   * @return ranges prefetched
+   */
+  public IOPlanExecution prefetchMatchingPages(
+      @NonNull ColumnMappers columnMappers,
+      @NonNull List<ColumnPredicate> predicates,
+      @NonNull Collection<String> columns) {
+    return telemetry.measureStandard(
+        () ->
+            Operation.builder()
+                .name(OPERATION_PARQUET_PREFETCH_MATCHING_PAGES)
+                .attribute(StreamAttributes.uri(this.s3Uri))
+                .build(),
+        () -> {
+          try {
+            List<Range> ranges = getMatchingPageRanges(columnMappers, predicates, columns);
+            IOPlan ioPlan =
+                ranges.isEmpty() ? IOPlan.EMPTY_PLAN : new IOPlan(ParquetUtils.mergeRanges(ranges));
+            return physicalIO.execute(ioPlan);
+          } catch (Throwable t) {
+            LOG.debug("Unable to prefetch matching pages for {}.", this.s3Uri.getKey(), t);
+            return IOPlanExecution.builder().state(IOPlanState.SKIPPED).build();
+          }
+        });
+  }
+
+  /**
+   * Returns the pages of column chunks, reading and parsing their page index if it has not been
+   * read already.
+   *
+   * @param columnChunks the column chunks
+   * @return the pages of each column chunk that has an OffsetIndex, in file order
+   * @throws IOException if the page index cannot be read or parsed
+   */
+  public Map<ColumnMetadata, List<PageMetadata>> getPages(
+      @NonNull Collection<ColumnMetadata> columnChunks) throws IOException {
+    List<ColumnMetadata> unparsedColumnChunks = new ArrayList<>();
+    List<Range> pageIndexRanges = new ArrayList<>();
+    for (ColumnMetadata columnChunk : columnChunks) {
+      PageIndexLocation location = columnChunk.getPageIndexLocation();
+      if (location == null
+          || !location.hasOffsetIndex()
+          || pagesByColumnChunk.containsKey(columnChunk.getStartPos())) {
+        continue;
+      }
+
+      unparsedColumnChunks.add(columnChunk);
+      pageIndexRanges.add(
+          rangeOf(location.getOffsetIndexOffset(), location.getOffsetIndexLength()));
+      if (location.hasColumnIndex()) {
+        pageIndexRanges.add(
+            rangeOf(location.getColumnIndexOffset(), location.getColumnIndexLength()));
+      }
+    }
+
+    if (!unparsedColumnChunks.isEmpty()) {
+      // The page index of a file is usually written in one place, so this is a single read
+      NavigableMap<Long, byte[]> pageIndexBytes = new TreeMap<>();
+      for (Range range : ParquetUtils.mergeRanges(pageIndexRanges)) {
+        pageIndexBytes.put(range.getStart(), readFully(range));
+      }
+      for (ColumnMetadata columnChunk : unparsedColumnChunks) {
+        pagesByColumnChunk.put(columnChunk.getStartPos(), parsePages(columnChunk, pageIndexBytes));
+      }
+    }
+
+    Map<ColumnMetadata, List<PageMetadata>> pages = new LinkedHashMap<>();
+    for (ColumnMetadata columnChunk : columnChunks) {
+      List<PageMetadata> columnChunkPages = pagesByColumnChunk.get(columnChunk.getStartPos());
+      if (columnChunkPages != null) {
+        pages.put(columnChunk, columnChunkPages);
+      }
+    }
+    return pages;
+  }
+
+  private List<Range> getMatchingPageRanges(
+      ColumnMappers columnMappers, List<ColumnPredicate> predicates, Collection<String> columns)
+      throws IOException {
+    Set<String> columnNames = new LinkedHashSet<>();
+    for (ColumnPredicate predicate : predicates) {
+      columnNames.add(predicate.getColumnName());
+    }
+    columnNames.addAll(columns);
+
+    // Column chunks of the columns to prefetch, by row group
+    Map<Integer, Map<String, ColumnMetadata>> columnChunksByRowGroup = new TreeMap<>();
+    List<ColumnMetadata> columnChunks = new ArrayList<>();
+    for (String columnName : columnNames) {
+      List<ColumnMetadata> columnMetadataList =
+          columnMappers.getColumnNameToColumnMap().get(columnName);
+      if (columnMetadataList != null) {
+        for (ColumnMetadata columnMetadata : columnMetadataList) {
+          columnChunksByRowGroup
+              .computeIfAbsent(columnMetadata.getRowGroupIndex(), rowGroup -> new HashMap<>())
+              .put(columnName, columnMetadata);
+          columnChunks.add(columnMetadata);
+        }
+      }
+    }
+    Map<ColumnMetadata, List<PageMetadata>> pages = getPages(columnChunks);
+
+    List<Range> ranges = new ArrayList<>();
+    for (Map.Entry<Integer, Map<String, ColumnMetadata>> rowGroup :
+        columnChunksByRowGroup.entrySet()) {
+      RowRanges matchingRows = RowRanges.ALL;
+      for (ColumnPredicate predicate : predicates) {
+        ColumnMetadata columnChunk = rowGroup.getValue().get(predicate.getColumnName());
+        List<PageMetadata> columnChunkPages = pages.get(columnChunk);
+        if (columnChunkPages != null) {
+          matchingRows =
+              matchingRows.intersect(
+                  RowRanges.of(
+                      columnChunkPages,
+                      page -> predicate.mayMatch(columnChunk.getPhysicalType(), page)));
+        }
+      }
+
+      if (matchingRows.isEmpty()) {
+        LOG.debug(
+            "No rows of row group {} of {} match {}, skipping it",
+            rowGroup.getKey(),
+            this.s3Uri.getKey(),
+            predicates);
+        continue;
+      }
+
+      for (ColumnMetadata columnChunk : rowGroup.getValue().values()) {
+        addMatchingPageRanges(columnChunk, pages.get(columnChunk), matchingRows, ranges);
+      }
+    }
+    return ranges;
+  }
+
+  private static void addMatchingPageRanges(
+      ColumnMetadata columnChunk,
+      List<PageMetadata> columnChunkPages,
+      RowRanges matchingRows,
+      List<Range> ranges) {
+    if (columnChunkPages == null) {
+      // Without an OffsetIndex, there is no telling which bytes hold which rows
+      ranges.add(rangeOf(columnChunk.getStartPos(), columnChunk.getCompressedSize()));
+      return;
+    }
+
+    boolean matched = false;
+    for (int i = 0; i < columnChunkPages.size(); i++) {
+      PageMetadata page = columnChunkPages.get(i);
+      if (matchingRows.overlaps(
+          page.getFirstRowIndex(), RowRanges.lastRowIndex(columnChunkPages, i))) {
+        ranges.add(rangeOf(page.getOffset(), page.getCompressedSize()));
+        matched = true;
+      }
+    }
+
+    // Data pages cannot be decoded without the dictionary page of their column chunk
+    if (matched
+        && columnChunk.getDictionaryOffset() != 0
+        && columnChunk.getDataPageOffset() > columnChunk.getDictionaryOffset()) {
+      ranges.add(new Range(columnChunk.getDictionaryOffset(), columnChunk.getDataPageOffset() - 1));
+    }
+  }
+
+  private List<PageMetadata> parsePages(
+      ColumnMetadata columnChunk, NavigableMap<Long, byte[]> pageIndexBytes) throws IOException {
+    PageIndexLocation location = columnChunk.getPageIndexLocation();
+    ByteBuffer columnIndex =
+        location.hasColumnIndex()
+            ? slice(
+                pageIndexBytes, location.getColumnIndexOffset(), location.getColumnIndexLength())
+            : null;
+    ByteBuffer offsetIndex =
+        slice(pageIndexBytes, location.getOffsetIndexOffset(), location.getOffsetIndexLength());
+    return parquetPageIndexParser.parsePageIndex(columnIndex, offsetIndex);
+  }
+
+  private static ByteBuffer slice(NavigableMap<Long, byte[]> bytes, long offset, int length) {
+    Map.Entry<Long, byte[]> entry = bytes.floorEntry(offset);
+    int position = Math.toIntExact(offset - entry.getKey());
+    return ByteBuffer.wrap(entry.getValue(), position, length);
+  }
+
+  private byte[] readFully(Range range) throws IOException {
+    byte[] buffer = new byte[Math.toIntExact(range.getLength())];
+    int bytesRead = 0;
+    while (bytesRead < buffer.length) {
+      int read =
+          physicalIO.readForPlanning(
+              buffer, bytesRead, buffer.length - bytesRead, range.getStart() + bytesRead);
+      if (read < 0) {
+        throw new IOException("Unexpected end of " + this.s3Uri.getKey() + " reading page index");
+      }
+      bytesRead += read;
+    }
+    return buffer;
+  }
+
+  private static Range rangeOf(long offset, long length) {
+    return new Range(offset, offset + length - 1);
+  }
+}
@@ -80,6 +80,7 @@ public class ParquetPredictivePrefetchingTask {
   private final PhysicalIO physicalIO;
   private final ParquetColumnPrefetchStore parquetColumnPrefetchStore;
   private final LogicalIOConfiguration logicalIOConfiguration;
+  private final RowGroupLookAhead rowGroupLookAhead;
   private static final String OPERATION_PARQUET_PREFETCH_COLUMNS = "parquet.task.prefetch.columns";
   private static final Logger LOG = LoggerFactory.getLogger(ParquetPredictivePrefetchingTask.class);
 
@@ -98,11 +99,39 @@ public class ParquetPredictivePrefetchingTask {
       @NonNull LogicalIOConfiguration logicalIOConfiguration,
       @NonNull PhysicalIO physicalIO,
       @NonNull ParquetColumnPrefetchStore parquetColumnPrefetchStore) {
+    this(
+        s3Uri,
+        telemetry,
+        logicalIOConfiguration,
+        physicalIO,
+        parquetColumnPrefetchStore,
+        new RowGroupLookAhead(logicalIOConfiguration));
+  }
+
+  /**
+   * Creates a new instance of {@link ParquetPredictivePrefetchingTask}. This version of the
+   * constructor is useful for testing as it allows dependency injection.
+   *
+   * @param s3Uri the object's S3URI
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param logicalIOConfiguration logical io configuration
+   * @param physicalIO PhysicalIO instance
+   * @param parquetColumnPrefetchStore object containing Parquet usage information
+   * @param rowGroupLookAhead decides how many row groups to prefetch ahead of the reader
+   */
+  ParquetPredictivePrefetchingTask(
+      @NonNull S3URI s3Uri,
+      @NonNull Telemetry telemetry,
+      @NonNull LogicalIOConfiguration logicalIOConfiguration,
+      @NonNull PhysicalIO physicalIO,
+      @NonNull ParquetColumnPrefetchStore parquetColumnPrefetchStore,
+      @NonNull RowGroupLookAhead rowGroupLookAhead) {
     this.s3Uri = s3Uri;
     this.telemetry = telemetry;
     this.physicalIO = physicalIO;
     this.logicalIOConfiguration = logicalIOConfiguration;
     this.parquetColumnPrefetchStore = parquetColumnPrefetchStore;
+    this.rowGroupLookAhead = rowGroupLookAhead;
   }
 
   /**
@@ -118,9 +147,8 @@ public class ParquetPredictivePrefetchingTask {
       ColumnMappers columnMappers = parquetColumnPrefetchStore.getColumnMappers(s3Uri);
       List<ColumnMetadata> addedColumns = new ArrayList<>();
 
-      if (columnMappers.getOffsetIndexToColumnMap().containsKey(position)) {
-        ColumnMetadata columnMetadata = columnMappers.getOffsetIndexToColumnMap().get(position);
-
+      ColumnMetadata columnMetadata = columnMappers.getColumnStartingAt(position);
+      if (columnMetadata != null) {
         // If the column has a dictionary and the length of the read is <= the size of the
         // dictionary, then assume current read is for a dictionary only.
         if (isDictionaryRead(columnMetadata, len)) {
@@ -161,6 +189,9 @@ public class ParquetPredictivePrefetchingTask {
    * already. Columns from this row group may have been prefetched already due to a read to another
    * column for this row group.
    *
+   * <p>When the reader moves on to a new row group, recent columns of the row groups after it may
+   * also be prefetched, as decided by {@link RowGroupLookAhead}.
+   *
    * @param columnMappers Parquet file column mappings
    * @param columnMetadata Column metadata of the current column being read
    */
@@ -175,6 +206,63 @@ public class ParquetPredictivePrefetchingTask {
       parquetColumnPrefetchStore.storeColumnPrefetchedRowGroupIndex(
           s3Uri, columnMetadata.getRowGroupIndex());
     }
+
+    if (logicalIOConfiguration.getPrefetchingMode() == PrefetchMode.ROW_GROUP) {
+      prefetchRowGroupsAhead(columnMappers, columnMetadata.getRowGroupIndex());
+    }
+  }
+
+  /**
+   * Prefetches recent columns of the row groups following the one being read, as far ahead as
+   * {@link RowGroupLookAhead} allows, skipping row groups that have been prefetched already.
+   *
+   * @param columnMappers Parquet file column mappings
+   * @param rowGroupIndex the row group being read
+   */
+  private void prefetchRowGroupsAhead(ColumnMappers columnMappers, int rowGroupIndex) {
+    int depth = rowGroupLookAhead.recordRowGroupRead(rowGroupIndex);
+    if (depth == 0) {
+      return;
+    }
+
+    Set<String> recentColumns = getRecentColumns(columnMappers.getOffsetIndexToColumnMap(), false);
+    List<Integer> rowGroupsToPrefetch = new ArrayList<>();
+    int lastRowGroup = rowGroupIndex + depth;
+    for (int nextRowGroup = rowGroupIndex + 1; nextRowGroup <= lastRowGroup; nextRowGroup++) {
+      if (parquetColumnPrefetchStore.isColumnRowGroupPrefetched(s3Uri, nextRowGroup)) {
+        continue;
+      }
+      long bytes = getRecentColumnBytes(columnMappers, recentColumns, nextRowGroup);
+      // Stop at the end of the file, or once the budget is spent
+      if (bytes == 0 || !rowGroupLookAhead.tryReserve(nextRowGroup, bytes)) {
+        break;
+      }
+      rowGroupsToPrefetch.add(nextRowGroup);
+    }
+
+    if (!rowGroupsToPrefetch.isEmpty()) {
+      prefetchRecentColumns(columnMappers, rowGroupsToPrefetch, false);
+      for (int prefetchedRowGroup : rowGroupsToPrefetch) {
+        parquetColumnPrefetchStore.storeColumnPrefetchedRowGroupIndex(s3Uri, prefetchedRowGroup);
+      }
+    }
+  }
+
+  private static long getRecentColumnBytes(
+      ColumnMappers columnMappers, Set<String> recentColumns, int rowGroupIndex) {
+    long bytes = 0;
+    for (String recentColumn : recentColumns) {
+      List<ColumnMetadata> columnMetadataList =
+          columnMappers.getColumnNameToColumnMap().get(recentColumn);
+      if (columnMetadataList != null) {
+        for (ColumnMetadata columnMetadata : columnMetadataList) {
+          if (columnMetadata.getRowGroupIndex() == rowGroupIndex) {
+            bytes += columnMetadata.getCompressedSize();
+          }
+        }
+      }
+    }
+    return bytes;
   }
 
   private void prefetchDictionariesForCurrentRowGroup(
@@ -285,7 +373,7 @@ public class ParquetPredictivePrefetchingTask {
    *
    * <p>Since the reads do not align to column boundaries, that is, they do not start at the file
    * offset of the column, to track columns for prefetching additional logic is required. Here, we
-   * loop through the column file offsets and find the column that this read belongs to. For
+   * binary search the column file offsets to find the column that this read belongs to. For
    * example, for the read(8MB, 5MB) means we are reading column ss_b, since the position 8MB lies
    * within the boundary of ss_b as 8MB > file offset of ss_b > and 8MB < fil_offset of ss_c.
    *
@@ -295,29 +383,15 @@ public class ParquetPredictivePrefetchingTask {
    */
   private List<ColumnMetadata> addCurrentColumnAtPosition(
       long position, ColumnMappers columnMappers) {
-    ArrayList<Long> columnPositions =
-        new ArrayList<>(columnMappers.getOffsetIndexToColumnMap().keySet());
-    Collections.sort(columnPositions);
-
-    // For the last index, also add its end position so we can track reads that lie within
-    // that column boundary
-    long lastColumnStartPos = columnPositions.get(columnPositions.size() - 1);
-    ColumnMetadata lastColumnMetadata =
-        columnMappers.getOffsetIndexToColumnMap().get(lastColumnStartPos);
-    columnPositions.add(lastColumnStartPos + lastColumnMetadata.getCompressedSize());
-
-    for (int i = 0; i < columnPositions.size() - 1; i++) {
-      if (position > columnPositions.get(i) && position < columnPositions.get(i + 1)) {
-        ColumnMetadata currentColumnMetadata =
-            columnMappers.getOffsetIndexToColumnMap().get(columnPositions.get(i));
-        parquetColumnPrefetchStore.addRecentColumn(currentColumnMetadata);
-        List<ColumnMetadata> addedColumns = new ArrayList<>();
-        addedColumns.add(currentColumnMetadata);
-        return addedColumns;
-      }
+    ColumnMetadata currentColumnMetadata = columnMappers.getColumnContaining(position);
+    if (currentColumnMetadata == null) {
+      return Collections.emptyList();
     }
 
-    return Collections.emptyList();
+    parquetColumnPrefetchStore.addRecentColumn(currentColumnMetadata);
+    List<ColumnMetadata> addedColumns = new ArrayList<>();
+    addedColumns.add(currentColumnMetadata);
+    return addedColumns;
   }
 
   /**
@@ -344,8 +418,7 @@ public class ParquetPredictivePrefetchingTask {
       long currentPos = position + columnMetadata.getCompressedSize();
 
       while (remainingLen > 0) {
-        ColumnMetadata currentColumnMetadata =
-            columnMappers.getOffsetIndexToColumnMap().get(currentPos);
+        ColumnMetadata currentColumnMetadata = columnMappers.getColumnStartingAt(currentPos);
 
         if (currentColumnMetadata == null || columnMetadata.getCompressedSize() == 0) {
           break;
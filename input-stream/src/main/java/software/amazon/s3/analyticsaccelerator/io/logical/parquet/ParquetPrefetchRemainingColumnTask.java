@@ -72,7 +72,7 @@ public class ParquetPrefetchRemainingColumnTask {
     try {
       ColumnMappers columnMappers = parquetColumnPrefetchStore.getColumnMappers(s3Uri);
       if (columnMappers != null) {
-        ColumnMetadata columnMetadata = columnMappers.getOffsetIndexToColumnMap().get(position);
+        ColumnMetadata columnMetadata = columnMappers.getColumnStartingAt(position);
         if (columnMetadata != null) {
           return telemetry.measureVerbose(
               () ->
@@ -26,6 +26,7 @@ import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
 import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 
@@ -57,6 +58,15 @@ public class ParquetReadTailTask {
     this.physicalIO = physicalIO;
   }
 
+  /**
+   * Returns the key of the version of the object whose tail this task reads.
+   *
+   * @return the URI and ETag of the object
+   */
+  public ObjectKey getObjectKey() {
+    return ObjectKey.builder().s3URI(s3URI).etag(physicalIO.metadata().getEtag()).build();
+  }
+
   /**
    * Reads parquet file tail
    *
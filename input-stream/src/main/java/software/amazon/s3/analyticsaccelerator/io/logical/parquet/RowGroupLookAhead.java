@@ -0,0 +1,160 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
+
+/**
+ * Decides how many row groups to prefetch ahead of the one a stream is reading, so that the network
+ * stays busy while the reader decodes the current row group.
+ *
+ * <p>The controller keeps a moving average of the time the reader spends on each row group,
+ * measured between the first reads of consecutive row groups, and looks far enough ahead for the
+ * prefetched row groups to cover {@link #LOOK_AHEAD_HORIZON_NANOS} of reading. A reader that gets
+ * through row groups quickly is therefore prefetched for deeper than a slow one. Until an interval
+ * has been measured, only the next row group is prefetched. The depth never exceeds the configured
+ * maximum, and the bytes reserved for row groups the reader has not reached yet never exceed the
+ * configured budget. Reservations are released as the reader reaches their row groups.
+ *
+ * <p>A read of an earlier row group means the reader is no longer scanning sequentially, and
+ * resets the controller.
+ *
+ * <p>This class is thread safe.
+ */
+public class RowGroupLookAhead {
+  static final long LOOK_AHEAD_HORIZON_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final double SMOOTHING = 0.3;
+
+  private final int maxDepth;
+  private final long maxBytes;
+  private final LongSupplier nanoClock;
+
+  // Guarded by this
+  private int currentRowGroup = -1;
+  private long currentRowGroupStartNanos;
+  private double rowGroupNanos;
+  private final NavigableMap<Integer, Long> reservedBytesPerRowGroup = new TreeMap<>();
+  private long reservedBytes;
+
+  /**
+   * Creates a new instance of {@link RowGroupLookAhead}.
+   *
+   * @param configuration LogicalIO configuration
+   */
+  public RowGroupLookAhead(@NonNull LogicalIOConfiguration configuration) {
+    this(configuration, System::nanoTime);
+  }
+
+  /**
+   * Creates a new instance of {@link RowGroupLookAhead}.
+   *
+   * @param configuration LogicalIO configuration
+   * @param nanoClock the source of monotonic time, in nanoseconds
+   */
+  public RowGroupLookAhead(
+      @NonNull LogicalIOConfiguration configuration, @NonNull LongSupplier nanoClock) {
+    Preconditions.checkArgument(
+        configuration.getRowGroupPrefetchMaxDepth() >= 0,
+        "`rowGroupPrefetchMaxDepth` must not be negative");
+    Preconditions.checkArgument(
+        configuration.getRowGroupPrefetchMaxBytes() >= 0,
+        "`rowGroupPrefetchMaxBytes` must not be negative");
+
+    this.maxDepth = configuration.getRowGroupPrefetchMaxDepth();
+    this.maxBytes = configuration.getRowGroupPrefetchMaxBytes();
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Records a read of a column chunk in the given row group.
+   *
+   * @param rowGroupIndex the row group being read
+   * @return the number of row groups after this one to prefetch, or 0 if the reader was already in
+   *     this row group, or look-ahead is disabled
+   */
+  public synchronized int recordRowGroupRead(int rowGroupIndex) {
+    if (maxDepth == 0 || rowGroupIndex == currentRowGroup) {
+      return 0;
+    }
+
+    long now = nanoClock.getAsLong();
+    if (rowGroupIndex < currentRowGroup) {
+      rowGroupNanos = 0;
+      reservedBytesPerRowGroup.clear();
+      reservedBytes = 0;
+    } else if (rowGroupIndex == currentRowGroup + 1 && currentRowGroup >= 0) {
+      // Row groups skipped by the reader say nothing about how long it takes to read one
+      rowGroupNanos = smooth(rowGroupNanos, now - currentRowGroupStartNanos);
+    }
+    currentRowGroup = rowGroupIndex;
+    currentRowGroupStartNanos = now;
+
+    // Row groups the reader has reached are no longer ahead of it
+    Map<Integer, Long> reached = reservedBytesPerRowGroup.headMap(rowGroupIndex, true);
+    for (long bytes : reached.values()) {
+      reservedBytes -= bytes;
+    }
+    reached.clear();
+
+    return depth();
+  }
+
+  /**
+   * Reserves part of the budget for prefetching a row group ahead of the reader.
+   *
+   * @param rowGroupIndex the row group to prefetch
+   * @param bytes the number of bytes that would be prefetched
+   * @return true if the row group fits in the budget and should be prefetched
+   */
+  public synchronized boolean tryReserve(int rowGroupIndex, long bytes) {
+    if (rowGroupIndex <= currentRowGroup || reservedBytes + bytes > maxBytes) {
+      return false;
+    }
+
+    reservedBytesPerRowGroup.merge(rowGroupIndex, bytes, Long::sum);
+    reservedBytes += bytes;
+    return true;
+  }
+
+  /**
+   * Returns the number of bytes reserved for row groups the reader has not reached yet.
+   *
+   * @return the reserved bytes
+   */
+  public synchronized long getReservedBytes() {
+    return reservedBytes;
+  }
+
+  private int depth() {
+    if (rowGroupNanos <= 0) {
+      return 1;
+    }
+
+    double depth = Math.ceil(LOOK_AHEAD_HORIZON_NANOS / rowGroupNanos);
+    return (int) Math.max(1, Math.min(maxDepth, depth));
+  }
+
+  private static double smooth(double average, double sample) {
+    return average == 0 ? sample : average + SMOOTHING * (sample - average);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A set of row indexes within a row group, held as sorted, disjoint and inclusive ranges. The last
+ * page of a column chunk is taken to run to the end of the row group, which is represented by
+ * {@link Long#MAX_VALUE}, as the number of rows of a row group is not needed anywhere else.
+ */
+final class RowRanges {
+  private static final long END = Long.MAX_VALUE;
+
+  static final RowRanges ALL = new RowRanges(Collections.singletonList(new long[] {0, END}));
+
+  // Pairs of first and last row index
+  private final List<long[]> ranges;
+
+  private RowRanges(List<long[]> ranges) {
+    this.ranges = ranges;
+  }
+
+  /**
+   * Returns the rows held by the pages of a column chunk that satisfy a filter.
+   *
+   * @param pages the pages of a column chunk, in file order
+   * @param filter decides which pages to include
+   * @return the rows of the included pages
+   */
+  static RowRanges of(List<PageMetadata> pages, Predicate<PageMetadata> filter) {
+    List<long[]> ranges = new ArrayList<>();
+    for (int i = 0; i < pages.size(); i++) {
+      if (!filter.test(pages.get(i))) {
+        continue;
+      }
+
+      long first = pages.get(i).getFirstRowIndex();
+      long last = lastRowIndex(pages, i);
+      long[] previous = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+      if (previous != null && previous[1] + 1 == first) {
+        previous[1] = last;
+      } else {
+        ranges.add(new long[] {first, last});
+      }
+    }
+    return new RowRanges(ranges);
+  }
+
+  /**
+   * Returns the index of the last row of a page.
+   *
+   * @param pages the pages of a column chunk, in file order
+   * @param index the index of the page
+   * @return the index of the row before the next page, or {@link Long#MAX_VALUE} for the last page
+   */
+  static long lastRowIndex(List<PageMetadata> pages, int index) {
+    return index + 1 < pages.size() ? pages.get(index + 1).getFirstRowIndex() - 1 : END;
+  }
+
+  /**
+   * Returns the rows held by both this set and another one.
+   *
+   * @param other the other set
+   * @return the intersection of both sets
+   */
+  RowRanges intersect(RowRanges other) {
+    List<long[]> intersection = new ArrayList<>();
+    int i = 0;
+    int j = 0;
+    while (i < ranges.size() && j < other.ranges.size()) {
+      long[] range = ranges.get(i);
+      long[] otherRange = other.ranges.get(j);
+      long first = Math.max(range[0], otherRange[0]);
+      long last = Math.min(range[1], otherRange[1]);
+      if (first <= last) {
+        intersection.add(new long[] {first, last});
+      }
+      // Move past whichever range ends first
+      if (range[1] < otherRange[1]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return new RowRanges(intersection);
+  }
+
+  /**
+   * Returns whether any row between two indexes is in this set.
+   *
+   * @param first the index of the first row
+   * @param last the index of the last row
+   * @return true if the set holds any of the rows
+   */
+  boolean overlaps(long first, long last) {
+    for (long[] range : ranges) {
+      if (range[0] > last) {
+        return false;
+      }
+      if (range[1] >= first) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether this set holds no rows.
+   *
+   * @return true if there are no rows
+   */
+  boolean isEmpty() {
+    return ranges.isEmpty();
+  }
+}
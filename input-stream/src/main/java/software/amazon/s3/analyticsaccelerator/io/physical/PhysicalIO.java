@@ -30,4 +30,18 @@ public interface PhysicalIO extends RandomAccessReadable {
    * @return an IOPlanExecution object tracking the execution of the submitted plan
    */
   IOPlanExecution execute(IOPlan ioPlan) throws IOException;
+
+  /**
+   * Reads data the library needs for itself, such as the page index used to plan prefetches. Unlike
+   * {@link #read(byte[], int, int, long)}, this does not move the stream, so it leaves its
+   * prefetches alone, and does not count as the stream consuming the bytes read.
+   *
+   * @param buf buffer to read data into
+   * @param off start position in buffer at which data is written
+   * @param len length of data to be read
+   * @param pos the position to begin reading from
+   * @return the total number of bytes read into the buffer
+   * @throws IOException if an I/O error occurs
+   */
+  int readForPlanning(byte[] buf, int off, int len, long pos) throws IOException;
 }
@@ -15,15 +15,18 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.physical;
 
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_GB;
 import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_KB;
 import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NonNull;
 import software.amazon.s3.analyticsaccelerator.common.ConnectorConfiguration;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.io.physical.prefetcher.SequentialReadProgression;
+import software.amazon.s3.analyticsaccelerator.util.BufferPoolType;
 
 /** Configuration for {@link PhysicalIO} */
 @Getter
@@ -41,6 +44,29 @@ public class PhysicalIOConfiguration {
   private static final double DEFAULT_SEQUENTIAL_PREFETCH_SPEED = 1.0;
   private static final long DEFAULT_BLOCK_READ_TIMEOUT = 120_000;
   private static final int DEFAULT_BLOCK_READ_RETRY_COUNT = 20;
+  private static final long DEFAULT_BLOCK_CACHE_CAPACITY_BYTES = 2 * ONE_GB;
+  private static final BufferPoolType DEFAULT_BUFFER_POOL_TYPE = BufferPoolType.HEAP;
+  private static final long DEFAULT_BUFFER_POOL_CAPACITY_BYTES = 256 * ONE_MB;
+  private static final long DEFAULT_VECTORED_READ_MERGE_GAP_BYTES = 4 * ONE_KB;
+  private static final long DEFAULT_VECTORED_READ_MAX_MERGED_SIZE_BYTES = ONE_MB;
+  private static final boolean DEFAULT_ADAPTIVE_READ_AHEAD_ENABLED = false;
+  private static final long DEFAULT_ADAPTIVE_READ_AHEAD_MIN_BYTES = 2 * ONE_MB;
+  private static final long DEFAULT_ADAPTIVE_READ_AHEAD_MAX_BYTES = 64 * ONE_MB;
+  private static final int DEFAULT_REQUEST_CONCURRENCY_PER_OBJECT = 16;
+  private static final int DEFAULT_REQUEST_CONCURRENCY = 64;
+  private static final long DEFAULT_METADATA_STORE_TTL = 60_000;
+  private static final long DEFAULT_METADATA_STORE_NEGATIVE_TTL = 5_000;
+  private static final int DEFAULT_METADATA_STORE_PREFETCH_CONCURRENCY = 16;
+  private static final boolean DEFAULT_OPTIMISTIC_OPEN_ENABLED = false;
+  private static final long DEFAULT_OPTIMISTIC_OPEN_TAIL_BYTES = ONE_MB;
+  private static final boolean DEFAULT_REQUEST_HEDGING_ENABLED = false;
+  private static final double DEFAULT_REQUEST_HEDGING_PERCENTILE = 95.0;
+  private static final long DEFAULT_REQUEST_HEDGING_MIN_DELAY = 50;
+  private static final double DEFAULT_REQUEST_HEDGING_BUDGET = 0.05;
+  private static final long DEFAULT_RETRY_BASE_DELAY = 10;
+  private static final long DEFAULT_RETRY_MAX_DELAY = 100;
+  private static final int DEFAULT_RETRY_BUDGET = 500;
+  private static final long DEFAULT_PART_SPLITTING_MAX_RANGE_SIZE = 64 * ONE_MB;
 
   /** Capacity, in blobs. {@link PhysicalIOConfiguration#DEFAULT_CAPACITY_BLOB_STORE} by default. */
   @Builder.Default private int blobStoreCapacity = DEFAULT_CAPACITY_BLOB_STORE;
@@ -105,6 +131,199 @@ public class PhysicalIOConfiguration {
 
   private static final String BLOCK_READ_RETRY_COUNT_KEY = "blockreadretrycount";
 
+  /**
+   * Capacity, in bytes, of the block cache shared by all blobs in the BlobStore. {@link
+   * PhysicalIOConfiguration#DEFAULT_BLOCK_CACHE_CAPACITY_BYTES} by default.
+   */
+  @Builder.Default private long blockCacheCapacityBytes = DEFAULT_BLOCK_CACHE_CAPACITY_BYTES;
+
+  private static final String BLOCK_CACHE_CAPACITY_BYTES_KEY = "blockcache.capacitybytes";
+
+  /**
+   * Kind of buffers used to hold block data. {@link
+   * PhysicalIOConfiguration#DEFAULT_BUFFER_POOL_TYPE} by default.
+   */
+  @Builder.Default private BufferPoolType bufferPoolType = DEFAULT_BUFFER_POOL_TYPE;
+
+  private static final String BUFFER_POOL_TYPE_KEY = "bufferpool.type";
+
+  /**
+   * Maximum number of bytes held by idle buffers kept for reuse by a direct buffer pool. {@link
+   * PhysicalIOConfiguration#DEFAULT_BUFFER_POOL_CAPACITY_BYTES} by default.
+   */
+  @Builder.Default private long bufferPoolCapacityBytes = DEFAULT_BUFFER_POOL_CAPACITY_BYTES;
+
+  private static final String BUFFER_POOL_CAPACITY_BYTES_KEY = "bufferpool.capacitybytes";
+
+  /**
+   * Largest gap, in bytes, between two ranges of a vectored read for them to be fetched together.
+   * {@link PhysicalIOConfiguration#DEFAULT_VECTORED_READ_MERGE_GAP_BYTES} by default.
+   */
+  @Builder.Default private long vectoredReadMergeGapBytes = DEFAULT_VECTORED_READ_MERGE_GAP_BYTES;
+
+  private static final String VECTORED_READ_MERGE_GAP_BYTES_KEY = "vectoredread.mergegapbytes";
+
+  /**
+   * Largest size, in bytes, of a range produced by merging ranges of a vectored read. {@link
+   * PhysicalIOConfiguration#DEFAULT_VECTORED_READ_MAX_MERGED_SIZE_BYTES} by default.
+   */
+  @Builder.Default
+  private long vectoredReadMaxMergedSizeBytes = DEFAULT_VECTORED_READ_MAX_MERGED_SIZE_BYTES;
+
+  private static final String VECTORED_READ_MAX_MERGED_SIZE_BYTES_KEY =
+      "vectoredread.maxmergedsizebytes";
+
+  /**
+   * Whether sequential read-ahead is sized from observed consumption and fetch rates. {@link
+   * PhysicalIOConfiguration#DEFAULT_ADAPTIVE_READ_AHEAD_ENABLED} by default.
+   */
+  @Builder.Default private boolean adaptiveReadAheadEnabled = DEFAULT_ADAPTIVE_READ_AHEAD_ENABLED;
+
+  private static final String ADAPTIVE_READ_AHEAD_ENABLED_KEY = "adaptivereadahead.enabled";
+
+  /**
+   * Smallest adaptive sequential read-ahead window, in bytes. {@link
+   * PhysicalIOConfiguration#DEFAULT_ADAPTIVE_READ_AHEAD_MIN_BYTES} by default.
+   */
+  @Builder.Default private long adaptiveReadAheadMinBytes = DEFAULT_ADAPTIVE_READ_AHEAD_MIN_BYTES;
+
+  private static final String ADAPTIVE_READ_AHEAD_MIN_BYTES_KEY = "adaptivereadahead.minbytes";
+
+  /**
+   * Largest adaptive sequential read-ahead window, in bytes. {@link
+   * PhysicalIOConfiguration#DEFAULT_ADAPTIVE_READ_AHEAD_MAX_BYTES} by default.
+   */
+  @Builder.Default private long adaptiveReadAheadMaxBytes = DEFAULT_ADAPTIVE_READ_AHEAD_MAX_BYTES;
+
+  private static final String ADAPTIVE_READ_AHEAD_MAX_BYTES_KEY = "adaptivereadahead.maxbytes";
+
+  /**
+   * Maximum number of GET requests in flight for a single object. {@link
+   * PhysicalIOConfiguration#DEFAULT_REQUEST_CONCURRENCY_PER_OBJECT} by default.
+   */
+  @Builder.Default private int requestConcurrencyPerObject = DEFAULT_REQUEST_CONCURRENCY_PER_OBJECT;
+
+  private static final String REQUEST_CONCURRENCY_PER_OBJECT_KEY =
+      "requestscheduler.concurrency.perobject";
+
+  /**
+   * Maximum number of GET requests in flight across all objects. {@link
+   * PhysicalIOConfiguration#DEFAULT_REQUEST_CONCURRENCY} by default.
+   */
+  @Builder.Default private int requestConcurrency = DEFAULT_REQUEST_CONCURRENCY;
+
+  private static final String REQUEST_CONCURRENCY_KEY = "requestscheduler.concurrency";
+
+  /**
+   * Time (in milliseconds) after which cached metadata is revalidated in the background. {@link
+   * PhysicalIOConfiguration#DEFAULT_METADATA_STORE_TTL} by default.
+   */
+  @Builder.Default private long metadataStoreTtl = DEFAULT_METADATA_STORE_TTL;
+
+  private static final String METADATA_STORE_TTL_KEY = "metadatastore.ttl";
+
+  /**
+   * Time (in milliseconds) for which a missing object is remembered as missing. {@link
+   * PhysicalIOConfiguration#DEFAULT_METADATA_STORE_NEGATIVE_TTL} by default.
+   */
+  @Builder.Default private long metadataStoreNegativeTtl = DEFAULT_METADATA_STORE_NEGATIVE_TTL;
+
+  private static final String METADATA_STORE_NEGATIVE_TTL_KEY = "metadatastore.negativettl";
+
+  /**
+   * Maximum number of HEAD requests in flight for a batch metadata prefetch. {@link
+   * PhysicalIOConfiguration#DEFAULT_METADATA_STORE_PREFETCH_CONCURRENCY} by default.
+   */
+  @Builder.Default
+  private int metadataStorePrefetchConcurrency = DEFAULT_METADATA_STORE_PREFETCH_CONCURRENCY;
+
+  private static final String METADATA_STORE_PREFETCH_CONCURRENCY_KEY =
+      "metadatastore.prefetch.concurrency";
+
+  /**
+   * Whether streams are opened with a suffix range GET of the object tail instead of a HEAD
+   * request. {@link PhysicalIOConfiguration#DEFAULT_OPTIMISTIC_OPEN_ENABLED} by default.
+   */
+  @Builder.Default private boolean optimisticOpenEnabled = DEFAULT_OPTIMISTIC_OPEN_ENABLED;
+
+  private static final String OPTIMISTIC_OPEN_ENABLED_KEY = "optimisticopen.enabled";
+
+  /**
+   * Number of bytes from the end of the object read when a stream is opened optimistically. {@link
+   * PhysicalIOConfiguration#DEFAULT_OPTIMISTIC_OPEN_TAIL_BYTES} by default.
+   */
+  @Builder.Default private long optimisticOpenTailBytes = DEFAULT_OPTIMISTIC_OPEN_TAIL_BYTES;
+
+  private static final String OPTIMISTIC_OPEN_TAIL_BYTES_KEY = "optimisticopen.tailbytes";
+
+  /**
+   * Whether a duplicate GET is issued for blocks whose request is slower than recent requests.
+   * {@link PhysicalIOConfiguration#DEFAULT_REQUEST_HEDGING_ENABLED} by default.
+   */
+  @Builder.Default private boolean requestHedgingEnabled = DEFAULT_REQUEST_HEDGING_ENABLED;
+
+  private static final String REQUEST_HEDGING_ENABLED_KEY = "requesthedging.enabled";
+
+  /**
+   * Percentile of recent response latencies after which a GET request is hedged. {@link
+   * PhysicalIOConfiguration#DEFAULT_REQUEST_HEDGING_PERCENTILE} by default.
+   */
+  @Builder.Default private double requestHedgingPercentile = DEFAULT_REQUEST_HEDGING_PERCENTILE;
+
+  private static final String REQUEST_HEDGING_PERCENTILE_KEY = "requesthedging.percentile";
+
+  /**
+   * Minimum delay in milliseconds before a GET request is hedged. {@link
+   * PhysicalIOConfiguration#DEFAULT_REQUEST_HEDGING_MIN_DELAY} by default.
+   */
+  @Builder.Default private long requestHedgingMinDelay = DEFAULT_REQUEST_HEDGING_MIN_DELAY;
+
+  private static final String REQUEST_HEDGING_MIN_DELAY_KEY = "requesthedging.mindelay";
+
+  /**
+   * Largest fraction of GET requests that may be hedged. {@link
+   * PhysicalIOConfiguration#DEFAULT_REQUEST_HEDGING_BUDGET} by default.
+   */
+  @Builder.Default private double requestHedgingBudget = DEFAULT_REQUEST_HEDGING_BUDGET;
+
+  private static final String REQUEST_HEDGING_BUDGET_KEY = "requesthedging.budget";
+
+  /**
+   * Smallest delay in milliseconds before a failed block read is retried. {@link
+   * PhysicalIOConfiguration#DEFAULT_RETRY_BASE_DELAY} by default.
+   */
+  @Builder.Default private long retryBaseDelay = DEFAULT_RETRY_BASE_DELAY;
+
+  private static final String RETRY_BASE_DELAY_KEY = "retry.basedelay";
+
+  /**
+   * Largest delay in milliseconds before a failed block read is retried. {@link
+   * PhysicalIOConfiguration#DEFAULT_RETRY_MAX_DELAY} by default.
+   */
+  @Builder.Default private long retryMaxDelay = DEFAULT_RETRY_MAX_DELAY;
+
+  private static final String RETRY_MAX_DELAY_KEY = "retry.maxdelay";
+
+  /**
+   * Size of the retry token bucket shared by all streams of a factory. A retry costs 5 tokens, or
+   * 10 after a timeout, and a successful read returns one. {@link
+   * PhysicalIOConfiguration#DEFAULT_RETRY_BUDGET} by default.
+   */
+  @Builder.Default private int retryBudget = DEFAULT_RETRY_BUDGET;
+
+  private static final String RETRY_BUDGET_KEY = "retry.budget";
+
+  /**
+   * Largest sequential read fetched as a single request from an object client that splits ranges
+   * into parts itself, such as the CRT based client. Other clients are sent ranges of at most
+   * maxRangeSizeBytes. {@link PhysicalIOConfiguration#DEFAULT_PART_SPLITTING_MAX_RANGE_SIZE} by
+   * default.
+   */
+  @Builder.Default
+  private long partSplittingMaxRangeSizeBytes = DEFAULT_PART_SPLITTING_MAX_RANGE_SIZE;
+
+  private static final String PART_SPLITTING_MAX_RANGE_SIZE_KEY = "partsplitting.maxrangesizebytes";
+
   /** Default set of settings for {@link PhysicalIO} */
   public static final PhysicalIOConfiguration DEFAULT = PhysicalIOConfiguration.builder().build();
 
@@ -132,6 +351,65 @@ public class PhysicalIOConfiguration {
         .blockReadTimeout(configuration.getLong(BLOCK_READ_TIMEOUT_KEY, DEFAULT_BLOCK_READ_TIMEOUT))
         .blockReadRetryCount(
             configuration.getInt(BLOCK_READ_RETRY_COUNT_KEY, DEFAULT_BLOCK_READ_RETRY_COUNT))
+        .blockCacheCapacityBytes(
+            configuration.getLong(
+                BLOCK_CACHE_CAPACITY_BYTES_KEY, DEFAULT_BLOCK_CACHE_CAPACITY_BYTES))
+        .bufferPoolType(
+            BufferPoolType.fromString(
+                configuration.getString(
+                    BUFFER_POOL_TYPE_KEY, DEFAULT_BUFFER_POOL_TYPE.toString())))
+        .bufferPoolCapacityBytes(
+            configuration.getLong(
+                BUFFER_POOL_CAPACITY_BYTES_KEY, DEFAULT_BUFFER_POOL_CAPACITY_BYTES))
+        .vectoredReadMergeGapBytes(
+            configuration.getLong(
+                VECTORED_READ_MERGE_GAP_BYTES_KEY, DEFAULT_VECTORED_READ_MERGE_GAP_BYTES))
+        .vectoredReadMaxMergedSizeBytes(
+            configuration.getLong(
+                VECTORED_READ_MAX_MERGED_SIZE_BYTES_KEY,
+                DEFAULT_VECTORED_READ_MAX_MERGED_SIZE_BYTES))
+        .adaptiveReadAheadEnabled(
+            configuration.getBoolean(
+                ADAPTIVE_READ_AHEAD_ENABLED_KEY, DEFAULT_ADAPTIVE_READ_AHEAD_ENABLED))
+        .adaptiveReadAheadMinBytes(
+            configuration.getLong(
+                ADAPTIVE_READ_AHEAD_MIN_BYTES_KEY, DEFAULT_ADAPTIVE_READ_AHEAD_MIN_BYTES))
+        .adaptiveReadAheadMaxBytes(
+            configuration.getLong(
+                ADAPTIVE_READ_AHEAD_MAX_BYTES_KEY, DEFAULT_ADAPTIVE_READ_AHEAD_MAX_BYTES))
+        .requestConcurrencyPerObject(
+            configuration.getInt(
+                REQUEST_CONCURRENCY_PER_OBJECT_KEY, DEFAULT_REQUEST_CONCURRENCY_PER_OBJECT))
+        .requestConcurrency(
+            configuration.getInt(REQUEST_CONCURRENCY_KEY, DEFAULT_REQUEST_CONCURRENCY))
+        .metadataStoreTtl(configuration.getLong(METADATA_STORE_TTL_KEY, DEFAULT_METADATA_STORE_TTL))
+        .metadataStoreNegativeTtl(
+            configuration.getLong(
+                METADATA_STORE_NEGATIVE_TTL_KEY, DEFAULT_METADATA_STORE_NEGATIVE_TTL))
+        .metadataStorePrefetchConcurrency(
+            configuration.getInt(
+                METADATA_STORE_PREFETCH_CONCURRENCY_KEY,
+                DEFAULT_METADATA_STORE_PREFETCH_CONCURRENCY))
+        .optimisticOpenEnabled(
+            configuration.getBoolean(OPTIMISTIC_OPEN_ENABLED_KEY, DEFAULT_OPTIMISTIC_OPEN_ENABLED))
+        .optimisticOpenTailBytes(
+            configuration.getLong(
+                OPTIMISTIC_OPEN_TAIL_BYTES_KEY, DEFAULT_OPTIMISTIC_OPEN_TAIL_BYTES))
+        .requestHedgingEnabled(
+            configuration.getBoolean(REQUEST_HEDGING_ENABLED_KEY, DEFAULT_REQUEST_HEDGING_ENABLED))
+        .requestHedgingPercentile(
+            configuration.getDouble(
+                REQUEST_HEDGING_PERCENTILE_KEY, DEFAULT_REQUEST_HEDGING_PERCENTILE))
+        .requestHedgingMinDelay(
+            configuration.getLong(REQUEST_HEDGING_MIN_DELAY_KEY, DEFAULT_REQUEST_HEDGING_MIN_DELAY))
+        .requestHedgingBudget(
+            configuration.getDouble(REQUEST_HEDGING_BUDGET_KEY, DEFAULT_REQUEST_HEDGING_BUDGET))
+        .retryBaseDelay(configuration.getLong(RETRY_BASE_DELAY_KEY, DEFAULT_RETRY_BASE_DELAY))
+        .retryMaxDelay(configuration.getLong(RETRY_MAX_DELAY_KEY, DEFAULT_RETRY_MAX_DELAY))
+        .retryBudget(configuration.getInt(RETRY_BUDGET_KEY, DEFAULT_RETRY_BUDGET))
+        .partSplittingMaxRangeSizeBytes(
+            configuration.getLong(
+                PART_SPLITTING_MAX_RANGE_SIZE_KEY, DEFAULT_PART_SPLITTING_MAX_RANGE_SIZE))
         .build();
   }
 
@@ -150,6 +428,31 @@ public class PhysicalIOConfiguration {
    *     prefetched physical blocks.
    * @param blockReadTimeout Timeout duration (in milliseconds) for reading a block object from S3
    * @param blockReadRetryCount Number of retries for block read failure
+   * @param blockCacheCapacityBytes Capacity, in bytes, of the block cache shared across blobs
+   * @param bufferPoolType Kind of buffers used to hold block data
+   * @param bufferPoolCapacityBytes Maximum number of bytes kept for reuse by a direct buffer pool
+   * @param vectoredReadMergeGapBytes Largest gap between vectored read ranges fetched together
+   * @param vectoredReadMaxMergedSizeBytes Largest size of a merged vectored read range
+   * @param adaptiveReadAheadEnabled Whether to size sequential read-ahead from observed rates
+   * @param adaptiveReadAheadMinBytes Smallest adaptive read-ahead window, in bytes
+   * @param adaptiveReadAheadMaxBytes Largest adaptive read-ahead window, in bytes
+   * @param requestConcurrencyPerObject Maximum number of GET requests in flight for one object
+   * @param requestConcurrency Maximum number of GET requests in flight across all objects
+   * @param metadataStoreTtl Time (in milliseconds) after which cached metadata is revalidated
+   * @param metadataStoreNegativeTtl Time (in milliseconds) for which a missing object is remembered
+   * @param metadataStorePrefetchConcurrency Maximum number of HEAD requests in flight for a batch
+   *     metadata prefetch
+   * @param optimisticOpenEnabled Whether to open streams with a GET of the object tail
+   * @param optimisticOpenTailBytes Number of tail bytes read by an optimistic open
+   * @param requestHedgingEnabled Whether to hedge slow GET requests with a duplicate
+   * @param requestHedgingPercentile Percentile of recent response latencies after which to hedge
+   * @param requestHedgingMinDelay Minimum delay in milliseconds before a GET request is hedged
+   * @param requestHedgingBudget Largest fraction of GET requests that may be hedged
+   * @param retryBaseDelay Smallest delay in milliseconds before a failed block read is retried
+   * @param retryMaxDelay Largest delay in milliseconds before a failed block read is retried
+   * @param retryBudget Size of the retry token bucket shared by all streams of a factory
+   * @param partSplittingMaxRangeSizeBytes Largest sequential read fetched as a single request from
+   *     a part splitting client
    */
   @Builder
   private PhysicalIOConfiguration(
@@ -162,7 +465,30 @@ public class PhysicalIOConfiguration {
       double sequentialPrefetchBase,
       double sequentialPrefetchSpeed,
       long blockReadTimeout,
-      int blockReadRetryCount) {
+      int blockReadRetryCount,
+      long blockCacheCapacityBytes,
+      @NonNull BufferPoolType bufferPoolType,
+      long bufferPoolCapacityBytes,
+      long vectoredReadMergeGapBytes,
+      long vectoredReadMaxMergedSizeBytes,
+      boolean adaptiveReadAheadEnabled,
+      long adaptiveReadAheadMinBytes,
+      long adaptiveReadAheadMaxBytes,
+      int requestConcurrencyPerObject,
+      int requestConcurrency,
+      long metadataStoreTtl,
+      long metadataStoreNegativeTtl,
+      int metadataStorePrefetchConcurrency,
+      boolean optimisticOpenEnabled,
+      long optimisticOpenTailBytes,
+      boolean requestHedgingEnabled,
+      double requestHedgingPercentile,
+      long requestHedgingMinDelay,
+      double requestHedgingBudget,
+      long retryBaseDelay,
+      long retryMaxDelay,
+      int retryBudget,
+      long partSplittingMaxRangeSizeBytes) {
     Preconditions.checkArgument(blobStoreCapacity > 0, "`blobStoreCapacity` must be positive");
     Preconditions.checkArgument(
         metadataStoreCapacity > 0, "`metadataStoreCapacity` must be positive");
@@ -176,6 +502,44 @@ public class PhysicalIOConfiguration {
         sequentialPrefetchSpeed > 0, "`sequentialPrefetchSpeed` must be positive");
     Preconditions.checkArgument(blockReadTimeout > 0, "`blockReadTimeout` must be positive");
     Preconditions.checkArgument(blockReadRetryCount > 0, "`blockReadRetryCount` must be positive");
+    Preconditions.checkArgument(
+        blockCacheCapacityBytes > 0, "`blockCacheCapacityBytes` must be positive");
+    Preconditions.checkArgument(
+        bufferPoolCapacityBytes >= 0, "`bufferPoolCapacityBytes` must not be negative");
+    Preconditions.checkArgument(
+        vectoredReadMergeGapBytes >= 0, "`vectoredReadMergeGapBytes` must not be negative");
+    Preconditions.checkArgument(
+        vectoredReadMaxMergedSizeBytes > 0, "`vectoredReadMaxMergedSizeBytes` must be positive");
+    Preconditions.checkArgument(
+        adaptiveReadAheadMinBytes > 0, "`adaptiveReadAheadMinBytes` must be positive");
+    Preconditions.checkArgument(
+        adaptiveReadAheadMaxBytes >= adaptiveReadAheadMinBytes,
+        "`adaptiveReadAheadMaxBytes` must not be less than `adaptiveReadAheadMinBytes`");
+    Preconditions.checkArgument(
+        requestConcurrencyPerObject > 0, "`requestConcurrencyPerObject` must be positive");
+    Preconditions.checkArgument(requestConcurrency > 0, "`requestConcurrency` must be positive");
+    Preconditions.checkArgument(metadataStoreTtl > 0, "`metadataStoreTtl` must be positive");
+    Preconditions.checkArgument(
+        metadataStoreNegativeTtl >= 0, "`metadataStoreNegativeTtl` must not be negative");
+    Preconditions.checkArgument(
+        metadataStorePrefetchConcurrency > 0,
+        "`metadataStorePrefetchConcurrency` must be positive");
+    Preconditions.checkArgument(
+        optimisticOpenTailBytes > 0, "`optimisticOpenTailBytes` must be positive");
+    Preconditions.checkArgument(
+        requestHedgingPercentile > 0 && requestHedgingPercentile <= 100,
+        "`requestHedgingPercentile` must be in (0, 100]");
+    Preconditions.checkArgument(
+        requestHedgingMinDelay > 0, "`requestHedgingMinDelay` must be positive");
+    Preconditions.checkArgument(
+        requestHedgingBudget >= 0 && requestHedgingBudget <= 1,
+        "`requestHedgingBudget` must be in [0, 1]");
+    Preconditions.checkArgument(retryBaseDelay >= 0, "`retryBaseDelay` must not be negative");
+    Preconditions.checkArgument(
+        retryMaxDelay >= retryBaseDelay, "`retryMaxDelay` must not be less than `retryBaseDelay`");
+    Preconditions.checkArgument(retryBudget >= 0, "`retryBudget` must not be negative");
+    Preconditions.checkArgument(
+        partSplittingMaxRangeSizeBytes > 0, "`partSplittingMaxRangeSizeBytes` must be positive");
 
     this.blobStoreCapacity = blobStoreCapacity;
     this.metadataStoreCapacity = metadataStoreCapacity;
@@ -187,6 +551,29 @@ public class PhysicalIOConfiguration {
     this.sequentialPrefetchSpeed = sequentialPrefetchSpeed;
     this.blockReadTimeout = blockReadTimeout;
     this.blockReadRetryCount = blockReadRetryCount;
+    this.blockCacheCapacityBytes = blockCacheCapacityBytes;
+    this.bufferPoolType = bufferPoolType;
+    this.bufferPoolCapacityBytes = bufferPoolCapacityBytes;
+    this.vectoredReadMergeGapBytes = vectoredReadMergeGapBytes;
+    this.vectoredReadMaxMergedSizeBytes = vectoredReadMaxMergedSizeBytes;
+    this.adaptiveReadAheadEnabled = adaptiveReadAheadEnabled;
+    this.adaptiveReadAheadMinBytes = adaptiveReadAheadMinBytes;
+    this.adaptiveReadAheadMaxBytes = adaptiveReadAheadMaxBytes;
+    this.requestConcurrencyPerObject = requestConcurrencyPerObject;
+    this.requestConcurrency = requestConcurrency;
+    this.metadataStoreTtl = metadataStoreTtl;
+    this.metadataStoreNegativeTtl = metadataStoreNegativeTtl;
+    this.metadataStorePrefetchConcurrency = metadataStorePrefetchConcurrency;
+    this.optimisticOpenEnabled = optimisticOpenEnabled;
+    this.optimisticOpenTailBytes = optimisticOpenTailBytes;
+    this.requestHedgingEnabled = requestHedgingEnabled;
+    this.requestHedgingPercentile = requestHedgingPercentile;
+    this.requestHedgingMinDelay = requestHedgingMinDelay;
+    this.requestHedgingBudget = requestHedgingBudget;
+    this.retryBaseDelay = retryBaseDelay;
+    this.retryMaxDelay = retryMaxDelay;
+    this.retryBudget = retryBudget;
+    this.partSplittingMaxRangeSizeBytes = partSplittingMaxRangeSizeBytes;
   }
 
   @Override
@@ -204,6 +591,30 @@ public class PhysicalIOConfiguration {
     builder.append("\tsequentialPrefetchSpeed: " + sequentialPrefetchSpeed + "\n");
     builder.append("\tblockReadTimeout: " + blockReadTimeout + "\n");
     builder.append("\tblockReadRetryCount: " + blockReadRetryCount + "\n");
+    builder.append("\tblockCacheCapacityBytes: " + blockCacheCapacityBytes + "\n");
+    builder.append("\tbufferPoolType: " + bufferPoolType + "\n");
+    builder.append("\tbufferPoolCapacityBytes: " + bufferPoolCapacityBytes + "\n");
+    builder.append("\tvectoredReadMergeGapBytes: " + vectoredReadMergeGapBytes + "\n");
+    builder.append("\tvectoredReadMaxMergedSizeBytes: " + vectoredReadMaxMergedSizeBytes + "\n");
+    builder.append("\tadaptiveReadAheadEnabled: " + adaptiveReadAheadEnabled + "\n");
+    builder.append("\tadaptiveReadAheadMinBytes: " + adaptiveReadAheadMinBytes + "\n");
+    builder.append("\tadaptiveReadAheadMaxBytes: " + adaptiveReadAheadMaxBytes + "\n");
+    builder.append("\trequestConcurrencyPerObject: " + requestConcurrencyPerObject + "\n");
+    builder.append("\trequestConcurrency: " + requestConcurrency + "\n");
+    builder.append("\tmetadataStoreTtl: " + metadataStoreTtl + "\n");
+    builder.append("\tmetadataStoreNegativeTtl: " + metadataStoreNegativeTtl + "\n");
+    builder.append(
+        "\tmetadataStorePrefetchConcurrency: " + metadataStorePrefetchConcurrency + "\n");
+    builder.append("\toptimisticOpenEnabled: " + optimisticOpenEnabled + "\n");
+    builder.append("\toptimisticOpenTailBytes: " + optimisticOpenTailBytes + "\n");
+    builder.append("\trequestHedgingEnabled: " + requestHedgingEnabled + "\n");
+    builder.append("\trequestHedgingPercentile: " + requestHedgingPercentile + "\n");
+    builder.append("\trequestHedgingMinDelay: " + requestHedgingMinDelay + "\n");
+    builder.append("\trequestHedgingBudget: " + requestHedgingBudget + "\n");
+    builder.append("\tretryBaseDelay: " + retryBaseDelay + "\n");
+    builder.append("\tretryMaxDelay: " + retryMaxDelay + "\n");
+    builder.append("\tretryBudget: " + retryBudget + "\n");
+    builder.append("\tpartSplittingMaxRangeSizeBytes: " + partSplittingMaxRangeSizeBytes + "\n");
 
     return builder.toString();
   }
@@ -0,0 +1,63 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.buffer;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+/**
+ * A source of {@link ByteBuffer}s to hold block data. Buffers are acquired with the exact size of
+ * the data they are going to hold, and handed back to the pool once the data is no longer needed.
+ * A buffer must not be used after it has been released.
+ */
+public interface BufferPool extends Closeable {
+  /**
+   * Acquires a buffer with room for exactly {@code size} bytes. The buffer's position is zero and
+   * its limit is {@code size}.
+   *
+   * @param size the number of bytes the buffer needs to hold
+   * @return a buffer to write data into
+   */
+  ByteBuffer acquire(int size);
+
+  /**
+   * Returns a buffer obtained from {@link #acquire(int)} to the pool.
+   *
+   * @param buffer the buffer to release
+   */
+  void release(ByteBuffer buffer);
+
+  /** Closes the pool and drops any buffers it holds on to. */
+  @Override
+  default void close() {}
+
+  /**
+   * Creates the buffer pool selected by the configuration.
+   *
+   * @param configuration the physicalIO configuration
+   * @return a new instance of {@link BufferPool}
+   */
+  static BufferPool create(@NonNull PhysicalIOConfiguration configuration) {
+    switch (configuration.getBufferPoolType()) {
+      case DIRECT:
+        return new DirectBufferPool(configuration.getBufferPoolCapacityBytes());
+      default:
+        return new HeapBufferPool();
+    }
+  }
+}
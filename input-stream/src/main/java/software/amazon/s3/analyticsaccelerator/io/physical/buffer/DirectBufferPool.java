@@ -0,0 +1,123 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.buffer;
+
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_KB;
+
+import java.nio.ByteBuffer;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+
+/**
+ * A {@link BufferPool} handing out direct buffers and recycling the ones released to it. Buffers
+ * are bucketed by capacity, so that a released buffer can serve any later request of the same size
+ * class. Size classes are spaced a quarter of a power of two apart, so that a buffer is less than a
+ * quarter larger than the request it serves. At most {@code capacityBytes} worth of idle buffers
+ * are kept; anything released beyond that is left to the garbage collector.
+ *
+ * <p>This class is thread safe.
+ */
+public class DirectBufferPool implements BufferPool {
+  private static final int MIN_BUFFER_CAPACITY = 4 * ONE_KB;
+  private static final int MAX_POOLED_BUFFER_CAPACITY = 1 << 30;
+
+  private final long capacityBytes;
+  private final Map<Integer, Deque<ByteBuffer>> freeBuffers;
+  private final AtomicLong pooledBytes;
+
+  /**
+   * Constructs a new DirectBufferPool.
+   *
+   * @param capacityBytes the maximum number of bytes held by idle buffers in the pool
+   */
+  public DirectBufferPool(long capacityBytes) {
+    Preconditions.checkArgument(0 <= capacityBytes, "`capacityBytes` must not be negative");
+
+    this.capacityBytes = capacityBytes;
+    this.freeBuffers = new ConcurrentHashMap<>();
+    this.pooledBytes = new AtomicLong();
+  }
+
+  @Override
+  public ByteBuffer acquire(int size) {
+    Preconditions.checkArgument(0 <= size, "`size` must not be negative");
+
+    int capacity = capacityFor(size);
+    Deque<ByteBuffer> free = freeBuffers.get(capacity);
+    ByteBuffer buffer = free == null ? null : free.pollFirst();
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(capacity);
+    } else {
+      pooledBytes.addAndGet(-capacity);
+      buffer.clear();
+    }
+
+    buffer.limit(size);
+    return buffer;
+  }
+
+  @Override
+  public void release(@NonNull ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (!buffer.isDirect() || capacity != capacityFor(capacity)) {
+      // Not one of ours
+      return;
+    }
+
+    if (pooledBytes.addAndGet(capacity) > capacityBytes) {
+      pooledBytes.addAndGet(-capacity);
+      return;
+    }
+
+    freeBuffers.computeIfAbsent(capacity, c -> new ConcurrentLinkedDeque<>()).offerFirst(buffer);
+  }
+
+  /**
+   * Returns the number of bytes held by idle buffers in the pool.
+   *
+   * @return the number of pooled bytes
+   */
+  public long getPooledBytes() {
+    return pooledBytes.get();
+  }
+
+  @Override
+  public void close() {
+    freeBuffers.clear();
+    pooledBytes.set(0);
+  }
+
+  /**
+   * Returns the capacity of the buffers used to serve requests of the given size: the size rounded
+   * up to the next multiple of a quarter of the power of two below it, or the size itself for
+   * requests too large to be pooled.
+   */
+  private static int capacityFor(int size) {
+    if (size <= MIN_BUFFER_CAPACITY) {
+      return MIN_BUFFER_CAPACITY;
+    }
+    if (size > MAX_POOLED_BUFFER_CAPACITY) {
+      return size;
+    }
+    int step = Integer.highestOneBit(size - 1) >> 2;
+    return ((size - 1) / step + 1) * step;
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.buffer;
+
+import java.nio.ByteBuffer;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+
+/**
+ * A {@link BufferPool} handing out heap buffers of the exact requested size. Released buffers are
+ * left to the garbage collector.
+ */
+public class HeapBufferPool implements BufferPool {
+  @Override
+  public ByteBuffer acquire(int size) {
+    Preconditions.checkArgument(0 <= size, "`size` must not be negative");
+
+    return ByteBuffer.allocate(size);
+  }
+
+  @Override
+  public void release(ByteBuffer buffer) {}
+}
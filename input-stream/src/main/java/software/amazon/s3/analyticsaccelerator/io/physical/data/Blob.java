@@ -16,16 +16,29 @@
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 import lombok.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanExecution;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanState;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 import software.amazon.s3.analyticsaccelerator.request.ReadMode;
@@ -36,6 +49,8 @@ import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 public class Blob implements Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(Blob.class);
   private static final String OPERATION_EXECUTE = "blob.execute";
+  // Copies the ranges of vectored reads into the buffers of the caller once they are fetched
+  private static final ExecutorService VECTORED_READ_POOL = createVectoredReadPool();
 
   private final ObjectKey objectKey;
   private final BlockManager blockManager;
@@ -71,8 +86,18 @@ public class Blob implements Closeable {
    */
   public int read(long pos) throws IOException {
     Preconditions.checkArgument(pos >= 0, "`pos` must be non-negative");
-    blockManager.makePositionAvailable(pos, ReadMode.SYNC);
-    return blockManager.getBlock(pos).get().read(pos);
+    Optional<Block> block = Optional.empty();
+    while (!block.isPresent()) {
+      // Blocks can be evicted by the BlockCache between being made available and being read
+      blockManager.makePositionAvailable(pos, ReadMode.SYNC);
+      block = blockManager.acquireBlock(pos);
+    }
+
+    try {
+      return block.get().read(pos);
+    } finally {
+      block.get().release();
+    }
   }
 
   /**
@@ -86,30 +111,55 @@ public class Blob implements Closeable {
    * @throws IOException if an I/O error occurs
    */
   public int read(byte[] buf, int off, int len, long pos) throws IOException {
+    return read(buf, off, len, pos, ReadMode.SYNC);
+  }
+
+  /**
+   * Reads data the library needs for itself into the provided buffer, such as the page index used
+   * to plan prefetches. The range is fetched the way a prefetch is and waited for, but does not
+   * count as the stream consuming it: it neither grows read-ahead nor marks its blocks as read.
+   *
+   * @param buf buffer to read data into
+   * @param off start position in buffer at which data is written
+   * @param len length of data to be read
+   * @param pos the position to begin reading from
+   * @return the total number of bytes read into the buffer
+   * @throws IOException if an I/O error occurs
+   */
+  public int readForPlanning(byte[] buf, int off, int len, long pos) throws IOException {
+    return read(buf, off, len, pos, ReadMode.ASYNC);
+  }
+
+  private int read(byte[] buf, int off, int len, long pos, ReadMode readMode) throws IOException {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
     Preconditions.checkArgument(pos < contentLength(), "`pos` must be less than content length");
     Preconditions.checkArgument(0 <= off, "`off` must not be negative");
     Preconditions.checkArgument(0 <= len, "`len` must not be negative");
     Preconditions.checkArgument(off < buf.length, "`off` must be less than size of buffer");
 
-    blockManager.makeRangeAvailable(pos, len, ReadMode.SYNC);
+    blockManager.makeRangeAvailable(pos, len, readMode);
 
     long nextPosition = pos;
     int numBytesRead = 0;
 
     while (numBytesRead < len && nextPosition < contentLength()) {
-      final long nextPositionFinal = nextPosition;
-      Block nextBlock =
-          blockManager
-              .getBlock(nextPosition)
-              .orElseThrow(
-                  () ->
-                      new IllegalStateException(
-                          String.format(
-                              "This block (for position %s) should have been available.",
-                              nextPositionFinal)));
-
-      int bytesRead = nextBlock.read(buf, off + numBytesRead, len - numBytesRead, nextPosition);
+      Optional<Block> nextBlock =
+          readMode == ReadMode.SYNC
+              ? blockManager.acquireBlock(nextPosition)
+              : blockManager.retainBlock(nextPosition);
+      if (!nextBlock.isPresent()) {
+        // The block was evicted by the BlockCache after the range was made available
+        blockManager.makeRangeAvailable(nextPosition, len - numBytesRead, readMode);
+        continue;
+      }
+
+      int bytesRead;
+      try {
+        bytesRead =
+            nextBlock.get().read(buf, off + numBytesRead, len - numBytesRead, nextPosition);
+      } finally {
+        nextBlock.get().release();
+      }
 
       if (bytesRead == -1) {
         return numBytesRead;
@@ -122,6 +172,117 @@ public class Blob implements Closeable {
     return numBytesRead;
   }
 
+  /**
+   * Reads data into the provided buffer, starting at its current position
+   *
+   * @param buf buffer to read data into
+   * @param pos the position to begin reading from
+   * @return the total number of bytes read into the buffer
+   * @throws IOException if an I/O error occurs
+   */
+  public int read(@NonNull ByteBuffer buf, long pos) throws IOException {
+    Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
+    Preconditions.checkArgument(pos < contentLength(), "`pos` must be less than content length");
+
+    int len = buf.remaining();
+    blockManager.makeRangeAvailable(pos, len, ReadMode.SYNC);
+
+    long nextPosition = pos;
+    int numBytesRead = 0;
+
+    while (numBytesRead < len && nextPosition < contentLength()) {
+      Optional<Block> nextBlock = blockManager.acquireBlock(nextPosition);
+      if (!nextBlock.isPresent()) {
+        // The block was evicted by the BlockCache after the range was made available
+        blockManager.makeRangeAvailable(nextPosition, len - numBytesRead, ReadMode.SYNC);
+        continue;
+      }
+
+      int bytesRead;
+      try {
+        bytesRead = nextBlock.get().read(buf, nextPosition);
+      } finally {
+        nextBlock.get().release();
+      }
+
+      if (bytesRead <= 0) {
+        return numBytesRead;
+      }
+
+      numBytesRead = numBytesRead + bytesRead;
+      nextPosition += bytesRead;
+    }
+
+    return numBytesRead;
+  }
+
+  /**
+   * Reads a list of ranges asynchronously. Nearby ranges are coalesced and all fetches are issued
+   * before this method returns; each range's future is completed once its data has been copied
+   * into a buffer obtained from {@code allocate}. Ranges extending past the end of the object are
+   * completed exceptionally with an {@link EOFException}.
+   *
+   * @param objectRanges the ranges to read
+   * @param allocate function allocating a buffer of at least the given number of bytes
+   * @throws IOException if an I/O error occurs while issuing the fetches
+   */
+  public void readVectored(
+      @NonNull List<ObjectRange> objectRanges, @NonNull IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    List<ObjectRange> rangesToRead = new ArrayList<>(objectRanges.size());
+    for (ObjectRange objectRange : objectRanges) {
+      if (objectRange.getEndExclusive() > contentLength()) {
+        objectRange
+            .getByteBuffer()
+            .completeExceptionally(
+                new EOFException(
+                    String.format(
+                        "%s extends past the end of the object of length %s",
+                        objectRange, contentLength())));
+      } else if (objectRange.getLength() == 0) {
+        objectRange.getByteBuffer().complete(allocate.apply(0));
+      } else {
+        rangesToRead.add(objectRange);
+      }
+    }
+
+    for (List<ObjectRange> group : blockManager.makeRangesAvailable(rangesToRead)) {
+      // No thread waits for the fetches, the ranges are only copied once their blocks are ready
+      blockManager
+          .whenRangesFetched(group)
+          .thenRunAsync(
+              () -> group.forEach(objectRange -> readRange(objectRange, allocate)),
+              VECTORED_READ_POOL);
+    }
+  }
+
+  private void readRange(ObjectRange objectRange, IntFunction<ByteBuffer> allocate) {
+    try {
+      ByteBuffer buffer = allocate.apply(objectRange.getLength());
+      Preconditions.checkState(
+          buffer.remaining() >= objectRange.getLength(),
+          "Allocated buffer is too small for %s",
+          objectRange);
+
+      ByteBuffer target = buffer.duplicate();
+      target.limit(target.position() + objectRange.getLength());
+      long nextPosition = objectRange.getOffset();
+      while (target.hasRemaining()) {
+        int bytesRead = read(target, nextPosition);
+        if (bytesRead <= 0) {
+          throw new EOFException(
+              String.format("Reached the end of the object while reading %s", objectRange));
+        }
+        nextPosition += bytesRead;
+      }
+
+      buffer.limit(buffer.position() + objectRange.getLength());
+      objectRange.getByteBuffer().complete(buffer);
+    } catch (Exception e) {
+      objectRange.getByteBuffer().completeExceptionally(e);
+    }
+  }
+
   /**
    * Execute an IOPlan.
    *
@@ -129,6 +290,17 @@ public class Blob implements Closeable {
    * @return the status of execution
    */
   public IOPlanExecution execute(IOPlan plan) {
+    return execute(plan, null);
+  }
+
+  /**
+   * Execute an IOPlan, tying the blocks it prefetches to a prefetch plan.
+   *
+   * @param plan the IOPlan to execute
+   * @param prefetchPlan the plan tracking the prefetched blocks, or null to not track them
+   * @return the status of execution
+   */
+  public IOPlanExecution execute(IOPlan plan, PrefetchPlan prefetchPlan) {
     return telemetry.measureStandard(
         () ->
             Operation.builder()
@@ -141,7 +313,7 @@ public class Blob implements Closeable {
           try {
             for (Range range : plan.getPrefetchRanges()) {
               this.blockManager.makeRangeAvailable(
-                  range.getStart(), range.getLength(), ReadMode.ASYNC);
+                  range.getStart(), range.getLength(), ReadMode.ASYNC, prefetchPlan);
             }
 
             return IOPlanExecution.builder().state(IOPlanState.SUBMITTED).build();
@@ -152,6 +324,27 @@ public class Blob implements Closeable {
         });
   }
 
+  /**
+   * Creates a plan tracking prefetches of this object.
+   *
+   * @return a new, empty prefetch plan
+   */
+  public PrefetchPlan createPrefetchPlan() {
+    return this.blockManager.createPrefetchPlan();
+  }
+
+  /**
+   * Seeds the blob with bytes of the object that were fetched by another request.
+   *
+   * @param range the range of the object held by the content
+   * @param content the content of the range
+   * @return true if the content was added to the blob, false if it was dropped
+   * @throws IOException if an I/O error occurs
+   */
+  public boolean seed(@NonNull Range range, @NonNull ObjectContent content) throws IOException {
+    return this.blockManager.seedRange(range, content);
+  }
+
   private long contentLength() {
     return metadata.getContentLength();
   }
@@ -160,4 +353,26 @@ public class Blob implements Closeable {
   public void close() {
     this.blockManager.close();
   }
+
+  private static ExecutorService createVectoredReadPool() {
+    int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+              Thread thread =
+                  new Thread(
+                      runnable,
+                      "s3-analytics-accelerator-vectored-reader-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
 }
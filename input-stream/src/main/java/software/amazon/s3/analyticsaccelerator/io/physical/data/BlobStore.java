@@ -17,16 +17,30 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.buffer.BufferPool;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.Referrer;
 import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.request.TailRequest;
+import software.amazon.s3.analyticsaccelerator.retry.DefaultRetryPolicy;
+import software.amazon.s3.analyticsaccelerator.retry.RetryPolicy;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 
 /** A BlobStore is a container for Blobs and functions as a data cache. */
 @SuppressFBWarnings(
@@ -34,8 +48,18 @@ import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
     justification =
         "Inner class is created very infrequently, and fluency justifies the extra pointer")
 public class BlobStore implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(BlobStore.class);
+  private static final String OPERATION_OPEN_TAIL = "blob.store.open.tail";
+
   private final Map<ObjectKey, Blob> blobMap;
+  private final BlockCache blockCache;
+  private final BufferPool bufferPool;
+  private final RequestScheduler requestScheduler;
   private final ObjectClient objectClient;
+  // The client block GETs are issued with, hedging them if configured to
+  private final ObjectClient blockObjectClient;
+  // Shared by all blobs, so that the retry budget applies to every stream of the factory
+  private final RetryPolicy retryPolicy;
   private final Telemetry telemetry;
   private final PhysicalIOConfiguration configuration;
 
@@ -50,6 +74,22 @@ public class BlobStore implements Closeable {
       @NonNull ObjectClient objectClient,
       @NonNull Telemetry telemetry,
       @NonNull PhysicalIOConfiguration configuration) {
+    this(objectClient, telemetry, configuration, createRetryPolicy(configuration));
+  }
+
+  /**
+   * Construct an instance of BlobStore.
+   *
+   * @param objectClient object client capable of interacting with the underlying object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param configuration the PhysicalIO configuration
+   * @param retryPolicy the policy deciding whether and when failed block reads are retried
+   */
+  public BlobStore(
+      @NonNull ObjectClient objectClient,
+      @NonNull Telemetry telemetry,
+      @NonNull PhysicalIOConfiguration configuration,
+      @NonNull RetryPolicy retryPolicy) {
     this.objectClient = objectClient;
     this.telemetry = telemetry;
     this.blobMap =
@@ -61,6 +101,28 @@ public class BlobStore implements Closeable {
               }
             });
     this.configuration = configuration;
+    this.blockCache = new BlockCache(telemetry, configuration);
+    this.bufferPool = BufferPool.create(configuration);
+    this.requestScheduler = new RequestScheduler(telemetry, configuration);
+    this.blockObjectClient =
+        configuration.isRequestHedgingEnabled()
+            ? new HedgingObjectClient(objectClient, requestScheduler, telemetry, configuration)
+            : objectClient;
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * Creates the default retry policy for the given configuration.
+   *
+   * @param configuration the PhysicalIO configuration
+   * @return a retry policy with its own retry budget
+   */
+  public static RetryPolicy createRetryPolicy(@NonNull PhysicalIOConfiguration configuration) {
+    return DefaultRetryPolicy.builder()
+        .baseDelayMillis(configuration.getRetryBaseDelay())
+        .maxDelayMillis(configuration.getRetryMaxDelay())
+        .budgetCapacity(configuration.getRetryBudget())
+        .build();
   }
 
   /**
@@ -79,10 +141,82 @@ public class BlobStore implements Closeable {
                 uri,
                 metadata,
                 new BlockManager(
-                    uri, objectClient, metadata, telemetry, configuration, streamContext),
+                    uri,
+                    blockObjectClient,
+                    metadata,
+                    telemetry,
+                    configuration,
+                    streamContext,
+                    blockCache,
+                    bufferPool,
+                    requestScheduler,
+                    retryPolicy),
                 telemetry));
   }
 
+  /**
+   * Opens an object optimistically, with a GET of its last bytes instead of a HEAD request. The
+   * size and ETag of the object are learnt from the response and stored in the metadata store, and
+   * the returned bytes seed the blob of the object, so that reading the tail of the object does not
+   * take another round trip.
+   *
+   * <p>Nothing is requested if optimistic open is disabled, if the metadata of the object is
+   * already known, or if the stream carries a {@link StreamContext}, whose audit headers are built
+   * for requests of a known range. If the request fails, the caller is expected to fall back to
+   * the metadata store, which reports errors such as a missing object.
+   *
+   * @param s3URI the S3 URI of the object
+   * @param metadataStore the metadata store to fill
+   * @param streamContext contains audit headers to be attached in the request header
+   * @return the metadata of the object, or empty if it has to be looked up in the metadata store
+   */
+  public Optional<ObjectMetadata> openWithTail(
+      @NonNull S3URI s3URI, @NonNull MetadataStore metadataStore, StreamContext streamContext) {
+    if (!configuration.isOptimisticOpenEnabled()
+        || streamContext != null
+        || metadataStore.contains(s3URI)) {
+      return Optional.empty();
+    }
+
+    long tailBytes = configuration.getOptimisticOpenTailBytes();
+    TailRequest tailRequest =
+        TailRequest.builder()
+            .s3Uri(s3URI)
+            .length(tailBytes)
+            .referrer(new Referrer("bytes=-" + tailBytes, ReadMode.SYNC))
+            .build();
+    final ObjectContent content;
+    try {
+      content =
+          telemetry.measureJoinCritical(
+              () ->
+                  Operation.builder()
+                      .name(OPERATION_OPEN_TAIL)
+                      .attribute(StreamAttributes.uri(s3URI))
+                      .build(),
+              objectClient.getObjectTail(tailRequest),
+              configuration.getBlockReadTimeout());
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Optimistic open of {} failed, falling back to HEAD", s3URI, e);
+      return Optional.empty();
+    }
+
+    ObjectMetadata metadata = content.getMetadata();
+    metadataStore.storeObjectMetadata(s3URI, metadata);
+    try {
+      if (content.getRange() != null) {
+        ObjectKey objectKey = ObjectKey.builder().s3URI(s3URI).etag(metadata.getEtag()).build();
+        get(objectKey, metadata, null).seed(content.getRange(), content);
+      } else {
+        content.getStream().close();
+      }
+    } catch (IOException e) {
+      // The metadata is still good, the tail will be fetched again when it is read
+      LOG.debug("Failed to seed {} with its tail", s3URI, e);
+    }
+    return Optional.of(metadata);
+  }
+
   /**
    * Evicts the specified key from the cache
    *
@@ -102,9 +236,19 @@ public class BlobStore implements Closeable {
     return this.blobMap.size();
   }
 
+  /**
+   * Returns the number of bytes held by blocks across all cached blobs.
+   *
+   * @return the number of bytes accounted for by the block cache
+   */
+  public long blockCacheUsedBytes() {
+    return this.blockCache.getUsedBytes();
+  }
+
   /** Closes the {@link BlobStore} and frees up all resources it holds. */
   @Override
   public void close() {
     blobMap.forEach((k, v) -> v.close());
+    bufferPool.close();
   }
 }
@@ -17,16 +17,26 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.Getter;
 import lombok.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import software.amazon.s3.analyticsaccelerator.S3SdkObjectClient;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.buffer.BufferPool;
+import software.amazon.s3.analyticsaccelerator.io.physical.buffer.HeapBufferPool;
 import software.amazon.s3.analyticsaccelerator.request.GetRequest;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
 import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
@@ -34,6 +44,8 @@ import software.amazon.s3.analyticsaccelerator.request.Range;
 import software.amazon.s3.analyticsaccelerator.request.ReadMode;
 import software.amazon.s3.analyticsaccelerator.request.Referrer;
 import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.retry.DefaultRetryPolicy;
+import software.amazon.s3.analyticsaccelerator.retry.RetryPolicy;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 import software.amazon.s3.analyticsaccelerator.util.StreamUtils;
@@ -41,24 +53,43 @@ import software.amazon.s3.analyticsaccelerator.util.StreamUtils;
 /**
  * A Block holding part of an object's data and owning its own async process for fetching part of
  * the object.
+ *
+ * <p>The data is held in a buffer acquired from a {@link BufferPool}. The buffer, as well as those
+ * of failed fetch attempts, is handed back to the pool once the block has been closed and no reader
+ * is using it any more, so that readers racing with eviction or failures never see a recycled
+ * buffer.
+ *
+ * <p>Reads do not wait for the whole block to arrive. The block tracks how many bytes of the
+ * response body have been written into its buffer so far, and a read completes as soon as the
+ * bytes it needs have been filled.
  */
 public class Block implements Closeable {
   private CompletableFuture<ObjectContent> source;
-  private CompletableFuture<byte[]> data;
+  private CompletableFuture<ByteBuffer> data;
+  private FillProgress fillProgress;
+  private final BufferPool bufferPool;
   private final ObjectKey objectKey;
   private final Range range;
   private final Telemetry telemetry;
   private final ObjectClient objectClient;
   private final StreamContext streamContext;
   private final ReadMode readMode;
-  private final Referrer referrer;
   private final long readTimeout;
   private final int readRetryCount;
+  private final RetryPolicy retryPolicy;
 
   @Getter private final long start;
   @Getter private final long end;
   @Getter private final long generation;
 
+  private final AtomicBoolean accessed = new AtomicBoolean();
+
+  // Guarded by this
+  private int references;
+  private boolean closed;
+  // Buffers of failed fetch attempts, which readers may still be copying from
+  private final List<ByteBuffer> failedBuffers = new ArrayList<>();
+
   private static final String OPERATION_BLOCK_GET_ASYNC = "block.get.async";
   private static final String OPERATION_BLOCK_GET_JOIN = "block.get.join";
 
@@ -129,6 +160,95 @@ public class Block implements Closeable {
       StreamContext streamContext)
       throws IOException {
 
+    this(
+        objectKey,
+        objectClient,
+        telemetry,
+        start,
+        end,
+        generation,
+        readMode,
+        readTimeout,
+        readRetryCount,
+        streamContext,
+        new HeapBufferPool());
+  }
+
+  /**
+   * Constructs a Block data.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param objectClient the object client to use to interact with the object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param start start of the block
+   * @param end end of the block
+   * @param generation generation of the block in a sequential read pattern (should be 0 by default)
+   * @param readMode read mode describing whether this is a sync or async fetch
+   * @param readTimeout Timeout duration (in milliseconds) for reading a block object from S3
+   * @param readRetryCount Number of retries for block read failure
+   * @param streamContext contains audit headers to be attached in the request header
+   * @param bufferPool the pool to acquire the buffer holding the block data from
+   */
+  public Block(
+      @NonNull ObjectKey objectKey,
+      @NonNull ObjectClient objectClient,
+      @NonNull Telemetry telemetry,
+      long start,
+      long end,
+      long generation,
+      @NonNull ReadMode readMode,
+      long readTimeout,
+      int readRetryCount,
+      StreamContext streamContext,
+      @NonNull BufferPool bufferPool)
+      throws IOException {
+
+    this(
+        objectKey,
+        objectClient,
+        telemetry,
+        start,
+        end,
+        generation,
+        readMode,
+        readTimeout,
+        readRetryCount,
+        streamContext,
+        bufferPool,
+        new DefaultRetryPolicy());
+  }
+
+  /**
+   * Constructs a Block data.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param objectClient the object client to use to interact with the object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param start start of the block
+   * @param end end of the block
+   * @param generation generation of the block in a sequential read pattern (should be 0 by default)
+   * @param readMode read mode describing whether this is a sync or async fetch
+   * @param readTimeout Timeout duration (in milliseconds) for reading a block object from S3
+   * @param readRetryCount Number of retries for block read failure
+   * @param streamContext contains audit headers to be attached in the request header
+   * @param bufferPool the pool to acquire the buffer holding the block data from
+   * @param retryPolicy the policy deciding whether and when a failed read is retried
+   */
+  public Block(
+      @NonNull ObjectKey objectKey,
+      @NonNull ObjectClient objectClient,
+      @NonNull Telemetry telemetry,
+      long start,
+      long end,
+      long generation,
+      @NonNull ReadMode readMode,
+      long readTimeout,
+      int readRetryCount,
+      StreamContext streamContext,
+      @NonNull BufferPool bufferPool,
+      @NonNull RetryPolicy retryPolicy)
+      throws IOException {
+
     Preconditions.checkArgument(
         0 <= generation, "`generation` must be non-negative; was: %s", generation);
     Preconditions.checkArgument(0 <= start, "`start` must be non-negative; was: %s", start);
@@ -149,27 +269,34 @@ public class Block implements Closeable {
     this.objectClient = objectClient;
     this.streamContext = streamContext;
     this.readMode = readMode;
-    this.referrer = new Referrer(range.toHttpString(), readMode);
     this.readTimeout = readTimeout;
     this.readRetryCount = readRetryCount;
+    this.bufferPool = bufferPool;
+    this.retryPolicy = retryPolicy;
 
-    generateSourceAndData();
+    generateSourceAndData(this.readMode);
   }
 
-  /** Method to help construct source and data */
-  private void generateSourceAndData() throws IOException {
-    int retries = 0;
-    while (retries < this.readRetryCount) {
+  /**
+   * Method to help construct source and data. If issuing the request fails, it is retried like a
+   * failed fetch, as long as the {@link RetryPolicy} considers the failure retryable and affords
+   * another attempt.
+   *
+   * @param attemptReadMode the read mode to attach to the request of this attempt
+   */
+  private void generateSourceAndData(ReadMode attemptReadMode) throws IOException {
+    long delayMillis = 0;
+    for (int i = 0; i < this.readRetryCount; i++) {
       try {
         GetRequest getRequest =
             GetRequest.builder()
                 .s3Uri(this.objectKey.getS3URI())
                 .range(this.range)
                 .etag(this.objectKey.getEtag())
-                .referrer(referrer)
+                .referrer(new Referrer(this.range.toHttpString(), attemptReadMode))
                 .build();
 
-        this.source =
+        CompletableFuture<ObjectContent> response =
             this.telemetry.measureCritical(
                 () ->
                     Operation.builder()
@@ -180,33 +307,60 @@ public class Block implements Closeable {
                         .attribute(StreamAttributes.generation(generation))
                         .build(),
                 objectClient.getObject(getRequest, streamContext));
+        this.source = response;
 
-        // Handle IOExceptions when converting stream to byte array
+        // Stream the body into the buffer on the shared reader pool
+        FillProgress progress = new FillProgress();
         this.data =
-            this.source.thenApply(
+            response.thenCompose(
                 objectContent -> {
-                  try {
-                    return StreamUtils.toByteArray(
-                        objectContent, this.objectKey, this.range, this.readTimeout);
-                  } catch (IOException | TimeoutException e) {
-                    throw new RuntimeException(
-                        "Error while converting InputStream to byte array", e);
-                  }
+                  ByteBuffer buffer = bufferPool.acquire(Math.toIntExact(this.range.getLength()));
+                  progress.start(buffer, RequestScheduler.issuedNanos(response));
+                  return StreamUtils.readFullyAsync(
+                          objectContent,
+                          buffer,
+                          this.objectKey,
+                          this.range,
+                          this.readTimeout,
+                          attemptReadMode,
+                          progress::advance)
+                      .whenComplete(
+                          (result, error) -> {
+                            progress.stop();
+                            // The abandoned read may still write into the buffer after a
+                            // timeout, so it is only recycled on other failures
+                            if (error != null && !(error instanceof TimeoutException)) {
+                              recycleFailedBuffer(buffer);
+                            }
+                          });
                 });
+        this.data.whenComplete(progress::finish);
+        this.data.thenRun(retryPolicy::recordSuccess);
+        this.fillProgress = progress;
 
         return; // Successfully generated source and data, exit loop
       } catch (RuntimeException e) {
-        retries++;
-        LOG.debug(
-            "Retry {}/{} - Failed to fetch block data due to: {}",
-            retries,
-            this.readRetryCount,
-            e.getMessage());
+        if (!retryPolicy.classify(e).isRetryable()) {
+          throw new IOException("Failed to fetch block data", e);
+        }
 
-        if (retries >= this.readRetryCount) {
-          LOG.error("Max retries reached. Unable to fetch block data.");
+        OptionalLong nextDelayMillis =
+            i < this.readRetryCount - 1
+                ? retryPolicy.retryDelayMillis(e, delayMillis)
+                : OptionalLong.empty();
+        if (!nextDelayMillis.isPresent()) {
+          LOG.error("Unable to fetch block data. Retry reached the limit or the retry budget");
           throw new IOException("Failed to fetch block data after retries", e);
         }
+
+        delayMillis = nextDelayMillis.getAsLong();
+        LOG.debug(
+            "Retry {}/{} in {} ms - Failed to fetch block data due to: {}",
+            i + 1,
+            this.readRetryCount,
+            delayMillis,
+            e.getMessage());
+        sleep(delayMillis);
       }
     }
   }
@@ -221,8 +375,14 @@ public class Block implements Closeable {
   public int read(long pos) throws IOException {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
 
-    byte[] content = this.getDataWithRetries();
-    return Byte.toUnsignedInt(content[posToOffset(pos)]);
+    retainOrThrow();
+    try {
+      int contentOffset = posToOffset(pos);
+      ByteBuffer content = this.getDataWithRetries(contentOffset + 1);
+      return Byte.toUnsignedInt(content.get(contentOffset));
+    } finally {
+      release();
+    }
   }
 
   /**
@@ -241,16 +401,52 @@ public class Block implements Closeable {
     Preconditions.checkArgument(0 <= len, "`len` must not be negative");
     Preconditions.checkArgument(off < buf.length, "`off` must be less than size of buffer");
 
-    byte[] content = this.getDataWithRetries();
-    int contentOffset = posToOffset(pos);
-    int available = content.length - contentOffset;
-    int bytesToCopy = Math.min(len, available);
+    retainOrThrow();
+    try {
+      int contentOffset = posToOffset(pos);
+      ByteBuffer content = this.getDataWithRetries(requiredBytes(contentOffset, len));
+      int available = content.limit() - contentOffset;
+      int bytesToCopy = Math.min(len, available);
+
+      if (bytesToCopy > 0) {
+        content.position(contentOffset);
+        content.get(buf, off, bytesToCopy);
+      }
 
-    for (int i = 0; i < bytesToCopy; ++i) {
-      buf[off + i] = content[contentOffset + i];
+      return bytesToCopy;
+    } finally {
+      release();
     }
+  }
+
+  /**
+   * Reads data into the provided buffer, copying straight from the buffer backing this block.
+   *
+   * @param buf buffer to read data into, starting at its current position
+   * @param pos the position to begin reading from
+   * @return the total number of bytes read into the buffer
+   * @throws IOException if an I/O error occurs
+   */
+  public int read(@NonNull ByteBuffer buf, long pos) throws IOException {
+    Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
+
+    retainOrThrow();
+    try {
+      int contentOffset = posToOffset(pos);
+      ByteBuffer content = this.getDataWithRetries(requiredBytes(contentOffset, buf.remaining()));
+      int available = content.limit() - contentOffset;
+      int bytesToCopy = Math.min(buf.remaining(), available);
 
-    return bytesToCopy;
+      if (bytesToCopy > 0) {
+        content.position(contentOffset);
+        content.limit(contentOffset + bytesToCopy);
+        buf.put(content);
+      }
+
+      return bytesToCopy;
+    } finally {
+      release();
+    }
   }
 
   /**
@@ -265,6 +461,144 @@ public class Block implements Closeable {
     return start <= pos && pos <= end;
   }
 
+  /**
+   * Returns whether the fetch for this block has completed, either successfully or exceptionally.
+   *
+   * @return true if the data for this block is no longer in flight
+   */
+  public boolean isDataReady() {
+    return this.data.isDone();
+  }
+
+  /**
+   * Returns a future completing once the fetch currently in flight for this block completes,
+   * either successfully or exceptionally.
+   *
+   * @return a future completing when the data for this block is no longer in flight
+   */
+  CompletableFuture<Void> whenDataReady() {
+    return this.data.handle((buffer, error) -> null);
+  }
+
+  /**
+   * Registers a callback to run once the fetch currently in flight for this block completes
+   * successfully. The callback runs on the thread completing the fetch.
+   *
+   * @param listener the callback to notify
+   */
+  public void whenFetched(@NonNull FetchListener listener) {
+    FillProgress progress = this.fillProgress;
+    this.data.thenAccept(
+        buffer ->
+            listener.onFetched(
+                buffer.limit(), progress.getTimeToFirstByteNanos(), progress.getDurationNanos()));
+  }
+
+  /**
+   * Marks the block as accessed by a reader.
+   *
+   * @return true if this is the first access to the block
+   */
+  boolean markAccessed() {
+    return accessed.compareAndSet(false, true);
+  }
+
+  /**
+   * Returns whether the block has been accessed by a reader.
+   *
+   * @return true if {@link #markAccessed()} has been called
+   */
+  boolean wasAccessed() {
+    return accessed.get();
+  }
+
+  /**
+   * Registers a reader of this block's data, preventing the buffer from being recycled until the
+   * matching {@link #release()}.
+   *
+   * @return true if the block was retained, false if it has already been closed
+   */
+  synchronized boolean retain() {
+    if (closed) {
+      return false;
+    }
+
+    references++;
+    return true;
+  }
+
+  /**
+   * Returns whether a reader currently holds this block.
+   *
+   * @return true if the block has been retained more times than released
+   */
+  synchronized boolean isRetained() {
+    return references > 0;
+  }
+
+  /**
+   * Unregisters a reader registered with {@link #retain()}. Once the block is closed and the last
+   * reader is gone, its fetch is canceled and the buffer is handed back to the pool.
+   */
+  void release() {
+    boolean recycle;
+    synchronized (this) {
+      Preconditions.checkState(references > 0, "Block released more times than retained");
+      references--;
+      recycle = closed && references == 0;
+    }
+
+    if (recycle) {
+      abandon();
+    }
+  }
+
+  /**
+   * Registers a read of this block's data. Unlike {@link #retain()}, this succeeds on a closed
+   * block that is still held by a reader, so that a block acquired before it was closed can be
+   * read by its holder.
+   *
+   * @throws IOException if the block has been closed and nobody holds it
+   */
+  private synchronized void retainOrThrow() throws IOException {
+    if (closed && references == 0) {
+      throw new IOException(
+          String.format("Block %s-%s of %s is closed", start, end, objectKey.getS3URI()));
+    }
+
+    references++;
+  }
+
+  private void recycleData() {
+    List<ByteBuffer> buffers;
+    synchronized (this) {
+      buffers = new ArrayList<>(failedBuffers);
+      failedBuffers.clear();
+    }
+
+    buffers.forEach(bufferPool::release);
+    // Failed fetches have handed their buffer over to failedBuffers instead
+    this.data.thenAccept(bufferPool::release);
+  }
+
+  /**
+   * Hands the buffer of a failed fetch attempt back to the pool once the block is closed and no
+   * reader is using it any more. Readers may have been given views of the partially filled buffer
+   * before the fetch failed, and may still be copying from them.
+   *
+   * @param buffer the buffer of the failed attempt
+   */
+  private void recycleFailedBuffer(ByteBuffer buffer) {
+    synchronized (this) {
+      if (!closed || references > 0) {
+        failedBuffers.add(buffer);
+        return;
+      }
+    }
+
+    bufferPool.release(buffer);
+  }
+
   /**
    * Determines the offset in the Block corresponding to a position in an object.
    *
@@ -276,41 +610,78 @@ public class Block implements Closeable {
   }
 
   /**
-   * Returns the bytes fetched by the issued {@link GetRequest}. If it receives an IOException from
-   * {@link S3SdkObjectClient}, retries for MAX_RETRIES count.
+   * Determines how many bytes of the block need to be filled to serve a read.
    *
-   * @return the bytes fetched by the issued {@link GetRequest}.
-   * @throws IOException if an I/O error occurs after maximum retry counts
+   * @param contentOffset the offset in the block the read starts at
+   * @param len the length of the read
+   * @return the number of bytes from the start of the block the read needs
    */
-  private byte[] getDataWithRetries() throws IOException {
+  private int requiredBytes(int contentOffset, int len) {
+    return (int) Math.min((long) contentOffset + len, this.range.getLength());
+  }
+
+  /**
+   * Returns the bytes fetched by the issued {@link GetRequest}, once at least the given number of
+   * bytes have been filled. Failed fetches are retried up to the configured retry count, for as
+   * long as the {@link RetryPolicy} considers the failure retryable and affords another attempt.
+   *
+   * @param requiredBytes the number of bytes from the start of the block that must be filled
+   * @return a view of the bytes filled so far, with its limit set to the number of filled bytes
+   * @throws IOException if the failure is not retryable, or still occurs after all retries
+   */
+  private ByteBuffer getDataWithRetries(int requiredBytes) throws IOException {
+    long delayMillis = 0;
     for (int i = 0; i < this.readRetryCount; i++) {
       try {
-        return this.getData();
+        return this.getData(requiredBytes);
       } catch (IOException ex) {
-        if (ex.getClass() == IOException.class) {
-          if (i < this.readRetryCount - 1) {
-            LOG.debug("Get data failed. Retrying. Retry Count {}", i);
-            generateSourceAndData();
-          } else {
-            LOG.error("Cannot read block file. Retry reached the limit");
-            throw new IOException("Cannot read block file", ex.getCause());
-          }
-        } else {
+        if (!retryPolicy.classify(ex).isRetryable()) {
           throw ex;
         }
+
+        OptionalLong nextDelayMillis =
+            i < this.readRetryCount - 1
+                ? retryPolicy.retryDelayMillis(ex, delayMillis)
+                : OptionalLong.empty();
+        if (!nextDelayMillis.isPresent()) {
+          LOG.error("Cannot read block file. Retry reached the limit or the retry budget");
+          throw new IOException("Cannot read block file", ex.getCause());
+        }
+
+        delayMillis = nextDelayMillis.getAsLong();
+        LOG.debug("Get data failed. Retrying in {} ms. Retry Count {}", delayMillis, i);
+        sleep(delayMillis);
+        // A reader is waiting on the retry, so it is no longer a prefetch
+        generateSourceAndData(ReadMode.SYNC);
       }
     }
     throw new IOException("Cannot read block file", new IOException("Error while getting block"));
   }
 
+  private static void sleep(long delayMillis) throws IOException {
+    try {
+      Thread.sleep(delayMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException interrupted = new InterruptedIOException("Interrupted before retry");
+      interrupted.initCause(e);
+      throw interrupted;
+    }
+  }
+
   /**
-   * Returns the bytes fetched by the issued {@link GetRequest}. This method will block until the
-   * data is fully available.
+   * Returns the bytes fetched by the issued {@link GetRequest}. This method will block until at
+   * least the given number of bytes have been filled, or the fetch has completed.
    *
-   * @return the bytes fetched by the issued {@link GetRequest}.
+   * @param requiredBytes the number of bytes from the start of the block that must be filled
+   * @return a view of the bytes filled so far, with its limit set to the number of filled bytes
    * @throws IOException if an I/O error occurs
    */
-  private byte[] getData() throws IOException {
+  private ByteBuffer getData(int requiredBytes) throws IOException {
+    if (!this.source.isDone()) {
+      // A reader is waiting on the request, so it must not queue behind prefetches
+      RequestScheduler.promote(this.source);
+    }
     return this.telemetry.measureJoinCritical(
         () ->
             Operation.builder()
@@ -320,14 +691,191 @@ public class Block implements Closeable {
                 .attribute(StreamAttributes.range(this.range))
                 .attribute(StreamAttributes.rangeLength(this.range.getLength()))
                 .build(),
-        this.data,
+        this.fillProgress.awaitFilled(requiredBytes),
         this.readTimeout);
   }
 
-  /** Closes the {@link Block} and frees up all resources it holds */
+  /**
+   * Closes the {@link Block} and frees up all resources it holds. Readers currently holding the
+   * block may be waiting on its fetch, possibly from another stream sharing the block, so the fetch
+   * is only canceled and the buffer handed back to the pool once they have all released it.
+   */
   @Override
   public void close() {
+    boolean recycle;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      recycle = references == 0;
+    }
+
+    if (recycle) {
+      abandon();
+    }
+  }
+
+  /** Cancels the fetch of a closed block nobody holds any more, and frees its buffers. */
+  private void abandon() {
     // Only the source needs to be canceled, the continuation will cancel on its own
     this.source.cancel(false);
+    // A body that is still being streamed is aborted, so that its connection is not spent on
+    // unwanted bytes
+    this.source.thenAccept(this::abortIfInFlight);
+    recycleData();
+  }
+
+  private void abortIfInFlight(ObjectContent objectContent) {
+    if (!this.data.isDone()) {
+      try {
+        objectContent.getStream().close();
+      } catch (IOException e) {
+        LOG.debug("Failed to abort the fetch of block {}-{}", start, end, e);
+      }
+    }
+  }
+
+  /**
+   * Tracks how much of the block's buffer has been filled by one fetch attempt, and completes
+   * waiting reads as soon as the bytes they need are there. Readers are handed duplicates of the
+   * buffer limited to the filled bytes, so they never observe the position of the writer.
+   */
+  private static final class FillProgress {
+    // Until the request is known to have been issued, the attempt is timed from its creation
+    private volatile long startNanos = System.nanoTime();
+    private volatile long firstByteNanos;
+    private volatile long endNanos;
+    private volatile ByteBuffer buffer;
+    private volatile int filled;
+
+    // Guarded by this
+    private final List<Map.Entry<Integer, CompletableFuture<ByteBuffer>>> waiters =
+        new ArrayList<>();
+    private boolean done;
+    private ByteBuffer result;
+    private Throwable error;
+
+    /**
+     * Registers the buffer the body is being written into.
+     *
+     * @param buffer the buffer being filled
+     * @param issuedNanos when the request was issued, if known, so that the time it spent queued
+     *     is not counted as latency
+     */
+    void start(ByteBuffer buffer, OptionalLong issuedNanos) {
+      if (issuedNanos.isPresent()) {
+        this.startNanos = issuedNanos.getAsLong();
+      }
+      this.buffer = buffer;
+    }
+
+    /**
+     * Records that more bytes have been written into the buffer.
+     *
+     * @param filledBytes the total number of bytes written so far
+     */
+    void advance(int filledBytes) {
+      if (this.filled == 0) {
+        this.firstByteNanos = System.nanoTime();
+      }
+      this.filled = filledBytes;
+
+      List<CompletableFuture<ByteBuffer>> ready = new ArrayList<>();
+      synchronized (this) {
+        Iterator<Map.Entry<Integer, CompletableFuture<ByteBuffer>>> iterator =
+            waiters.iterator();
+        while (iterator.hasNext()) {
+          Map.Entry<Integer, CompletableFuture<ByteBuffer>> waiter = iterator.next();
+          if (waiter.getKey() <= filledBytes) {
+            ready.add(waiter.getValue());
+            iterator.remove();
+          }
+        }
+      }
+
+      for (CompletableFuture<ByteBuffer> waiter : ready) {
+        waiter.complete(filledView(filledBytes));
+      }
+    }
+
+    /**
+     * Records the outcome of the fetch, completing all remaining waiters.
+     *
+     * @param data the filled buffer, if the fetch succeeded
+     * @param failure the reason the fetch failed, if it did
+     */
+    void finish(ByteBuffer data, Throwable failure) {
+      List<Map.Entry<Integer, CompletableFuture<ByteBuffer>>> remaining;
+      synchronized (this) {
+        done = true;
+        result = data;
+        error = failure;
+        remaining = new ArrayList<>(waiters);
+        waiters.clear();
+      }
+
+      for (Map.Entry<Integer, CompletableFuture<ByteBuffer>> waiter : remaining) {
+        complete(waiter.getValue());
+      }
+    }
+
+    /**
+     * Returns a future completing once at least the given number of bytes have been filled, or the
+     * fetch has completed.
+     *
+     * @param requiredBytes the number of bytes from the start of the block that must be filled
+     * @return a future of a view of the filled bytes
+     */
+    CompletableFuture<ByteBuffer> awaitFilled(int requiredBytes) {
+      int filledBytes = filled;
+      if (buffer != null && requiredBytes <= filledBytes) {
+        return CompletableFuture.completedFuture(filledView(filledBytes));
+      }
+
+      CompletableFuture<ByteBuffer> waiter = new CompletableFuture<>();
+      synchronized (this) {
+        if (done) {
+          complete(waiter);
+          return waiter;
+        }
+
+        filledBytes = filled;
+        if (buffer != null && requiredBytes <= filledBytes) {
+          return CompletableFuture.completedFuture(filledView(filledBytes));
+        }
+        waiters.add(new AbstractMap.SimpleImmutableEntry<>(requiredBytes, waiter));
+      }
+      return waiter;
+    }
+
+    /** Records that the body has been read, before the block's data future completes. */
+    void stop() {
+      this.endNanos = System.nanoTime();
+    }
+
+    long getTimeToFirstByteNanos() {
+      // Empty bodies never report progress
+      return (firstByteNanos == 0 ? endNanos : firstByteNanos) - startNanos;
+    }
+
+    long getDurationNanos() {
+      return endNanos - startNanos;
+    }
+
+    private void complete(CompletableFuture<ByteBuffer> waiter) {
+      if (error != null) {
+        waiter.completeExceptionally(error);
+      } else {
+        waiter.complete(result.duplicate());
+      }
+    }
+
+    private ByteBuffer filledView(int filledBytes) {
+      ByteBuffer view = buffer.duplicate();
+      view.limit(filledBytes);
+      view.position(0);
+      return view;
+    }
   }
 }
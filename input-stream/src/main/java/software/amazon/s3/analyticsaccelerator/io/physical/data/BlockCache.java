@@ -0,0 +1,265 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+/**
+ * A memory bounded cache of {@link Block}s, shared by all {@link BlockManager}s created by the same
+ * {@link BlobStore}. Every block is accounted for by its length in bytes. Once the total exceeds
+ * the configured capacity, the least recently used blocks are removed from their {@link
+ * BlockStore} and closed. Blocks that are still being fetched are never evicted, so the capacity
+ * can be exceeded temporarily while requests are in flight. Eviction runs again whenever the fetch
+ * of a block completes, so that the cache gets back within capacity once they have landed. Pooled
+ * buffers are rounded up to a size class less than a quarter larger than their block, which bounds
+ * the memory held beyond the accounted bytes.
+ *
+ * <p>This class is thread safe. Evicted blocks are removed from their stores after the cache lock
+ * has been released, so that the cache never holds its own lock while waiting on a store. Reads
+ * only update the access order if the lock is free, so that readers of resident blocks never
+ * queue on the cache. Under contention, the eviction order is therefore an approximation of LRU.
+ */
+public class BlockCache {
+  private static final Logger LOG = LoggerFactory.getLogger(BlockCache.class);
+
+  private static final Metric METRIC_HIT = Metric.builder().name("block.cache.hit").build();
+  private static final Metric METRIC_MISS = Metric.builder().name("block.cache.miss").build();
+  private static final Metric METRIC_EVICTION =
+      Metric.builder().name("block.cache.eviction").build();
+
+  private final long capacityBytes;
+  private final Telemetry telemetry;
+  // Block -> the store holding it, in access order
+  private final LinkedHashMap<Block, BlockStore> blocks;
+  private final ReentrantLock lock = new ReentrantLock();
+  private long usedBytes;
+
+  /**
+   * Constructs a new BlockCache.
+   *
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param configuration the physicalIO configuration
+   */
+  public BlockCache(@NonNull Telemetry telemetry, @NonNull PhysicalIOConfiguration configuration) {
+    this.telemetry = telemetry;
+    this.capacityBytes = configuration.getBlockCacheCapacityBytes();
+    this.blocks = new LinkedHashMap<>(16, 0.75f, true);
+    this.usedBytes = 0;
+  }
+
+  /**
+   * Registers a newly created block with the cache, evicting least recently used blocks if this
+   * takes the cache over capacity. Counts as a cache miss.
+   *
+   * @param block the block to register
+   * @param blockStore the store that holds the block
+   */
+  public void add(@NonNull Block block, @NonNull BlockStore blockStore) {
+    addAll(Collections.singletonList(block), blockStore);
+  }
+
+  /**
+   * Registers a batch of newly created blocks with the cache, evicting least recently used blocks
+   * if this takes the cache over capacity. Blocks of the batch itself are never evicted by this
+   * call, so that a read can always make progress even if it needs more than the capacity. Each
+   * block counts as a cache miss.
+   *
+   * @param newBlocks the blocks to register
+   * @param blockStore the store that holds the blocks
+   */
+  public void addAll(@NonNull Collection<Block> newBlocks, @NonNull BlockStore blockStore) {
+    List<Map.Entry<Block, BlockStore>> victims;
+    Set<Block> protectedBlocks = Collections.newSetFromMap(new IdentityHashMap<>());
+    protectedBlocks.addAll(newBlocks);
+    lock.lock();
+    try {
+      for (Block block : newBlocks) {
+        if (blocks.put(block, blockStore) == null) {
+          usedBytes += sizeOf(block);
+        }
+      }
+      victims = selectVictims(protectedBlocks);
+    } finally {
+      lock.unlock();
+    }
+
+    telemetry.measure(METRIC_MISS, newBlocks.size());
+    evict(victims);
+    for (Block block : newBlocks) {
+      block.whenDataReady().thenRun(() -> evictAfterFetch(protectedBlocks));
+    }
+  }
+
+  /**
+   * Marks a block as recently used, unless another thread is holding the cache lock.
+   *
+   * @param block the block that was accessed
+   */
+  public void touch(@NonNull Block block) {
+    if (lock.tryLock()) {
+      try {
+        blocks.get(block);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Records a read that was served entirely by blocks already in the cache. */
+  public void recordHit() {
+    telemetry.measure(METRIC_HIT, 1);
+  }
+
+  /**
+   * Removes a single block from the cache, without closing it.
+   *
+   * @param block the block to forget
+   */
+  public void remove(@NonNull Block block) {
+    lock.lock();
+    try {
+      if (blocks.remove(block) != null) {
+        usedBytes -= sizeOf(block);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes every block held by the given store from the cache, without closing them.
+   *
+   * @param blockStore the store whose blocks should be forgotten
+   */
+  public void removeAll(@NonNull BlockStore blockStore) {
+    lock.lock();
+    try {
+      Iterator<Map.Entry<Block, BlockStore>> iterator = blocks.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<Block, BlockStore> entry = iterator.next();
+        if (entry.getValue() == blockStore) {
+          usedBytes -= sizeOf(entry.getKey());
+          iterator.remove();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of bytes currently accounted for by the cache.
+   *
+   * @return the number of bytes held by cached blocks
+   */
+  public long getUsedBytes() {
+    lock.lock();
+    try {
+      return usedBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of blocks currently held by the cache.
+   *
+   * @return the number of cached blocks
+   */
+  public int blockCount() {
+    lock.lock();
+    try {
+      return blocks.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Evicts least recently used blocks if the cache is over capacity once the fetch of a block has
+   * completed, as blocks that were in flight when the block was added may no longer be. The blocks
+   * added along with it are spared, as the read that created them may not have got to them yet.
+   *
+   * @param batch the blocks added along with the block whose fetch has completed
+   */
+  private void evictAfterFetch(Set<Block> batch) {
+    List<Map.Entry<Block, BlockStore>> victims;
+    lock.lock();
+    try {
+      if (usedBytes <= capacityBytes) {
+        return;
+      }
+      victims = selectVictims(batch);
+    } finally {
+      lock.unlock();
+    }
+
+    evict(victims);
+  }
+
+  /**
+   * Picks least recently used blocks that are no longer in flight until the cache is back within
+   * capacity, and removes them from the cache. Must be called while holding the cache lock.
+   *
+   * @param protectedBlocks blocks that must not be evicted
+   * @return the blocks to evict, along with their stores
+   */
+  private List<Map.Entry<Block, BlockStore>> selectVictims(Set<Block> protectedBlocks) {
+    List<Map.Entry<Block, BlockStore>> victims = new ArrayList<>();
+    Iterator<Map.Entry<Block, BlockStore>> iterator = blocks.entrySet().iterator();
+    while (usedBytes > capacityBytes && iterator.hasNext()) {
+      Map.Entry<Block, BlockStore> entry = iterator.next();
+      if (entry.getKey().isDataReady() && !protectedBlocks.contains(entry.getKey())) {
+        victims.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+        usedBytes -= sizeOf(entry.getKey());
+        iterator.remove();
+      }
+    }
+    return victims;
+  }
+
+  private void evict(List<Map.Entry<Block, BlockStore>> victims) {
+    for (Map.Entry<Block, BlockStore> victim : victims) {
+      try {
+        victim.getValue().remove(victim.getKey());
+        victim.getKey().close();
+      } catch (Exception e) {
+        LOG.error("Exception when evicting Block from the BlockCache", e);
+      }
+      telemetry.measure(METRIC_EVICTION, 1);
+    }
+  }
+
+  private static long sizeOf(Block block) {
+    return block.getEnd() - block.getStart() + 1;
+  }
+}
@@ -17,37 +17,61 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
 import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.buffer.BufferPool;
+import software.amazon.s3.analyticsaccelerator.io.physical.prefetcher.ReadAheadController;
 import software.amazon.s3.analyticsaccelerator.io.physical.prefetcher.SequentialPatternDetector;
-import software.amazon.s3.analyticsaccelerator.io.physical.prefetcher.SequentialReadProgression;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 import software.amazon.s3.analyticsaccelerator.request.ReadMode;
 import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.retry.RetryPolicy;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 
-/** Implements a Block Manager responsible for planning and scheduling reads on a key. */
+/**
+ * Implements a Block Manager responsible for planning and scheduling reads on a key.
+ *
+ * <p>A BlockManager is shared by every stream reading the same key. Looking up blocks and checking
+ * whether a range is available never take a lock, so concurrent readers of resident data do not
+ * contend. Only planning and creating the blocks of missing ranges is serialised, and every
+ * planner re-checks availability once it holds the lock, so that each missing byte is fetched
+ * once. Fetches are issued through a {@link RequestScheduler}, which bounds and prioritises GET
+ * requests across objects.
+ */
 public class BlockManager implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(BlockManager.class);
+
   private final ObjectKey objectKey;
   private final ObjectMetadata metadata;
   private final BlockStore blockStore;
-  private final ObjectClient objectClient;
+  private final ObjectClient scheduledObjectClient;
   private final Telemetry telemetry;
   private final SequentialPatternDetector patternDetector;
-  private final SequentialReadProgression sequentialReadProgression;
+  private final ReadAheadController readAheadController;
   private final IOPlanner ioPlanner;
   private final PhysicalIOConfiguration configuration;
   private final RangeOptimiser rangeOptimiser;
-  private StreamContext streamContext;
+  private final boolean clientSplitsParts;
+  private final BlockCache blockCache;
+  private final BufferPool bufferPool;
+  private final StreamContext streamContext;
+  private final RetryPolicy retryPolicy;
+  private final Object planningLock = new Object();
 
   private static final String OPERATION_MAKE_RANGE_AVAILABLE = "block.manager.make.range.available";
 
@@ -86,17 +110,155 @@ public class BlockManager implements Closeable {
       @NonNull Telemetry telemetry,
       @NonNull PhysicalIOConfiguration configuration,
       StreamContext streamContext) {
+    this(
+        objectKey,
+        objectClient,
+        metadata,
+        telemetry,
+        configuration,
+        streamContext,
+        new BlockCache(telemetry, configuration));
+  }
+
+  /**
+   * Constructs a new BlockManager.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param objectClient object client capable of interacting with the underlying object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param metadata the metadata for the object
+   * @param configuration the physicalIO configuration
+   * @param streamContext contains audit headers to be attached in the request header
+   * @param blockCache the memory bounded cache this manager's blocks are accounted against
+   */
+  public BlockManager(
+      @NonNull ObjectKey objectKey,
+      @NonNull ObjectClient objectClient,
+      @NonNull ObjectMetadata metadata,
+      @NonNull Telemetry telemetry,
+      @NonNull PhysicalIOConfiguration configuration,
+      StreamContext streamContext,
+      @NonNull BlockCache blockCache) {
+    this(
+        objectKey,
+        objectClient,
+        metadata,
+        telemetry,
+        configuration,
+        streamContext,
+        blockCache,
+        BufferPool.create(configuration));
+  }
+
+  /**
+   * Constructs a new BlockManager.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param objectClient object client capable of interacting with the underlying object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param metadata the metadata for the object
+   * @param configuration the physicalIO configuration
+   * @param streamContext contains audit headers to be attached in the request header
+   * @param blockCache the memory bounded cache this manager's blocks are accounted against
+   * @param bufferPool the pool block data buffers are acquired from
+   */
+  public BlockManager(
+      @NonNull ObjectKey objectKey,
+      @NonNull ObjectClient objectClient,
+      @NonNull ObjectMetadata metadata,
+      @NonNull Telemetry telemetry,
+      @NonNull PhysicalIOConfiguration configuration,
+      StreamContext streamContext,
+      @NonNull BlockCache blockCache,
+      @NonNull BufferPool bufferPool) {
+    this(
+        objectKey,
+        objectClient,
+        metadata,
+        telemetry,
+        configuration,
+        streamContext,
+        blockCache,
+        bufferPool,
+        new RequestScheduler(telemetry, configuration));
+  }
+
+  /**
+   * Constructs a new BlockManager.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param objectClient object client capable of interacting with the underlying object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param metadata the metadata for the object
+   * @param configuration the physicalIO configuration
+   * @param streamContext contains audit headers to be attached in the request header
+   * @param blockCache the memory bounded cache this manager's blocks are accounted against
+   * @param bufferPool the pool block data buffers are acquired from
+   * @param requestScheduler the scheduler every GET request of this manager goes through
+   */
+  public BlockManager(
+      @NonNull ObjectKey objectKey,
+      @NonNull ObjectClient objectClient,
+      @NonNull ObjectMetadata metadata,
+      @NonNull Telemetry telemetry,
+      @NonNull PhysicalIOConfiguration configuration,
+      StreamContext streamContext,
+      @NonNull BlockCache blockCache,
+      @NonNull BufferPool bufferPool,
+      @NonNull RequestScheduler requestScheduler) {
+    this(
+        objectKey,
+        objectClient,
+        metadata,
+        telemetry,
+        configuration,
+        streamContext,
+        blockCache,
+        bufferPool,
+        requestScheduler,
+        BlobStore.createRetryPolicy(configuration));
+  }
+
+  /**
+   * Constructs a new BlockManager.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param objectClient object client capable of interacting with the underlying object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param metadata the metadata for the object
+   * @param configuration the physicalIO configuration
+   * @param streamContext contains audit headers to be attached in the request header
+   * @param blockCache the memory bounded cache this manager's blocks are accounted against
+   * @param bufferPool the pool block data buffers are acquired from
+   * @param requestScheduler the scheduler every GET request of this manager goes through
+   * @param retryPolicy the policy deciding whether and when failed block reads are retried
+   */
+  public BlockManager(
+      @NonNull ObjectKey objectKey,
+      @NonNull ObjectClient objectClient,
+      @NonNull ObjectMetadata metadata,
+      @NonNull Telemetry telemetry,
+      @NonNull PhysicalIOConfiguration configuration,
+      StreamContext streamContext,
+      @NonNull BlockCache blockCache,
+      @NonNull BufferPool bufferPool,
+      @NonNull RequestScheduler requestScheduler,
+      @NonNull RetryPolicy retryPolicy) {
     this.objectKey = objectKey;
-    this.objectClient = objectClient;
+    this.scheduledObjectClient = requestScheduler.forObject(objectClient);
+    this.clientSplitsParts = objectClient.splitsRangesIntoParts();
     this.metadata = metadata;
     this.telemetry = telemetry;
     this.configuration = configuration;
-    this.blockStore = new BlockStore(objectKey, metadata);
+    this.readAheadController = new ReadAheadController(configuration, telemetry);
+    this.blockStore = new BlockStore(objectKey, metadata, this::onBlockRemoved);
     this.patternDetector = new SequentialPatternDetector(blockStore);
-    this.sequentialReadProgression = new SequentialReadProgression(configuration);
     this.ioPlanner = new IOPlanner(blockStore);
     this.rangeOptimiser = new RangeOptimiser(configuration);
     this.streamContext = streamContext;
+    this.blockCache = blockCache;
+    this.bufferPool = bufferPool;
+    this.retryPolicy = retryPolicy;
   }
 
   /**
@@ -105,8 +267,42 @@ public class BlockManager implements Closeable {
    * @param pos the position of a byte
    * @return the Block holding the byte or empty if the byte is not in the BlockStore
    */
-  public synchronized Optional<Block> getBlock(long pos) {
-    return this.blockStore.getBlock(pos);
+  public Optional<Block> getBlock(long pos) {
+    Optional<Block> block = this.blockStore.getBlock(pos);
+    block.ifPresent(blockCache::touch);
+    return block;
+  }
+
+  /**
+   * Given the position of a byte, return the block holding it, retained for reading. The caller
+   * must call {@link Block#release()} once done with the block, so that its buffer can be recycled
+   * if the block is evicted in the meantime.
+   *
+   * @param pos the position of a byte
+   * @return the retained Block holding the byte or empty if the byte is not in the BlockStore
+   * @throws IOException if this BlockManager has been closed
+   */
+  public Optional<Block> acquireBlock(long pos) throws IOException {
+    Optional<Block> block = retainBlock(pos);
+    if (block.isPresent() && block.get().markAccessed() && block.get().getGeneration() > 0) {
+      readAheadController.recordPrefetchUsed();
+    }
+    return block;
+  }
+
+  /**
+   * Given the position of a byte, return the block holding it, retained like {@link
+   * #acquireBlock(long)} but without counting as the block being read. This is meant for reads the
+   * library makes for itself, such as the page index used to plan prefetches.
+   *
+   * @param pos the position of a byte
+   * @return the retained Block holding the byte or empty if the byte is not in the BlockStore
+   * @throws IOException if this BlockManager has been closed
+   */
+  public Optional<Block> retainBlock(long pos) throws IOException {
+    Optional<Block> block = this.blockStore.acquireBlock(pos);
+    block.ifPresent(blockCache::touch);
+    return block;
   }
 
   /**
@@ -116,15 +312,16 @@ public class BlockManager implements Closeable {
    * @param readMode whether this ask corresponds to a sync or async read
    * @throws IOException if an I/O error occurs
    */
-  public synchronized void makePositionAvailable(long pos, ReadMode readMode) throws IOException {
+  public void makePositionAvailable(long pos, ReadMode readMode) throws IOException {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
+    recordRead(1, readMode);
 
     // Position is already available --> return corresponding block
     if (getBlock(pos).isPresent()) {
       return;
     }
 
-    makeRangeAvailable(pos, 1, readMode);
+    ensureRangeAvailable(pos, 1, readMode, null);
   }
 
   private boolean isRangeAvailable(long pos, long len) throws IOException {
@@ -152,15 +349,58 @@ public class BlockManager implements Closeable {
    * @param readMode whether this ask corresponds to a sync or async read
    * @throws IOException if an I/O error occurs
    */
-  public synchronized void makeRangeAvailable(long pos, long len, ReadMode readMode)
+  public void makeRangeAvailable(long pos, long len, ReadMode readMode) throws IOException {
+    makeRangeAvailable(pos, len, readMode, null);
+  }
+
+  /**
+   * Method that ensures that a range is fully available in the object store, tying the blocks it
+   * creates to a prefetch plan, so that they can be canceled if they are not read.
+   *
+   * @param pos start of a read
+   * @param len length of the read
+   * @param readMode whether this ask corresponds to a sync or async read
+   * @param prefetchPlan the plan to tie new blocks to, or null to not track them
+   * @throws IOException if an I/O error occurs
+   */
+  public void makeRangeAvailable(long pos, long len, ReadMode readMode, PrefetchPlan prefetchPlan)
       throws IOException {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
     Preconditions.checkArgument(0 <= len, "`len` must not be negative");
+    recordRead(len, readMode);
+
+    ensureRangeAvailable(pos, len, readMode, prefetchPlan);
+  }
+
+  /**
+   * Creates a plan tracking prefetches of this object, which cancels its unread blocks by removing
+   * them from this manager and closing them.
+   *
+   * @return a new, empty prefetch plan
+   */
+  public PrefetchPlan createPrefetchPlan() {
+    return new PrefetchPlan(telemetry, this::cancelPrefetch);
+  }
 
+  private void ensureRangeAvailable(
+      long pos, long len, ReadMode readMode, PrefetchPlan prefetchPlan) throws IOException {
     if (isRangeAvailable(pos, len)) {
+      blockCache.recordHit();
       return;
     }
 
+    synchronized (planningLock) {
+      // Another reader may have planned the range while we were waiting for the lock
+      if (isRangeAvailable(pos, len)) {
+        blockCache.recordHit();
+        return;
+      }
+      planRange(pos, len, readMode, prefetchPlan);
+    }
+  }
+
+  private void planRange(long pos, long len, ReadMode readMode, PrefetchPlan prefetchPlan)
+      throws IOException {
     // In case of a sequential reading pattern, calculate the generation and adjust the requested
     // effectiveEnd of the requested range
     long effectiveEnd = pos + Math.max(len, configuration.getReadAheadBytes()) - 1;
@@ -175,7 +415,7 @@ public class BlockManager implements Closeable {
       effectiveEnd =
           Math.max(
               effectiveEnd,
-              truncatePos(pos + sequentialReadProgression.getSizeForGeneration(generation)));
+              truncatePos(pos + readAheadController.getReadAheadBytes(generation)));
     } else {
       generation = 0;
     }
@@ -196,12 +436,16 @@ public class BlockManager implements Closeable {
           // Determine the missing ranges and fetch them
           List<Range> missingRanges =
               ioPlanner.planRead(pos, effectiveEndFinal, getLastObjectByte());
-          List<Range> splits = rangeOptimiser.splitRanges(missingRanges);
+          // Sequential reads are left whole for clients that fetch the parts of a range in
+          // parallel themselves
+          List<Range> splits =
+              rangeOptimiser.splitRanges(missingRanges, clientSplitsParts && generation > 0);
+          List<Block> newBlocks = new ArrayList<>(splits.size());
           for (Range r : splits) {
             Block block =
                 new Block(
                     objectKey,
-                    objectClient,
+                    scheduledObjectClient,
                     telemetry,
                     r.getStart(),
                     r.getEnd(),
@@ -209,12 +453,150 @@ public class BlockManager implements Closeable {
                     readMode,
                     this.configuration.getBlockReadTimeout(),
                     this.configuration.getBlockReadRetryCount(),
-                    streamContext);
+                    streamContext,
+                    bufferPool,
+                    retryPolicy);
+            block.whenFetched(readAheadController::recordFetch);
             blockStore.add(block);
+            newBlocks.add(block);
+            if (prefetchPlan != null) {
+              prefetchPlan.add(block);
+            }
           }
+          blockCache.addAll(newBlocks, blockStore);
         });
   }
 
+  /**
+   * Seeds this manager with bytes of the object that were fetched by another request, so that
+   * reads of the range do not issue a GET of their own. If any byte of the range is already
+   * available or being fetched, the content is closed and dropped instead.
+   *
+   * @param range the range of the object held by the content
+   * @param content the content of the range
+   * @return true if the content was added to this manager
+   * @throws IOException if an I/O error occurs
+   */
+  public boolean seedRange(@NonNull Range range, @NonNull ObjectContent content)
+      throws IOException {
+    Preconditions.checkArgument(
+        range.getEnd() <= getLastObjectByte(), "`range` must be within the object");
+
+    synchronized (planningLock) {
+      List<Range> missingRanges =
+          ioPlanner.planRead(range.getStart(), range.getEnd(), getLastObjectByte());
+      if (missingRanges.size() == 1 && missingRanges.get(0).equals(range)) {
+        Block block =
+            new Block(
+                objectKey,
+                new PreloadedObjectClient(content, scheduledObjectClient),
+                telemetry,
+                range.getStart(),
+                range.getEnd(),
+                0,
+                ReadMode.SYNC,
+                this.configuration.getBlockReadTimeout(),
+                this.configuration.getBlockReadRetryCount(),
+                streamContext,
+                bufferPool,
+                retryPolicy);
+        blockStore.add(block);
+        blockCache.add(block, blockStore);
+        return true;
+      }
+    }
+
+    closeQuietly(content);
+    return false;
+  }
+
+  /**
+   * Coalesces the ranges of a vectored read and makes each merged range available. Fetches for all
+   * merged ranges are issued before this method returns, so that they proceed in parallel.
+   *
+   * @param objectRanges the ranges of a vectored read
+   * @return the ranges grouped by the merged range that fetches them
+   * @throws IOException if an I/O error occurs
+   */
+  public List<List<ObjectRange>> makeRangesAvailable(List<ObjectRange> objectRanges)
+      throws IOException {
+    List<List<ObjectRange>> groups = rangeOptimiser.coalesceRanges(objectRanges);
+    for (List<ObjectRange> group : groups) {
+      long start = group.get(0).getOffset();
+      long end = start;
+      for (ObjectRange objectRange : group) {
+        end = Math.max(end, objectRange.getEndExclusive());
+      }
+      // The caller is waiting for the ranges, so they are not fetched as prefetches
+      makeRangeAvailable(start, end - start, ReadMode.SYNC);
+    }
+
+    return groups;
+  }
+
+  /**
+   * Returns a future completing once the fetches of the blocks currently holding the given ranges
+   * are no longer in flight, either because they completed or because they failed. Bytes of the
+   * ranges that are not held by any block are ignored.
+   *
+   * @param objectRanges the ranges to wait for
+   * @return a future completing when the ranges are no longer being fetched
+   */
+  public CompletableFuture<Void> whenRangesFetched(List<ObjectRange> objectRanges) {
+    List<CompletableFuture<Void>> fetches = new ArrayList<>();
+    for (ObjectRange objectRange : objectRanges) {
+      OptionalLong next = blockStore.findNextLoadedByte(objectRange.getOffset());
+      while (next.isPresent() && next.getAsLong() < objectRange.getEndExclusive()) {
+        Optional<Block> block = blockStore.getBlock(next.getAsLong());
+        if (!block.isPresent()) {
+          break;
+        }
+        fetches.add(block.get().whenDataReady());
+        next = blockStore.findNextLoadedByte(block.get().getEnd() + 1);
+      }
+    }
+
+    return CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0]));
+  }
+
+  /** Feeds the consumption rate of synchronous reads into the read-ahead controller. */
+  private void recordRead(long len, ReadMode readMode) {
+    if (readMode == ReadMode.SYNC) {
+      readAheadController.recordConsumption(len);
+    }
+  }
+
+  /** Shrinks read-ahead when sequentially prefetched blocks are evicted before being read. */
+  private void onBlockRemoved(Block block) {
+    if (block.getGeneration() > 0 && !block.wasAccessed()) {
+      readAheadController.recordPrefetchWasted();
+    }
+  }
+
+  /**
+   * Drops a prefetched block the plan that fetched it is not going to read, aborting its fetch. A
+   * block held by a reader, such as another stream sharing this blob, is left alone.
+   *
+   * @return true if the block was dropped
+   */
+  private boolean cancelPrefetch(Block block) {
+    if (block.isRetained()) {
+      return false;
+    }
+    blockStore.remove(block);
+    blockCache.remove(block);
+    block.close();
+    return true;
+  }
+
+  private void closeQuietly(ObjectContent content) {
+    try {
+      content.getStream().close();
+    } catch (IOException e) {
+      LOG.debug("Failed to close unused content of {}", objectKey.getS3URI(), e);
+    }
+  }
+
   private long getLastObjectByte() {
     return this.metadata.getContentLength() - 1;
   }
@@ -229,5 +611,6 @@ public class BlockManager implements Closeable {
   @Override
   public void close() {
     blockStore.close();
+    blockCache.removeAll(blockStore);
   }
 }
@@ -17,24 +17,44 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 
-/** A BlockStore, which is a collection of Blocks. */
+/**
+ * A BlockStore, which is a collection of Blocks.
+ *
+ * <p>Blocks are kept in a sorted, non-overlapping index keyed by their start position. Alongside
+ * it, the store keeps the coalesced byte ranges covered by blocks, so that position lookups as
+ * well as searches for the next loaded or missing byte take logarithmic time in the number of
+ * blocks.
+ *
+ * <p>This class is thread safe, as blocks can be removed by the {@link BlockCache} on behalf of
+ * other objects. Both indexes are concurrent maps, so lookups never take a lock. Mutations are
+ * serialised on the store and ordered so that a concurrent reader may briefly see a block that is
+ * being removed as still covered, but never sees a covered byte as missing. Callers that find a
+ * covered position without a block simply plan the read again.
+ */
 public class BlockStore implements Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(BlockStore.class);
 
   private final ObjectKey s3URI;
   private final ObjectMetadata metadata;
-  private final List<Block> blocks;
+  private final Consumer<Block> removalListener;
+  // Block start -> Block
+  private final NavigableMap<Long, Block> blocks;
+  // Start -> end (inclusive) of maximal runs of adjacent blocks
+  private final NavigableMap<Long, Long> coveredRanges;
+  private volatile boolean closed;
 
   /**
    * Constructs a new instance of a BlockStore.
@@ -43,12 +63,26 @@ public class BlockStore implements Closeable {
    * @param metadata the metadata for the object
    */
   public BlockStore(ObjectKey objectKey, ObjectMetadata metadata) {
+    this(objectKey, metadata, block -> {});
+  }
+
+  /**
+   * Constructs a new instance of a BlockStore.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param metadata the metadata for the object
+   * @param removalListener called with every block removed from the store by {@link #remove}
+   */
+  public BlockStore(ObjectKey objectKey, ObjectMetadata metadata, Consumer<Block> removalListener) {
     Preconditions.checkNotNull(objectKey, "`objectKey` must not be null");
     Preconditions.checkNotNull(metadata, "`metadata` must not be null");
+    Preconditions.checkNotNull(removalListener, "`removalListener` must not be null");
 
     this.s3URI = objectKey;
     this.metadata = metadata;
-    this.blocks = new LinkedList<>();
+    this.removalListener = removalListener;
+    this.blocks = new ConcurrentSkipListMap<>();
+    this.coveredRanges = new ConcurrentSkipListMap<>();
   }
 
   /**
@@ -61,7 +95,36 @@ public class BlockStore implements Closeable {
   public Optional<Block> getBlock(long pos) {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
 
-    return blocks.stream().filter(b -> b.contains(pos)).findFirst();
+    Map.Entry<Long, Block> candidate = blocks.floorEntry(pos);
+    if (candidate != null && candidate.getValue().contains(pos)) {
+      return Optional.of(candidate.getValue());
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Given a position, return the Block holding the byte at that position, retained for reading.
+   * Blocks are only closed after they have been removed from the store, so a block evicted
+   * concurrently is either retained before it is closed, or fails to be retained and is reported
+   * as missing.
+   *
+   * @param pos the position of the byte
+   * @return the retained Block containing the byte or empty if the byte is not present in the
+   *     BlockStore
+   * @throws IOException if the BlockStore has been closed
+   */
+  public Optional<Block> acquireBlock(long pos) throws IOException {
+    Optional<Block> block = getBlock(pos);
+    if (block.isPresent() && !block.get().retain()) {
+      if (closed) {
+        throw new IOException(
+            String.format("Block containing position %s of %s is closed", pos, s3URI.getS3URI()));
+      }
+      return Optional.empty();
+    }
+
+    return block;
   }
 
   /**
@@ -75,11 +138,12 @@ public class BlockStore implements Closeable {
   public OptionalLong findNextLoadedByte(long pos) {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
 
-    if (getBlock(pos).isPresent()) {
+    if (getCoveredRangeEnd(pos).isPresent()) {
       return OptionalLong.of(pos);
     }
 
-    return blocks.stream().mapToLong(Block::getStart).filter(startPos -> pos < startPos).min();
+    Long nextStart = coveredRanges.higherKey(pos);
+    return nextStart == null ? OptionalLong.empty() : OptionalLong.of(nextStart);
   }
 
   /**
@@ -94,11 +158,8 @@ public class BlockStore implements Closeable {
   public OptionalLong findNextMissingByte(long pos) throws IOException {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
 
-    long nextMissingByte = pos;
-
-    while (getBlock(nextMissingByte).isPresent()) {
-      nextMissingByte = getBlock(nextMissingByte).get().getEnd() + 1;
-    }
+    OptionalLong coveredRangeEnd = getCoveredRangeEnd(pos);
+    long nextMissingByte = coveredRangeEnd.isPresent() ? coveredRangeEnd.getAsLong() + 1 : pos;
 
     return nextMissingByte <= getLastObjectByte()
         ? OptionalLong.of(nextMissingByte)
@@ -106,14 +167,88 @@ public class BlockStore implements Closeable {
   }
 
   /**
-   * Add a Block to the BlockStore.
+   * Add a Block to the BlockStore. The block must not overlap with any block already in the store.
    *
    * @param block the block to add to the BlockStore
    */
-  public void add(Block block) {
+  public synchronized void add(Block block) {
+    Preconditions.checkNotNull(block, "`block` must not be null");
+
+    long start = block.getStart();
+    long end = block.getEnd();
+    Map.Entry<Long, Block> previous = blocks.floorEntry(end);
+    Preconditions.checkArgument(
+        previous == null || previous.getValue().getEnd() < start,
+        "Block %s-%s overlaps with an existing block",
+        start,
+        end);
+
+    this.blocks.put(start, block);
+
+    // Merge the new block into the covered ranges, coalescing with adjacent runs on either side.
+    // The merged run is published before the run on the right is dropped, so that readers never
+    // see a gap.
+    long coveredStart = start;
+    long coveredEnd = end;
+    Map.Entry<Long, Long> left = coveredRanges.floorEntry(start);
+    if (left != null && left.getValue() == start - 1) {
+      coveredStart = left.getKey();
+    }
+    Long rightEnd = coveredRanges.get(end + 1);
+    if (rightEnd != null) {
+      coveredEnd = rightEnd;
+    }
+    coveredRanges.put(coveredStart, coveredEnd);
+    if (rightEnd != null) {
+      coveredRanges.remove(end + 1);
+    }
+  }
+
+  /**
+   * Removes a Block from the BlockStore, if it is still held by it.
+   *
+   * @param block the block to remove
+   * @return true if the block was removed
+   */
+  public synchronized boolean remove(Block block) {
     Preconditions.checkNotNull(block, "`block` must not be null");
 
-    this.blocks.add(block);
+    long start = block.getStart();
+    long end = block.getEnd();
+    if (blocks.get(start) != block) {
+      return false;
+    }
+    blocks.remove(start);
+
+    // Split the covered run holding the block around the removed range. The right part is published
+    // before the run is truncated, so that readers never see a gap outside the removed block.
+    Map.Entry<Long, Long> coveredRange = coveredRanges.floorEntry(start);
+    if (end < coveredRange.getValue()) {
+      coveredRanges.put(end + 1, coveredRange.getValue());
+    }
+    if (coveredRange.getKey() < start) {
+      coveredRanges.put(coveredRange.getKey(), start - 1);
+    } else {
+      coveredRanges.remove(coveredRange.getKey());
+    }
+
+    removalListener.accept(block);
+    return true;
+  }
+
+  /**
+   * Returns the last byte of the run of adjacent blocks that contains the given position.
+   *
+   * @param pos a byte position
+   * @return the end of the covered run containing pos, or empty if pos is not covered
+   */
+  private OptionalLong getCoveredRangeEnd(long pos) {
+    Map.Entry<Long, Long> coveredRange = coveredRanges.floorEntry(pos);
+    if (coveredRange != null && pos <= coveredRange.getValue()) {
+      return OptionalLong.of(coveredRange.getValue());
+    }
+
+    return OptionalLong.empty();
   }
 
   private long getLastObjectByte() {
@@ -129,7 +264,8 @@ public class BlockStore implements Closeable {
   }
 
   @Override
-  public void close() {
-    blocks.forEach(this::safeClose);
+  public synchronized void close() {
+    closed = true;
+    blocks.values().forEach(this::safeClose);
   }
 }
@@ -0,0 +1,29 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+/** Callback notified when a {@link Block} has been fetched successfully. */
+@FunctionalInterface
+public interface FetchListener {
+  /**
+   * Called once the data of a block has been fetched.
+   *
+   * @param bytes the number of bytes fetched
+   * @param timeToFirstByteNanos the time from issuing the request to receiving the first byte
+   * @param durationNanos the time from issuing the request to receiving the last byte
+   */
+  void onFetched(long bytes, long timeToFirstByteNanos, long durationNanos);
+}
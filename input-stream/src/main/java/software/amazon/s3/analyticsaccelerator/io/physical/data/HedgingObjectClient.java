@@ -0,0 +1,267 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+
+/**
+ * An {@link ObjectClient} that hedges slow GET requests. If a GET request has not produced a
+ * response within {@link PhysicalIOConfiguration#getRequestHedgingPercentile()} of the latencies
+ * of recent requests, and never before {@link PhysicalIOConfiguration#getRequestHedgingMinDelay()},
+ * a duplicate request is issued, and whichever responds first is used. Head requests are passed
+ * through.
+ *
+ * <p>Requests are only hedged once enough latencies have been observed to learn a deadline from.
+ * Every request earns {@link PhysicalIOConfiguration#getRequestHedgingBudget()} of a hedge, and a
+ * hedge is only issued if a whole one has been earned, so that a slow object store is not flooded
+ * with duplicates. Hedges are issued through the {@link RequestScheduler} of the requests, which
+ * only lets them take slots nobody is waiting for, and refuses them while the key prefix of the
+ * object is being throttled. The losing request is not canceled, as its response body would then
+ * never be closed. Instead, its body is closed as soon as it arrives.
+ */
+public class HedgingObjectClient implements ObjectClient {
+  private static final Logger LOG = LoggerFactory.getLogger(HedgingObjectClient.class);
+
+  private static final Metric METRIC_HEDGE_ISSUED =
+      Metric.builder().name("request.hedge.issued").build();
+  private static final Metric METRIC_HEDGE_WON = Metric.builder().name("request.hedge.won").build();
+  private static final Metric METRIC_HEDGE_DENIED =
+      Metric.builder().name("request.hedge.denied").build();
+
+  // Number of recent latencies the deadline is learnt from
+  private static final int LATENCY_SAMPLES = 256;
+  // Number of latencies observed before any request is hedged
+  private static final int MIN_LATENCY_SAMPLES = 32;
+  // Number of new latencies after which the deadline is recomputed
+  private static final int DEADLINE_REFRESH_INTERVAL = 16;
+  // Largest number of hedges that can be saved up while requests are fast
+  private static final double MAX_HEDGE_BURST = 10;
+
+  private static final ScheduledExecutorService HEDGE_SCHEDULER = createHedgeScheduler();
+
+  private final ObjectClient delegate;
+  private final RequestScheduler requestScheduler;
+  private final Telemetry telemetry;
+  private final double percentile;
+  private final long minDelayNanos;
+  private final double budget;
+
+  // Guarded by this. Recent latencies in nanoseconds, as a ring buffer
+  private final long[] latencies = new long[LATENCY_SAMPLES];
+  private long latencyCount;
+  private double hedgeTokens;
+  // The deadline after which requests are hedged, or -1 until enough latencies are known
+  private volatile long deadlineNanos = -1;
+
+  /**
+   * Constructs a new HedgingObjectClient.
+   *
+   * @param delegate the client to issue requests with
+   * @param requestScheduler the scheduler the requests are issued through, which admits hedges
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param configuration the physicalIO configuration
+   */
+  public HedgingObjectClient(
+      @NonNull ObjectClient delegate,
+      @NonNull RequestScheduler requestScheduler,
+      @NonNull Telemetry telemetry,
+      @NonNull PhysicalIOConfiguration configuration) {
+    this.delegate = delegate;
+    this.requestScheduler = requestScheduler;
+    this.telemetry = telemetry;
+    this.percentile = configuration.getRequestHedgingPercentile();
+    this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getRequestHedgingMinDelay());
+    this.budget = configuration.getRequestHedgingBudget();
+  }
+
+  @Override
+  public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+    return delegate.headObject(headRequest);
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+    return getObject(getRequest, null);
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObject(
+      GetRequest getRequest, StreamContext streamContext) {
+    earnHedge();
+    HedgedRequest request = new HedgedRequest(getRequest, streamContext);
+    request.track(delegate.getObject(getRequest, streamContext), System.nanoTime(), false);
+
+    long deadline = deadlineNanos;
+    if (deadline >= 0 && !request.result.isDone()) {
+      ScheduledFuture<?> timer =
+          HEDGE_SCHEDULER.schedule(request::hedge, deadline, TimeUnit.NANOSECONDS);
+      request.result.whenComplete((content, error) -> timer.cancel(false));
+    }
+    return request.result;
+  }
+
+  @Override
+  public boolean splitsRangesIntoParts() {
+    return delegate.splitsRangesIntoParts();
+  }
+
+  /**
+   * Returns the deadline after which requests are currently hedged.
+   *
+   * @return the deadline in nanoseconds, or -1 if requests are not hedged yet
+   */
+  long getDeadlineNanos() {
+    return deadlineNanos;
+  }
+
+  /** Does not close the delegate, which is owned by the caller. */
+  @Override
+  public void close() {}
+
+  private synchronized void earnHedge() {
+    hedgeTokens = Math.min(MAX_HEDGE_BURST, hedgeTokens + budget);
+  }
+
+  private synchronized boolean spendHedge() {
+    if (hedgeTokens < 1) {
+      return false;
+    }
+    hedgeTokens -= 1;
+    return true;
+  }
+
+  private synchronized void refundHedge() {
+    hedgeTokens = Math.min(MAX_HEDGE_BURST, hedgeTokens + 1);
+  }
+
+  private synchronized void recordLatency(long latencyNanos) {
+    latencies[(int) (latencyCount % LATENCY_SAMPLES)] = latencyNanos;
+    latencyCount++;
+    if (latencyCount >= MIN_LATENCY_SAMPLES && latencyCount % DEADLINE_REFRESH_INTERVAL == 0) {
+      int samples = (int) Math.min(latencyCount, LATENCY_SAMPLES);
+      long[] sorted = Arrays.copyOf(latencies, samples);
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile / 100 * samples) - 1;
+      deadlineNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+    }
+  }
+
+  private static ScheduledExecutorService createHedgeScheduler() {
+    ScheduledThreadPoolExecutor scheduler =
+        new ScheduledThreadPoolExecutor(
+            1,
+            runnable -> {
+              Thread thread = new Thread(runnable, "s3-analytics-accelerator-request-hedger");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
+  }
+
+  /** A GET request along with its hedge, if one was issued. */
+  private final class HedgedRequest {
+    private final GetRequest getRequest;
+    private final StreamContext streamContext;
+    private final CompletableFuture<ObjectContent> result = new CompletableFuture<>();
+    // Attempts that have not failed yet. The result only fails once every attempt has
+    private final AtomicInteger pendingAttempts = new AtomicInteger();
+
+    private HedgedRequest(GetRequest getRequest, StreamContext streamContext) {
+      this.getRequest = getRequest;
+      this.streamContext = streamContext;
+    }
+
+    private void hedge() {
+      if (result.isDone()) {
+        return;
+      }
+      if (!spendHedge()) {
+        telemetry.measure(METRIC_HEDGE_DENIED, 1);
+        return;
+      }
+
+      long startNanos = System.nanoTime();
+      Optional<CompletableFuture<ObjectContent>> attempt;
+      try {
+        attempt = requestScheduler.tryIssueDuplicate(delegate, getRequest, streamContext);
+      } catch (RuntimeException e) {
+        // The original request is still in flight, so a failed hedge is not reported
+        LOG.debug("Failed to hedge the request for {}", getRequest.getRange(), e);
+        return;
+      }
+      if (!attempt.isPresent()) {
+        // The scheduler has no slot to spare, or the prefix of the object is being throttled
+        refundHedge();
+        telemetry.measure(METRIC_HEDGE_DENIED, 1);
+        return;
+      }
+      telemetry.measure(METRIC_HEDGE_ISSUED, 1);
+      track(attempt.get(), startNanos, true);
+    }
+
+    private void track(CompletableFuture<ObjectContent> attempt, long startNanos, boolean isHedge) {
+      pendingAttempts.incrementAndGet();
+      attempt.whenComplete(
+          (content, error) -> {
+            if (error != null) {
+              if (pendingAttempts.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+              }
+              return;
+            }
+
+            // Losers count too, or slow responses would never make it into the deadline
+            recordLatency(System.nanoTime() - startNanos);
+            if (result.complete(content)) {
+              if (isHedge) {
+                telemetry.measure(METRIC_HEDGE_WON, 1);
+              }
+            } else {
+              closeQuietly(content);
+            }
+          });
+    }
+
+    private void closeQuietly(ObjectContent content) {
+      try {
+        content.getStream().close();
+      } catch (IOException e) {
+        LOG.debug("Failed to close the losing response for {}", getRequest.getRange(), e);
+      }
+    }
+  }
+}
@@ -15,16 +15,26 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.Closeable;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 import lombok.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
@@ -34,20 +44,44 @@ import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 
-/** Class responsible for fetching and potentially caching object metadata. */
-@SuppressFBWarnings(
-    value = "SIC_INNER_SHOULD_BE_STATIC_ANON",
-    justification =
-        "Inner class is created very infrequently, and fluency justifies the extra pointer")
+/**
+ * Class responsible for fetching and potentially caching object metadata.
+ *
+ * <p>Metadata is served from the cache for {@link PhysicalIOConfiguration#getMetadataStoreTtl()}
+ * milliseconds. After that, the stale metadata is still served, while a single HEAD request
+ * revalidates it in the background. Objects found to be missing are remembered for {@link
+ * PhysicalIOConfiguration#getMetadataStoreNegativeTtl()} milliseconds, and any other failed request
+ * is dropped from the cache as soon as it fails, so that the next lookup tries again.
+ *
+ * <p>Entries are kept in access order, and once the store holds more than {@link
+ * PhysicalIOConfiguration#getMetadataStoreCapacity()} entries, the least recently used ones are
+ * evicted. The lock guarding the entries is only held to look them up and update them. HEAD
+ * requests are issued after a new entry has been installed and the lock released, and concurrent
+ * lookups of the same object wait on the entry.
+ *
+ * <p>Metadata seeded ahead of opening objects, see {@link #prefetch} and {@link
+ * #pinObjectMetadata}, is pinned: it neither counts towards the capacity nor goes stale, so that
+ * opening the objects never waits on a HEAD request however large the batch was. Pinned entries
+ * become regular ones once {@link #unpin} is called, when a stream is opened for their object.
+ */
 public class MetadataStore implements Closeable {
   private final ObjectClient objectClient;
   private final Telemetry telemetry;
-  private final Map<S3URI, CompletableFuture<ObjectMetadata>> cache;
+  // Guarded by lock, in access order
+  private final LinkedHashMap<S3URI, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+  // Guarded by lock. Entries exempt from the capacity and the TTL until unpinned
+  private final Map<S3URI, Entry> pinned = new HashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
   private final PhysicalIOConfiguration configuration;
+  private final LongSupplier nanoClock;
+  private final long ttlNanos;
+  private final long negativeTtlNanos;
 
   private static final Logger LOG = LoggerFactory.getLogger(MetadataStore.class);
   private static final String OPERATION_METADATA_HEAD_ASYNC = "metadata.store.head.async";
   private static final String OPERATION_METADATA_HEAD_JOIN = "metadata.store.head.join";
+  private static final Metric METRIC_REVALIDATION =
+      Metric.builder().name("metadata.store.revalidation").build();
 
   /**
    * Constructs a new MetadataStore.
@@ -60,18 +94,29 @@ public class MetadataStore implements Closeable {
       @NonNull ObjectClient objectClient,
       @NonNull Telemetry telemetry,
       @NonNull PhysicalIOConfiguration configuration) {
+    this(objectClient, telemetry, configuration, System::nanoTime);
+  }
+
+  /**
+   * Constructs a new MetadataStore.
+   *
+   * @param objectClient the object client to use for object store interactions.
+   * @param telemetry The {@link Telemetry} to use to report measurements.
+   * @param configuration a configuration of PhysicalIO.
+   * @param nanoClock the source of the current time, in nanoseconds, used to expire entries
+   */
+  MetadataStore(
+      @NonNull ObjectClient objectClient,
+      @NonNull Telemetry telemetry,
+      @NonNull PhysicalIOConfiguration configuration,
+      @NonNull LongSupplier nanoClock) {
     this.objectClient = objectClient;
     this.telemetry = telemetry;
-    this.cache =
-        Collections.synchronizedMap(
-            new LinkedHashMap<S3URI, CompletableFuture<ObjectMetadata>>() {
-              @Override
-              protected boolean removeEldestEntry(
-                  final Map.Entry<S3URI, CompletableFuture<ObjectMetadata>> eldest) {
-                return this.size() > configuration.getMetadataStoreCapacity();
-              }
-            });
     this.configuration = configuration;
+    this.nanoClock = nanoClock;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getMetadataStoreTtl());
+    this.negativeTtlNanos =
+        TimeUnit.MILLISECONDS.toNanos(configuration.getMetadataStoreNegativeTtl());
   }
 
   /**
@@ -100,27 +145,67 @@ public class MetadataStore implements Closeable {
    * @return a boolean stating if the object existed or not
    */
   public boolean evictKey(S3URI s3URI) {
-    return this.cache.remove(s3URI) != null;
+    lock.lock();
+    try {
+      boolean evicted = this.cache.remove(s3URI) != null;
+      return this.pinned.remove(s3URI) != null || evicted;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Checks whether the metadata of an object is cached or being fetched, without fetching it. A
+   * missing object that is remembered also counts as cached.
+   *
+   * @param s3URI the object to look up
+   * @return true if looking the object up would not issue a HEAD request
+   */
+  public boolean contains(S3URI s3URI) {
+    lock.lock();
+    try {
+      return liveEntry(s3URI, nanoClock.getAsLong()) != null;
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
    * Get the metadata for an object asynchronously (either from cache or the underlying object
-   * store).
+   * store). Stale metadata is returned as is, and revalidated in the background.
    *
    * @param s3URI the object to fetch the metadata for
    * @return returns the {@link CompletableFuture} that holds object's metadata.
    */
-  public synchronized CompletableFuture<ObjectMetadata> asyncGet(S3URI s3URI) {
-    return this.cache.computeIfAbsent(
-        s3URI,
-        uri ->
-            telemetry.measureCritical(
-                () ->
-                    Operation.builder()
-                        .name(OPERATION_METADATA_HEAD_ASYNC)
-                        .attribute(StreamAttributes.uri(s3URI))
-                        .build(),
-                objectClient.headObject(HeadRequest.builder().s3Uri(s3URI).build())));
+  public CompletableFuture<ObjectMetadata> asyncGet(S3URI s3URI) {
+    return asyncGet(s3URI, false);
+  }
+
+  private CompletableFuture<ObjectMetadata> asyncGet(S3URI s3URI, boolean pin) {
+    long now = nanoClock.getAsLong();
+    Entry entry;
+    boolean created = false;
+    lock.lock();
+    try {
+      entry = liveEntry(s3URI, now);
+      // The entry is missing, or a remembered missing object has expired
+      if (entry == null) {
+        entry = new Entry(new CompletableFuture<>());
+        install(s3URI, entry, pin);
+        created = true;
+      } else if (pin && !entry.pinned) {
+        install(s3URI, entry, true);
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    if (created) {
+      load(s3URI, entry);
+    } else if (entry.isStale(now)) {
+      revalidate(s3URI, entry);
+    }
+    return entry.future;
   }
 
   /**
@@ -130,12 +215,239 @@ public class MetadataStore implements Closeable {
    * @param s3URI the object to store metadata for
    * @param objectMetadata Object metadata
    */
-  public synchronized void storeObjectMetadata(S3URI s3URI, ObjectMetadata objectMetadata) {
+  public void storeObjectMetadata(S3URI s3URI, ObjectMetadata objectMetadata) {
+    store(s3URI, objectMetadata, false);
+  }
+
+  /**
+   * Stores metadata that is already known ahead of opening the object, pinned until {@link
+   * #unpin} is called for the object.
+   *
+   * @param s3URI the object to store metadata for
+   * @param objectMetadata Object metadata
+   */
+  public void pinObjectMetadata(S3URI s3URI, ObjectMetadata objectMetadata) {
+    store(s3URI, objectMetadata, true);
+  }
+
+  /**
+   * Turns the pinned entry of an object, if any, into a regular one, which counts towards the
+   * capacity and goes stale once the TTL has passed from now.
+   *
+   * @param s3URI the object to unpin
+   */
+  public void unpin(S3URI s3URI) {
+    lock.lock();
+    try {
+      Entry entry = pinned.get(s3URI);
+      if (entry != null) {
+        if (entry.staleAtNanos != Long.MAX_VALUE) {
+          entry.staleAtNanos = nanoClock.getAsLong() + ttlNanos;
+        }
+        install(s3URI, entry, false);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Fetches the metadata of a batch of objects into the cache, with at most {@link
+   * PhysicalIOConfiguration#getMetadataStorePrefetchConcurrency()} HEAD requests in flight. Objects
+   * whose metadata is already cached are not requested again. All entries of the batch are pinned
+   * until {@link #unpin} is called for their object. Failures are not reported here, but by the
+   * lookups of the objects that failed.
+   *
+   * @param s3URIs the objects to fetch the metadata for
+   * @return a future completing once every request of the batch has completed
+   */
+  public CompletableFuture<Void> prefetch(@NonNull Collection<S3URI> s3URIs) {
+    BatchPrefetch batchPrefetch = new BatchPrefetch(s3URIs);
+    for (int i = 0; i < configuration.getMetadataStorePrefetchConcurrency(); i++) {
+      batchPrefetch.issueNext();
+    }
+    return batchPrefetch.done;
+  }
+
+  private CompletableFuture<ObjectMetadata> head(S3URI s3URI) {
+    return telemetry.measureCritical(
+        () ->
+            Operation.builder()
+                .name(OPERATION_METADATA_HEAD_ASYNC)
+                .attribute(StreamAttributes.uri(s3URI))
+                .build(),
+        objectClient.headObject(HeadRequest.builder().s3Uri(s3URI).build()));
+  }
+
+  private void store(S3URI s3URI, ObjectMetadata objectMetadata, boolean pin) {
     if (objectMetadata != null) {
-      this.cache.put(s3URI, CompletableFuture.completedFuture(objectMetadata));
+      Entry entry = new Entry(CompletableFuture.completedFuture(objectMetadata));
+      lock.lock();
+      try {
+        install(s3URI, entry, pin);
+      } finally {
+        lock.unlock();
+      }
+      onLoaded(s3URI, entry);
+    }
+  }
+
+  /**
+   * Returns the entry of an object that has not expired, pinned or not, marking it as recently
+   * used. An expired pinned entry is dropped. Must be called while holding the lock.
+   */
+  private Entry liveEntry(S3URI s3URI, long nowNanos) {
+    Entry entry = pinned.get(s3URI);
+    if (entry != null) {
+      if (!entry.isExpired(nowNanos)) {
+        return entry;
+      }
+      pinned.remove(s3URI);
+    }
+
+    entry = cache.get(s3URI);
+    return entry != null && !entry.isExpired(nowNanos) ? entry : null;
+  }
+
+  /**
+   * Makes an entry the one of an object, either pinned or in the cache, replacing any other. Must
+   * be called while holding the lock.
+   */
+  private void install(S3URI s3URI, Entry entry, boolean pin) {
+    entry.pinned = pin;
+    if (pin) {
+      cache.remove(s3URI);
+      pinned.put(s3URI, entry);
+    } else {
+      pinned.remove(s3URI);
+      cache.put(s3URI, entry);
+      evictIfFull();
     }
   }
 
+  /**
+   * Issues the HEAD request of a newly installed entry, completing the entry with its outcome. If
+   * issuing the request throws, the entry is dropped and the exception rethrown.
+   */
+  private void load(S3URI s3URI, Entry entry) {
+    onLoaded(s3URI, entry);
+    CompletableFuture<ObjectMetadata> response;
+    try {
+      response = head(s3URI);
+    } catch (RuntimeException e) {
+      entry.future.completeExceptionally(e);
+      throw e;
+    }
+
+    response.whenComplete(
+        (metadata, error) -> {
+          if (error == null) {
+            entry.future.complete(metadata);
+          } else {
+            entry.future.completeExceptionally(error);
+          }
+        });
+    // Closing the store cancels the entry, which abandons its request
+    entry.future.whenComplete(
+        (metadata, error) -> {
+          if (entry.future.isCancelled()) {
+            response.cancel(false);
+          }
+        });
+  }
+
+  /** Sets the expiry of an entry once its request completes, or drops it if the request failed. */
+  private void onLoaded(S3URI s3URI, Entry entry) {
+    entry.future.whenComplete(
+        (metadata, error) -> {
+          long now = nanoClock.getAsLong();
+          if (error == null) {
+            entry.staleAtNanos = now + ttlNanos;
+          } else if (isNotFound(error) && negativeTtlNanos > 0) {
+            entry.expiresAtNanos = now + negativeTtlNanos;
+          } else {
+            remove(s3URI, entry);
+          }
+        });
+  }
+
+  /** Drops the entry of an object, unless it has been replaced in the meantime. */
+  private void remove(S3URI s3URI, Entry entry) {
+    lock.lock();
+    try {
+      if (!cache.remove(s3URI, entry)) {
+        pinned.remove(s3URI, entry);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Issues a single HEAD request for a stale entry, replacing the entry once it succeeds. If the
+   * object turns out to be missing, the entry is replaced by a negative one. On other failures, the
+   * stale entry is kept, and revalidated again on its next lookup.
+   */
+  private void revalidate(S3URI s3URI, Entry stale) {
+    if (!stale.revalidating.compareAndSet(false, true)) {
+      return;
+    }
+
+    telemetry.measure(METRIC_REVALIDATION, 1);
+    CompletableFuture<ObjectMetadata> refreshed;
+    try {
+      refreshed = head(s3URI);
+    } catch (RuntimeException e) {
+      LOG.debug("Failed to revalidate the metadata of {}", s3URI, e);
+      stale.revalidating.set(false);
+      return;
+    }
+
+    refreshed.whenComplete(
+        (metadata, error) -> {
+          if (error == null || (isNotFound(error) && negativeTtlNanos > 0)) {
+            Entry fresh = new Entry(refreshed);
+            boolean replaced;
+            lock.lock();
+            try {
+              replaced = cache.replace(s3URI, stale, fresh);
+            } finally {
+              lock.unlock();
+            }
+            if (replaced) {
+              onLoaded(s3URI, fresh);
+            } else {
+              // The entry was pinned or dropped in the meantime
+              stale.revalidating.set(false);
+            }
+          } else {
+            LOG.debug("Failed to revalidate the metadata of {}", s3URI, error);
+            stale.revalidating.set(false);
+          }
+        });
+  }
+
+  /**
+   * Evicts the least recently used entries until the store is back within its capacity. Must be
+   * called while holding the lock.
+   */
+  private void evictIfFull() {
+    Iterator<Entry> eldest = cache.values().iterator();
+    while (cache.size() > configuration.getMetadataStoreCapacity() && eldest.hasNext()) {
+      eldest.next();
+      eldest.remove();
+    }
+  }
+
+  private static boolean isNotFound(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof FileNotFoundException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Utility method that cancels a {@link CompletableFuture} ignoring any exceptions.
    *
@@ -154,6 +466,97 @@ public class MetadataStore implements Closeable {
   /** Closes the {@link MetadataStore} and frees up all resources it holds. */
   @Override
   public void close() {
-    this.cache.values().forEach(this::safeCancel);
+    List<Entry> entries;
+    lock.lock();
+    try {
+      entries = new ArrayList<>(this.cache.values());
+      entries.addAll(this.pinned.values());
+    } finally {
+      lock.unlock();
+    }
+    entries.forEach(entry -> safeCancel(entry.future));
+  }
+
+  /** Walks a batch of objects, keeping a bounded number of their HEAD requests in flight. */
+  private final class BatchPrefetch {
+    // Guarded by this
+    private final Iterator<S3URI> pending;
+    private final AtomicInteger remaining;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private BatchPrefetch(Collection<S3URI> s3URIs) {
+      this.pending = new ArrayList<>(s3URIs).iterator();
+      this.remaining = new AtomicInteger(s3URIs.size());
+      if (s3URIs.isEmpty()) {
+        done.complete(null);
+      }
+    }
+
+    /**
+     * Looks up objects of the batch until one of them needs a request, which issues the next lookup
+     * once it completes. Cached objects are skipped in a loop rather than recursively, so that
+     * large batches of cached objects do not grow the stack.
+     */
+    private void issueNext() {
+      while (true) {
+        S3URI s3URI;
+        synchronized (this) {
+          if (!pending.hasNext()) {
+            return;
+          }
+          s3URI = pending.next();
+        }
+
+        CompletableFuture<ObjectMetadata> future;
+        try {
+          future = asyncGet(s3URI, true);
+        } catch (RuntimeException e) {
+          LOG.debug("Failed to prefetch the metadata of {}", s3URI, e);
+          onCompleted();
+          continue;
+        }
+
+        if (!future.isDone()) {
+          future.whenComplete(
+              (metadata, error) -> {
+                onCompleted();
+                issueNext();
+              });
+          return;
+        }
+        onCompleted();
+      }
+    }
+
+    private void onCompleted() {
+      if (remaining.decrementAndGet() == 0) {
+        done.complete(null);
+      }
+    }
+  }
+
+  /** The metadata of one object, along with the times it goes stale and expires. */
+  private static final class Entry {
+    private final CompletableFuture<ObjectMetadata> future;
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+    // Set once the request completes. Requests in flight are neither stale nor expired
+    private volatile long staleAtNanos = Long.MAX_VALUE;
+    private volatile long expiresAtNanos = Long.MAX_VALUE;
+    // Only changed while holding the lock of the store. Pinned entries never go stale
+    private volatile boolean pinned;
+
+    private Entry(CompletableFuture<ObjectMetadata> future) {
+      this.future = future;
+    }
+
+    /** Stale entries are still served, while they are revalidated. */
+    private boolean isStale(long nowNanos) {
+      return !pinned && staleAtNanos != Long.MAX_VALUE && nowNanos - staleAtNanos >= 0;
+    }
+
+    /** Expired entries are not served any more. Only negative entries expire. */
+    private boolean isExpired(long nowNanos) {
+      return expiresAtNanos != Long.MAX_VALUE && nowNanos - expiresAtNanos >= 0;
+    }
   }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+
+/**
+ * Bookkeeping for the blocks prefetched by the execution of one {@link
+ * software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan}. Prefetched blocks stay pending
+ * until a reader moves past them or the plan is canceled. At that point, blocks that were never
+ * read count as wasted, and those still being fetched are canceled so that they stop using a
+ * connection. Blocks that another reader holds, for example a stream sharing the same blob, are
+ * not canceled: the plan only drops its claim on them.
+ *
+ * <p>A reader only cancels the blocks before its position while it reads inside the span of the
+ * plan, so that reads elsewhere in the object, such as a footer, do not cancel a prefetch that is
+ * still ahead of the reader. Unread blocks are only canceled once the reader has moved forward
+ * across them, so reading a later column of the plan first does not cancel the earlier ones. This
+ * class is thread safe.
+ */
+public class PrefetchPlan {
+  private static final Metric METRIC_WASTED = Metric.builder().name("prefetch.wasted").build();
+  private static final Metric METRIC_CANCELED = Metric.builder().name("prefetch.canceled").build();
+
+  private final Telemetry telemetry;
+  private final Predicate<Block> canceller;
+  // Blocks that have not been retired yet, by start. They never overlap, so are ordered by end too
+  private final ConcurrentSkipListMap<Long, Block> pending = new ConcurrentSkipListMap<>();
+  private final AtomicLong firstByte = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong lastByte = new AtomicLong(-1);
+  // Last position the reader moved to within the span of the plan, -1 until it reads there
+  private final AtomicLong lastPosition = new AtomicLong(-1);
+  private final AtomicLong prefetchedBytes = new AtomicLong();
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final AtomicLong wastedBytes = new AtomicLong();
+  private final AtomicLong canceledBytes = new AtomicLong();
+
+  /**
+   * Constructs a new PrefetchPlan.
+   *
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param canceller called with every unread block retired before its fetch completed, returns
+   *     whether the block was canceled
+   */
+  PrefetchPlan(@NonNull Telemetry telemetry, @NonNull Predicate<Block> canceller) {
+    this.telemetry = telemetry;
+    this.canceller = canceller;
+  }
+
+  /**
+   * Ties a block created for this plan to it.
+   *
+   * @param block the prefetched block
+   */
+  void add(@NonNull Block block) {
+    pending.put(block.getStart(), block);
+    firstByte.accumulateAndGet(block.getStart(), Math::min);
+    lastByte.accumulateAndGet(block.getEnd(), Math::max);
+    prefetchedBytes.addAndGet(sizeOf(block));
+  }
+
+  /**
+   * Retires the blocks of this plan that the reader has moved past. Blocks that were read are
+   * retired as used. Blocks that were not read are only retired if the reader skipped over them
+   * from an earlier position within the span of the plan, in which case they count as wasted and
+   * are canceled if they are still being fetched.
+   *
+   * @param pos the position the reader has moved to
+   */
+  public void cancelBefore(long pos) {
+    if (pos < firstByte.get()) {
+      return;
+    }
+
+    // Past the end of the plan the reader may be reading a footer, so unread blocks are kept
+    long previous = pos <= lastByte.get() ? lastPosition.getAndSet(pos) : -1;
+    for (Map.Entry<Long, Block> entry : pending.headMap(pos).entrySet()) {
+      Block block = entry.getValue();
+      boolean skipped = 0 <= previous && previous < block.getStart();
+      if (block.getEnd() < pos && (block.wasAccessed() || skipped)) {
+        retire(block);
+      }
+    }
+  }
+
+  /**
+   * Returns whether some blocks of this plan have not been retired yet.
+   *
+   * @return true if the plan still has pending blocks
+   */
+  public boolean hasPendingBlocks() {
+    return !pending.isEmpty();
+  }
+
+  /**
+   * Retires all blocks of this plan. Blocks that were not read are counted as wasted and canceled
+   * if they are still being fetched.
+   */
+  public void cancel() {
+    for (Block block : pending.values()) {
+      retire(block);
+    }
+  }
+
+  /**
+   * Returns the number of bytes prefetched by this plan.
+   *
+   * @return the total length of the blocks created for this plan
+   */
+  public long getPrefetchedBytes() {
+    return prefetchedBytes.get();
+  }
+
+  /**
+   * Returns the number of prefetched bytes that were read before being retired.
+   *
+   * @return the total length of retired blocks that were read
+   */
+  public long getUsedBytes() {
+    return usedBytes.get();
+  }
+
+  /**
+   * Returns the number of prefetched bytes that were retired without being read.
+   *
+   * @return the total length of retired blocks that were never read
+   */
+  public long getWastedBytes() {
+    return wastedBytes.get();
+  }
+
+  /**
+   * Returns the number of wasted bytes whose fetch was canceled before it completed.
+   *
+   * @return the total length of blocks canceled while in flight
+   */
+  public long getCanceledBytes() {
+    return canceledBytes.get();
+  }
+
+  private void retire(Block block) {
+    // Only the thread that removes the block accounts for it
+    if (!pending.remove(block.getStart(), block)) {
+      return;
+    }
+
+    long size = sizeOf(block);
+    if (block.wasAccessed()) {
+      usedBytes.addAndGet(size);
+      return;
+    }
+
+    wastedBytes.addAndGet(size);
+    telemetry.measure(METRIC_WASTED, size);
+    if (!block.isDataReady() && canceller.test(block)) {
+      canceledBytes.addAndGet(size);
+      telemetry.measure(METRIC_CANCELED, size);
+    }
+  }
+
+  private static long sizeOf(Block block) {
+    return block.getEnd() - block.getStart() + 1;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+
+/**
+ * An {@link ObjectClient} answering its first GET request with content that was already fetched,
+ * and every other request with a delegate. Used to turn bytes that arrived with another request
+ * into a {@link Block}, while retries of the block still go to the object store.
+ */
+final class PreloadedObjectClient implements ObjectClient {
+  private final AtomicReference<ObjectContent> preloaded;
+  private final ObjectClient delegate;
+
+  /**
+   * Constructs a new PreloadedObjectClient.
+   *
+   * @param preloaded the content to answer the first GET request with
+   * @param delegate the client to send every other request to
+   */
+  PreloadedObjectClient(@NonNull ObjectContent preloaded, @NonNull ObjectClient delegate) {
+    this.preloaded = new AtomicReference<>(preloaded);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+    return delegate.headObject(headRequest);
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+    return getObject(getRequest, null);
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObject(
+      GetRequest getRequest, StreamContext streamContext) {
+    ObjectContent content = preloaded.getAndSet(null);
+    if (content != null) {
+      return CompletableFuture.completedFuture(content);
+    }
+    return delegate.getObject(getRequest, streamContext);
+  }
+
+  /** Does not close the delegate, which is owned by the caller. */
+  @Override
+  public void close() {}
+}
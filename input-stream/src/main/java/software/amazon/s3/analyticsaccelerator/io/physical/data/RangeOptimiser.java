@@ -15,9 +15,12 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import lombok.Value;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 
@@ -27,7 +30,8 @@ import software.amazon.s3.analyticsaccelerator.request.Range;
  * of an object is needed with high confidence, then we should not fetch this in a single request.
  *
  * <p>This class is capable of implementing heuristics on how to fetch ranges of different sizes
- * optimally.
+ * optimally. It also coalesces the ranges of vectored reads, so that ranges close to each other are
+ * fetched together rather than paying for a request each.
  */
 @Value
 public class RangeOptimiser {
@@ -41,10 +45,33 @@ public class RangeOptimiser {
    * @return a potentially different list of ranges with big ranges split up
    */
   public List<Range> splitRanges(List<Range> ranges) {
+    return splitRanges(ranges, false);
+  }
+
+  /**
+   * Given a list of ranges, return a potentially new set of ranges which is more optimal to fetch.
+   * If the object client splits large ranges into parts itself, ranges are only split once they
+   * exceed {@link PhysicalIOConfiguration#getPartSplittingMaxRangeSizeBytes()}, so that the client
+   * can fetch their parts in parallel.
+   *
+   * @param ranges a list of ranges
+   * @param clientSplitsParts whether the ranges are fetched by a client that splits them into parts
+   * @return a potentially different list of ranges with big ranges split up
+   */
+  public List<Range> splitRanges(List<Range> ranges, boolean clientSplitsParts) {
+    long maxRangeSize =
+        clientSplitsParts
+            ? configuration.getPartSplittingMaxRangeSizeBytes()
+            : configuration.getMaxRangeSizeBytes();
+    long partSize =
+        clientSplitsParts
+            ? configuration.getPartSplittingMaxRangeSizeBytes()
+            : configuration.getPartSizeBytes();
+
     List<Range> splits = new LinkedList<>();
     for (Range range : ranges) {
-      if (range.getLength() > configuration.getMaxRangeSizeBytes()) {
-        splitRange(range.getStart(), range.getEnd()).forEach(splits::add);
+      if (range.getLength() > maxRangeSize) {
+        splitRange(range.getStart(), range.getEnd(), partSize).forEach(splits::add);
       } else {
         splits.add(range);
       }
@@ -53,12 +80,49 @@ public class RangeOptimiser {
     return splits;
   }
 
-  private List<Range> splitRange(long start, long end) {
+  /**
+   * Groups the ranges of a vectored read so that each group can be fetched as a single range.
+   * Ranges are sorted by offset, and a range joins the previous group if the gap between them is at
+   * most {@link PhysicalIOConfiguration#getVectoredReadMergeGapBytes()} and the merged range would
+   * not exceed {@link PhysicalIOConfiguration#getVectoredReadMaxMergedSizeBytes()}. Overlapping
+   * ranges always end up in the same group unless that limit is exceeded.
+   *
+   * @param objectRanges the ranges of a vectored read
+   * @return the ranges grouped in offset order
+   */
+  public List<List<ObjectRange>> coalesceRanges(List<ObjectRange> objectRanges) {
+    List<ObjectRange> sortedRanges = new ArrayList<>(objectRanges);
+    sortedRanges.sort(Comparator.comparingLong(ObjectRange::getOffset));
+
+    List<List<ObjectRange>> groups = new ArrayList<>();
+    List<ObjectRange> group = null;
+    long groupStart = 0;
+    long groupEnd = 0;
+    for (ObjectRange objectRange : sortedRanges) {
+      long mergedEnd = Math.max(groupEnd, objectRange.getEndExclusive());
+      if (group != null
+          && objectRange.getOffset() - groupEnd <= configuration.getVectoredReadMergeGapBytes()
+          && mergedEnd - groupStart <= configuration.getVectoredReadMaxMergedSizeBytes()) {
+        group.add(objectRange);
+        groupEnd = mergedEnd;
+      } else {
+        group = new ArrayList<>();
+        group.add(objectRange);
+        groups.add(group);
+        groupStart = objectRange.getOffset();
+        groupEnd = objectRange.getEndExclusive();
+      }
+    }
+
+    return groups;
+  }
+
+  private static List<Range> splitRange(long start, long end, long partSize) {
     long nextRangeStart = start;
     List<Range> generatedRanges = new LinkedList<>();
 
     while (nextRangeStart < end) {
-      long rangeEnd = Math.min(nextRangeStart + configuration.getPartSizeBytes() - 1, end);
+      long rangeEnd = Math.min(nextRangeStart + partSize - 1, end);
       generatedRanges.add(new Range(nextRangeStart, rangeEnd));
       nextRangeStart = rangeEnd + 1;
     }
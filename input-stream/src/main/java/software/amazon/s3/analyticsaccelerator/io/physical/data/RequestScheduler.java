@@ -0,0 +1,692 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.RequestThrottledException;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Schedules the GET requests of every {@link Block}, shared by all {@link BlockManager}s created by
+ * the same {@link BlobStore}. At most {@link PhysicalIOConfiguration#getRequestConcurrency()}
+ * requests are in flight overall, and at most {@link
+ * PhysicalIOConfiguration#getRequestConcurrencyPerObject()} for any one object.
+ *
+ * <p>Requests of synchronous reads ({@link ReadMode#SYNC}) are issued before any queued prefetch
+ * ({@link ReadMode#ASYNC}). Prefetches may only take three quarters of the slots, overall and per
+ * object, so that a read a caller is blocked on never has to wait for a full pipe of prefetches to
+ * drain. Within a priority class, objects take turns, and the requests of an object are issued in
+ * the order they were queued, so that the head of a scan lands before its tail. A prefetch that a
+ * reader starts waiting on is promoted to a synchronous read, see {@link #promote}.
+ *
+ * <p>If synchronous reads are still left waiting because every slot is taken, the most recently
+ * issued prefetches whose response has not arrived yet are aborted to make room for them, as they
+ * are the furthest from being read. Prefetches whose body is already streaming are left alone, as
+ * readers may be waiting on it. A block whose prefetch was aborted fetches its data again if it is
+ * read after all.
+ *
+ * <p>A request keeps its slot until its body has been read and closed. When a request is throttled,
+ * the limit of its object is halved, and every request that succeeds raises it by one again, up to
+ * the configured limit.
+ *
+ * <p>As S3 throttles by key prefix rather than by object, objects sharing a bucket and a key prefix
+ * (the key up to its last '/') also share a congestion window, which limits their requests in
+ * flight together. The window starts at the overall limit, is halved by every throttled request
+ * and raised by one by every request that succeeds, so that objects opened under a hot prefix do
+ * not start at full concurrency. While below the overall limit, windows are reported through the
+ * {@code request.scheduler.prefix.window} metric.
+ *
+ * <p>Duplicates of requests already in flight, such as hedges, only take slots nobody is waiting
+ * for, see {@link #tryIssueDuplicate}.
+ */
+public class RequestScheduler {
+  private static final Logger LOG = LoggerFactory.getLogger(RequestScheduler.class);
+
+  private static final Metric METRIC_THROTTLED =
+      Metric.builder().name("request.scheduler.throttled").build();
+  private static final Metric METRIC_PREEMPTED =
+      Metric.builder().name("request.scheduler.preempted").build();
+  private static final String METRIC_PREFIX_WINDOW = "request.scheduler.prefix.window";
+  private static final String ATTRIBUTE_PREFIX = "prefix";
+
+  // Priority classes, highest first
+  private static final ReadMode[] PRIORITIES = {ReadMode.SYNC, ReadMode.ASYNC};
+
+  private final Telemetry telemetry;
+  private final int maxRequestsInFlight;
+  private final int maxRequestsInFlightPerObject;
+
+  // Guarded by this. Objects with queued requests, per priority class, in turn order
+  private final Map<ReadMode, Deque<ObjectRequestClient>> turns = new EnumMap<>(ReadMode.class);
+  // Guarded by this. Prefetches waiting for their response, in the order they were issued
+  private final Deque<QueuedRequest> prefetchesInFlight = new ArrayDeque<>();
+  // Guarded by this. Windows of the prefixes with requests queued or in flight, or still recovering
+  private final Map<String, PrefixWindow> prefixWindows = new HashMap<>();
+  private int requestsInFlight;
+  private int preemptionsInFlight;
+
+  /**
+   * Constructs a new RequestScheduler.
+   *
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param configuration the physicalIO configuration
+   */
+  public RequestScheduler(
+      @NonNull Telemetry telemetry, @NonNull PhysicalIOConfiguration configuration) {
+    this.telemetry = telemetry;
+    this.maxRequestsInFlight = configuration.getRequestConcurrency();
+    this.maxRequestsInFlightPerObject = configuration.getRequestConcurrencyPerObject();
+    for (ReadMode readMode : PRIORITIES) {
+      turns.put(readMode, new ArrayDeque<>());
+    }
+  }
+
+  /**
+   * Returns an {@link ObjectClient} which issues the GET requests of a single object through this
+   * scheduler. Head requests are passed through.
+   *
+   * @param objectClient the client to issue requests with
+   * @return a client whose GET requests are scheduled
+   */
+  public ObjectClient forObject(@NonNull ObjectClient objectClient) {
+    return new ObjectRequestClient(objectClient);
+  }
+
+  /**
+   * Returns the number of requests that have been issued and not yet completed.
+   *
+   * @return the number of requests in flight
+   */
+  synchronized int getRequestsInFlight() {
+    return requestsInFlight;
+  }
+
+  /**
+   * Returns the number of requests waiting to be issued.
+   *
+   * @return the number of queued requests
+   */
+  synchronized int getQueuedRequests() {
+    int queued = 0;
+    for (ReadMode readMode : PRIORITIES) {
+      for (ObjectRequestClient client : turns.get(readMode)) {
+        queued += client.queues.get(readMode).size();
+      }
+    }
+    return queued;
+  }
+
+  /**
+   * Returns the congestion window of the key prefix of an object.
+   *
+   * @param s3URI the S3 URI of an object
+   * @return the number of requests the objects under the prefix may have in flight
+   */
+  synchronized int getPrefixWindow(@NonNull S3URI s3URI) {
+    PrefixWindow window = prefixWindows.get(prefixOf(s3URI));
+    return window != null ? window.limit : maxRequestsInFlight;
+  }
+
+  /**
+   * Returns the bucket and key prefix an object is throttled under.
+   *
+   * @param s3URI the S3 URI of an object
+   * @return the bucket and the key up to and including its last '/'
+   */
+  static String prefixOf(@NonNull S3URI s3URI) {
+    String key = s3URI.getKey();
+    return s3URI.getBucket() + "/" + key.substring(0, key.lastIndexOf('/') + 1);
+  }
+
+  /**
+   * Promotes the request of a response to a synchronous read, as a reader is now waiting on it. A
+   * prefetch that is still queued moves to the queue of synchronous reads, and one in flight can no
+   * longer be aborted to make room for other reads.
+   *
+   * @param response a response returned by a client of a scheduler; other futures are ignored
+   */
+  static void promote(@NonNull CompletableFuture<ObjectContent> response) {
+    if (response instanceof ScheduledResponse) {
+      ((ScheduledResponse) response).promote();
+    }
+  }
+
+  /**
+   * Returns when the request of a response was issued to the object store. Requests may wait in
+   * the queue of the scheduler first, which is not part of their latency.
+   *
+   * @param response a response returned by a client of a scheduler
+   * @return the {@link System#nanoTime()} at which the request was issued, or empty if it has not
+   *     been issued yet or the response does not come from a scheduler
+   */
+  static OptionalLong issuedNanos(@NonNull CompletableFuture<ObjectContent> response) {
+    if (response instanceof ScheduledResponse) {
+      long issuedNanos = ((ScheduledResponse) response).issuedNanos;
+      if (issuedNanos != 0) {
+        return OptionalLong.of(issuedNanos);
+      }
+    }
+    return OptionalLong.empty();
+  }
+
+  /**
+   * Issues a duplicate of a request that is already in flight, such as a hedge, if there is a slot
+   * nobody is waiting for. Duplicates are refused while requests are queued, once the limit of
+   * their read mode is reached, and while the window of their prefix is shrunk, so that they never
+   * add load to a prefix that is being throttled. Duplicates count towards the overall limit and
+   * the window of their prefix, but not towards the limit of their object.
+   *
+   * @param objectClient the client to issue the duplicate with
+   * @param getRequest the request to duplicate
+   * @param streamContext contains audit headers to be attached in the request header
+   * @return the response to the duplicate, whose body keeps its slot until closed, or empty if the
+   *     duplicate was refused
+   */
+  Optional<CompletableFuture<ObjectContent>> tryIssueDuplicate(
+      @NonNull ObjectClient objectClient,
+      @NonNull GetRequest getRequest,
+      StreamContext streamContext) {
+    PrefixWindow window = reserveDuplicate(getRequest);
+    if (window == null) {
+      return Optional.empty();
+    }
+
+    CompletableFuture<ObjectContent> response;
+    try {
+      response = objectClient.getObject(getRequest, streamContext);
+    } catch (RuntimeException e) {
+      completeDuplicate(window, false);
+      throw e;
+    }
+
+    CompletableFuture<ObjectContent> result = new CompletableFuture<>();
+    response.whenComplete(
+        (objectContent, error) -> {
+          if (error != null || objectContent == null) {
+            completeDuplicate(window, error != null && isThrottled(error));
+            result.completeExceptionally(
+                error != null ? error : new IOException("Object store returned no content"));
+            return;
+          }
+          result.complete(
+              objectContent.toBuilder()
+                  .stream(
+                      new ScheduledBodyStream(
+                          objectContent.getStream(), () -> completeDuplicate(window, false)))
+                  .build());
+        });
+    return Optional.of(result);
+  }
+
+  private void promote(QueuedRequest request) {
+    synchronized (this) {
+      if (request.readMode != ReadMode.ASYNC || request.result.isDone() || request.preempted) {
+        return;
+      }
+
+      Deque<QueuedRequest> queue = request.client.queues.get(ReadMode.ASYNC);
+      if (queue.remove(request)) {
+        if (queue.isEmpty()) {
+          turns.get(ReadMode.ASYNC).remove(request.client);
+        }
+        Deque<QueuedRequest> syncQueue = request.client.queues.get(ReadMode.SYNC);
+        if (syncQueue.isEmpty()) {
+          turns.get(ReadMode.SYNC).addLast(request.client);
+        }
+        syncQueue.addLast(request);
+      } else {
+        // Already issued, and possibly waiting for its response
+        prefetchesInFlight.remove(request);
+      }
+      request.readMode = ReadMode.SYNC;
+    }
+    dispatch();
+  }
+
+  private void enqueue(QueuedRequest request) {
+    synchronized (this) {
+      request.prefixWindow =
+          prefixWindows.computeIfAbsent(
+              prefixOf(request.getRequest.getS3Uri()), PrefixWindow::new);
+      request.prefixWindow.references++;
+      Deque<QueuedRequest> queue = request.client.queues.get(request.readMode);
+      if (queue.isEmpty()) {
+        turns.get(request.readMode).addLast(request.client);
+      }
+      queue.addLast(request);
+    }
+    dispatch();
+  }
+
+  /** Issues queued requests for as long as there are free slots, highest priority first. */
+  private void dispatch() {
+    List<QueuedRequest> ready = new ArrayList<>();
+    List<QueuedRequest> preempted;
+    synchronized (this) {
+      for (ReadMode readMode : PRIORITIES) {
+        int limit = limitFor(readMode, maxRequestsInFlight);
+        Deque<ObjectRequestClient> waiting = turns.get(readMode);
+
+        // Visit objects in turn, until every object was visited without issuing anything
+        int idle = 0;
+        while (requestsInFlight < limit && idle < waiting.size()) {
+          ObjectRequestClient client = waiting.pollFirst();
+          Deque<QueuedRequest> queue = client.queues.get(readMode);
+          // Drop requests canceled while queued
+          while (!queue.isEmpty() && queue.peekFirst().result.isDone()) {
+            release(queue.pollFirst().prefixWindow);
+          }
+          if (queue.isEmpty()) {
+            continue;
+          }
+
+          PrefixWindow window = queue.peekFirst().prefixWindow;
+          if (client.requestsInFlight < limitFor(readMode, client.limit)
+              && window.requestsInFlight < limitFor(readMode, window.limit)) {
+            QueuedRequest request = queue.pollFirst();
+            client.requestsInFlight++;
+            window.requestsInFlight++;
+            requestsInFlight++;
+            ready.add(request);
+            idle = 0;
+          } else {
+            idle++;
+          }
+          if (!queue.isEmpty()) {
+            waiting.addLast(client);
+          }
+        }
+      }
+      preempted = selectPreempted();
+    }
+
+    // Requests are issued outside the lock, as the client may do work on the calling thread
+    ready.forEach(this::issue);
+    preempted.forEach(this::preempt);
+  }
+
+  /**
+   * Picks the prefetches to abort so that the synchronous reads left waiting for the overall limit
+   * find a slot, most recently issued first. Must be called while holding the lock.
+   *
+   * @return the prefetches to abort
+   */
+  private List<QueuedRequest> selectPreempted() {
+    List<QueuedRequest> preempted = new ArrayList<>();
+    if (requestsInFlight < maxRequestsInFlight) {
+      return preempted;
+    }
+
+    // Reads held back by the limit of their own object or prefix would not get the freed slots
+    int waiting = -preemptionsInFlight;
+    for (ObjectRequestClient client : turns.get(ReadMode.SYNC)) {
+      Deque<QueuedRequest> queue = client.queues.get(ReadMode.SYNC);
+      PrefixWindow window = queue.isEmpty() ? null : queue.peekFirst().prefixWindow;
+      if (client.requestsInFlight < client.limit
+          && window != null
+          && window.requestsInFlight < window.limit) {
+        waiting += queue.size();
+      }
+    }
+    while (waiting > 0 && !prefetchesInFlight.isEmpty()) {
+      QueuedRequest request = prefetchesInFlight.pollLast();
+      request.preempted = true;
+      preemptionsInFlight++;
+      preempted.add(request);
+      waiting--;
+    }
+    return preempted;
+  }
+
+  /**
+   * Aborts a prefetch whose response has not arrived yet. Its body is closed as soon as it does,
+   * which frees the slot.
+   */
+  private void preempt(QueuedRequest request) {
+    telemetry.measure(METRIC_PREEMPTED, 1);
+    request.result.cancel(false);
+  }
+
+  /**
+   * Takes a slot for a duplicate request, unless it would take one a queued request is waiting for
+   * or its prefix is being throttled.
+   *
+   * @return the window of the prefix of the request, or null if the duplicate is refused
+   */
+  private synchronized PrefixWindow reserveDuplicate(GetRequest getRequest) {
+    String prefix = prefixOf(getRequest.getS3Uri());
+    PrefixWindow window = prefixWindows.get(prefix);
+    if (getQueuedRequests() > 0
+        || requestsInFlight
+            >= limitFor(getRequest.getReferrer().getReadMode(), maxRequestsInFlight)
+        || (window != null && window.limit < maxRequestsInFlight)) {
+      return null;
+    }
+
+    if (window == null) {
+      window = new PrefixWindow(prefix);
+      prefixWindows.put(prefix, window);
+    }
+    window.references++;
+    window.requestsInFlight++;
+    requestsInFlight++;
+    return window;
+  }
+
+  /** Prefetches are held to three quarters of a limit, so that synchronous reads find a slot. */
+  private static int limitFor(ReadMode readMode, int limit) {
+    return readMode == ReadMode.SYNC ? limit : Math.max(1, limit - limit / 4);
+  }
+
+  private void issue(QueuedRequest request) {
+    CompletableFuture<ObjectContent> response;
+    request.result.issuedNanos = System.nanoTime();
+    try {
+      response = request.client.delegate.getObject(request.getRequest, request.streamContext);
+    } catch (RuntimeException e) {
+      // Surfaced to the caller if it is still in getObject, and through the future otherwise
+      request.rejection = e;
+      complete(request, false);
+      request.result.completeExceptionally(e);
+      return;
+    }
+
+    synchronized (this) {
+      // Prefetches promoted in the meantime already have a reader waiting on them
+      if (request.readMode == ReadMode.ASYNC) {
+        prefetchesInFlight.addLast(request);
+      }
+    }
+    response.whenComplete(
+        (objectContent, error) -> {
+          if (error != null || objectContent == null) {
+            complete(request, error != null && isThrottled(error));
+            request.result.completeExceptionally(
+                error != null ? error : new IOException("Object store returned no content"));
+            return;
+          }
+
+          boolean preempted;
+          synchronized (this) {
+            preempted = request.preempted;
+            if (!preempted && request.readMode == ReadMode.ASYNC) {
+              // Once the body is streaming, readers may be waiting on it, so it is never preempted
+              prefetchesInFlight.remove(request);
+            }
+          }
+
+          // Only the stream is wrapped, so a body received into memory can still be copied directly
+          ObjectContent scheduledContent =
+              objectContent.toBuilder()
+                  .stream(
+                      new ScheduledBodyStream(
+                          objectContent.getStream(), () -> complete(request, false)))
+                  .build();
+
+          // Nobody will read the body of a request canceled or preempted while in flight
+          if (preempted || !request.result.complete(scheduledContent)) {
+            closeQuietly(scheduledContent.getStream());
+          }
+        });
+  }
+
+  /** Frees the slot of a request, and adjusts the limits of its object and of its prefix. */
+  private void complete(QueuedRequest request, boolean throttled) {
+    ObjectRequestClient client = request.client;
+    PrefixWindow window = request.prefixWindow;
+    int previousWindowLimit;
+    int windowLimit;
+    synchronized (this) {
+      if (request.preempted) {
+        preemptionsInFlight--;
+      } else if (request.readMode == ReadMode.ASYNC) {
+        prefetchesInFlight.remove(request);
+      }
+      requestsInFlight--;
+      client.requestsInFlight--;
+      if (throttled) {
+        client.limit = Math.max(1, client.limit / 2);
+      } else if (client.limit < maxRequestsInFlightPerObject) {
+        client.limit++;
+      }
+
+      previousWindowLimit = window.limit;
+      windowLimit = completeInWindow(window, throttled);
+    }
+
+    onCompleted(window, previousWindowLimit, windowLimit, throttled);
+  }
+
+  /** Frees the slot of a duplicate request, and adjusts the limit of its prefix. */
+  private void completeDuplicate(PrefixWindow window, boolean throttled) {
+    int previousWindowLimit;
+    int windowLimit;
+    synchronized (this) {
+      requestsInFlight--;
+      previousWindowLimit = window.limit;
+      windowLimit = completeInWindow(window, throttled);
+    }
+
+    onCompleted(window, previousWindowLimit, windowLimit, throttled);
+  }
+
+  /**
+   * Frees a slot of the window of a prefix, halving the window if the request was throttled and
+   * raising it by one otherwise. Must be called while holding the lock.
+   *
+   * @return the new limit of the window
+   */
+  private int completeInWindow(PrefixWindow window, boolean throttled) {
+    window.requestsInFlight--;
+    if (throttled) {
+      window.limit = Math.max(1, window.limit / 2);
+    } else if (window.limit < maxRequestsInFlight) {
+      window.limit++;
+    }
+    int windowLimit = window.limit;
+    release(window);
+    return windowLimit;
+  }
+
+  /** Reports the outcome of a completed request, and issues the requests it made room for. */
+  private void onCompleted(
+      PrefixWindow window, int previousWindowLimit, int windowLimit, boolean throttled) {
+    if (throttled) {
+      telemetry.measure(METRIC_THROTTLED, 1);
+    }
+    if (windowLimit != previousWindowLimit) {
+      telemetry.measure(
+          Metric.builder()
+              .name(METRIC_PREFIX_WINDOW)
+              .attribute(ATTRIBUTE_PREFIX, window.prefix)
+              .build(),
+          windowLimit);
+    }
+    dispatch();
+  }
+
+  /**
+   * Drops a request's reference to the window of its prefix, forgetting the window once it has no
+   * requests left and has fully recovered. Must be called while holding the lock.
+   */
+  private void release(PrefixWindow window) {
+    window.references--;
+    if (window.references == 0 && window.limit >= maxRequestsInFlight) {
+      prefixWindows.remove(window.prefix);
+    }
+  }
+
+  private static boolean isThrottled(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof RequestThrottledException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void closeQuietly(InputStream stream) {
+    try {
+      stream.close();
+    } catch (IOException e) {
+      LOG.debug("Failed to close the body of a canceled request", e);
+    }
+  }
+
+  /** The body of an issued request, which frees the slot of the request once closed. */
+  private static final class ScheduledBodyStream extends FilterInputStream {
+    private final Runnable onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private ScheduledBodyStream(InputStream body, Runnable onClose) {
+      super(body);
+      this.onClose = onClose;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        if (closed.compareAndSet(false, true)) {
+          onClose.run();
+        }
+      }
+    }
+  }
+
+  /** A request waiting to be issued. */
+  private final class QueuedRequest {
+    private final ObjectRequestClient client;
+    private final GetRequest getRequest;
+    private final StreamContext streamContext;
+    private final ScheduledResponse result = new ScheduledResponse(this);
+    private volatile RuntimeException rejection;
+    // Guarded by the scheduler
+    private ReadMode readMode;
+    private boolean preempted;
+    private PrefixWindow prefixWindow;
+
+    private QueuedRequest(
+        ObjectRequestClient client, GetRequest getRequest, StreamContext streamContext) {
+      this.client = client;
+      this.getRequest = getRequest;
+      this.streamContext = streamContext;
+      this.readMode = getRequest.getReferrer().getReadMode();
+    }
+  }
+
+  /** The response to a request, which knows when the request left the queue of the scheduler. */
+  private final class ScheduledResponse extends CompletableFuture<ObjectContent> {
+    private final QueuedRequest request;
+    private volatile long issuedNanos;
+
+    private ScheduledResponse(QueuedRequest request) {
+      this.request = request;
+    }
+
+    private void promote() {
+      RequestScheduler.this.promote(request);
+    }
+  }
+
+  /** The congestion window shared by the objects under one key prefix. */
+  private final class PrefixWindow {
+    private final String prefix;
+
+    // Guarded by the scheduler
+    private int limit = maxRequestsInFlight;
+    private int requestsInFlight;
+    // Requests queued or in flight
+    private int references;
+
+    private PrefixWindow(String prefix) {
+      this.prefix = prefix;
+    }
+  }
+
+  /** Schedules the GET requests of one object. */
+  private final class ObjectRequestClient implements ObjectClient {
+    private final ObjectClient delegate;
+
+    // Guarded by the scheduler
+    private final Map<ReadMode, Deque<QueuedRequest>> queues = new EnumMap<>(ReadMode.class);
+    private int requestsInFlight;
+    private int limit = maxRequestsInFlightPerObject;
+
+    private ObjectRequestClient(ObjectClient delegate) {
+      this.delegate = delegate;
+      for (ReadMode readMode : PRIORITIES) {
+        queues.put(readMode, new ArrayDeque<>());
+      }
+    }
+
+    @Override
+    public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+      return delegate.headObject(headRequest);
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+      return getObject(getRequest, null);
+    }
+
+    /**
+     * Queues a GET request. If the request is issued right away and the underlying client throws,
+     * the exception is rethrown here, as it would be without the scheduler.
+     */
+    @Override
+    public CompletableFuture<ObjectContent> getObject(
+        GetRequest getRequest, StreamContext streamContext) {
+      QueuedRequest request = new QueuedRequest(this, getRequest, streamContext);
+      enqueue(request);
+      if (request.rejection != null) {
+        throw request.rejection;
+      }
+      return request.result;
+    }
+
+    /** The underlying client is shared with the rest of the stream, so it is not closed here. */
+    @Override
+    public void close() {}
+  }
+}
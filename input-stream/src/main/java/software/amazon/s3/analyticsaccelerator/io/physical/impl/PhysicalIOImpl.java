@@ -16,17 +16,28 @@
 package software.amazon.s3.analyticsaccelerator.io.physical.impl;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
 import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.exceptions.ExceptionHandler;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Blob;
 import software.amazon.s3.analyticsaccelerator.io.physical.data.BlobStore;
 import software.amazon.s3.analyticsaccelerator.io.physical.data.MetadataStore;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.PrefetchPlan;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanExecution;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.retry.ErrorKind;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
@@ -39,6 +50,9 @@ public class PhysicalIOImpl implements PhysicalIO {
   private final StreamContext streamContext;
   private ObjectKey objectKey;
   private final ObjectMetadata metadata;
+  // Prefetches issued by this stream that still have pending blocks, canceled when the stream moves
+  // past them or is closed
+  private final Set<PrefetchPlan> prefetchPlans = ConcurrentHashMap.newKeySet();
 
   private final long physicalIOBirth = System.nanoTime();
 
@@ -46,6 +60,8 @@ public class PhysicalIOImpl implements PhysicalIO {
   private static final String OPERATION_EXECUTE = "physical.io.execute";
   private static final String FLAVOR_TAIL = "tail";
   private static final String FLAVOR_BYTE = "byte";
+  private static final String FLAVOR_VECTORED = "vectored";
+  private static final String FLAVOR_PLANNING = "planning";
 
   /**
    * Construct a new instance of PhysicalIOV2.
@@ -84,7 +100,11 @@ public class PhysicalIOImpl implements PhysicalIO {
     this.blobStore = blobStore;
     this.telemetry = telemetry;
     this.streamContext = streamContext;
-    this.metadata = this.metadataStore.get(s3URI);
+    // Opening optimistically learns the metadata from a GET of the tail, saving the HEAD request
+    ObjectMetadata optimisticMetadata =
+        this.blobStore.openWithTail(s3URI, metadataStore, streamContext).orElse(null);
+    this.metadata =
+        optimisticMetadata != null ? optimisticMetadata : this.metadataStore.get(s3URI);
     this.objectKey = ObjectKey.builder().s3URI(s3URI).etag(metadata.getEtag()).build();
   }
 
@@ -109,6 +129,7 @@ public class PhysicalIOImpl implements PhysicalIO {
   public int read(long pos) throws IOException {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
     Preconditions.checkArgument(pos < contentLength(), "`pos` must be less than content length");
+    cancelStalePrefetches(pos);
     try {
       return this.telemetry.measureVerbose(
           () ->
@@ -146,6 +167,7 @@ public class PhysicalIOImpl implements PhysicalIO {
     Preconditions.checkArgument(0 <= off, "`off` must not be negative");
     Preconditions.checkArgument(0 <= len, "`len` must not be negative");
     Preconditions.checkArgument(off < buf.length, "`off` must be less than size of buffer");
+    cancelStalePrefetches(pos);
 
     try {
       return this.telemetry.measureVerbose(
@@ -166,6 +188,73 @@ public class PhysicalIOImpl implements PhysicalIO {
     }
   }
 
+  /**
+   * Reads request data into the provided buffer, starting at its current position
+   *
+   * @param buf buffer to read data into
+   * @param pos the position to begin reading from
+   * @return the total number of bytes read into the buffer
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public int read(@NonNull ByteBuffer buf, long pos) throws IOException {
+    Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
+    Preconditions.checkArgument(pos < contentLength(), "`pos` must be less than content length");
+
+    int len = buf.remaining();
+    cancelStalePrefetches(pos);
+    try {
+      return this.telemetry.measureVerbose(
+          () ->
+              Operation.builder()
+                  .name(OPERATION_READ)
+                  .attribute(StreamAttributes.uri(this.objectKey.getS3URI()))
+                  .attribute(StreamAttributes.etag(this.objectKey.getEtag()))
+                  .attribute(StreamAttributes.range(pos, pos + len - 1))
+                  .attribute(
+                      StreamAttributes.physicalIORelativeTimestamp(
+                          System.nanoTime() - physicalIOBirth))
+                  .build(),
+          () -> blobStore.get(objectKey, this.metadata, streamContext).read(buf, pos));
+    } catch (Exception e) {
+      handleOperationExceptions(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Reads a list of ranges asynchronously.
+   *
+   * @param objectRanges the ranges to read
+   * @param allocate function allocating a buffer of at least the given number of bytes
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void readVectored(
+      @NonNull List<ObjectRange> objectRanges, @NonNull IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    try {
+      this.telemetry.measureVerbose(
+          () ->
+              Operation.builder()
+                  .name(OPERATION_READ)
+                  .attribute(StreamAttributes.variant(FLAVOR_VECTORED))
+                  .attribute(StreamAttributes.uri(this.objectKey.getS3URI()))
+                  .attribute(StreamAttributes.etag(this.objectKey.getEtag()))
+                  .attribute(
+                      StreamAttributes.physicalIORelativeTimestamp(
+                          System.nanoTime() - physicalIOBirth))
+                  .build(),
+          () ->
+              blobStore
+                  .get(objectKey, this.metadata, streamContext)
+                  .readVectored(objectRanges, allocate));
+    } catch (Exception e) {
+      handleOperationExceptions(e);
+      throw e;
+    }
+  }
+
   /**
    * Reads the last n bytes from the stream into a byte buffer. Blocks until end of stream is
    * reached. Leaves the position of the stream unaltered.
@@ -203,6 +292,42 @@ public class PhysicalIOImpl implements PhysicalIO {
     }
   }
 
+  /**
+   * Reads data the library needs for itself into the provided buffer. This does not move the
+   * stream, so prefetches it has not read yet are left alone.
+   *
+   * @param buf buffer to read data into
+   * @param off start position in buffer at which data is written
+   * @param len length of data to be read
+   * @param pos the position to begin reading from
+   * @return the total number of bytes read into the buffer
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public int readForPlanning(byte[] buf, int off, int len, long pos) throws IOException {
+    try {
+      return this.telemetry.measureVerbose(
+          () ->
+              Operation.builder()
+                  .name(OPERATION_READ)
+                  .attribute(StreamAttributes.variant(FLAVOR_PLANNING))
+                  .attribute(StreamAttributes.uri(this.objectKey.getS3URI()))
+                  .attribute(StreamAttributes.etag(this.objectKey.getEtag()))
+                  .attribute(StreamAttributes.range(pos, pos + len - 1))
+                  .attribute(
+                      StreamAttributes.physicalIORelativeTimestamp(
+                          System.nanoTime() - physicalIOBirth))
+                  .build(),
+          () ->
+              blobStore
+                  .get(objectKey, this.metadata, streamContext)
+                  .readForPlanning(buf, off, len, pos));
+    } catch (Exception e) {
+      handleOperationExceptions(e);
+      throw e;
+    }
+  }
+
   /**
    * Async method capable of executing a logical IO plan.
    *
@@ -222,14 +347,41 @@ public class PhysicalIOImpl implements PhysicalIO {
                     StreamAttributes.physicalIORelativeTimestamp(
                         System.nanoTime() - physicalIOBirth))
                 .build(),
-        () -> blobStore.get(objectKey, this.metadata, streamContext).execute(ioPlan));
+        () -> {
+          Blob blob = blobStore.get(objectKey, this.metadata, streamContext);
+          PrefetchPlan prefetchPlan = blob.createPrefetchPlan();
+          IOPlanExecution execution = blob.execute(ioPlan, prefetchPlan);
+          if (prefetchPlan.hasPendingBlocks()) {
+            prefetchPlans.add(prefetchPlan);
+          }
+          return execution;
+        });
+  }
+
+  /**
+   * Cancels the prefetched blocks this stream has moved past without reading them. Tail reads do
+   * not move the stream, so they leave prefetches alone. Plans without pending blocks are dropped.
+   *
+   * @param pos the position the stream is reading from
+   */
+  private void cancelStalePrefetches(long pos) {
+    Iterator<PrefetchPlan> iterator = prefetchPlans.iterator();
+    while (iterator.hasNext()) {
+      PrefetchPlan prefetchPlan = iterator.next();
+      prefetchPlan.cancelBefore(pos);
+      if (!prefetchPlan.hasPendingBlocks()) {
+        iterator.remove();
+      }
+    }
   }
 
   private void handleOperationExceptions(Exception e) {
-    if (e.getCause() != null
-        && e.getCause().getMessage() != null
-        && (e.getCause().getMessage().contains("Status Code: 412")
-            || e.getCause().getMessage().contains("Error while getting block"))) {
+    // A failed precondition means the object changed, so its cached state cannot be trusted. Other
+    // failures, such as throttling, say nothing about the object and leave the caches intact.
+    if (!(e instanceof IOException)) {
+      return;
+    }
+    if (ExceptionHandler.classify(e) == ErrorKind.PRECONDITION_FAILED) {
       try {
         metadataStore.evictKey(this.objectKey.getS3URI());
       } finally {
@@ -243,5 +395,10 @@ public class PhysicalIOImpl implements PhysicalIO {
   }
 
   @Override
-  public void close() throws IOException {}
+  public void close() throws IOException {
+    for (PrefetchPlan prefetchPlan : prefetchPlans) {
+      prefetchPlan.cancel();
+    }
+    prefetchPlans.clear();
+  }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.prefetcher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+/**
+ * Sizes the read-ahead window of sequential reads.
+ *
+ * <p>When adaptive read-ahead is disabled, or before anything has been observed, the window follows
+ * the fixed {@link SequentialReadProgression}. Otherwise, the controller keeps moving averages of
+ * the rate at which the consumer reads, and of the time to first byte and throughput of each GET.
+ * It then sizes the window so that a fetch issued now completes before the consumer catches up
+ * with it, which is the bandwidth-delay product of the stream. A window W fetched at throughput T
+ * after a latency L is consumed at rate R while in flight, so W = R * (L + W / T), or W = R * L /
+ * (1 - R / T). If the consumer is at least as fast as a single GET, the window is as large as
+ * allowed.
+ *
+ * <p>Prefetched blocks that get evicted without ever being read halve the window, and prefetched
+ * blocks that get read grow it back, so that streams which stop reading sequentially stop
+ * prefetching far ahead.
+ *
+ * <p>This class is thread safe. Recording a read does not take a lock.
+ */
+public class ReadAheadController {
+  private static final Metric METRIC_WINDOW =
+      Metric.builder().name("prefetch.readahead.window").build();
+
+  private static final double SMOOTHING = 0.3;
+  private static final double MIN_SCALE = 1.0 / 16;
+  private static final long CONSUMPTION_SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final PhysicalIOConfiguration configuration;
+  private final SequentialReadProgression sequentialReadProgression;
+  private final Telemetry telemetry;
+  private final LongSupplier nanoClock;
+
+  private final AtomicLong consumedBytes = new AtomicLong();
+  private final AtomicLong consumptionSampleStart;
+
+  // Guarded by this. Rates are in bytes per nanosecond, latency in nanoseconds.
+  private double consumptionRate;
+  private double fetchThroughput;
+  private double timeToFirstByte;
+  private double scale = 1.0;
+
+  /**
+   * Constructs a new ReadAheadController.
+   *
+   * @param configuration the physicalIO configuration
+   * @param telemetry an instance of {@link Telemetry} to use
+   */
+  public ReadAheadController(
+      @NonNull PhysicalIOConfiguration configuration, @NonNull Telemetry telemetry) {
+    this(configuration, telemetry, System::nanoTime);
+  }
+
+  /**
+   * Constructs a new ReadAheadController.
+   *
+   * @param configuration the physicalIO configuration
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param nanoClock the source of monotonic time, in nanoseconds
+   */
+  public ReadAheadController(
+      @NonNull PhysicalIOConfiguration configuration,
+      @NonNull Telemetry telemetry,
+      @NonNull LongSupplier nanoClock) {
+    this.configuration = configuration;
+    this.sequentialReadProgression = new SequentialReadProgression(configuration);
+    this.telemetry = telemetry;
+    this.nanoClock = nanoClock;
+    this.consumptionSampleStart = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  /**
+   * Returns the number of bytes to read ahead of a sequential read, and reports it as a metric.
+   *
+   * @param generation the generation of the read in the sequential read pattern
+   * @return the size of the read-ahead window, in bytes
+   */
+  public long getReadAheadBytes(long generation) {
+    long window = computeReadAheadBytes(generation);
+    telemetry.measure(METRIC_WINDOW, window);
+    return window;
+  }
+
+  /**
+   * Records that the consumer has read the given number of bytes.
+   *
+   * @param bytes the number of bytes read
+   */
+  public void recordConsumption(long bytes) {
+    Preconditions.checkArgument(0 <= bytes, "`bytes` must not be negative");
+    if (!configuration.isAdaptiveReadAheadEnabled()) {
+      return;
+    }
+
+    consumedBytes.addAndGet(bytes);
+    long now = nanoClock.getAsLong();
+    long sampleStart = consumptionSampleStart.get();
+    long elapsed = now - sampleStart;
+    // Only the thread that closes the sample folds it into the average
+    if (elapsed >= CONSUMPTION_SAMPLE_NANOS
+        && consumptionSampleStart.compareAndSet(sampleStart, now)) {
+      double rate = (double) consumedBytes.getAndSet(0) / elapsed;
+      synchronized (this) {
+        consumptionRate = smooth(consumptionRate, rate);
+      }
+    }
+  }
+
+  /**
+   * Records a completed GET.
+   *
+   * @param bytes the number of bytes fetched
+   * @param timeToFirstByteNanos the time from issuing the request to receiving the first byte
+   * @param durationNanos the time from issuing the request to receiving the last byte
+   */
+  public void recordFetch(long bytes, long timeToFirstByteNanos, long durationNanos) {
+    if (!configuration.isAdaptiveReadAheadEnabled() || bytes <= 0) {
+      return;
+    }
+
+    double throughput = (double) bytes / Math.max(1, durationNanos - timeToFirstByteNanos);
+    synchronized (this) {
+      timeToFirstByte = smooth(timeToFirstByte, Math.max(0, timeToFirstByteNanos));
+      fetchThroughput = smooth(fetchThroughput, throughput);
+    }
+  }
+
+  /** Records that a prefetched block has been read, growing the window back if it was shrunk. */
+  public synchronized void recordPrefetchUsed() {
+    scale = Math.min(1.0, scale * 2);
+  }
+
+  /** Records that a prefetched block was evicted without ever being read, shrinking the window. */
+  public synchronized void recordPrefetchWasted() {
+    scale = Math.max(MIN_SCALE, scale / 2);
+  }
+
+  private synchronized long computeReadAheadBytes(long generation) {
+    long fixedWindow = sequentialReadProgression.getSizeForGeneration(generation);
+    boolean observed = consumptionRate > 0 && fetchThroughput > 0;
+    if (!configuration.isAdaptiveReadAheadEnabled() || !observed) {
+      return fixedWindow;
+    }
+
+    long minBytes = configuration.getAdaptiveReadAheadMinBytes();
+    long maxBytes = configuration.getAdaptiveReadAheadMaxBytes();
+    double window;
+    if (consumptionRate >= fetchThroughput) {
+      window = maxBytes;
+    } else {
+      window = consumptionRate * timeToFirstByte / (1 - consumptionRate / fetchThroughput);
+    }
+
+    return Math.max(minBytes, Math.min(maxBytes, (long) (window * scale)));
+  }
+
+  private static double smooth(double average, double sample) {
+    return average == 0 ? sample : average + SMOOTHING * (sample - average);
+  }
+}
@@ -17,83 +17,377 @@ package software.amazon.s3.analyticsaccelerator.util;
 
 import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_KB;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
 
-/** Utility class for stream operations. */
+/**
+ * Utility class for stream operations.
+ *
+ * <p>Streams are drained on a shared, bounded pool of daemon threads, and read timeouts are
+ * enforced by a single shared scheduler. The number of threads draining streams is therefore
+ * independent of the number of blocks being fetched; reads beyond the pool size wait in its queue,
+ * where synchronous reads go ahead of prefetches.
+ */
 public class StreamUtils {
 
   private static final int BUFFER_SIZE = 8 * ONE_KB;
   private static final Logger LOG = LoggerFactory.getLogger(StreamUtils.class);
 
+  // At least the default request concurrency, so that every body in flight has a reader
+  static final int READER_THREADS =
+      Math.max(64, 4 * Runtime.getRuntime().availableProcessors());
+  // Synchronous reads first, then in submission order
+  private static final Comparator<Runnable> READ_ORDER =
+      Comparator.comparing((Runnable read) -> ((QueuedRead) read).readMode)
+          .thenComparingLong(read -> ((QueuedRead) read).sequence);
+  private static final AtomicLong READ_SEQUENCE = new AtomicLong();
+  private static final ExecutorService READER_POOL = createReaderPool();
+  private static final ScheduledExecutorService TIMEOUT_SCHEDULER = createTimeoutScheduler();
+
   /**
-   * Convert an InputStream from the underlying object to a byte array.
+   * Reads an InputStream from the underlying object into the provided buffer, starting at the
+   * buffer's position and stopping once the stream is exhausted or the buffer is full. The buffer
+   * is flipped on return, so that it holds exactly the bytes read.
    *
    * @param objectContent the part of the object
+   * @param buffer the buffer to read into
    * @param objectKey container for S3 object to read
    * @param range range of the S3 object to read
    * @param timeoutMs read timeout in milliseconds
-   * @return a byte array
+   * @throws IOException if reading the stream fails
+   * @throws TimeoutException if the stream could not be read within the timeout
    */
-  public static byte[] toByteArray(
-      ObjectContent objectContent, ObjectKey objectKey, Range range, long timeoutMs)
+  public static void readFully(
+      ObjectContent objectContent,
+      ByteBuffer buffer,
+      ObjectKey objectKey,
+      Range range,
+      long timeoutMs)
       throws IOException, TimeoutException {
+    try {
+      readFullyAsync(objectContent, buffer, objectKey, range, timeoutMs).get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof TimeoutException) {
+        throw (TimeoutException) e.getCause();
+      }
+      throw new IOException("Error reading stream", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading stream", e);
+    }
+  }
+
+  /**
+   * Asynchronously reads an InputStream from the underlying object into the provided buffer,
+   * starting at the buffer's position and stopping once the stream is exhausted or the buffer is
+   * full. The stream is drained on a shared pool, so no thread is blocked waiting for the result.
+   *
+   * <p>The returned future completes with the flipped buffer, or exceptionally with a {@link
+   * TimeoutException} if the stream could not be read within the timeout, or with an {@link
+   * IOException} if reading the stream failed. The timeout covers the read itself, not the time
+   * spent waiting for a pooled thread. On timeout, the stream is closed to unblock the read, which
+   * may still write into the buffer until it notices.
+   *
+   * <p>Content that was received into memory by the object client is copied into the buffer
+   * directly, and the returned future is already complete. Content whose body the object client
+   * pushes, see {@link ObjectContent#getPublisher()}, is copied into the buffer chunk by chunk as
+   * it arrives, without taking a pooled thread.
+   *
+   * @param objectContent the part of the object
+   * @param buffer the buffer to read into
+   * @param objectKey container for S3 object to read
+   * @param range range of the S3 object to read
+   * @param timeoutMs read timeout in milliseconds
+   * @return a future completing with the buffer once the stream has been read
+   */
+  public static CompletableFuture<ByteBuffer> readFullyAsync(
+      ObjectContent objectContent,
+      ByteBuffer buffer,
+      ObjectKey objectKey,
+      Range range,
+      long timeoutMs) {
+    return readFullyAsync(objectContent, buffer, objectKey, range, timeoutMs, bytesRead -> {});
+  }
+
+  /**
+   * Asynchronously reads an InputStream from the underlying object into the provided buffer, like
+   * {@link #readFullyAsync(ObjectContent, ByteBuffer, ObjectKey, Range, long)}, reporting progress
+   * as the stream is read.
+   *
+   * @param objectContent the part of the object
+   * @param buffer the buffer to read into
+   * @param objectKey container for S3 object to read
+   * @param range range of the S3 object to read
+   * @param timeoutMs read timeout in milliseconds
+   * @param progress called on the reading thread with the total number of bytes read so far, after
+   *     each chunk has been written into the buffer
+   * @return a future completing with the buffer once the stream has been read
+   */
+  public static CompletableFuture<ByteBuffer> readFullyAsync(
+      ObjectContent objectContent,
+      ByteBuffer buffer,
+      ObjectKey objectKey,
+      Range range,
+      long timeoutMs,
+      IntConsumer progress) {
+    return readFullyAsync(
+        objectContent, buffer, objectKey, range, timeoutMs, ReadMode.SYNC, progress);
+  }
+
+  /**
+   * Asynchronously reads an InputStream from the underlying object into the provided buffer, like
+   * {@link #readFullyAsync(ObjectContent, ByteBuffer, ObjectKey, Range, long, IntConsumer)}. While
+   * waiting for a pooled thread, {@link ReadMode#SYNC} reads go ahead of {@link ReadMode#ASYNC}
+   * ones.
+   *
+   * @param objectContent the part of the object
+   * @param buffer the buffer to read into
+   * @param objectKey container for S3 object to read
+   * @param range range of the S3 object to read
+   * @param timeoutMs read timeout in milliseconds
+   * @param readMode whether a reader is waiting for the stream, or it is being prefetched
+   * @param progress called on the reading thread with the total number of bytes read so far, after
+   *     each chunk has been written into the buffer
+   * @return a future completing with the buffer once the stream has been read
+   */
+  public static CompletableFuture<ByteBuffer> readFullyAsync(
+      ObjectContent objectContent,
+      ByteBuffer buffer,
+      ObjectKey objectKey,
+      Range range,
+      long timeoutMs,
+      ReadMode readMode,
+      IntConsumer progress) {
     InputStream inStream = objectContent.getStream();
-    ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-    byte[] buffer = new byte[BUFFER_SIZE];
+    if (objectContent.getData() != null) {
+      // The body is already in memory, so there is nothing to wait for
+      int bytesCopied = copyInto(objectContent.getData(), buffer);
+      progress.accept(bytesCopied);
+      if (inStream != null) {
+        closeQuietly(inStream);
+      }
+      buffer.flip();
+      return CompletableFuture.completedFuture(buffer);
+    }
+    if (objectContent.getPublisher() != null) {
+      return receiveInto(objectContent, buffer, objectKey, range, timeoutMs, progress);
+    }
 
-    ExecutorService executorService = Executors.newSingleThreadExecutor();
-    Future<Void> future =
-        executorService.submit(
+    CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+
+    READER_POOL.execute(
+        new QueuedRead(
+            readMode,
             () -> {
+              // The timeout only starts once the read does, so time spent queueing does not count
+              ScheduledFuture<?> timeout =
+                  TIMEOUT_SCHEDULER.schedule(
+                      () -> {
+                        if (result.completeExceptionally(
+                            new TimeoutException("Read operation timed out"))) {
+                          LOG.debug(
+                              "Reading from InputStream has timed out for Block s3URI={}, etag={}, start={}, end={}",
+                              objectKey.s3URI,
+                              objectKey.etag,
+                              range.getStart(),
+                              range.getEnd());
+                          // Closing the stream unblocks the reader
+                          closeQuietly(inStream);
+                        }
+                      },
+                      timeoutMs,
+                      TimeUnit.MILLISECONDS);
               try {
-                int numBytesRead;
                 LOG.debug(
                     "Starting to read from InputStream for Block s3URI={}, etag={}, start={}, end={}",
                     objectKey.s3URI,
                     objectKey.etag,
                     range.getStart(),
                     range.getEnd());
-                while ((numBytesRead = inStream.read(buffer, 0, buffer.length)) != -1) {
-                  outStream.write(buffer, 0, numBytesRead);
-                }
+                int totalBytesRead = readInto(inStream, buffer, progress);
                 LOG.debug(
                     "Successfully read from InputStream for Block numBytesRead={}, s3URI={}, etag={}, start={}, end={}",
-                    numBytesRead,
+                    totalBytesRead,
                     objectKey.s3URI,
                     objectKey.etag,
                     range.getStart(),
                     range.getEnd());
-                return null;
+                buffer.flip();
+                result.complete(buffer);
+              } catch (Exception e) {
+                result.completeExceptionally(
+                    e instanceof IOException ? e : new IOException("Error reading stream", e));
               } finally {
-                inStream.close();
+                timeout.cancel(false);
+                closeQuietly(inStream);
+              }
+            }));
+
+    return result;
+  }
+
+  /**
+   * Copies a pushed body into the buffer as its chunks arrive, on the thread that receives them.
+   * Bytes beyond the end of the buffer are dropped. On timeout, the stream is closed to abort the
+   * transfer, and nothing more is written into the buffer.
+   */
+  private static CompletableFuture<ByteBuffer> receiveInto(
+      ObjectContent objectContent,
+      ByteBuffer buffer,
+      ObjectKey objectKey,
+      Range range,
+      long timeoutMs,
+      IntConsumer progress) {
+    InputStream inStream = objectContent.getStream();
+    CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+    ScheduledFuture<?> timeout =
+        TIMEOUT_SCHEDULER.schedule(
+            () -> {
+              if (result.completeExceptionally(new TimeoutException("Read operation timed out"))) {
+                LOG.debug(
+                    "Receiving body timed out for Block s3URI={}, etag={}, start={}, end={}",
+                    objectKey.s3URI,
+                    objectKey.etag,
+                    range.getStart(),
+                    range.getEnd());
+                closeQuietly(inStream);
+              }
+            },
+            timeoutMs,
+            TimeUnit.MILLISECONDS);
+
+    AtomicInteger totalBytesCopied = new AtomicInteger();
+    objectContent
+        .getPublisher()
+        .subscribe(
+            chunk -> {
+              if (!result.isDone() && buffer.hasRemaining()) {
+                progress.accept(totalBytesCopied.addAndGet(copyInto(chunk, buffer)));
+              }
+            })
+        .whenComplete(
+            (ignored, error) -> {
+              timeout.cancel(false);
+              closeQuietly(inStream);
+              if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                result.completeExceptionally(
+                    cause instanceof IOException
+                        ? cause
+                        : new IOException("Error receiving the body", cause));
+              } else if (!result.isDone()) {
+                buffer.flip();
+                result.complete(buffer);
               }
             });
+    return result;
+  }
 
+  /**
+   * Copies the stream into the buffer until either is exhausted. Heap buffers are written to
+   * directly, anything else goes through a transfer array.
+   */
+  private static int readInto(InputStream inStream, ByteBuffer buffer, IntConsumer progress)
+      throws IOException {
+    int totalBytesRead = 0;
+    int numBytesRead;
+    if (buffer.hasArray()) {
+      byte[] array = buffer.array();
+      while (buffer.hasRemaining()
+          && (numBytesRead =
+                  inStream.read(
+                      array, buffer.arrayOffset() + buffer.position(), buffer.remaining()))
+              != -1) {
+        buffer.position(buffer.position() + numBytesRead);
+        totalBytesRead += numBytesRead;
+        progress.accept(totalBytesRead);
+      }
+    } else {
+      byte[] transfer = new byte[Math.min(BUFFER_SIZE, buffer.remaining())];
+      while (buffer.hasRemaining()
+          && (numBytesRead =
+                  inStream.read(transfer, 0, Math.min(transfer.length, buffer.remaining())))
+              != -1) {
+        buffer.put(transfer, 0, numBytesRead);
+        totalBytesRead += numBytesRead;
+        progress.accept(totalBytesRead);
+      }
+    }
+    return totalBytesRead;
+  }
+
+  /** Copies as much of the data as fits into the buffer, leaving the data itself untouched. */
+  private static int copyInto(ByteBuffer data, ByteBuffer buffer) {
+    ByteBuffer source = data.duplicate();
+    int bytesToCopy = Math.min(source.remaining(), buffer.remaining());
+    source.limit(source.position() + bytesToCopy);
+    buffer.put(source);
+    return bytesToCopy;
+  }
+
+  private static void closeQuietly(InputStream inStream) {
     try {
-      future.get(timeoutMs, TimeUnit.MILLISECONDS);
-
-    } catch (TimeoutException e) {
-      future.cancel(true);
-      LOG.debug(
-          "Reading from InputStream has timed out for Block s3URI={}, etag={}, start={}, end={}",
-          objectKey.s3URI,
-          objectKey.etag,
-          range.getStart(),
-          range.getEnd());
-      throw new TimeoutException("Read operation timed out");
-    } catch (Exception e) {
-      throw new IOException("Error reading stream", e);
-    } finally {
-      executorService.shutdown();
+      inStream.close();
+    } catch (IOException e) {
+      LOG.debug("Failed to close InputStream", e);
+    }
+  }
+
+  private static ExecutorService createReaderPool() {
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            READER_THREADS,
+            READER_THREADS,
+            60,
+            TimeUnit.SECONDS,
+            new PriorityBlockingQueue<>(READER_THREADS, READ_ORDER),
+            daemonThreadFactory("s3-analytics-accelerator-stream-reader-"));
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  private static ScheduledExecutorService createTimeoutScheduler() {
+    ScheduledThreadPoolExecutor scheduler =
+        new ScheduledThreadPoolExecutor(
+            1, daemonThreadFactory("s3-analytics-accelerator-read-timeout-"));
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
+  }
+
+  private static ThreadFactory daemonThreadFactory(String prefix) {
+    AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /** A stream read waiting for a pooled thread. */
+  private static final class QueuedRead implements Runnable {
+    private final ReadMode readMode;
+    private final long sequence = READ_SEQUENCE.getAndIncrement();
+    private final Runnable read;
+
+    private QueuedRead(ReadMode readMode, Runnable read) {
+      this.readMode = readMode;
+      this.read = read;
     }
 
-    return outStream.toByteArray();
+    @Override
+    public void run() {
+      read.run();
+    }
   }
 }
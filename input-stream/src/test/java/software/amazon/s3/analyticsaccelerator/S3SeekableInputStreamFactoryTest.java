@@ -18,10 +18,19 @@ package software.amazon.s3.analyticsaccelerator;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
@@ -38,6 +47,7 @@ import software.amazon.s3.analyticsaccelerator.exceptions.ExceptionHandler;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.DefaultLogicalIOImpl;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetLogicalIOImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.util.OpenStreamInformation;
@@ -122,6 +132,90 @@ public class S3SeekableInputStreamFactoryTest {
         s3SeekableInputStreamFactory.getObjectMetadataStore().get(s3URI).getEtag());
   }
 
+  @Test
+  void testPrefetchMetadata() throws IOException {
+    // Given: a factory, and two objects
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.headObject(any()))
+        .thenReturn(CompletableFuture.completedFuture(objectMetadata));
+    S3SeekableInputStreamFactory s3SeekableInputStreamFactory =
+        new S3SeekableInputStreamFactory(
+            objectClient,
+            S3SeekableInputStreamConfiguration.builder()
+                .logicalIOConfiguration(
+                    LogicalIOConfiguration.builder().prefetchFooterEnabled(false).build())
+                .build());
+    S3URI other = S3URI.of("bucket", "other");
+
+    // When: the metadata of both objects is prefetched, and streams are opened
+    s3SeekableInputStreamFactory.prefetchMetadata(Arrays.asList(s3URI, other)).join();
+    s3SeekableInputStreamFactory.createStream(s3URI);
+    s3SeekableInputStreamFactory.createStream(other);
+
+    // Then: one HEAD request was issued per object
+    verify(objectClient, times(2)).headObject(any());
+  }
+
+  @Test
+  void testPrefetchKnownMetadata() throws IOException {
+    // Given: a factory
+    ObjectClient objectClient = mock(ObjectClient.class);
+    S3SeekableInputStreamFactory s3SeekableInputStreamFactory =
+        new S3SeekableInputStreamFactory(
+            objectClient,
+            S3SeekableInputStreamConfiguration.builder()
+                .logicalIOConfiguration(
+                    LogicalIOConfiguration.builder().prefetchFooterEnabled(false).build())
+                .build());
+
+    // When: metadata known from a listing is handed to the factory, and a stream is opened
+    s3SeekableInputStreamFactory.prefetchMetadata(Collections.singletonMap(s3URI, objectMetadata));
+    S3SeekableInputStream inputStream = s3SeekableInputStreamFactory.createStream(s3URI);
+
+    // Then: no HEAD request was issued
+    assertNotNull(inputStream);
+    verify(objectClient, never()).headObject(any());
+    assertEquals(
+        CONTENT_LENGTH,
+        s3SeekableInputStreamFactory.getObjectMetadataStore().get(s3URI).getContentLength());
+  }
+  @Test
+  void testPrefetchMoreMetadataThanTheStoreHolds() throws IOException {
+    // Given: a factory whose metadata store holds 2 objects, and 5 objects
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.headObject(any()))
+        .thenReturn(CompletableFuture.completedFuture(objectMetadata));
+    S3SeekableInputStreamFactory s3SeekableInputStreamFactory =
+        new S3SeekableInputStreamFactory(
+            objectClient,
+            S3SeekableInputStreamConfiguration.builder()
+                .physicalIOConfiguration(
+                    PhysicalIOConfiguration.builder().metadataStoreCapacity(2).build())
+                .logicalIOConfiguration(
+                    LogicalIOConfiguration.builder().prefetchFooterEnabled(false).build())
+                .build());
+    List<S3URI> prefetched = new ArrayList<>();
+    Map<S3URI, ObjectMetadata> known = new HashMap<>();
+    for (int i = 0; i < 5; i++) {
+      prefetched.add(S3URI.of("bucket", "prefetched" + i));
+      known.put(S3URI.of("bucket", "known" + i), objectMetadata);
+    }
+
+    // When: the metadata of all objects is prefetched or handed over, and streams are opened
+    s3SeekableInputStreamFactory.prefetchMetadata(prefetched).join();
+    s3SeekableInputStreamFactory.prefetchMetadata(known);
+    for (S3URI uri : prefetched) {
+      s3SeekableInputStreamFactory.createStream(uri);
+    }
+    for (S3URI uri : known.keySet()) {
+      s3SeekableInputStreamFactory.createStream(uri);
+    }
+
+    // Then: one HEAD request was issued per prefetched object, and none when opening streams
+    verify(objectClient, times(5)).headObject(any());
+  }
+
+
   @Test
   void testPreconditions() {
     S3SeekableInputStreamFactory s3SeekableInputStreamFactory =
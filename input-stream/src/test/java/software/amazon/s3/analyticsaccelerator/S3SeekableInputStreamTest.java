@@ -20,19 +20,25 @@ import static org.mockito.Mockito.*;
 import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Test;
 import software.amazon.awssdk.utils.IoUtils;
 import software.amazon.awssdk.utils.StringUtils;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIO;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetColumnPrefetchStore;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetLogicalIOImpl;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnPredicate;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.physical.data.BlobStore;
@@ -183,6 +189,26 @@ public class S3SeekableInputStreamTest extends S3SeekableInputStreamTestBase {
     verify(logicalIO, times(1)).close();
   }
 
+  @Test
+  void testPrefetchMatchingPages() throws IOException {
+    // Given
+    LogicalIO logicalIO = mock(LogicalIO.class);
+    S3SeekableInputStream stream =
+        new S3SeekableInputStream(TEST_URI, logicalIO, TestTelemetry.DEFAULT);
+    List<ColumnPredicate> predicates =
+        Collections.singletonList(ColumnPredicate.between("ss_sold_date_sk", 10, 20));
+    List<String> columns = Collections.singletonList("ss_net_paid");
+
+    // When
+    stream.prefetchMatchingPages(predicates, columns);
+
+    // Then: the hint is passed on, and rejected once the stream is closed
+    verify(logicalIO, times(1)).prefetchMatchingPages(predicates, columns);
+    assertThrows(NullPointerException.class, () -> stream.prefetchMatchingPages(null, columns));
+    stream.close();
+    assertThrows(IOException.class, () -> stream.prefetchMatchingPages(predicates, columns));
+  }
+
   @Test
   void testReadWithBufferNulls() throws IOException {
     try (S3SeekableInputStream stream = getTestStream()) {
@@ -260,6 +286,87 @@ public class S3SeekableInputStreamTest extends S3SeekableInputStreamTestBase {
     }
   }
 
+  @Test
+  void testReadWithByteBuffer() throws IOException {
+    try (S3SeekableInputStream stream = getTestStream()) {
+      // Read into a heap buffer from pos 0, check pos after read is correct
+      ByteBuffer heapBuffer = ByteBuffer.allocate(4);
+      assertEquals(4, stream.read(heapBuffer));
+      assertEquals(4, heapBuffer.position());
+      assertEquals(4, stream.getPos());
+      heapBuffer.flip();
+      assertEquals("test", StandardCharsets.UTF_8.decode(heapBuffer).toString());
+
+      // Read the rest into a direct buffer larger than what is left
+      ByteBuffer directBuffer = ByteBuffer.allocateDirect(TEST_DATA.length());
+      assertEquals(16, stream.read(directBuffer));
+      assertEquals(20, stream.getPos());
+      directBuffer.flip();
+      assertEquals(TEST_DATA.substring(4), StandardCharsets.UTF_8.decode(directBuffer).toString());
+
+      // All data has been read, and pos is current at EOF. Next read should return -1.
+      assertEquals(-1, stream.read(ByteBuffer.allocate(1)));
+      assertEquals(0, stream.read(ByteBuffer.allocate(0)));
+      assertThrows(NullPointerException.class, () -> stream.read((ByteBuffer) null));
+    }
+  }
+
+  @Test
+  void testReadFullyWithByteBuffer() throws IOException {
+    try (S3SeekableInputStream stream = getTestStream()) {
+      stream.seek(2);
+
+      // Positioned reads do not move the stream
+      ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+      stream.readFully(5, buffer);
+      assertFalse(buffer.hasRemaining());
+      assertEquals(2, stream.getPos());
+      buffer.flip();
+      assertEquals(TEST_DATA.substring(5, 13), StandardCharsets.UTF_8.decode(buffer).toString());
+
+      // Reads that cannot be satisfied fail without touching the buffer
+      ByteBuffer tooLarge = ByteBuffer.allocate(10);
+      assertThrows(EOFException.class, () -> stream.readFully(15, tooLarge));
+      assertEquals(0, tooLarge.position());
+      assertThrows(IllegalArgumentException.class, () -> stream.readFully(-1, tooLarge));
+    }
+
+    S3SeekableInputStream closedStream = getTestStream();
+    closedStream.close();
+    assertThrows(IOException.class, () -> closedStream.readFully(0, ByteBuffer.allocate(1)));
+  }
+
+  @Test
+  void testReadVectored() throws Exception {
+    try (S3SeekableInputStream stream = getTestStream()) {
+      stream.seek(3);
+
+      // When: a vectored read is issued
+      ObjectRange first = new ObjectRange(0, 4);
+      ObjectRange second = new ObjectRange(9, 11);
+      stream.readVectored(Arrays.asList(first, second), ByteBuffer::allocate);
+
+      // Then: each range holds its data, and the position of the stream is unaltered
+      assertEquals(
+          "test",
+          StandardCharsets.UTF_8.decode(first.getByteBuffer().get(5, TimeUnit.SECONDS)).toString());
+      assertEquals(
+          TEST_DATA.substring(9),
+          StandardCharsets.UTF_8
+              .decode(second.getByteBuffer().get(5, TimeUnit.SECONDS))
+              .toString());
+      assertEquals(3, stream.getPos());
+    }
+
+    S3SeekableInputStream closedStream = getTestStream();
+    closedStream.close();
+    assertThrows(
+        IOException.class,
+        () ->
+            closedStream.readVectored(
+                Arrays.asList(new ObjectRange(0, 1)), ByteBuffer::allocate));
+  }
+
   @Test
   void testReadTailWithInvalidArgument() throws IOException {
     // Given: seekable stream
@@ -82,6 +82,10 @@ public class LogicalIOConfigurationTest {
             + "\tparquetMetadataStoreSize: 45\n"
             + "\tmaxColumnAccessCountStoreSize: 15\n"
             + "\tparquetFormatSelectorRegex: ^.*.(parquet|par)$\n"
-            + "\tprefetchingMode: ROW_GROUP\n");
+            + "\tprefetchingMode: ROW_GROUP\n"
+            + "\tparquetMetadataDiskCacheDirectory: null\n"
+            + "\tparquetMetadataDiskCacheCapacity: 268435456\n"
+            + "\trowGroupPrefetchMaxDepth: 0\n"
+            + "\trowGroupPrefetchMaxBytes: 134217728\n");
   }
 }
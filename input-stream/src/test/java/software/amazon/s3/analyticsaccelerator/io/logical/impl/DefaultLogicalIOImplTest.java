@@ -24,7 +24,12 @@ import static org.mockito.Mockito.when;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
 import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
@@ -88,6 +93,27 @@ public class DefaultLogicalIOImplTest {
     verify(physicalIO).read(buffer, 0, 5, 5L);
   }
 
+  @Test
+  void testReadWithByteBuffer() throws IOException {
+    PhysicalIO physicalIO = mock(PhysicalIO.class);
+    DefaultLogicalIOImpl logicalIO = new DefaultLogicalIOImpl(TEST_URI, physicalIO, Telemetry.NOOP);
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(5);
+    logicalIO.read(buffer, 5);
+    verify(physicalIO).read(buffer, 5L);
+  }
+
+  @Test
+  void testReadVectored() throws IOException {
+    PhysicalIO physicalIO = mock(PhysicalIO.class);
+    DefaultLogicalIOImpl logicalIO = new DefaultLogicalIOImpl(TEST_URI, physicalIO, Telemetry.NOOP);
+
+    List<ObjectRange> objectRanges = Collections.singletonList(new ObjectRange(5, 5));
+    IntFunction<ByteBuffer> allocate = ByteBuffer::allocate;
+    logicalIO.readVectored(objectRanges, allocate);
+    verify(physicalIO).readVectored(objectRanges, allocate);
+  }
+
   @Test
   void testReadTail() throws IOException {
     PhysicalIO physicalIO = mock(PhysicalIO.class);
@@ -16,9 +16,11 @@
 package software.amazon.s3.analyticsaccelerator.io.logical.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.mock;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,11 +28,14 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMappers;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMetadata;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
 public class ParquetColumnPrefetchStoreTest {
@@ -133,4 +138,42 @@ public class ParquetColumnPrefetchStoreTest {
         parquetColumnPrefetchStore.isDictionaryRowGroupPrefetched(S3URI.of("test", "key_3"), 0),
         false);
   }
+
+  @Test
+  void testColumnMappersArePersistedToDisk(@TempDir Path directory) {
+    // Given: two stores sharing a disk cache directory
+    LogicalIOConfiguration configuration =
+        LogicalIOConfiguration.builder()
+            .parquetMetadataDiskCacheDirectory(directory.toString())
+            .build();
+    ParquetColumnPrefetchStore writer = new ParquetColumnPrefetchStore(configuration);
+    ParquetColumnPrefetchStore reader = new ParquetColumnPrefetchStore(configuration);
+    S3URI s3URI = S3URI.of("test", "key");
+    ObjectKey objectKey = ObjectKey.builder().s3URI(s3URI).etag("etag").build();
+    ColumnMetadata columnMetadata = new ColumnMetadata(0, "sk_test", 4, 0, 4, 500, 0);
+    ColumnMappers columnMappers =
+        new ColumnMappers(
+            Collections.singletonMap(4L, columnMetadata),
+            Collections.singletonMap("sk_test", Collections.singletonList(columnMetadata)));
+
+    // When: one of them persists column mappers
+    assertFalse(reader.loadColumnMappers(objectKey).isPresent());
+    writer.persistColumnMappers(objectKey, columnMappers);
+
+    // Then: the other one loads them, and keeps them in memory
+    assertEquals(Optional.of(columnMappers), reader.loadColumnMappers(objectKey));
+    assertEquals(columnMappers, reader.getColumnMappers(s3URI));
+  }
+
+  @Test
+  void testColumnMappersAreNotPersistedWithoutDiskCache() {
+    ParquetColumnPrefetchStore store =
+        new ParquetColumnPrefetchStore(LogicalIOConfiguration.DEFAULT);
+    ObjectKey objectKey = ObjectKey.builder().s3URI(S3URI.of("test", "key")).etag("etag").build();
+
+    store.persistColumnMappers(
+        objectKey, new ColumnMappers(Collections.emptyMap(), Collections.emptyMap()));
+
+    assertFalse(store.loadColumnMappers(objectKey).isPresent());
+  }
 }
@@ -21,6 +21,7 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,13 +31,18 @@ import static org.mockito.Mockito.when;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMappers;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnPredicate;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.FileTail;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetMetadataParsingTask;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetPredicatePrefetchingTask;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetPredictivePrefetchingTask;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetPrefetchRemainingColumnTask;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetPrefetchTailTask;
@@ -45,6 +51,7 @@ import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanExecution;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanState;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.PrefetchMode;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
@@ -79,7 +86,8 @@ public class ParquetPrefetcherTest {
                 mock(ParquetPrefetchTailTask.class),
                 mock(ParquetReadTailTask.class),
                 mock(ParquetPrefetchRemainingColumnTask.class),
-                mock(ParquetPredictivePrefetchingTask.class)));
+                mock(ParquetPredictivePrefetchingTask.class,
+                mock(ParquetPredicatePrefetchingTask.class))));
 
     assertThrows(
         NullPointerException.class,
@@ -93,7 +101,8 @@ public class ParquetPrefetcherTest {
                 mock(ParquetPrefetchTailTask.class),
                 mock(ParquetReadTailTask.class),
                 mock(ParquetPrefetchRemainingColumnTask.class),
-                mock(ParquetPredictivePrefetchingTask.class)));
+                mock(ParquetPredictivePrefetchingTask.class,
+                mock(ParquetPredicatePrefetchingTask.class))));
     assertThrows(
         NullPointerException.class,
         () ->
@@ -106,7 +115,8 @@ public class ParquetPrefetcherTest {
                 mock(ParquetPrefetchTailTask.class),
                 mock(ParquetReadTailTask.class),
                 mock(ParquetPrefetchRemainingColumnTask.class),
-                mock(ParquetPredictivePrefetchingTask.class)));
+                mock(ParquetPredictivePrefetchingTask.class,
+                mock(ParquetPredicatePrefetchingTask.class))));
     assertThrows(
         NullPointerException.class,
         () ->
@@ -119,7 +129,8 @@ public class ParquetPrefetcherTest {
                 mock(ParquetPrefetchTailTask.class),
                 mock(ParquetReadTailTask.class),
                 mock(ParquetPrefetchRemainingColumnTask.class),
-                mock(ParquetPredictivePrefetchingTask.class)));
+                mock(ParquetPredictivePrefetchingTask.class,
+                mock(ParquetPredicatePrefetchingTask.class))));
     assertThrows(
         NullPointerException.class,
         () ->
@@ -132,7 +143,8 @@ public class ParquetPrefetcherTest {
                 mock(ParquetPrefetchTailTask.class),
                 mock(ParquetReadTailTask.class),
                 mock(ParquetPrefetchRemainingColumnTask.class),
-                mock(ParquetPredictivePrefetchingTask.class)));
+                mock(ParquetPredictivePrefetchingTask.class,
+                mock(ParquetPredicatePrefetchingTask.class))));
     assertThrows(
         NullPointerException.class,
         () ->
@@ -145,7 +157,8 @@ public class ParquetPrefetcherTest {
                 null,
                 mock(ParquetReadTailTask.class),
                 mock(ParquetPrefetchRemainingColumnTask.class),
-                mock(ParquetPredictivePrefetchingTask.class)));
+                mock(ParquetPredictivePrefetchingTask.class,
+                mock(ParquetPredicatePrefetchingTask.class))));
     assertThrows(
         NullPointerException.class,
         () ->
@@ -158,7 +171,8 @@ public class ParquetPrefetcherTest {
                 mock(ParquetPrefetchTailTask.class),
                 null,
                 mock(ParquetPrefetchRemainingColumnTask.class),
-                mock(ParquetPredictivePrefetchingTask.class)));
+                mock(ParquetPredictivePrefetchingTask.class,
+                mock(ParquetPredicatePrefetchingTask.class))));
     assertThrows(
         NullPointerException.class,
         () ->
@@ -171,7 +185,8 @@ public class ParquetPrefetcherTest {
                 mock(ParquetPrefetchTailTask.class),
                 mock(ParquetReadTailTask.class),
                 null,
-                mock(ParquetPredictivePrefetchingTask.class)));
+                mock(ParquetPredictivePrefetchingTask.class,
+                mock(ParquetPredicatePrefetchingTask.class))));
     assertThrows(
         NullPointerException.class,
         () ->
@@ -184,6 +199,21 @@ public class ParquetPrefetcherTest {
                 mock(ParquetPrefetchTailTask.class),
                 mock(ParquetReadTailTask.class),
                 mock(ParquetPrefetchRemainingColumnTask.class),
+                null,
+                mock(ParquetPredicatePrefetchingTask.class)));
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new ParquetPrefetcher(
+                mock(S3URI.class),
+                mock(LogicalIOConfiguration.class),
+                mock(ParquetColumnPrefetchStore.class),
+                mock(Telemetry.class),
+                mock(ParquetMetadataParsingTask.class),
+                mock(ParquetPrefetchTailTask.class),
+                mock(ParquetReadTailTask.class),
+                mock(ParquetPrefetchRemainingColumnTask.class),
+                mock(ParquetPredictivePrefetchingTask.class),
                 null));
 
     assertThrows(
@@ -323,6 +353,76 @@ public class ParquetPrefetcherTest {
         .prefetchRecentColumns(any(ColumnMappers.class), anyList(), anyBoolean());
   }
 
+  @Test
+  public void testPrefetchFooterAndBuildMetadataUsesPersistedColumnMappers() {
+    // Given: column mappers of this version of the object were persisted by an earlier stream
+    LogicalIOConfiguration logicalIOConfiguration =
+        LogicalIOConfiguration.builder().prefetchingMode(PrefetchMode.ALL).build();
+    ObjectKey objectKey = ObjectKey.builder().s3URI(TEST_URI).etag("etag").build();
+    ColumnMappers columnMappers = mock(ColumnMappers.class);
+
+    ParquetColumnPrefetchStore parquetColumnPrefetchStore = mock(ParquetColumnPrefetchStore.class);
+    ParquetReadTailTask parquetReadTailTask = getTestParquetReadTailTask();
+    ParquetMetadataParsingTask parquetMetadataParsingTask = mock(ParquetMetadataParsingTask.class);
+    ParquetPredictivePrefetchingTask parquetPredictivePrefetchingTask =
+        mock(ParquetPredictivePrefetchingTask.class);
+    when(parquetReadTailTask.getObjectKey()).thenReturn(objectKey);
+    when(parquetColumnPrefetchStore.loadColumnMappers(objectKey))
+        .thenReturn(Optional.of(columnMappers));
+
+    ParquetPrefetcher parquetPrefetcher =
+        getTestPrefetcher(
+            logicalIOConfiguration,
+            parquetColumnPrefetchStore,
+            parquetMetadataParsingTask,
+            mock(ParquetPrefetchTailTask.class),
+            parquetReadTailTask,
+            mock(ParquetPrefetchRemainingColumnTask.class),
+            parquetPredictivePrefetchingTask);
+
+    // When: footer prefetching and metadata build is requested
+    parquetPrefetcher.prefetchFooterAndBuildMetadata().join();
+
+    // Then: the footer is neither read nor parsed, nor persisted again
+    verify(parquetReadTailTask, times(0)).readFileTail();
+    verifyNoInteractions(parquetMetadataParsingTask);
+    verify(parquetColumnPrefetchStore, times(0)).persistColumnMappers(any(), any());
+    // Then: predictive reads use the persisted column mappers
+    verify(parquetPredictivePrefetchingTask, times(1))
+        .prefetchRecentColumns(eq(columnMappers), anyList(), anyBoolean());
+  }
+
+  @Test
+  public void testPrefetchFooterAndBuildMetadataPersistsColumnMappers() {
+    // Given: column mappers of this version of the object were never persisted
+    LogicalIOConfiguration logicalIOConfiguration =
+        LogicalIOConfiguration.builder().prefetchingMode(PrefetchMode.ALL).build();
+    ObjectKey objectKey = ObjectKey.builder().s3URI(TEST_URI).etag("etag").build();
+
+    ParquetColumnPrefetchStore parquetColumnPrefetchStore = mock(ParquetColumnPrefetchStore.class);
+    ParquetReadTailTask parquetReadTailTask = getTestParquetReadTailTask();
+    ParquetMetadataParsingTask parquetMetadataParsingTask = getTestParquetMetadataTask();
+    when(parquetReadTailTask.getObjectKey()).thenReturn(objectKey);
+
+    ParquetPrefetcher parquetPrefetcher =
+        getTestPrefetcher(
+            logicalIOConfiguration,
+            parquetColumnPrefetchStore,
+            parquetMetadataParsingTask,
+            mock(ParquetPrefetchTailTask.class),
+            parquetReadTailTask,
+            mock(ParquetPrefetchRemainingColumnTask.class),
+            mock(ParquetPredictivePrefetchingTask.class));
+
+    // When: footer prefetching and metadata build is requested
+    parquetPrefetcher.prefetchFooterAndBuildMetadata().join();
+
+    // Then: the footer is parsed and the result persisted
+    verify(parquetReadTailTask, times(1)).readFileTail();
+    verify(parquetColumnPrefetchStore, times(1))
+        .persistColumnMappers(eq(objectKey), any(ColumnMappers.class));
+  }
+
   @Test
   public void testConfigurationsPrefetchFooterAndBuildMetadataNoPredictivePrefetching() {
     // Given: config with predictive prefetching disabled
@@ -462,6 +562,113 @@ public class ParquetPrefetcherTest {
     assertDoesNotThrow(() -> parquetPrefetcher.addToRecentColumnList(100, 0));
   }
 
+  @Test
+  public void testPrefetchMatchingPagesProxiesCallsToDependency() {
+    // Given: column mappers of the object are already known
+    ColumnMappers columnMappers = mock(ColumnMappers.class);
+    ParquetColumnPrefetchStore parquetColumnPrefetchStore = mock(ParquetColumnPrefetchStore.class);
+    when(parquetColumnPrefetchStore.getColumnMappers(TEST_URI)).thenReturn(columnMappers);
+    ParquetPredicatePrefetchingTask parquetPredicatePrefetchingTask =
+        mock(ParquetPredicatePrefetchingTask.class);
+    IOPlanExecution ioPlanExecution =
+        IOPlanExecution.builder().state(IOPlanState.SUBMITTED).build();
+    List<ColumnPredicate> predicates =
+        Collections.singletonList(ColumnPredicate.between("ss_sold_date_sk", 10, 20));
+    List<String> columns = Collections.singletonList("ss_net_paid");
+    when(parquetPredicatePrefetchingTask.prefetchMatchingPages(columnMappers, predicates, columns))
+        .thenReturn(ioPlanExecution);
+
+    ParquetPrefetcher parquetPrefetcher =
+        getTestPrefetcher(
+            LogicalIOConfiguration.DEFAULT,
+            parquetColumnPrefetchStore,
+            mock(ParquetMetadataParsingTask.class),
+            mock(ParquetPrefetchTailTask.class),
+            mock(ParquetReadTailTask.class),
+            mock(ParquetPrefetchRemainingColumnTask.class),
+            mock(ParquetPredictivePrefetchingTask.class),
+            parquetPredicatePrefetchingTask);
+
+    // When: matching pages are prefetched
+    IOPlanExecution result = parquetPrefetcher.prefetchMatchingPages(predicates, columns).join();
+
+    // Then: the task is called with the known column mappers
+    assertEquals(ioPlanExecution, result);
+    verify(parquetPredicatePrefetchingTask, times(1))
+        .prefetchMatchingPages(columnMappers, predicates, columns);
+  }
+
+  @Test
+  public void testPrefetchMatchingPagesReusesFooterBeingParsed() {
+    // Given: the footer of the object is being parsed since the stream was opened
+    LogicalIOConfiguration logicalIOConfiguration =
+        LogicalIOConfiguration.builder().prefetchingMode(PrefetchMode.ALL).build();
+    ColumnMappers columnMappers = mock(ColumnMappers.class);
+    ParquetReadTailTask parquetReadTailTask = getTestParquetReadTailTask();
+    ParquetMetadataParsingTask parquetMetadataParsingTask = mock(ParquetMetadataParsingTask.class);
+    when(parquetMetadataParsingTask.storeColumnMappers(any(FileTail.class)))
+        .thenReturn(columnMappers);
+    ParquetPredicatePrefetchingTask parquetPredicatePrefetchingTask =
+        mock(ParquetPredicatePrefetchingTask.class);
+    List<ColumnPredicate> predicates =
+        Collections.singletonList(ColumnPredicate.between("ss_sold_date_sk", 10, 20));
+    List<String> columns = Collections.singletonList("ss_net_paid");
+
+    ParquetPrefetcher parquetPrefetcher =
+        getTestPrefetcher(
+            logicalIOConfiguration,
+            mock(ParquetColumnPrefetchStore.class),
+            parquetMetadataParsingTask,
+            mock(ParquetPrefetchTailTask.class),
+            parquetReadTailTask,
+            mock(ParquetPrefetchRemainingColumnTask.class),
+            mock(ParquetPredictivePrefetchingTask.class),
+            parquetPredicatePrefetchingTask);
+    parquetPrefetcher.prefetchFooterAndBuildMetadata();
+
+    // When: matching pages are prefetched
+    parquetPrefetcher.prefetchMatchingPages(predicates, columns).join();
+
+    // Then: the footer is read and parsed only once, and the task uses its column mappers
+    verify(parquetReadTailTask, times(1)).readFileTail();
+    verify(parquetMetadataParsingTask, times(1)).storeColumnMappers(any(FileTail.class));
+    verify(parquetPredicatePrefetchingTask, times(1))
+        .prefetchMatchingPages(columnMappers, predicates, columns);
+  }
+
+  @Test
+  public void testPrefetchMatchingPagesExceptionCaught() {
+    // Given: the footer of the object can not be read
+    ParquetReadTailTask parquetReadTailTask = mock(ParquetReadTailTask.class);
+    when(parquetReadTailTask.readFileTail())
+        .thenThrow(new CompletionException("Error", new IOException()));
+    ParquetPredicatePrefetchingTask parquetPredicatePrefetchingTask =
+        mock(ParquetPredicatePrefetchingTask.class);
+
+    ParquetPrefetcher parquetPrefetcher =
+        getTestPrefetcher(
+            LogicalIOConfiguration.DEFAULT,
+            mock(ParquetColumnPrefetchStore.class),
+            mock(ParquetMetadataParsingTask.class),
+            mock(ParquetPrefetchTailTask.class),
+            parquetReadTailTask,
+            mock(ParquetPrefetchRemainingColumnTask.class),
+            mock(ParquetPredictivePrefetchingTask.class),
+            parquetPredicatePrefetchingTask);
+
+    // When: matching pages are prefetched
+    IOPlanExecution result =
+        parquetPrefetcher
+            .prefetchMatchingPages(
+                Collections.singletonList(ColumnPredicate.between("x", 1, 2)),
+                Collections.singletonList("y"))
+            .join();
+
+    // Then: the prefetch is skipped
+    assertEquals(IOPlanState.SKIPPED, result.getState());
+    verifyNoInteractions(parquetPredicatePrefetchingTask);
+  }
+
   @Test
   public void prefetchFooterAndBuildMetadataReadTailExceptionCaught() {
     LogicalIOConfiguration logicalIOConfiguration =
@@ -546,6 +753,26 @@ public class ParquetPrefetcherTest {
       ParquetReadTailTask parquetReadTailTask,
       ParquetPrefetchRemainingColumnTask parquetPrefetchRemainingColumnTask,
       ParquetPredictivePrefetchingTask parquetPredictivePrefetchingTask) {
+    return getTestPrefetcher(
+        logicalIOConfiguration,
+        parquetColumnPrefetchStore,
+        parquetMetadataParsingTask,
+        parquetPrefetchTailTask,
+        parquetReadTailTask,
+        parquetPrefetchRemainingColumnTask,
+        parquetPredictivePrefetchingTask,
+        mock(ParquetPredicatePrefetchingTask.class));
+  }
+
+  private ParquetPrefetcher getTestPrefetcher(
+      LogicalIOConfiguration logicalIOConfiguration,
+      ParquetColumnPrefetchStore parquetColumnPrefetchStore,
+      ParquetMetadataParsingTask parquetMetadataParsingTask,
+      ParquetPrefetchTailTask parquetPrefetchTailTask,
+      ParquetReadTailTask parquetReadTailTask,
+      ParquetPrefetchRemainingColumnTask parquetPrefetchRemainingColumnTask,
+      ParquetPredictivePrefetchingTask parquetPredictivePrefetchingTask,
+      ParquetPredicatePrefetchingTask parquetPredicatePrefetchingTask) {
 
     return new ParquetPrefetcher(
         TEST_URI,
@@ -556,6 +783,7 @@ public class ParquetPrefetcherTest {
         parquetPrefetchTailTask,
         parquetReadTailTask,
         parquetPrefetchRemainingColumnTask,
-        parquetPredictivePrefetchingTask);
+        parquetPredictivePrefetchingTask,
+        parquetPredicatePrefetchingTask);
   }
 }
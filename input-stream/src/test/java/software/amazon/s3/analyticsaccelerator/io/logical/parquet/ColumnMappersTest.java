@@ -0,0 +1,88 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class ColumnMappersTest {
+  private static final ColumnMetadata SS_A = new ColumnMetadata(0, "ss_a", 100, 0, 100, 700, 0);
+  private static final ColumnMetadata SS_B = new ColumnMetadata(0, "ss_b", 900, 850, 850, 200, 0);
+  private static final ColumnMetadata SS_C = new ColumnMetadata(0, "ss_c", 1050, 0, 1050, 500, 0);
+
+  @Test
+  void testGetColumnStartingAt() {
+    ColumnMappers columnMappers = createColumnMappers(SS_C, SS_A, SS_B);
+
+    assertEquals(SS_A, columnMappers.getColumnStartingAt(100));
+    assertEquals(SS_B, columnMappers.getColumnStartingAt(850));
+    assertEquals(SS_C, columnMappers.getColumnStartingAt(1050));
+    assertNull(columnMappers.getColumnStartingAt(900));
+    assertNull(columnMappers.getColumnStartingAt(0));
+  }
+
+  @Test
+  void testGetColumnContaining() {
+    ColumnMappers columnMappers = createColumnMappers(SS_C, SS_A, SS_B);
+
+    // Before the first column chunk
+    assertNull(columnMappers.getColumnContaining(50));
+    // Column chunk starts are not contained
+    assertNull(columnMappers.getColumnContaining(100));
+    assertNull(columnMappers.getColumnContaining(850));
+    // Positions up to the start of the next column chunk belong to the previous one
+    assertEquals(SS_A, columnMappers.getColumnContaining(101));
+    assertEquals(SS_A, columnMappers.getColumnContaining(849));
+    assertEquals(SS_B, columnMappers.getColumnContaining(1049));
+    // The last column chunk ends at its compressed size
+    assertEquals(SS_C, columnMappers.getColumnContaining(1549));
+    assertNull(columnMappers.getColumnContaining(1550));
+  }
+
+  @Test
+  void testEmptyColumnMappers() {
+    ColumnMappers columnMappers = new ColumnMappers(Collections.emptyMap(), Collections.emptyMap());
+
+    assertNull(columnMappers.getColumnStartingAt(0));
+    assertNull(columnMappers.getColumnContaining(100));
+  }
+
+  @Test
+  void testEqualityOnlyDependsOnMaps() {
+    assertEquals(createColumnMappers(SS_A, SS_B), createColumnMappers(SS_B, SS_A));
+    assertEquals(
+        createColumnMappers(SS_A, SS_B).hashCode(), createColumnMappers(SS_B, SS_A).hashCode());
+    assertNotEquals(createColumnMappers(SS_A, SS_B), createColumnMappers(SS_A, SS_C));
+  }
+
+  private static ColumnMappers createColumnMappers(ColumnMetadata... columns) {
+    Map<Long, ColumnMetadata> offsetIndexToColumnMap = new HashMap<>();
+    Map<String, List<ColumnMetadata>> columnNameToColumnMap = new HashMap<>();
+    for (ColumnMetadata columnMetadata : columns) {
+      offsetIndexToColumnMap.put(columnMetadata.getStartPos(), columnMetadata);
+      columnNameToColumnMap
+          .computeIfAbsent(columnMetadata.getColumnName(), name -> new ArrayList<>())
+          .add(columnMetadata);
+    }
+    return new ColumnMappers(offsetIndexToColumnMap, columnNameToColumnMap);
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import org.apache.parquet.format.Type;
+import org.junit.jupiter.api.Test;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class ColumnPredicateTest {
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(NullPointerException.class, () -> ColumnPredicate.between(null, 1, 2));
+    assertThrows(NullPointerException.class, () -> ColumnPredicate.between("x", null, "b"));
+    assertThrows(IllegalArgumentException.class, () -> ColumnPredicate.between("x", 2, 1));
+    assertThrows(IllegalArgumentException.class, () -> ColumnPredicate.between("x", 2.0, 1.0));
+    assertThrows(IllegalArgumentException.class, () -> ColumnPredicate.between("x", "b", "a"));
+    assertThrows(
+        NullPointerException.class, () -> ColumnPredicate.between("x", 1, 2).mayMatch(null, null));
+  }
+
+  @Test
+  void testIntegerBounds() {
+    ColumnPredicate predicate = ColumnPredicate.between("x", 10, 20);
+
+    assertTrue(predicate.mayMatch(Type.INT32, page(ints(15, 30))));
+    assertTrue(predicate.mayMatch(Type.INT32, page(ints(0, 10))));
+    assertTrue(predicate.mayMatch(Type.INT32, page(ints(20, 25))));
+    assertFalse(predicate.mayMatch(Type.INT32, page(ints(0, 9))));
+    assertFalse(predicate.mayMatch(Type.INT32, page(ints(21, 30))));
+
+    assertTrue(predicate.mayMatch(Type.INT64, page(longs(-5, 12))));
+    assertFalse(predicate.mayMatch(Type.INT64, page(longs(-5, 9))));
+  }
+
+  @Test
+  void testFloatingPointBounds() {
+    ColumnPredicate predicate = ColumnPredicate.between("x", 1.5, 2.5);
+
+    assertTrue(predicate.mayMatch(Type.DOUBLE, page(doubles(2.0, 3.0))));
+    assertFalse(predicate.mayMatch(Type.DOUBLE, page(doubles(2.6, 3.0))));
+    assertFalse(predicate.mayMatch(Type.DOUBLE, page(doubles(0.0, 1.4))));
+    // Then: NaN statistics never rule a page out
+    assertTrue(predicate.mayMatch(Type.DOUBLE, page(doubles(Double.NaN, Double.NaN))));
+
+    assertTrue(predicate.mayMatch(Type.FLOAT, page(floats(1.0f, 1.5f))));
+    assertFalse(predicate.mayMatch(Type.FLOAT, page(floats(3.0f, 4.0f))));
+  }
+
+  @Test
+  void testBinaryBounds() {
+    ColumnPredicate predicate = ColumnPredicate.between("x", "b", "d");
+
+    assertTrue(predicate.mayMatch(Type.BYTE_ARRAY, page(strings("a", "c"))));
+    assertTrue(predicate.mayMatch(Type.BYTE_ARRAY, page(strings("d", "z"))));
+    assertFalse(predicate.mayMatch(Type.BYTE_ARRAY, page(strings("a", "az"))));
+    assertFalse(predicate.mayMatch(Type.BYTE_ARRAY, page(strings("da", "z"))));
+    assertFalse(predicate.mayMatch(Type.FIXED_LEN_BYTE_ARRAY, page(strings("e", "f"))));
+    // Then: bytes are compared unsigned
+    assertFalse(predicate.mayMatch(Type.BYTE_ARRAY, page(strings("\u00e9", "\u00ff"))));
+  }
+
+  @Test
+  void testPagesThatCanNotBeRuledOut() {
+    ColumnPredicate predicate = ColumnPredicate.between("x", 10, 20);
+    PageMetadata outside = page(ints(0, 9));
+
+    // Then: pages without statistics or with an unknown type match
+    assertTrue(predicate.mayMatch(null, outside));
+    assertTrue(predicate.mayMatch(Type.INT32, new PageMetadata(0, 10, 0, false, null, null)));
+    // Then: bounds of another type, other physical types and truncated values match
+    assertTrue(predicate.mayMatch(Type.BYTE_ARRAY, outside));
+    assertTrue(predicate.mayMatch(Type.BOOLEAN, outside));
+    assertTrue(predicate.mayMatch(Type.INT64, outside));
+  }
+
+  @Test
+  void testNullPagesNeverMatch() {
+    PageMetadata nullPage =
+        new PageMetadata(0, 10, 0, true, ByteBuffer.allocate(0), ByteBuffer.allocate(0));
+
+    assertFalse(ColumnPredicate.between("x", 10, 20).mayMatch(Type.INT32, nullPage));
+    assertFalse(ColumnPredicate.between("x", 10, 20).mayMatch(null, nullPage));
+  }
+
+  @Test
+  void testToString() {
+    assertEquals("x BETWEEN 1 AND 2", ColumnPredicate.between("x", 1, 2).toString());
+    assertEquals("x BETWEEN 1.0 AND 2.5", ColumnPredicate.between("x", 1.0, 2.5).toString());
+    assertEquals("x BETWEEN 'a' AND 'b'", ColumnPredicate.between("x", "a", "b").toString());
+  }
+
+  private static PageMetadata page(ByteBuffer[] minMax) {
+    return new PageMetadata(0, 10, 0, false, minMax[0], minMax[1]);
+  }
+
+  private static ByteBuffer[] ints(int min, int max) {
+    return new ByteBuffer[] {
+      littleEndian(Integer.BYTES).putInt(0, min), littleEndian(Integer.BYTES).putInt(0, max)
+    };
+  }
+
+  private static ByteBuffer[] longs(long min, long max) {
+    return new ByteBuffer[] {
+      littleEndian(Long.BYTES).putLong(0, min), littleEndian(Long.BYTES).putLong(0, max)
+    };
+  }
+
+  private static ByteBuffer[] floats(float min, float max) {
+    return new ByteBuffer[] {
+      littleEndian(Float.BYTES).putFloat(0, min), littleEndian(Float.BYTES).putFloat(0, max)
+    };
+  }
+
+  private static ByteBuffer[] doubles(double min, double max) {
+    return new ByteBuffer[] {
+      littleEndian(Double.BYTES).putDouble(0, min), littleEndian(Double.BYTES).putDouble(0, max)
+    };
+  }
+
+  private static ByteBuffer[] strings(String min, String max) {
+    return new ByteBuffer[] {
+      ByteBuffer.wrap(min.getBytes(StandardCharsets.UTF_8)),
+      ByteBuffer.wrap(max.getBytes(StandardCharsets.UTF_8))
+    };
+  }
+
+  private static ByteBuffer littleEndian(int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.RowGroup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import shaded.parquet.org.apache.thrift.TException;
+import shaded.parquet.org.apache.thrift.protocol.TCompactProtocol;
+import shaded.parquet.org.apache.thrift.transport.TIOStreamTransport;
+
+public class ParquetFooterScannerTest {
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "src/test/resources/call_center.parquet",
+        "src/test/resources/nested_data.parquet",
+        "src/test/resources/multi_row_group.parquet",
+        "src/test/resources/nested_data_mrg.parquet"
+      })
+  void testScanMatchesFullDecoding(String parquetFilePath) throws IOException, TException {
+    // Given: the footer of a parquet file, fully decoded with thrift
+    byte[] footer = readFooter(parquetFilePath);
+    FileMetaData expected = new FileMetaData();
+    expected.read(new TCompactProtocol(new TIOStreamTransport(new ByteArrayInputStream(footer))));
+
+    // When: it is scanned
+    FileMetaData scanned = new ParquetFooterScanner(ByteBuffer.wrap(footer)).scan();
+
+    // Then: the fields needed to locate column chunks are the same
+    assertEquals(expected.getRow_groups().size(), scanned.getRow_groups().size());
+    for (int i = 0; i < expected.getRow_groups().size(); i++) {
+      RowGroup expectedRowGroup = expected.getRow_groups().get(i);
+      RowGroup scannedRowGroup = scanned.getRow_groups().get(i);
+      assertEquals(expectedRowGroup.getColumns().size(), scannedRowGroup.getColumns().size());
+      for (int j = 0; j < expectedRowGroup.getColumns().size(); j++) {
+        ColumnChunk expectedColumn = expectedRowGroup.getColumns().get(j);
+        ColumnChunk scannedColumn = scannedRowGroup.getColumns().get(j);
+        assertEquals(expectedColumn.getFile_offset(), scannedColumn.getFile_offset());
+        assertEquals(
+            expectedColumn.getMeta_data().getPath_in_schema(),
+            scannedColumn.getMeta_data().getPath_in_schema());
+        assertEquals(
+            expectedColumn.getMeta_data().getData_page_offset(),
+            scannedColumn.getMeta_data().getData_page_offset());
+        assertEquals(
+            expectedColumn.getMeta_data().getDictionary_page_offset(),
+            scannedColumn.getMeta_data().getDictionary_page_offset());
+        assertEquals(
+            expectedColumn.getMeta_data().getTotal_compressed_size(),
+            scannedColumn.getMeta_data().getTotal_compressed_size());
+        assertEquals(
+            expectedColumn.getMeta_data().getType(), scannedColumn.getMeta_data().getType());
+        assertEquals(
+            expectedColumn.getOffset_index_offset(), scannedColumn.getOffset_index_offset());
+        assertEquals(
+            expectedColumn.getOffset_index_length(), scannedColumn.getOffset_index_length());
+        assertEquals(
+            expectedColumn.getColumn_index_offset(), scannedColumn.getColumn_index_offset());
+        assertEquals(
+            expectedColumn.getColumn_index_length(), scannedColumn.getColumn_index_length());
+      }
+    }
+
+    // Then: everything else is skipped
+    assertFalse(scanned.isSetSchema());
+    assertFalse(scanned.isSetKey_value_metadata());
+    ColumnChunk scannedColumn = scanned.getRow_groups().get(0).getColumns().get(0);
+    assertFalse(scannedColumn.getMeta_data().isSetStatistics());
+    assertFalse(scannedColumn.getMeta_data().isSetEncodings());
+  }
+
+  @Test
+  void testPathSegmentsAreShared() throws IOException {
+    FileMetaData scanned =
+        new ParquetFooterScanner(
+                ByteBuffer.wrap(readFooter("src/test/resources/multi_row_group.parquet")))
+            .scan();
+
+    List<String> firstRowGroupPath =
+        scanned.getRow_groups().get(0).getColumns().get(0).getMeta_data().getPath_in_schema();
+    List<String> lastRowGroupPath =
+        scanned.getRow_groups().get(2).getColumns().get(0).getMeta_data().getPath_in_schema();
+    assertEquals(firstRowGroupPath, lastRowGroupPath);
+    assertSame(firstRowGroupPath.get(0), lastRowGroupPath.get(0));
+  }
+
+  @Test
+  void testScanFailsOnMalformedFooter() throws IOException {
+    byte[] footer = readFooter("src/test/resources/call_center.parquet");
+
+    // Truncated footer
+    assertThrows(
+        IOException.class,
+        () ->
+            new ParquetFooterScanner(ByteBuffer.wrap(Arrays.copyOf(footer, footer.length / 2)))
+                .scan());
+
+    // Unknown field type
+    byte[] unknownType = new byte[] {(byte) 0x1f, 0};
+    assertThrows(
+        IOException.class, () -> new ParquetFooterScanner(ByteBuffer.wrap(unknownType)).scan());
+
+    // Binary field longer than the footer
+    byte[] invalidLength = new byte[] {(byte) 0x18, (byte) 0x7f, 0};
+    assertThrows(
+        IOException.class, () -> new ParquetFooterScanner(ByteBuffer.wrap(invalidLength)).scan());
+  }
+
+  private static byte[] readFooter(String parquetFilePath) throws IOException {
+    byte[] file = Files.readAllBytes(Paths.get(parquetFilePath));
+    int footerLengthIndex = file.length - 8;
+    int footerLength =
+        ByteBuffer.wrap(file, footerLengthIndex, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    return Arrays.copyOfRange(file, footerLengthIndex - footerLength, footerLengthIndex);
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.parquet.format.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class ParquetMetadataDiskCacheTest {
+  private static final ObjectKey TEST_KEY =
+      ObjectKey.builder().s3URI(S3URI.of("bucket", "table/part-0.parquet")).etag("etag1").build();
+
+  @TempDir Path directory;
+
+  @Test
+  void testConstructor() throws IOException {
+    Path nested = directory.resolve("a").resolve("b");
+    ParquetMetadataDiskCache cache = new ParquetMetadataDiskCache(nested, 1024);
+
+    assertEquals(nested, cache.getDirectory());
+    assertTrue(Files.isDirectory(nested));
+    assertThrows(NullPointerException.class, () -> new ParquetMetadataDiskCache(null, 1024));
+    assertThrows(IllegalArgumentException.class, () -> new ParquetMetadataDiskCache(directory, 0));
+  }
+
+  @Test
+  void testRoundTrip() throws IOException {
+    // Given: column mappers cached by one instance
+    ColumnMappers columnMappers = createColumnMappers("sk_test", "sk_test_2");
+    new ParquetMetadataDiskCache(directory, 1024 * 1024).put(TEST_KEY, columnMappers);
+
+    // When: they are read by another instance pointed at the same directory
+    Optional<ColumnMappers> cached =
+        new ParquetMetadataDiskCache(directory, 1024 * 1024).get(TEST_KEY);
+
+    // Then: they are equal to the originals
+    assertTrue(cached.isPresent());
+    assertEquals(columnMappers, cached.get());
+  }
+
+  @Test
+  void testMissForAnotherVersionOfTheObject() throws IOException {
+    // Given: column mappers cached for one version of an object
+    ParquetMetadataDiskCache cache = new ParquetMetadataDiskCache(directory, 1024 * 1024);
+    cache.put(TEST_KEY, createColumnMappers("sk_test"));
+
+    // When: the object has been overwritten
+    ObjectKey overwritten = ObjectKey.builder().s3URI(TEST_KEY.getS3URI()).etag("etag2").build();
+
+    // Then: the mappers of the old version are not returned
+    assertFalse(cache.get(overwritten).isPresent());
+    assertTrue(cache.get(TEST_KEY).isPresent());
+  }
+
+  @Test
+  void testDecodeRejectsAnotherObject() {
+    ByteBuffer encoded = ParquetMetadataDiskCache.encode(TEST_KEY, createColumnMappers("sk_test"));
+    ObjectKey otherKey = ObjectKey.builder().s3URI(TEST_KEY.getS3URI()).etag("etag2").build();
+
+    assertFalse(ParquetMetadataDiskCache.decode(encoded, otherKey).isPresent());
+  }
+
+  @Test
+  void testCorruptEntryIsDiscarded() throws IOException {
+    // Given: a cached entry that got truncated
+    ParquetMetadataDiskCache cache = new ParquetMetadataDiskCache(directory, 1024 * 1024);
+    cache.put(TEST_KEY, createColumnMappers("sk_test", "sk_test_2"));
+    Path entry = listEntries().get(0);
+    byte[] bytes = Files.readAllBytes(entry);
+    Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+
+    // When: it is read
+    Optional<ColumnMappers> cached = cache.get(TEST_KEY);
+
+    // Then: it is treated as a miss and deleted
+    assertFalse(cached.isPresent());
+    assertFalse(Files.exists(entry));
+  }
+
+  @Test
+  void testLeastRecentlyUsedEntriesAreEvicted() throws IOException {
+    // Given: a cache that holds about three entries
+    ColumnMappers columnMappers = createColumnMappers("sk_test", "sk_test_2");
+    long entrySize = ParquetMetadataDiskCache.encode(TEST_KEY, columnMappers).remaining();
+    ParquetMetadataDiskCache cache = new ParquetMetadataDiskCache(directory, 3 * entrySize + 8);
+    ObjectKey first = keyOf("part-1.parquet");
+    ObjectKey second = keyOf("part-2.parquet");
+    ObjectKey third = keyOf("part-3.parquet");
+    ObjectKey fourth = keyOf("part-4.parquet");
+
+    cache.put(first, columnMappers);
+    cache.put(second, columnMappers);
+    cache.put(third, columnMappers);
+    // Make the first entry the most recently used one
+    for (Path entry : listEntries()) {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(1_000_000));
+    }
+    assertTrue(cache.get(first).isPresent());
+
+    // When: a fourth entry is added
+    cache.put(fourth, columnMappers);
+
+    // Then: the least recently used entries are evicted until the cache is well under capacity
+    assertEquals(2, listEntries().size());
+    assertTrue(cache.get(first).isPresent());
+    assertFalse(cache.get(second).isPresent());
+    assertFalse(cache.get(third).isPresent());
+    assertTrue(cache.get(fourth).isPresent());
+  }
+
+  @Test
+  void testStaleTemporaryFilesAreDeleted() throws IOException {
+    // Given: a temporary file left behind by a writer that died, and one still being written
+    Path stale = Files.write(directory.resolve("stale.colmap.1.tmp"), new byte[100]);
+    Files.setLastModifiedTime(stale, FileTime.fromMillis(1_000_000));
+    Path fresh = Files.write(directory.resolve("fresh.colmap.2.tmp"), new byte[100]);
+    ParquetMetadataDiskCache cache = new ParquetMetadataDiskCache(directory, 1024 * 1024);
+
+    // When: an entry is added
+    cache.put(TEST_KEY, createColumnMappers("sk_test"));
+
+    // Then: only the stale temporary file is deleted
+    assertFalse(Files.exists(stale));
+    assertTrue(Files.exists(fresh));
+    assertTrue(cache.get(TEST_KEY).isPresent());
+  }
+
+  private List<Path> listEntries() throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths.collect(Collectors.toList());
+    }
+  }
+
+  private static ObjectKey keyOf(String key) {
+    return ObjectKey.builder().s3URI(S3URI.of("bucket", key)).etag("etag1").build();
+  }
+
+  private static ColumnMappers createColumnMappers(String... columnNames) {
+    int schemaHash = String.join("", columnNames).hashCode();
+    Map<Long, ColumnMetadata> offsetIndexToColumnMap = new HashMap<>();
+    Map<String, List<ColumnMetadata>> columnNameToColumnMap = new LinkedHashMap<>();
+    long position = 4;
+    for (int rowGroup = 0; rowGroup < 2; rowGroup++) {
+      for (String columnName : columnNames) {
+        // Only the second row group has a page index
+        ColumnMetadata columnMetadata =
+            rowGroup == 0
+                ? new ColumnMetadata(rowGroup, columnName, position, 0, position, 500, schemaHash)
+                : new ColumnMetadata(
+                    rowGroup,
+                    columnName,
+                    position,
+                    0,
+                    position,
+                    500,
+                    schemaHash,
+                    Type.INT64,
+                    new PageIndexLocation(10_000 + position, 30, 20_000 + position, 20));
+        offsetIndexToColumnMap.put(position, columnMetadata);
+        columnNameToColumnMap
+            .computeIfAbsent(columnName, name -> new ArrayList<>())
+            .add(columnMetadata);
+        position += 500;
+      }
+    }
+    return new ColumnMappers(offsetIndexToColumnMap, columnNameToColumnMap);
+  }
+}
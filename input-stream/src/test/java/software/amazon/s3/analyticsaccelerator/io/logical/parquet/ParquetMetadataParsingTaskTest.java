@@ -17,6 +17,7 @@ package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -226,6 +227,19 @@ public class ParquetMetadataParsingTaskTest {
     assertTrue(columnNameToColumnMap.containsKey("phone_numbers.list.element.number"));
   }
 
+  @Test
+  void testColumnNamesAreSharedAcrossRowGroups() throws IOException, ClassNotFoundException {
+    FileMetaData fileMetaData = getFileMetadata("src/test/resources/nested_data_mrg_metadata.ser");
+    ColumnMappers columnMappers = getColumnMappers(fileMetaData);
+
+    for (List<ColumnMetadata> columnMetadataList :
+        columnMappers.getColumnNameToColumnMap().values()) {
+      for (ColumnMetadata columnMetadata : columnMetadataList) {
+        assertSame(columnMetadataList.get(0).getColumnName(), columnMetadata.getColumnName());
+      }
+    }
+  }
+
   @Test
   void testParsingExceptionsRemappedToCompletionException() throws IOException {
     ParquetParser mockedParquetParser = mock(ParquetParser.class);
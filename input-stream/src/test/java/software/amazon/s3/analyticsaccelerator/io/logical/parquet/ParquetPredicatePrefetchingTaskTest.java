@@ -0,0 +1,302 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.parquet.format.BoundaryOrder;
+import org.apache.parquet.format.ColumnIndex;
+import org.apache.parquet.format.OffsetIndex;
+import org.apache.parquet.format.PageLocation;
+import org.apache.parquet.format.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import shaded.parquet.org.apache.thrift.TBase;
+import shaded.parquet.org.apache.thrift.TException;
+import shaded.parquet.org.apache.thrift.protocol.TCompactProtocol;
+import shaded.parquet.org.apache.thrift.transport.TIOStreamTransport;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
+import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
+import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanExecution;
+import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanState;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class ParquetPredicatePrefetchingTaskTest {
+  private static final S3URI TEST_URI = S3URI.of("foo", "bar");
+  private static final int PAGE_INDEX_OFFSET = 5000;
+
+  private byte[] file;
+  private PhysicalIO physicalIO;
+  private ColumnMappers columnMappers;
+
+  // A file with two row groups of 200 rows. The `id` column has two pages per row group, holding
+  // ids 0 to 199 in the first row group and 200 to 399 in the second one. The `name` column has a
+  // dictionary and two pages without statistics in the first row group, and no page index at all
+  // in the second one.
+  @BeforeEach
+  void setUp() throws IOException, TException {
+    ByteArrayOutputStream pageIndex = new ByteArrayOutputStream();
+    PageIndexLocation id0 =
+        writePageIndex(
+            pageIndex,
+            columnIndex(longs(0, 100), longs(99, 199)),
+            offsetIndex(new PageLocation(100, 100, 0), new PageLocation(200, 100, 100)));
+    PageIndexLocation name0 =
+        writePageIndex(
+            pageIndex,
+            null,
+            offsetIndex(new PageLocation(350, 50, 0), new PageLocation(400, 50, 100)));
+    PageIndexLocation id1 =
+        writePageIndex(
+            pageIndex,
+            columnIndex(longs(200, 300), longs(299, 399)),
+            offsetIndex(new PageLocation(1000, 100, 0), new PageLocation(1100, 100, 100)));
+
+    file = new byte[PAGE_INDEX_OFFSET + pageIndex.size()];
+    System.arraycopy(pageIndex.toByteArray(), 0, file, PAGE_INDEX_OFFSET, pageIndex.size());
+
+    List<ColumnMetadata> idColumns =
+        Arrays.asList(
+            new ColumnMetadata(0, "id", 100, 0, 100, 200, 0, Type.INT64, id0),
+            new ColumnMetadata(1, "id", 1000, 0, 1000, 200, 0, Type.INT64, id1));
+    List<ColumnMetadata> nameColumns =
+        Arrays.asList(
+            new ColumnMetadata(0, "name", 350, 300, 300, 150, 0, Type.BYTE_ARRAY, name0),
+            new ColumnMetadata(1, "name", 1200, 0, 1200, 200, 0, Type.BYTE_ARRAY, null));
+    Map<Long, ColumnMetadata> offsetIndexToColumnMap = new HashMap<>();
+    for (ColumnMetadata columnMetadata : idColumns) {
+      offsetIndexToColumnMap.put(columnMetadata.getStartPos(), columnMetadata);
+    }
+    for (ColumnMetadata columnMetadata : nameColumns) {
+      offsetIndexToColumnMap.put(columnMetadata.getStartPos(), columnMetadata);
+    }
+    Map<String, List<ColumnMetadata>> columnNameToColumnMap = new HashMap<>();
+    columnNameToColumnMap.put("id", idColumns);
+    columnNameToColumnMap.put("name", nameColumns);
+    columnMappers = new ColumnMappers(offsetIndexToColumnMap, columnNameToColumnMap);
+
+    physicalIO = mock(PhysicalIO.class);
+    when(physicalIO.readForPlanning(any(byte[].class), anyInt(), anyInt(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              byte[] buffer = invocation.getArgument(0);
+              int offset = invocation.getArgument(1);
+              int length = invocation.getArgument(2);
+              long position = invocation.getArgument(3);
+              int read = (int) Math.min(length, file.length - position);
+              System.arraycopy(file, (int) position, buffer, offset, read);
+              return read;
+            });
+    when(physicalIO.execute(any(IOPlan.class)))
+        .thenReturn(IOPlanExecution.builder().state(IOPlanState.SUBMITTED).build());
+  }
+
+  @Test
+  void testConstructor() {
+    assertNotNull(new ParquetPredicatePrefetchingTask(TEST_URI, Telemetry.NOOP, physicalIO));
+  }
+
+  @Test
+  void testConstructorFailsOnNull() {
+    assertThrows(
+        NullPointerException.class,
+        () -> new ParquetPredicatePrefetchingTask(null, Telemetry.NOOP, physicalIO));
+    assertThrows(
+        NullPointerException.class,
+        () -> new ParquetPredicatePrefetchingTask(TEST_URI, null, physicalIO));
+    assertThrows(
+        NullPointerException.class,
+        () -> new ParquetPredicatePrefetchingTask(TEST_URI, Telemetry.NOOP, null));
+    assertThrows(
+        NullPointerException.class,
+        () -> new ParquetPredicatePrefetchingTask(TEST_URI, Telemetry.NOOP, physicalIO, null));
+  }
+
+  @Test
+  void testPrefetchMatchingPages() {
+    // Given: a predicate matching the second page of `id` in the first row group only
+    ParquetPredicatePrefetchingTask task =
+        new ParquetPredicatePrefetchingTask(TEST_URI, Telemetry.NOOP, physicalIO);
+
+    // When: matching pages of `id` and `name` are prefetched
+    IOPlanExecution ioPlanExecution =
+        task.prefetchMatchingPages(
+            columnMappers,
+            Collections.singletonList(ColumnPredicate.between("id", 120, 150)),
+            Collections.singletonList("name"));
+
+    // Then: only the second pages of the first row group are prefetched, along with the
+    // dictionary of `name`, and the second row group is skipped
+    assertEquals(IOPlanState.SUBMITTED, ioPlanExecution.getState());
+    ArgumentCaptor<IOPlan> ioPlanArgumentCaptor = ArgumentCaptor.forClass(IOPlan.class);
+    verify(physicalIO, times(1)).execute(ioPlanArgumentCaptor.capture());
+    assertEquals(
+        Arrays.asList(new Range(200, 349), new Range(400, 449)),
+        ioPlanArgumentCaptor.getValue().getPrefetchRanges());
+  }
+
+  @Test
+  void testPrefetchMatchingPagesWithoutPageIndex() {
+    // Given: a predicate matching the second row group
+    ParquetPredicatePrefetchingTask task =
+        new ParquetPredicatePrefetchingTask(TEST_URI, Telemetry.NOOP, physicalIO);
+
+    // When: matching pages of `id` and `name` are prefetched
+    task.prefetchMatchingPages(
+        columnMappers,
+        Collections.singletonList(ColumnPredicate.between("id", 250, 260)),
+        Collections.singletonList("name"));
+
+    // Then: the first page of `id` is prefetched, and `name` in full, as it has no OffsetIndex
+    ArgumentCaptor<IOPlan> ioPlanArgumentCaptor = ArgumentCaptor.forClass(IOPlan.class);
+    verify(physicalIO, times(1)).execute(ioPlanArgumentCaptor.capture());
+    assertEquals(
+        Arrays.asList(new Range(1000, 1099), new Range(1200, 1399)),
+        ioPlanArgumentCaptor.getValue().getPrefetchRanges());
+  }
+
+  @Test
+  void testPrefetchMatchingPagesNothingMatches() {
+    // Given: a predicate matching no page
+    ParquetPredicatePrefetchingTask task =
+        new ParquetPredicatePrefetchingTask(TEST_URI, Telemetry.NOOP, physicalIO);
+
+    // When: matching pages are prefetched
+    task.prefetchMatchingPages(
+        columnMappers,
+        Arrays.asList(ColumnPredicate.between("id", 120, 150), ColumnPredicate.between("id", 0, 9)),
+        Collections.singletonList("name"));
+
+    // Then: nothing is prefetched, as the predicates are combined
+    verify(physicalIO, times(1)).execute(IOPlan.EMPTY_PLAN);
+  }
+
+  @Test
+  void testPrefetchMatchingPagesFailsGracefully() throws IOException {
+    // Given: a page index that can not be read
+    when(physicalIO.readForPlanning(any(byte[].class), anyInt(), anyInt(), anyLong()))
+        .thenReturn(-1);
+    ParquetPredicatePrefetchingTask task =
+        new ParquetPredicatePrefetchingTask(TEST_URI, Telemetry.NOOP, physicalIO);
+
+    // When: matching pages are prefetched
+    IOPlanExecution ioPlanExecution =
+        task.prefetchMatchingPages(
+            columnMappers,
+            Collections.singletonList(ColumnPredicate.between("id", 120, 150)),
+            Collections.emptyList());
+
+    // Then: the prefetch is skipped
+    assertEquals(IOPlanState.SKIPPED, ioPlanExecution.getState());
+    verify(physicalIO, times(0)).execute(any(IOPlan.class));
+  }
+
+  @Test
+  void testGetPages() throws IOException {
+    // Given: all column chunks of the file
+    ParquetPredicatePrefetchingTask task =
+        new ParquetPredicatePrefetchingTask(TEST_URI, Telemetry.NOOP, physicalIO);
+    List<ColumnMetadata> columnChunks = new ArrayList<>();
+    columnChunks.addAll(columnMappers.getColumnNameToColumnMap().get("id"));
+    columnChunks.addAll(columnMappers.getColumnNameToColumnMap().get("name"));
+
+    // When: their pages are requested twice
+    Map<ColumnMetadata, List<PageMetadata>> pages = task.getPages(columnChunks);
+    assertEquals(pages, task.getPages(columnChunks));
+
+    // Then: the page index is read once, in a single request, without moving the stream
+    verify(physicalIO, times(1)).readForPlanning(any(byte[].class), anyInt(), anyInt(), anyLong());
+    verify(physicalIO, never()).read(any(byte[].class), anyInt(), anyInt(), anyLong());
+    // Then: column chunks without an OffsetIndex have no pages
+    assertEquals(3, pages.size());
+    assertNull(pages.get(columnChunks.get(3)));
+    List<PageMetadata> idPages = pages.get(columnChunks.get(1));
+    assertEquals(2, idPages.size());
+    assertEquals(1100, idPages.get(1).getOffset());
+    assertEquals(100, idPages.get(1).getCompressedSize());
+    assertEquals(100, idPages.get(1).getFirstRowIndex());
+    assertEquals(399, idPages.get(1).getMaxValue().order(ByteOrder.LITTLE_ENDIAN).getLong());
+    List<PageMetadata> namePages = pages.get(columnChunks.get(2));
+    assertEquals(400, namePages.get(1).getOffset());
+    assertNull(namePages.get(1).getMinValue());
+  }
+
+  private PageIndexLocation writePageIndex(
+      ByteArrayOutputStream pageIndex, ColumnIndex columnIndex, OffsetIndex offsetIndex)
+      throws TException {
+    long columnIndexOffset = PAGE_INDEX_OFFSET + pageIndex.size();
+    int columnIndexLength = columnIndex == null ? 0 : write(columnIndex, pageIndex);
+    long offsetIndexOffset = PAGE_INDEX_OFFSET + pageIndex.size();
+    int offsetIndexLength = write(offsetIndex, pageIndex);
+    return new PageIndexLocation(
+        columnIndex == null ? 0 : columnIndexOffset,
+        columnIndexLength,
+        offsetIndexOffset,
+        offsetIndexLength);
+  }
+
+  private static int write(TBase<?, ?> struct, ByteArrayOutputStream outputStream)
+      throws TException {
+    int size = outputStream.size();
+    struct.write(new TCompactProtocol(new TIOStreamTransport(outputStream)));
+    return outputStream.size() - size;
+  }
+
+  private static ColumnIndex columnIndex(List<ByteBuffer> minValues, List<ByteBuffer> maxValues) {
+    return new ColumnIndex(
+        Arrays.asList(false, false), minValues, maxValues, BoundaryOrder.ASCENDING);
+  }
+
+  private static OffsetIndex offsetIndex(PageLocation... pageLocations) {
+    return new OffsetIndex(Arrays.asList(pageLocations));
+  }
+
+  private static List<ByteBuffer> longs(long... values) {
+    List<ByteBuffer> buffers = new ArrayList<>();
+    for (long value : values) {
+      buffers.add(ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, value));
+    }
+    return buffers;
+  }
+}
@@ -191,6 +191,68 @@ public class ParquetPredictivePrefetchingTaskTest {
     assertTrue(ioPlan.getPrefetchRanges().containsAll(expectedRanges));
   }
 
+  @Test
+  void testRowGroupLookAhead() throws IOException {
+    // Given: a file with two row groups, and look-ahead enabled
+    PhysicalIO physicalIO = mock(PhysicalIO.class);
+    ParquetColumnPrefetchStore parquetColumnPrefetchStore = mock(ParquetColumnPrefetchStore.class);
+
+    List<ColumnMetadata> columnMetadataList = new ArrayList<>();
+    HashMap<Long, ColumnMetadata> offsetIndexToColumnMap = new HashMap<>();
+    HashMap<String, List<ColumnMetadata>> columnNameToColumnMap = new HashMap<>();
+
+    ColumnMetadata sk_test =
+        new ColumnMetadata(0, "sk_test", 200, 100, 100, 500, "sk_test".hashCode());
+    offsetIndexToColumnMap.put(100L, sk_test);
+    columnMetadataList.add(sk_test);
+
+    ColumnMetadata sk_test_row_group_1 =
+        new ColumnMetadata(1, "sk_test", 900, 800, 800, 500, "sk_test".hashCode());
+    offsetIndexToColumnMap.put(800L, sk_test_row_group_1);
+    columnMetadataList.add(sk_test_row_group_1);
+
+    columnNameToColumnMap.put("sk_test", columnMetadataList);
+
+    ColumnMappers columnMappers = new ColumnMappers(offsetIndexToColumnMap, columnNameToColumnMap);
+    LogicalIOConfiguration configuration =
+        LogicalIOConfiguration.builder()
+            .prefetchingMode(PrefetchMode.ROW_GROUP)
+            .rowGroupPrefetchMaxDepth(2)
+            .build();
+    RowGroupLookAhead rowGroupLookAhead = new RowGroupLookAhead(configuration, () -> 0L);
+    ParquetPredictivePrefetchingTask parquetPredictivePrefetchingTask =
+        new ParquetPredictivePrefetchingTask(
+            TEST_URI,
+            Telemetry.NOOP,
+            configuration,
+            physicalIO,
+            parquetColumnPrefetchStore,
+            rowGroupLookAhead);
+
+    when(parquetColumnPrefetchStore.getColumnMappers(TEST_URI)).thenReturn(columnMappers);
+
+    Set<String> recentColumns = new HashSet<>();
+    recentColumns.add("sk_test");
+    when(parquetColumnPrefetchStore.getUniqueRecentColumnsForSchema("sk_test".hashCode()))
+        .thenReturn(recentColumns);
+
+    // When: the column is read in the first row group
+    assertEquals(1, parquetPredictivePrefetchingTask.addToRecentColumnList(100, 200).size());
+
+    // Then: the column is also prefetched for the next row group, within the budget
+    ArgumentCaptor<IOPlan> ioPlanArgumentCaptor = ArgumentCaptor.forClass(IOPlan.class);
+    verify(physicalIO, times(4)).execute(ioPlanArgumentCaptor.capture());
+
+    List<Range> prefetchedRanges = new ArrayList<>();
+    for (IOPlan ioPlan : ioPlanArgumentCaptor.getAllValues()) {
+      prefetchedRanges.addAll(ioPlan.getPrefetchRanges());
+    }
+    assertTrue(prefetchedRanges.contains(new Range(100, 599)));
+    assertTrue(prefetchedRanges.contains(new Range(800, 1299)));
+    verify(parquetColumnPrefetchStore).storeColumnPrefetchedRowGroupIndex(TEST_URI, 1);
+    assertEquals(500, rowGroupLookAhead.getReservedBytes());
+  }
+
   @Test
   void testRowGroupPrefetchForOnlyDictionary() throws IOException {
     PhysicalIO physicalIO = mock(PhysicalIO.class);
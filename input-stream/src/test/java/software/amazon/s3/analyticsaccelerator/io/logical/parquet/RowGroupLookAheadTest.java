@@ -0,0 +1,143 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class RowGroupLookAheadTest {
+  private static final LogicalIOConfiguration CONFIGURATION =
+      LogicalIOConfiguration.builder()
+          .rowGroupPrefetchMaxDepth(4)
+          .rowGroupPrefetchMaxBytes(1000)
+          .build();
+
+  @Test
+  void testConstructorFailsOnInvalidArguments() {
+    assertThrows(NullPointerException.class, () -> new RowGroupLookAhead(null));
+    assertThrows(NullPointerException.class, () -> new RowGroupLookAhead(CONFIGURATION, null));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new RowGroupLookAhead(
+                LogicalIOConfiguration.builder().rowGroupPrefetchMaxDepth(-1).build()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new RowGroupLookAhead(
+                LogicalIOConfiguration.builder().rowGroupPrefetchMaxBytes(-1).build()));
+  }
+
+  @Test
+  void testDisabledByDefault() {
+    RowGroupLookAhead rowGroupLookAhead = new RowGroupLookAhead(LogicalIOConfiguration.DEFAULT);
+
+    assertEquals(0, rowGroupLookAhead.recordRowGroupRead(0));
+    assertEquals(0, rowGroupLookAhead.recordRowGroupRead(1));
+  }
+
+  @Test
+  void testFirstReadOfRowGroupOnly() {
+    RowGroupLookAhead rowGroupLookAhead = new RowGroupLookAhead(CONFIGURATION, () -> 0L);
+
+    // Before any row group has been timed, only the next one is prefetched
+    assertEquals(1, rowGroupLookAhead.recordRowGroupRead(0));
+    assertEquals(0, rowGroupLookAhead.recordRowGroupRead(0));
+  }
+
+  @Test
+  void testDepthFollowsReadingSpeed() {
+    AtomicLong clock = new AtomicLong();
+    RowGroupLookAhead rowGroupLookAhead = new RowGroupLookAhead(CONFIGURATION, clock::get);
+
+    // Given: a reader spending half the horizon on each row group
+    rowGroupLookAhead.recordRowGroupRead(0);
+    clock.addAndGet(RowGroupLookAhead.LOOK_AHEAD_HORIZON_NANOS / 2);
+
+    // Then: two row groups are needed to cover the horizon
+    assertEquals(2, rowGroupLookAhead.recordRowGroupRead(1));
+
+    // When: a reader gets through row groups much faster
+    for (int rowGroup = 2; rowGroup < 20; rowGroup++) {
+      clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+      rowGroupLookAhead.recordRowGroupRead(rowGroup);
+    }
+
+    // Then: the depth is capped at the configured maximum
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+    assertEquals(4, rowGroupLookAhead.recordRowGroupRead(20));
+
+    // When: the reader becomes much slower than the horizon
+    for (int rowGroup = 21; rowGroup < 40; rowGroup++) {
+      clock.addAndGet(RowGroupLookAhead.LOOK_AHEAD_HORIZON_NANOS * 10);
+      rowGroupLookAhead.recordRowGroupRead(rowGroup);
+    }
+
+    // Then: the next row group is still prefetched
+    clock.addAndGet(RowGroupLookAhead.LOOK_AHEAD_HORIZON_NANOS * 10);
+    assertEquals(1, rowGroupLookAhead.recordRowGroupRead(40));
+  }
+
+  @Test
+  void testReservationsAreBoundedAndReleased() {
+    RowGroupLookAhead rowGroupLookAhead = new RowGroupLookAhead(CONFIGURATION, () -> 0L);
+    rowGroupLookAhead.recordRowGroupRead(0);
+
+    // Row groups the reader has reached cannot be reserved
+    assertFalse(rowGroupLookAhead.tryReserve(0, 100));
+
+    // The budget bounds the bytes ahead of the reader
+    assertTrue(rowGroupLookAhead.tryReserve(1, 600));
+    assertFalse(rowGroupLookAhead.tryReserve(2, 600));
+    assertTrue(rowGroupLookAhead.tryReserve(2, 400));
+    assertEquals(1000, rowGroupLookAhead.getReservedBytes());
+
+    // Reaching a row group releases its reservation
+    rowGroupLookAhead.recordRowGroupRead(1);
+    assertEquals(400, rowGroupLookAhead.getReservedBytes());
+    assertTrue(rowGroupLookAhead.tryReserve(3, 600));
+  }
+
+  @Test
+  void testReadingBackwardsResets() {
+    AtomicLong clock = new AtomicLong();
+    RowGroupLookAhead rowGroupLookAhead = new RowGroupLookAhead(CONFIGURATION, clock::get);
+
+    // Given: a fast sequential reader with row groups reserved ahead of it
+    rowGroupLookAhead.recordRowGroupRead(0);
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+    assertEquals(4, rowGroupLookAhead.recordRowGroupRead(1));
+    assertTrue(rowGroupLookAhead.tryReserve(2, 500));
+
+    // When: the reader goes back to an earlier row group
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+
+    // Then: the timing and the reservations are forgotten
+    assertEquals(1, rowGroupLookAhead.recordRowGroupRead(0));
+    assertEquals(0, rowGroupLookAhead.getReservedBytes());
+  }
+}
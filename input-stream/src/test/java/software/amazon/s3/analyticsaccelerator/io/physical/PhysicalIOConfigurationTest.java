@@ -72,6 +72,29 @@ public class PhysicalIOConfigurationTest {
             + "\tsequentialPrefetchBase: 2.0\n"
             + "\tsequentialPrefetchSpeed: 1.0\n"
             + "\tblockReadTimeout: 120000\n"
-            + "\tblockReadRetryCount: 20\n");
+            + "\tblockReadRetryCount: 20\n"
+            + "\tblockCacheCapacityBytes: 2147483648\n"
+            + "\tbufferPoolType: HEAP\n"
+            + "\tbufferPoolCapacityBytes: 268435456\n"
+            + "\tvectoredReadMergeGapBytes: 4096\n"
+            + "\tvectoredReadMaxMergedSizeBytes: 1048576\n"
+            + "\tadaptiveReadAheadEnabled: false\n"
+            + "\tadaptiveReadAheadMinBytes: 2097152\n"
+            + "\tadaptiveReadAheadMaxBytes: 67108864\n"
+            + "\trequestConcurrencyPerObject: 16\n"
+            + "\trequestConcurrency: 64\n"
+            + "\tmetadataStoreTtl: 60000\n"
+            + "\tmetadataStoreNegativeTtl: 5000\n"
+            + "\tmetadataStorePrefetchConcurrency: 16\n"
+            + "\toptimisticOpenEnabled: false\n"
+            + "\toptimisticOpenTailBytes: 1048576\n"
+            + "\trequestHedgingEnabled: false\n"
+            + "\trequestHedgingPercentile: 95.0\n"
+            + "\trequestHedgingMinDelay: 50\n"
+            + "\trequestHedgingBudget: 0.05\n"
+            + "\tretryBaseDelay: 10\n"
+            + "\tretryMaxDelay: 100\n"
+            + "\tretryBudget: 500\n"
+            + "\tpartSplittingMaxRangeSizeBytes: 67108864\n");
   }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.util.BufferPoolType;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class BufferPoolTest {
+
+  @Test
+  void testCreateFollowsConfiguration() {
+    assertInstanceOf(HeapBufferPool.class, BufferPool.create(PhysicalIOConfiguration.DEFAULT));
+    assertInstanceOf(
+        DirectBufferPool.class,
+        BufferPool.create(
+            PhysicalIOConfiguration.builder().bufferPoolType(BufferPoolType.DIRECT).build()));
+    assertThrows(NullPointerException.class, () -> BufferPool.create(null));
+  }
+
+  @Test
+  void testHeapBufferPool() {
+    try (BufferPool bufferPool = new HeapBufferPool()) {
+      ByteBuffer buffer = bufferPool.acquire(10);
+
+      assertFalse(buffer.isDirect());
+      assertEquals(0, buffer.position());
+      assertEquals(10, buffer.limit());
+      assertEquals(10, buffer.capacity());
+      assertThrows(IllegalArgumentException.class, () -> bufferPool.acquire(-1));
+
+      bufferPool.release(buffer);
+    }
+  }
+}
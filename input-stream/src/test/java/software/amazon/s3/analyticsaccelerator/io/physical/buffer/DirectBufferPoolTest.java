@@ -0,0 +1,126 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class DirectBufferPoolTest {
+
+  @Test
+  void testConstructorChecksCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new DirectBufferPool(-1));
+    new DirectBufferPool(0);
+  }
+
+  @Test
+  void testAcquireReturnsDirectBufferOfRequestedSize() {
+    DirectBufferPool bufferPool = new DirectBufferPool(1024 * 1024);
+
+    ByteBuffer small = bufferPool.acquire(10);
+    ByteBuffer large = bufferPool.acquire(10_000);
+
+    assertTrue(small.isDirect());
+    assertEquals(0, small.position());
+    assertEquals(10, small.limit());
+    assertEquals(0, large.position());
+    assertEquals(10_000, large.limit());
+    assertEquals(10 * 1024, large.capacity());
+    assertThrows(IllegalArgumentException.class, () -> bufferPool.acquire(-1));
+  }
+
+  @Test
+  void testReleasedBuffersAreReused() {
+    DirectBufferPool bufferPool = new DirectBufferPool(1024 * 1024);
+
+    ByteBuffer buffer = bufferPool.acquire(10_000);
+    buffer.put((byte) 1);
+    bufferPool.release(buffer);
+    assertEquals(10 * 1024, bufferPool.getPooledBytes());
+
+    // Any request from the same size class is served by the released buffer
+    ByteBuffer reused = bufferPool.acquire(9_000);
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(9_000, reused.limit());
+    assertEquals(0, bufferPool.getPooledBytes());
+
+    // Requests from a different size class are not
+    bufferPool.release(reused);
+    assertNotSame(buffer, bufferPool.acquire(20_000));
+  }
+
+  @Test
+  void testBuffersAreLessThanAQuarterLargerThanRequested() {
+    DirectBufferPool bufferPool = new DirectBufferPool(0);
+
+    // Blocks of the default sizes fit their buffers exactly
+    assertEquals(ONE_MB, bufferPool.acquire(ONE_MB).capacity());
+    assertEquals(8 * ONE_MB, bufferPool.acquire(8 * ONE_MB).capacity());
+
+    for (int size = 4 * 1024 + 1; size <= 4 * ONE_MB; size += size / 3) {
+      int capacity = bufferPool.acquire(size).capacity();
+      assertTrue(capacity >= size);
+      assertTrue(4L * (capacity - size) < size, "Buffer for " + size + " bytes is " + capacity);
+    }
+  }
+
+  @Test
+  void testPooledBytesAreBounded() {
+    DirectBufferPool bufferPool = new DirectBufferPool(8 * 1024);
+
+    bufferPool.release(bufferPool.acquire(4 * 1024));
+    bufferPool.release(bufferPool.acquire(4 * 1024));
+    bufferPool.release(bufferPool.acquire(4 * 1024));
+    assertEquals(4 * 1024, bufferPool.getPooledBytes());
+
+    ByteBuffer first = bufferPool.acquire(4 * 1024);
+    ByteBuffer second = bufferPool.acquire(4 * 1024);
+    bufferPool.release(first);
+    bufferPool.release(second);
+    bufferPool.release(bufferPool.acquire(16 * 1024));
+    assertEquals(8 * 1024, bufferPool.getPooledBytes());
+  }
+
+  @Test
+  void testForeignBuffersAreNotPooled() {
+    DirectBufferPool bufferPool = new DirectBufferPool(1024 * 1024);
+
+    bufferPool.release(ByteBuffer.allocate(4 * 1024));
+    bufferPool.release(ByteBuffer.allocateDirect(5_000));
+    assertEquals(0, bufferPool.getPooledBytes());
+    assertThrows(NullPointerException.class, () -> bufferPool.release(null));
+  }
+
+  @Test
+  void testCloseDropsPooledBuffers() {
+    DirectBufferPool bufferPool = new DirectBufferPool(1024 * 1024);
+
+    ByteBuffer buffer = bufferPool.acquire(100);
+    bufferPool.release(buffer);
+    bufferPool.close();
+
+    assertEquals(0, bufferPool.getPooledBytes());
+    assertNotSame(buffer, bufferPool.acquire(100));
+  }
+}
@@ -18,19 +18,26 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.TestTelemetry;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.request.TailRequest;
 import software.amazon.s3.analyticsaccelerator.util.FakeObjectClient;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
@@ -108,4 +115,83 @@ public class BlobStoreTest {
     assertFalse(result, "Evicting non-existing key should return false");
     assertEquals(0, blobStore.blobCount(), "Cache should remain empty");
   }
+
+  @Test
+  void testOpenWithTailSeedsMetadataAndData() throws IOException {
+    // Given: optimistic open reading the last 4 bytes of the object
+    FakeObjectClient objectClient = new FakeObjectClient(TEST_DATA);
+    PhysicalIOConfiguration configuration =
+        PhysicalIOConfiguration.builder()
+            .optimisticOpenEnabled(true)
+            .optimisticOpenTailBytes(4)
+            .build();
+    BlobStore optimisticBlobStore =
+        new BlobStore(objectClient, TestTelemetry.DEFAULT, configuration);
+    MetadataStore metadataStore =
+        new MetadataStore(objectClient, TestTelemetry.DEFAULT, configuration);
+    S3URI s3URI = S3URI.of("test", "test");
+
+    // When: the object is opened
+    Optional<ObjectMetadata> metadata =
+        optimisticBlobStore.openWithTail(s3URI, metadataStore, null);
+
+    // Then: the metadata is learnt and cached, and reading the tail makes no further requests
+    assertTrue(metadata.isPresent());
+    assertEquals(TEST_DATA.length(), metadata.get().getContentLength());
+    assertEquals(metadata.get(), metadataStore.get(s3URI));
+    int heads = objectClient.getHeadRequestCount().get();
+    int gets = objectClient.getGetRequestCount().get();
+
+    ObjectKey key = ObjectKey.builder().s3URI(s3URI).etag(metadata.get().getEtag()).build();
+    byte[] b = new byte[4];
+    optimisticBlobStore.get(key, metadata.get(), null).read(b, 0, b.length, 5);
+    assertEquals("data", new String(b, StandardCharsets.UTF_8));
+    assertEquals(heads, objectClient.getHeadRequestCount().get());
+    assertEquals(gets, objectClient.getGetRequestCount().get());
+  }
+
+  @Test
+  void testOpenWithTailIsSkippedWhenNotApplicable() {
+    // Given: an object client that must not be called
+    ObjectClient objectClient = mock(ObjectClient.class);
+    PhysicalIOConfiguration configuration =
+        PhysicalIOConfiguration.builder().optimisticOpenEnabled(true).build();
+    MetadataStore metadataStore = mock(MetadataStore.class);
+    S3URI s3URI = S3URI.of("test", "test");
+
+    // When & Then: optimistic open is disabled, the stream has audit headers, or metadata is known
+    assertFalse(
+        new BlobStore(objectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT)
+            .openWithTail(s3URI, metadataStore, null)
+            .isPresent());
+    BlobStore optimisticBlobStore =
+        new BlobStore(objectClient, TestTelemetry.DEFAULT, configuration);
+    assertFalse(
+        optimisticBlobStore
+            .openWithTail(s3URI, metadataStore, mock(StreamContext.class))
+            .isPresent());
+    when(metadataStore.contains(s3URI)).thenReturn(true);
+    assertFalse(optimisticBlobStore.openWithTail(s3URI, metadataStore, null).isPresent());
+    verify(objectClient, never()).getObjectTail(any());
+  }
+
+  @Test
+  void testOpenWithTailFallsBackOnFailure() {
+    // Given: a tail request that fails
+    ObjectClient objectClient = mock(ObjectClient.class);
+    CompletableFuture<ObjectContent> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new UncheckedIOException(new IOException("failed")));
+    when(objectClient.getObjectTail(any(TailRequest.class))).thenReturn(failed);
+    MetadataStore metadataStore = mock(MetadataStore.class);
+    BlobStore optimisticBlobStore =
+        new BlobStore(
+            objectClient,
+            TestTelemetry.DEFAULT,
+            PhysicalIOConfiguration.builder().optimisticOpenEnabled(true).build());
+
+    // When & Then: the caller is told to look the metadata up instead
+    S3URI s3URI = S3URI.of("test", "test");
+    assertFalse(optimisticBlobStore.openWithTail(s3URI, metadataStore, null).isPresent());
+    verify(metadataStore, never()).storeObjectMetadata(any(), any());
+  }
 }
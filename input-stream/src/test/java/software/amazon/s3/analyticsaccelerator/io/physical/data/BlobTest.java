@@ -22,12 +22,19 @@ import static org.mockito.Mockito.verify;
 import static software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanState.SUBMITTED;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanExecution;
@@ -119,6 +126,99 @@ public class BlobTest {
     assertEquals("st-d", new String(b2, StandardCharsets.UTF_8));
   }
 
+  @Test
+  public void testReadForPlanningDoesNotCountAsRead() throws IOException {
+    // Given: test Blob
+    ObjectMetadata metadata =
+        ObjectMetadata.builder().contentLength(TEST_DATA.length()).etag(ETAG).build();
+    BlockManager blockManager =
+        new BlockManager(
+            objectKey,
+            new FakeObjectClient(TEST_DATA),
+            metadata,
+            TestTelemetry.DEFAULT,
+            PhysicalIOConfiguration.DEFAULT);
+    Blob blob = new Blob(objectKey, metadata, blockManager, TestTelemetry.DEFAULT);
+
+    // When: a range is read for planning
+    byte[] b = new byte[4];
+    int bytesRead = blob.readForPlanning(b, 0, b.length, 5);
+
+    // Then: correct bytes are returned, and the block holding them is not marked as read
+    assertEquals(4, bytesRead);
+    assertEquals("data", new String(b, StandardCharsets.UTF_8));
+    assertFalse(blockManager.getBlock(5).get().wasAccessed());
+
+    // When: the same range is read by the stream
+    blob.read(b, 0, b.length, 5);
+
+    // Then: the block is marked as read
+    assertTrue(blockManager.getBlock(5).get().wasAccessed());
+  }
+
+  @Test
+  public void testByteBufferReadReturnsCorrectBytes() throws IOException {
+    // Given: test Blob
+    Blob blob = getTestBlob(TEST_DATA);
+
+    // When: reads into heap and direct buffers are performed, the last one past the end of the blob
+    ByteBuffer b1 = ByteBuffer.allocate(4);
+    assertEquals(4, blob.read(b1, 0));
+    ByteBuffer b2 = ByteBuffer.allocateDirect(4);
+    assertEquals(4, blob.read(b2, 5));
+    ByteBuffer b3 = ByteBuffer.allocateDirect(20);
+    assertEquals(10, blob.read(b3, 10));
+
+    // Then: correct bytes are returned and buffer positions are advanced
+    b1.flip();
+    b2.flip();
+    b3.flip();
+    assertEquals("test", StandardCharsets.UTF_8.decode(b1).toString());
+    assertEquals("data", StandardCharsets.UTF_8.decode(b2).toString());
+    assertEquals("0123456789", StandardCharsets.UTF_8.decode(b3).toString());
+    assertThrows(IllegalArgumentException.class, () -> blob.read(ByteBuffer.allocate(1), -1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> blob.read(ByteBuffer.allocate(1), TEST_DATA.length()));
+  }
+
+  @Test
+  public void testReadVectoredCoalescesNearbyRanges() throws Exception {
+    // Given: test Blob which merges ranges up to 2 bytes apart, and does not read ahead
+    PhysicalIOConfiguration configuration =
+        PhysicalIOConfiguration.builder().readAheadBytes(1).vectoredReadMergeGapBytes(2).build();
+    ObjectMetadata metadata =
+        ObjectMetadata.builder().contentLength(TEST_DATA.length()).etag(ETAG).build();
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    BlockManager blockManager =
+        new BlockManager(
+            objectKey, fakeObjectClient, metadata, TestTelemetry.DEFAULT, configuration);
+    Blob blob = new Blob(objectKey, metadata, blockManager, TestTelemetry.DEFAULT);
+
+    // When: a vectored read is issued, with ranges out of order, empty and past the end
+    ObjectRange last = new ObjectRange(15, 5);
+    ObjectRange first = new ObjectRange(0, 4);
+    ObjectRange second = new ObjectRange(5, 4);
+    ObjectRange empty = new ObjectRange(3, 0);
+    ObjectRange pastEnd = new ObjectRange(18, 5);
+    blob.readVectored(
+        Arrays.asList(last, first, second, empty, pastEnd), ByteBuffer::allocateDirect);
+
+    // Then: every range gets its data, and the first two ranges were fetched together
+    assertEquals("test", readFuture(first));
+    assertEquals("data", readFuture(second));
+    assertEquals("56789", readFuture(last));
+    assertEquals("", readFuture(empty));
+    ExecutionException exception =
+        assertThrows(ExecutionException.class, () -> readFuture(pastEnd));
+    assertInstanceOf(EOFException.class, exception.getCause());
+
+    assertEquals(2, fakeObjectClient.getGetRequestCount().get());
+    assertEquals(
+        Arrays.asList(new Range(0, 8), new Range(15, 19)),
+        new ArrayList<>(fakeObjectClient.getRequestedRanges()));
+  }
+
   @Test
   public void testBufferedReadValidatesArguments() {
     // Given: test Blob
@@ -149,8 +249,8 @@ public class BlobTest {
 
     // Then: correct ranges are submitted
     assertEquals(SUBMITTED, execution.getState());
-    verify(blockManager).makeRangeAvailable(0, 101, ReadMode.ASYNC);
-    verify(blockManager).makeRangeAvailable(999, 2, ReadMode.ASYNC);
+    verify(blockManager).makeRangeAvailable(0, 101, ReadMode.ASYNC, null);
+    verify(blockManager).makeRangeAvailable(999, 2, ReadMode.ASYNC, null);
   }
 
   @Test
@@ -166,6 +266,12 @@ public class BlobTest {
     verify(blockManager, times(1)).close();
   }
 
+  private static String readFuture(ObjectRange objectRange) throws Exception {
+    return StandardCharsets.UTF_8
+        .decode(objectRange.getByteBuffer().get(5, TimeUnit.SECONDS))
+        .toString();
+  }
+
   private Blob getTestBlob(String data) {
     ObjectMetadata mockMetadataStore =
         ObjectMetadata.builder().contentLength(data.length()).etag(ETAG).build();
@@ -0,0 +1,238 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.util.BufferPoolType;
+import software.amazon.s3.analyticsaccelerator.util.FakeObjectClient;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class BlockCacheTest {
+  private static final String TEST_DATA = "0123456789abcdefghijklmnopqrstuvwxyz";
+  private static final String ETAG = "RANDOM";
+  private static final ObjectKey objectKey =
+      ObjectKey.builder().s3URI(S3URI.of("foo", "bar")).etag(ETAG).build();
+  private static final ObjectMetadata objectMetadata =
+      ObjectMetadata.builder().contentLength(TEST_DATA.length()).etag(ETAG).build();
+
+  @Test
+  void testCreateBoundaries() {
+    assertThrows(NullPointerException.class, () -> new BlockCache(null, configuration(10)));
+    assertThrows(NullPointerException.class, () -> new BlockCache(mock(Telemetry.class), null));
+  }
+
+  @Test
+  void testAddAccountsForBlockSize() {
+    // Given: a cache with plenty of room
+    BlockCache blockCache = new BlockCache(TestTelemetry.DEFAULT, configuration(100));
+    BlockStore blockStore = new BlockStore(objectKey, objectMetadata);
+
+    // When: two blocks are added
+    addBlock(blockCache, blockStore, 0, 9);
+    addBlock(blockCache, blockStore, 10, 14);
+
+    // Then: both are accounted for
+    assertEquals(15, blockCache.getUsedBytes());
+    assertEquals(2, blockCache.blockCount());
+  }
+
+  @Test
+  void testEvictsLeastRecentlyUsedBlocks() {
+    // Given: a cache that can hold two 10 byte blocks
+    BlockCache blockCache = new BlockCache(TestTelemetry.DEFAULT, configuration(20));
+    BlockStore blockStore = new BlockStore(objectKey, objectMetadata);
+    Block first = addBlock(blockCache, blockStore, 0, 9);
+    Block second = addBlock(blockCache, blockStore, 10, 19);
+
+    // When: the first block is used, then a third block is added
+    blockCache.touch(first);
+    addBlock(blockCache, blockStore, 20, 29);
+
+    // Then: the second block is evicted from both the cache and its store
+    assertEquals(20, blockCache.getUsedBytes());
+    assertSame(first, blockStore.getBlock(5).get());
+    assertFalse(blockStore.getBlock(15).isPresent());
+    assertTrue(blockStore.getBlock(25).isPresent());
+    assertTrue(second.isDataReady());
+  }
+
+  @SneakyThrows
+  @Test
+  void testDoesNotEvictBlocksInFlight() {
+    // Given: a cache that can hold a single 10 byte block, and an object client that never returns
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any())).thenReturn(new CompletableFuture<>());
+    BlockCache blockCache = new BlockCache(TestTelemetry.DEFAULT, configuration(10));
+    BlockStore blockStore = new BlockStore(objectKey, objectMetadata);
+
+    // When: two blocks are requested
+    for (long start = 0; start < 20; start += 10) {
+      Block block =
+          new Block(
+              objectKey,
+              objectClient,
+              TestTelemetry.DEFAULT,
+              start,
+              start + 9,
+              0,
+              ReadMode.SYNC,
+              120_000,
+              1);
+      blockStore.add(block);
+      blockCache.add(block, blockStore);
+    }
+
+    // Then: neither is evicted, and the cache goes over capacity
+    assertEquals(20, blockCache.getUsedBytes());
+    assertTrue(blockStore.getBlock(5).isPresent());
+    assertTrue(blockStore.getBlock(15).isPresent());
+  }
+
+  @SneakyThrows
+  @Test
+  void testEvictsOnceBlocksInFlightComplete() {
+    // Given: a cache that can hold a single 10 byte block, over capacity with two blocks in flight
+    CompletableFuture<ObjectContent> firstResponse = new CompletableFuture<>();
+    CompletableFuture<ObjectContent> secondResponse = new CompletableFuture<>();
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any())).thenReturn(firstResponse, secondResponse);
+    BlockCache blockCache = new BlockCache(TestTelemetry.DEFAULT, configuration(10));
+    BlockStore blockStore = new BlockStore(objectKey, objectMetadata);
+    for (long start = 0; start < 20; start += 10) {
+      Block block =
+          new Block(
+              objectKey,
+              objectClient,
+              TestTelemetry.DEFAULT,
+              start,
+              start + 9,
+              0,
+              ReadMode.SYNC,
+              120_000,
+              1);
+      blockStore.add(block);
+      blockCache.add(block, blockStore);
+    }
+
+    // When: the first fetch completes
+    firstResponse.complete(ObjectContent.builder().data(ByteBuffer.allocate(10)).build());
+
+    // Then: nothing can be evicted yet, as the only other block is still in flight
+    assertEquals(20, blockCache.getUsedBytes());
+
+    // When: the second fetch completes
+    secondResponse.complete(ObjectContent.builder().data(ByteBuffer.allocate(10)).build());
+
+    // Then: the least recently used block is evicted, and the cache is back within capacity
+    assertEquals(10, blockCache.getUsedBytes());
+    assertFalse(blockStore.getBlock(5).isPresent());
+    assertTrue(blockStore.getBlock(15).isPresent());
+  }
+
+  @Test
+  void testRemoveAllForgetsBlocksOfStore() {
+    // Given: a cache with blocks from two stores
+    BlockCache blockCache = new BlockCache(TestTelemetry.DEFAULT, configuration(100));
+    BlockStore storeA = new BlockStore(objectKey, objectMetadata);
+    BlockStore storeB = new BlockStore(objectKey, objectMetadata);
+    addBlock(blockCache, storeA, 0, 9);
+    addBlock(blockCache, storeB, 0, 4);
+
+    // When: the blocks of one store are removed
+    blockCache.removeAll(storeA);
+
+    // Then: only the blocks of the other store are left
+    assertEquals(5, blockCache.getUsedBytes());
+    assertEquals(1, blockCache.blockCount());
+  }
+
+  @ParameterizedTest
+  @EnumSource(BufferPoolType.class)
+  void testBlobStoreReadsCorrectlyWhenEvicting(BufferPoolType bufferPoolType) throws IOException {
+    // Given: a BlobStore whose block cache can hold two of the 4 byte blocks of the object
+    PhysicalIOConfiguration configuration =
+        PhysicalIOConfiguration.builder()
+            .readAheadBytes(4)
+            .blockCacheCapacityBytes(8)
+            .bufferPoolType(bufferPoolType)
+            .build();
+    FakeObjectClient objectClient = new FakeObjectClient(TEST_DATA);
+    BlobStore blobStore = new BlobStore(objectClient, TestTelemetry.DEFAULT, configuration);
+    Blob blob = blobStore.get(objectKey, objectMetadata, null);
+
+    // When: the object is read backwards in 4 byte chunks, twice
+    for (int pass = 0; pass < 2; pass++) {
+      byte[] buffer = new byte[TEST_DATA.length()];
+      for (int pos = buffer.length - 4; pos >= 0; pos -= 4) {
+        blob.read(buffer, pos, 4, pos);
+        assertTrue(blobStore.blockCacheUsedBytes() <= 8);
+      }
+
+      // Then: data is correct
+      assertEquals(TEST_DATA, new String(buffer, StandardCharsets.UTF_8));
+    }
+
+    // Then: evicted blocks were fetched again on the second pass
+    assertEquals(2 * TEST_DATA.length() / 4, objectClient.getGetRequestCount().get());
+  }
+
+  @SneakyThrows
+  private static Block addBlock(
+      BlockCache blockCache, BlockStore blockStore, long start, long end) {
+    Block block =
+        new Block(
+            objectKey,
+            new FakeObjectClient(TEST_DATA),
+            TestTelemetry.DEFAULT,
+            start,
+            end,
+            0,
+            ReadMode.SYNC,
+            120_000,
+            1);
+    blockStore.add(block);
+    blockCache.add(block, blockStore);
+    return block;
+  }
+
+  private static PhysicalIOConfiguration configuration(long capacityBytes) {
+    return PhysicalIOConfiguration.builder().blockCacheCapacityBytes(capacityBytes).build();
+  }
+}
@@ -28,14 +28,27 @@ import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.*;
+import software.amazon.s3.analyticsaccelerator.util.FakeObjectClient;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
@@ -182,6 +195,82 @@ public class BlockManagerTest {
     assertEquals(1, lastRequest.getRange().getLength());
   }
 
+  @Test
+  void testSequentialReadIsNotSplitForPartSplittingClient() throws IOException {
+    // Given: a client that splits ranges into parts itself, and a block at the start of the object
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.splitsRangesIntoParts()).thenReturn(true);
+    BlockManager blockManager = getTestBlockManager(objectClient, 32 * ONE_MB);
+    blockManager.makePositionAvailable(0, ReadMode.SYNC);
+
+    // When: the read continues sequentially with a range larger than maxRangeSizeBytes
+    blockManager.makeRangeAvailable(64 * ONE_KB, 20 * ONE_MB, ReadMode.SYNC);
+
+    // Then: the range is fetched with a single request
+    ArgumentCaptor<GetRequest> requestCaptor = ArgumentCaptor.forClass(GetRequest.class);
+    verify(objectClient, times(2)).getObject(requestCaptor.capture(), any());
+    assertEquals(64 * ONE_KB, requestCaptor.getAllValues().get(1).getRange().getStart());
+    assertEquals(20 * ONE_MB, requestCaptor.getAllValues().get(1).getRange().getLength());
+  }
+
+  @Test
+  void testBodyReceivedIntoMemoryIsCopiedWithoutReadingTheStream() throws IOException {
+    // Given: a client which receives bodies into memory, and whose streams cannot be read
+    byte[] content = new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any()))
+        .thenAnswer(
+            invocation ->
+                CompletableFuture.completedFuture(
+                    ObjectContent.builder()
+                        .stream(
+                            new InputStream() {
+                              @Override
+                              public int read() throws IOException {
+                                throw new IOException("The stream should not be read");
+                              }
+                            })
+                        .data(ByteBuffer.wrap(content))
+                        .build()));
+    metadataStore = ObjectMetadata.builder().contentLength(content.length).etag(ETAG).build();
+    BlockManager blockManager =
+        new BlockManager(
+            objectKey,
+            objectClient,
+            metadataStore,
+            TestTelemetry.DEFAULT,
+            PhysicalIOConfiguration.DEFAULT);
+
+    // When: the object is fetched through the request scheduler
+    blockManager.makeRangeAvailable(0, content.length, ReadMode.SYNC);
+
+    // Then: the block holds the body that was received into memory
+    byte[] buf = new byte[content.length];
+    Block block = blockManager.getBlock(0).get();
+    assertEquals(content.length, block.read(buf, 0, buf.length, 0));
+    assertArrayEquals(content, buf);
+  }
+
+  @Test
+  void testVectoredRangesAreFetchedAsSyncReads() throws Exception {
+    // Given: a vectored read of two ranges far apart
+    ObjectClient objectClient = mock(ObjectClient.class);
+    BlockManager blockManager = getTestBlockManager(objectClient, 32 * ONE_MB);
+    List<ObjectRange> objectRanges =
+        Arrays.asList(new ObjectRange(0, 100), new ObjectRange(16 * ONE_MB, 100));
+
+    // When: the ranges are made available
+    blockManager.makeRangesAvailable(objectRanges);
+
+    // Then: the caller is waiting for them, so they are not fetched as prefetches
+    ArgumentCaptor<GetRequest> requestCaptor = ArgumentCaptor.forClass(GetRequest.class);
+    verify(objectClient, times(2)).getObject(requestCaptor.capture(), any());
+    for (GetRequest request : requestCaptor.getAllValues()) {
+      assertEquals(ReadMode.SYNC, request.getReferrer().getReadMode());
+    }
+    blockManager.whenRangesFetched(objectRanges).get(5, TimeUnit.SECONDS);
+  }
+
   @Test
   void testMakeRangeAvailableThrowsExceptionWhenEtagChanges() throws IOException {
     ObjectClient objectClient = mock(ObjectClient.class);
@@ -239,6 +328,61 @@ public class BlockManagerTest {
                             "block should have been available because it was requested before")));
   }
 
+  @Test
+  void testConcurrentMakeRangeAvailableFetchesEveryByteOnce() throws Exception {
+    // Given: a 64KB object, read 1KB at a time by 8 threads, each in a different order
+    final int objectSize = 64 * ONE_KB;
+    final int threadCount = 8;
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < objectSize; i++) {
+      content.append((char) ('a' + i % 26));
+    }
+    FakeObjectClient objectClient = new FakeObjectClient(content.toString());
+    ObjectMetadata metadata = ObjectMetadata.builder().contentLength(objectSize).etag(ETAG).build();
+    BlockManager blockManager =
+        new BlockManager(
+            objectKey,
+            objectClient,
+            metadata,
+            TestTelemetry.DEFAULT,
+            PhysicalIOConfiguration.builder().readAheadBytes(ONE_KB).build());
+
+    // When: all threads make their ranges available at the same time
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      List<Integer> chunks = new ArrayList<>();
+      for (int i = 0; i < objectSize / ONE_KB; i++) {
+        chunks.add(i);
+      }
+      Collections.rotate(chunks, t * chunks.size() / threadCount);
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int chunk : chunks) {
+                  blockManager.makeRangeAvailable((long) chunk * ONE_KB, ONE_KB, ReadMode.SYNC);
+                  Block block = blockManager.acquireBlock((long) chunk * ONE_KB).get();
+                  block.release();
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Then: every byte was fetched exactly once
+    long fetchedBytes = 0;
+    for (Range range : objectClient.getRequestedRanges()) {
+      fetchedBytes += range.getLength();
+    }
+    assertEquals(objectSize, fetchedBytes);
+  }
+
   private BlockManager getTestBlockManager(int size) throws IOException {
     return getTestBlockManager(mock(ObjectClient.class), size);
   }
@@ -16,11 +16,16 @@
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -207,8 +212,8 @@ public class BlockStoreTest {
     ObjectMetadata mockMetadataStore =
         ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(ETAG).build();
     BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore);
-    Block b1 = mock(Block.class);
-    Block b2 = mock(Block.class);
+    Block b1 = mockBlock(0, 9);
+    Block b2 = mockBlock(10, 19);
     blockStore.add(b1);
     blockStore.add(b2);
 
@@ -219,4 +224,127 @@ public class BlockStoreTest {
     // Then: 1\ blockStore.close did not throw, 2\ b2 was closed
     verify(b2, times(1)).close();
   }
+
+  @Test
+  public void test__blockStore__rejectsOverlappingBlocks() {
+    // Given: BlockStore with a (10,19) block
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(ETAG).build();
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore);
+    blockStore.add(mockBlock(10, 19));
+
+    // When & Then: adding blocks that overlap it fails, adjacent blocks are fine
+    assertThrows(IllegalArgumentException.class, () -> blockStore.add(mockBlock(5, 10)));
+    assertThrows(IllegalArgumentException.class, () -> blockStore.add(mockBlock(19, 25)));
+    assertThrows(IllegalArgumentException.class, () -> blockStore.add(mockBlock(12, 15)));
+    assertThrows(IllegalArgumentException.class, () -> blockStore.add(mockBlock(0, 50)));
+    blockStore.add(mockBlock(0, 9));
+    blockStore.add(mockBlock(20, 29));
+  }
+
+  @Test
+  public void test__blockStore__coalescesAdjacentBlocks() throws IOException {
+    // Given: BlockStore with blocks (0,9), (20,29), (10,19) added out of order, and (40,49)
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(ETAG).build();
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore);
+    Block middle = mockBlock(10, 19);
+    blockStore.add(mockBlock(0, 9));
+    blockStore.add(mockBlock(20, 29));
+    blockStore.add(middle);
+    blockStore.add(mockBlock(40, 49));
+
+    // When & Then: lookups and next missing/loaded byte see the adjacent blocks as one run
+    assertSame(middle, blockStore.getBlock(15).get());
+    assertFalse(blockStore.getBlock(30).isPresent());
+    assertEquals(OptionalLong.of(30), blockStore.findNextMissingByte(0));
+    assertEquals(OptionalLong.of(30), blockStore.findNextMissingByte(25));
+    assertEquals(OptionalLong.of(50), blockStore.findNextMissingByte(40));
+    assertEquals(OptionalLong.of(40), blockStore.findNextLoadedByte(30));
+    assertEquals(OptionalLong.empty(), blockStore.findNextLoadedByte(50));
+  }
+
+  @Test
+  public void test__blockStore__manyBlocks() throws IOException {
+    // Given: BlockStore with every other 10-byte block present
+    final int blockCount = 1000;
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(20L * blockCount).etag(ETAG).build();
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore);
+    for (int i = blockCount - 1; i >= 0; i--) {
+      blockStore.add(mockBlock(20L * i, 20L * i + 9));
+    }
+
+    // When & Then: every position resolves to the correct block or gap
+    for (int i = 0; i < blockCount; i++) {
+      long start = 20L * i;
+      assertEquals(start, blockStore.getBlock(start + 5).get().getStart());
+      assertFalse(blockStore.getBlock(start + 15).isPresent());
+      assertEquals(OptionalLong.of(start + 10), blockStore.findNextMissingByte(start));
+      assertEquals(OptionalLong.of(start + 15), blockStore.findNextMissingByte(start + 15));
+      if (i < blockCount - 1) {
+        assertEquals(OptionalLong.of(start + 20), blockStore.findNextLoadedByte(start + 15));
+      }
+    }
+  }
+
+  @Test
+  public void test__blockStore__removeSplitsCoveredRanges() throws IOException {
+    // Given: BlockStore with adjacent blocks (0,9), (10,19), (20,29)
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(ETAG).build();
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore);
+    Block middle = mockBlock(10, 19);
+    blockStore.add(mockBlock(0, 9));
+    blockStore.add(middle);
+    blockStore.add(mockBlock(20, 29));
+
+    // When: the middle block is removed
+    assertTrue(blockStore.remove(middle));
+
+    // Then: the gap it leaves behind is missing again, and removing it twice is a no-op
+    assertFalse(blockStore.getBlock(15).isPresent());
+    assertEquals(OptionalLong.of(10), blockStore.findNextMissingByte(0));
+    assertEquals(OptionalLong.of(20), blockStore.findNextLoadedByte(10));
+    assertEquals(OptionalLong.of(30), blockStore.findNextMissingByte(20));
+    assertFalse(blockStore.remove(middle));
+    assertFalse(blockStore.remove(mockBlock(0, 9)));
+  }
+
+  @Test
+  public void test__blockStore__acquireBlockRetainsBlock() throws IOException {
+    // Given: BlockStore with an open (0,9) block and a closed (10,19) block
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(ETAG).build();
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore);
+    Block open = mockBlock(0, 9);
+    Block closed = mockBlock(10, 19);
+    when(open.retain()).thenReturn(true);
+    when(closed.retain()).thenReturn(false);
+    blockStore.add(open);
+    blockStore.add(closed);
+
+    // When & Then: open blocks are retained, closed (evicted) blocks and missing blocks are empty
+    assertEquals(Optional.of(open), blockStore.acquireBlock(5));
+    verify(open, times(1)).retain();
+    assertFalse(blockStore.acquireBlock(15).isPresent());
+    assertFalse(blockStore.acquireBlock(25).isPresent());
+
+    // When & Then: once the store is closed, closed blocks fail
+    blockStore.close();
+    assertThrows(IOException.class, () -> blockStore.acquireBlock(15));
+  }
+
+  private static Block mockBlock(long start, long end) {
+    Block block = mock(Block.class);
+    when(block.getStart()).thenReturn(start);
+    when(block.getEnd()).thenReturn(end);
+    when(block.contains(anyLong()))
+        .thenAnswer(
+            invocation -> {
+              long pos = invocation.getArgument(0);
+              return start <= pos && pos <= end;
+            });
+    return block;
+  }
 }
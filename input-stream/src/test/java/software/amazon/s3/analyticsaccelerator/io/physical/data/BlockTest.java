@@ -16,16 +16,34 @@
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.buffer.BufferPool;
+import software.amazon.s3.analyticsaccelerator.io.physical.buffer.DirectBufferPool;
+import software.amazon.s3.analyticsaccelerator.io.physical.buffer.HeapBufferPool;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.retry.DefaultRetryPolicy;
+import software.amazon.s3.analyticsaccelerator.retry.RetryPolicy;
 import software.amazon.s3.analyticsaccelerator.util.FakeObjectClient;
 import software.amazon.s3.analyticsaccelerator.util.FakeStuckObjectClient;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
@@ -320,6 +338,75 @@ public class BlockTest {
     assertThrows(IOException.class, () -> block.read(4));
   }
 
+  @Test
+  void testPreconditionFailureIsNotRetried() throws IOException {
+    // Given: an object that changed since its metadata was read
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any()))
+        .thenAnswer(
+            invocation ->
+                failedFuture(
+                    new UncheckedIOException(
+                        new IOException(S3Exception.builder().statusCode(412).build()))));
+    Block block =
+        new Block(
+            objectKey,
+            objectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            100,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT);
+
+    // When: the block is read
+    assertThrows(IOException.class, () -> block.read(4));
+
+    // Then: the failure is not retried
+    verify(objectClient, times(1)).getObject(any(), any());
+  }
+
+  @Test
+  void testRetriesStopWhenBudgetIsSpent() throws IOException {
+    // Given: a retry policy with a budget for a single retry
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any()))
+        .thenAnswer(
+            invocation ->
+                failedFuture(
+                    new UncheckedIOException(
+                        new IOException(S3Exception.builder().statusCode(500).build()))));
+    RetryPolicy retryPolicy =
+        DefaultRetryPolicy.builder().baseDelayMillis(1).maxDelayMillis(1).budgetCapacity(5).build();
+    Block block =
+        new Block(
+            objectKey,
+            objectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            100,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT,
+            null,
+            new HeapBufferPool(),
+            retryPolicy);
+
+    // When: the block is read
+    assertThrows(IOException.class, () -> block.read(4));
+
+    // Then: only one retry is made, even though the retry count allows more
+    verify(objectClient, times(2)).getObject(any(), any());
+  }
+
+  private static CompletableFuture<ObjectContent> failedFuture(Throwable error) {
+    CompletableFuture<ObjectContent> future = new CompletableFuture<>();
+    future.completeExceptionally(error);
+    return future;
+  }
+
   @SneakyThrows
   @Test
   void testClose() {
@@ -339,4 +426,306 @@ public class BlockTest {
     block.close();
     block.close();
   }
+
+  @Test
+  public void testByteBufferReadReturnsCorrectBytes() throws IOException {
+    // Given: a Block containing "test-data" backed by a direct buffer
+    final String TEST_DATA = "test-data";
+    ObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    Block block =
+        new Block(
+            objectKey,
+            fakeObjectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            TEST_DATA.length() - 1,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT,
+            null,
+            mockBufferPool());
+
+    // When: bytes are requested into a heap buffer and a larger direct buffer
+    ByteBuffer b1 = ByteBuffer.allocate(4);
+    int r1 = block.read(b1, 0);
+    ByteBuffer b2 = ByteBuffer.allocateDirect(10);
+    b2.put((byte) '>');
+    int r2 = block.read(b2, 5);
+
+    // Then: they are the correct bytes, and only what the block holds is copied
+    assertEquals(4, r1);
+    b1.flip();
+    assertEquals("test", StandardCharsets.UTF_8.decode(b1).toString());
+
+    assertEquals(4, r2);
+    assertEquals(5, b2.position());
+    b2.flip();
+    assertEquals(">data", StandardCharsets.UTF_8.decode(b2).toString());
+
+    assertThrows(IllegalArgumentException.class, () -> block.read(b1, -1));
+    assertThrows(NullPointerException.class, () -> block.read(null, 0));
+  }
+
+  @SneakyThrows
+  @Test
+  void testCloseReleasesBufferToPool() {
+    final String TEST_DATA = "test-data";
+    ObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    BufferPool bufferPool = mockBufferPool();
+    Block block =
+        new Block(
+            objectKey,
+            fakeObjectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            TEST_DATA.length() - 1,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT,
+            null,
+            bufferPool);
+
+    // When: the block is read from a direct buffer and closed
+    assertEquals(116, block.read(0)); // 't' = 116
+    verify(bufferPool).acquire(TEST_DATA.length());
+    block.close();
+
+    // Then: the buffer is handed back, and the block can no longer be read
+    verify(bufferPool).release(any(ByteBuffer.class));
+    assertThrows(IOException.class, () -> block.read(0));
+  }
+
+  @SneakyThrows
+  @Test
+  void testCloseDefersReleaseWhileRetained() {
+    final String TEST_DATA = "test-data";
+    ObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    BufferPool bufferPool = mockBufferPool();
+    Block block =
+        new Block(
+            objectKey,
+            fakeObjectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            TEST_DATA.length() - 1,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT,
+            null,
+            bufferPool);
+
+    // When: the block is closed while a reader holds it
+    assertTrue(block.retain());
+    block.close();
+    assertFalse(block.retain());
+
+    // Then: the reader can still read, and the buffer is only released once the reader is done
+    byte[] buffer = new byte[4];
+    assertEquals(4, block.read(buffer, 0, 4, 5));
+    assertEquals("data", new String(buffer, StandardCharsets.UTF_8));
+    verify(bufferPool, never()).release(any(ByteBuffer.class));
+
+    block.release();
+    verify(bufferPool).release(any(ByteBuffer.class));
+  }
+
+  @SneakyThrows
+  @Test
+  void testReadCompletesBeforeWholeBlockArrives() {
+    // Given: a block whose body stalls after its first 4 bytes until the test lets it continue
+    CountDownLatch stalled = new CountDownLatch(1);
+    InputStream head = new ByteArrayInputStream("test".getBytes(StandardCharsets.UTF_8));
+    InputStream tail =
+        new InputStream() {
+          private final InputStream rest =
+              new ByteArrayInputStream("-data".getBytes(StandardCharsets.UTF_8));
+
+          @Override
+          public int read() throws IOException {
+            try {
+              stalled.await();
+            } catch (InterruptedException e) {
+              throw new IOException(e);
+            }
+            return rest.read();
+          }
+        };
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ObjectContent.builder().stream(new SequenceInputStream(head, tail)).build()));
+    Block block =
+        new Block(
+            objectKey,
+            objectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            8,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT);
+
+    // When: the first bytes are read while the rest is still in flight
+    byte[] buffer = new byte[4];
+    assertEquals(4, block.read(buffer, 0, 4, 0));
+    assertEquals(116, block.read(0)); // 't' = 116
+
+    // Then: the read was served from the filled part, and later bytes arrive once unblocked
+    assertEquals("test", new String(buffer, StandardCharsets.UTF_8));
+    assertFalse(block.isDataReady());
+    stalled.countDown();
+    assertEquals(97, block.read(8)); // 'a' = 97
+  }
+
+  @SneakyThrows
+  @Test
+  void testCloseDoesNotAbortBodyWhileRetained() {
+    // Given: a block whose body stalls after its first 4 bytes until the test lets it continue
+    CountDownLatch stalled = new CountDownLatch(1);
+    AtomicBoolean aborted = new AtomicBoolean();
+    InputStream head = new ByteArrayInputStream("test".getBytes(StandardCharsets.UTF_8));
+    InputStream tail =
+        new InputStream() {
+          private final InputStream rest =
+              new ByteArrayInputStream("-data".getBytes(StandardCharsets.UTF_8));
+
+          @Override
+          public int read() throws IOException {
+            try {
+              stalled.await();
+            } catch (InterruptedException e) {
+              throw new IOException(e);
+            }
+            return rest.read();
+          }
+
+          @Override
+          public void close() {
+            aborted.set(stalled.getCount() > 0);
+          }
+        };
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ObjectContent.builder().stream(new SequenceInputStream(head, tail)).build()));
+    Block block =
+        new Block(
+            objectKey,
+            objectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            8,
+            0,
+            ReadMode.ASYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT);
+
+    // When: the block is closed while a reader holds it and the body is still streaming
+    assertTrue(block.retain());
+    assertEquals(116, block.read(0)); // 't' = 116
+    block.close();
+
+    // Then: the body is not aborted, and the reader gets the rest of the block
+    assertFalse(aborted.get());
+    stalled.countDown();
+    assertEquals(97, block.read(8)); // 'a' = 97
+    block.release();
+  }
+
+  @Test
+  void testCloseDefersCancelingFetchWhileRetained() {
+    // Given: a block whose response never arrives
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any())).thenReturn(new CompletableFuture<>());
+    Block block =
+        new Block(
+            objectKey,
+            objectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            8,
+            0,
+            ReadMode.ASYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT);
+
+    // When: the block is closed while a reader holds it
+    assertTrue(block.retain());
+    block.close();
+
+    // Then: the fetch the reader may be waiting on is only canceled once the reader is done
+    assertFalse(block.isDataReady());
+    block.release();
+    assertTrue(block.isDataReady());
+  }
+
+  @SneakyThrows
+  @Test
+  void testFailedFetchKeepsBufferWhileRetained() {
+    // Given: a block whose body fails after its first 4 bytes, once the test lets it continue
+    CountDownLatch stalled = new CountDownLatch(1);
+    InputStream head = new ByteArrayInputStream("test".getBytes(StandardCharsets.UTF_8));
+    InputStream tail =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            try {
+              stalled.await();
+            } catch (InterruptedException e) {
+              throw new IOException(e);
+            }
+            throw new IOException("Connection reset");
+          }
+        };
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ObjectContent.builder().stream(new SequenceInputStream(head, tail)).build()));
+    DirectBufferPool bufferPool = new DirectBufferPool(ONE_MB);
+    Block block =
+        new Block(
+            objectKey,
+            objectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            8,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT,
+            null,
+            bufferPool);
+
+    // When: a reader holding the block has been served from the partially filled buffer, and the
+    // body fails afterwards
+    assertTrue(block.retain());
+    byte[] buffer = new byte[4];
+    assertEquals(4, block.read(buffer, 0, 4, 0));
+    assertEquals("test", new String(buffer, StandardCharsets.UTF_8));
+    stalled.countDown();
+    while (!block.isDataReady()) {
+      Thread.sleep(1);
+    }
+
+    // Then: the buffer is not recycled while the block is open, nor while it is retained
+    assertEquals(0, bufferPool.getPooledBytes());
+    block.close();
+    assertEquals(0, bufferPool.getPooledBytes());
+    block.release();
+    assertTrue(bufferPool.getPooledBytes() > 0);
+  }
+
+  private static BufferPool mockBufferPool() {
+    BufferPool bufferPool = mock(BufferPool.class);
+    when(bufferPool.acquire(anyInt()))
+        .thenAnswer(invocation -> ByteBuffer.allocateDirect(invocation.getArgument(0)));
+    return bufferPool;
+  }
 }
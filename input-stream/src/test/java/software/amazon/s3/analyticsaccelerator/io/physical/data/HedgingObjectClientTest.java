@@ -0,0 +1,229 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.Referrer;
+import software.amazon.s3.analyticsaccelerator.request.RequestThrottledException;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class HedgingObjectClientTest {
+  private static final GetRequest GET_REQUEST =
+      GetRequest.builder()
+          .s3Uri(S3URI.of("bucket", "key"))
+          .range(new Range(0, 99))
+          .etag("etag")
+          .referrer(new Referrer("bytes=0-99", ReadMode.SYNC))
+          .build();
+  // Enough fast requests for the client to learn a deadline
+  private static final int WARM_UP_REQUESTS = 32;
+
+  @Test
+  void testCreateBoundaries() {
+    RequestScheduler scheduler =
+        new RequestScheduler(TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new HedgingObjectClient(
+                null, scheduler, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT));
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new HedgingObjectClient(
+                mock(ObjectClient.class),
+                null,
+                TestTelemetry.DEFAULT,
+                PhysicalIOConfiguration.DEFAULT));
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new HedgingObjectClient(
+                mock(ObjectClient.class), scheduler, null, PhysicalIOConfiguration.DEFAULT));
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new HedgingObjectClient(
+                mock(ObjectClient.class), scheduler, TestTelemetry.DEFAULT, null));
+  }
+
+  @Test
+  void testRequestsAreNotHedgedBeforeLatenciesAreKnown() {
+    // Given: a client that has not seen any request yet
+    ObjectClient delegate = mock(ObjectClient.class);
+    when(delegate.getObject(any(), any())).thenReturn(new CompletableFuture<>());
+    HedgingObjectClient client = createClient(delegate, 1.0);
+
+    // When: a request gets stuck
+    CompletableFuture<ObjectContent> result = client.getObject(GET_REQUEST, null);
+
+    // Then: there is no deadline to hedge it after
+    assertEquals(-1, client.getDeadlineNanos());
+    assertFalse(result.isDone());
+    verify(delegate, times(1)).getObject(any(), any());
+  }
+
+  @Test
+  void testSlowRequestsAreHedged() throws Exception {
+    // Given: a client that has learnt a deadline from fast requests
+    ObjectClient delegate = mock(ObjectClient.class);
+    HedgingObjectClient client = createClient(delegate, 1.0);
+    warmUp(client, delegate);
+    assertTrue(client.getDeadlineNanos() >= TimeUnit.MILLISECONDS.toNanos(1));
+
+    // When: the next request gets stuck, as if its connection had gone bad
+    CompletableFuture<ObjectContent> stuck = new CompletableFuture<>();
+    ObjectContent hedged = content();
+    when(delegate.getObject(any(), any()))
+        .thenReturn(stuck, CompletableFuture.completedFuture(hedged));
+    CompletableFuture<ObjectContent> result = client.getObject(GET_REQUEST, null);
+
+    // Then: the hedge answers the request, and the body of the stuck request is closed once it
+    // arrives
+    ObjectContent winner = result.get(5, TimeUnit.SECONDS);
+    verify(delegate, times(WARM_UP_REQUESTS + 2)).getObject(any(), any());
+
+    ObjectContent loser = content();
+    stuck.complete(loser);
+    verify(loser.getStream()).close();
+    verify(hedged.getStream(), never()).close();
+
+    // When: the body of the hedge is closed once read
+    winner.getStream().close();
+
+    // Then: the body of the hedge is closed
+    verify(hedged.getStream()).close();
+  }
+
+  @Test
+  void testHedgesAreBoundedByBudget() throws Exception {
+    // Given: a client that has learnt a deadline, but may not hedge
+    ObjectClient delegate = mock(ObjectClient.class);
+    HedgingObjectClient client = createClient(delegate, 0);
+    warmUp(client, delegate);
+
+    // When: a request gets stuck
+    when(delegate.getObject(any(), any())).thenReturn(new CompletableFuture<>());
+    CompletableFuture<ObjectContent> result = client.getObject(GET_REQUEST, null);
+
+    // Then: no duplicate is issued
+    assertThrows(TimeoutException.class, () -> result.get(100, TimeUnit.MILLISECONDS));
+    verify(delegate, times(WARM_UP_REQUESTS + 1)).getObject(any(), any());
+  }
+
+  @Test
+  void testHedgesAreSuppressedWhileThePrefixIsThrottled() throws Exception {
+    // Given: a client that has learnt a deadline, and a prefix that has just been throttled
+    ObjectClient delegate = mock(ObjectClient.class);
+    RequestScheduler scheduler =
+        new RequestScheduler(TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    HedgingObjectClient client = createClient(delegate, 1.0, scheduler);
+    warmUp(client, delegate);
+
+    ObjectClient throttling = mock(ObjectClient.class);
+    CompletableFuture<ObjectContent> throttled = new CompletableFuture<>();
+    throttled.completeExceptionally(new RequestThrottledException("Slow down", null));
+    when(throttling.getObject(any(), any())).thenReturn(throttled);
+    assertThrows(
+        CompletionException.class,
+        () -> scheduler.forObject(throttling).getObject(GET_REQUEST, null).join());
+
+    // When: a request under the prefix gets stuck
+    when(delegate.getObject(any(), any())).thenReturn(new CompletableFuture<>());
+    CompletableFuture<ObjectContent> result = client.getObject(GET_REQUEST, null);
+
+    // Then: no duplicate is issued
+    assertThrows(TimeoutException.class, () -> result.get(100, TimeUnit.MILLISECONDS));
+    verify(delegate, times(WARM_UP_REQUESTS + 1)).getObject(any(), any());
+  }
+
+  @Test
+  void testRequestFailsOnceEveryAttemptFailed() throws Exception {
+    // Given: a stuck request whose hedge fails
+    ObjectClient delegate = mock(ObjectClient.class);
+    HedgingObjectClient client = createClient(delegate, 1.0);
+    warmUp(client, delegate);
+
+    CompletableFuture<ObjectContent> stuck = new CompletableFuture<>();
+    CompletableFuture<ObjectContent> failedHedge = new CompletableFuture<>();
+    failedHedge.completeExceptionally(new UncheckedIOException(new IOException("hedge")));
+    when(delegate.getObject(any(), any())).thenReturn(stuck, failedHedge);
+    CompletableFuture<ObjectContent> result = client.getObject(GET_REQUEST, null);
+    verify(delegate, timeout(5000).times(WARM_UP_REQUESTS + 2)).getObject(any(), any());
+
+    // When: only the hedge has failed, the request is still pending
+    assertFalse(result.isDone());
+
+    // Then: the request fails once the original request fails too
+    stuck.completeExceptionally(new UncheckedIOException(new IOException("original")));
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertEquals("original", exception.getCause().getCause().getMessage());
+  }
+
+  private static HedgingObjectClient createClient(ObjectClient delegate, double budget) {
+    return createClient(
+        delegate,
+        budget,
+        new RequestScheduler(TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT));
+  }
+
+  private static HedgingObjectClient createClient(
+      ObjectClient delegate, double budget, RequestScheduler scheduler) {
+    return new HedgingObjectClient(
+        delegate,
+        scheduler,
+        TestTelemetry.DEFAULT,
+        PhysicalIOConfiguration.builder()
+            .requestHedgingEnabled(true)
+            .requestHedgingMinDelay(1)
+            .requestHedgingBudget(budget)
+            .build());
+  }
+
+  private static void warmUp(HedgingObjectClient client, ObjectClient delegate) {
+    when(delegate.getObject(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(content()));
+    for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+      client.getObject(GET_REQUEST, null).join();
+    }
+  }
+
+  private static ObjectContent content() {
+    return ObjectContent.builder().stream(mock(InputStream.class)).build();
+  }
+}
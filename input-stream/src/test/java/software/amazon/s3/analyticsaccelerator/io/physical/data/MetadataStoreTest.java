@@ -15,7 +15,9 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -24,9 +26,16 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.TestTelemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
@@ -111,4 +120,210 @@ public class MetadataStoreTest {
     result = metadataStore.evictKey(key);
     assertFalse(result, "Evicting existing key should return false");
   }
+
+  @Test
+  void testStaleMetadataIsServedWhileRevalidated() throws IOException {
+    // Given: a MetadataStore with a TTL of 1 second, holding metadata fetched at time 0
+    AtomicLong clock = new AtomicLong();
+    ObjectClient objectClient = mock(ObjectClient.class);
+    ObjectMetadata stale = ObjectMetadata.builder().etag("stale").build();
+    ObjectMetadata fresh = ObjectMetadata.builder().etag("fresh").build();
+    CompletableFuture<ObjectMetadata> revalidation = new CompletableFuture<>();
+    when(objectClient.headObject(any()))
+        .thenReturn(CompletableFuture.completedFuture(stale))
+        .thenReturn(revalidation);
+    MetadataStore metadataStore =
+        getTestMetadataStore(objectClient, clock, PhysicalIOConfiguration.builder());
+    S3URI key = S3URI.of("foo", "bar");
+    metadataStore.get(key);
+
+    // When: the metadata is looked up twice after it went stale
+    clock.set(TimeUnit.SECONDS.toNanos(2));
+    ObjectMetadata first = metadataStore.get(key);
+    ObjectMetadata second = metadataStore.get(key);
+
+    // Then: the stale metadata is served, while a single request revalidates it
+    assertEquals(stale, first);
+    assertEquals(stale, second);
+    verify(objectClient, times(2)).headObject(any());
+
+    // When: the revalidation completes
+    revalidation.complete(fresh);
+
+    // Then: the fresh metadata is served
+    assertEquals(fresh, metadataStore.get(key));
+    verify(objectClient, times(2)).headObject(any());
+  }
+
+  @Test
+  void testMissingObjectsAreRememberedBriefly() {
+    // Given: a MetadataStore remembering missing objects for 1 second, and a missing object
+    AtomicLong clock = new AtomicLong();
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.headObject(any()))
+        .thenAnswer(
+            invocation ->
+                failedFuture(new UncheckedIOException(new FileNotFoundException("Not found"))));
+    MetadataStore metadataStore =
+        getTestMetadataStore(objectClient, clock, PhysicalIOConfiguration.builder());
+    S3URI key = S3URI.of("foo", "bar");
+
+    // When: the object is looked up twice within a second
+    assertThrows(FileNotFoundException.class, () -> metadataStore.get(key));
+    assertThrows(FileNotFoundException.class, () -> metadataStore.get(key));
+
+    // Then: the object store was asked once
+    verify(objectClient, times(1)).headObject(any());
+
+    // When: the object is looked up again after a second
+    clock.set(TimeUnit.SECONDS.toNanos(2));
+    assertThrows(FileNotFoundException.class, () -> metadataStore.get(key));
+
+    // Then: the object store was asked again
+    verify(objectClient, times(2)).headObject(any());
+  }
+
+  @Test
+  void testFailedRequestsAreNotCached() {
+    // Given: a MetadataStore whose requests fail
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.headObject(any()))
+        .thenAnswer(invocation -> failedFuture(new IllegalStateException("Connection reset")));
+    MetadataStore metadataStore =
+        getTestMetadataStore(objectClient, new AtomicLong(), PhysicalIOConfiguration.builder());
+    S3URI key = S3URI.of("foo", "bar");
+
+    // When: the object is looked up twice
+    assertThrows(IOException.class, () -> metadataStore.get(key));
+    assertThrows(IOException.class, () -> metadataStore.get(key));
+
+    // Then: each lookup asked the object store
+    verify(objectClient, times(2)).headObject(any());
+  }
+
+  @Test
+  void testLeastRecentlyUsedEntriesAreEvicted() throws IOException {
+    // Given: a MetadataStore holding 2 entries, with the first of them used most recently
+    AtomicLong clock = new AtomicLong();
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.headObject(any()))
+        .thenAnswer(
+            invocation ->
+                CompletableFuture.completedFuture(ObjectMetadata.builder().etag("etag").build()));
+    MetadataStore metadataStore =
+        getTestMetadataStore(
+            objectClient, clock, PhysicalIOConfiguration.builder().metadataStoreCapacity(2));
+    S3URI first = S3URI.of("foo", "first");
+    S3URI second = S3URI.of("foo", "second");
+    metadataStore.get(first);
+    clock.incrementAndGet();
+    metadataStore.get(second);
+    clock.incrementAndGet();
+    metadataStore.get(first);
+    clock.incrementAndGet();
+
+    // When: a third entry is added
+    metadataStore.get(S3URI.of("foo", "third"));
+
+    // Then: the second entry was evicted, and the first was kept
+    assertTrue(metadataStore.evictKey(first));
+    assertFalse(metadataStore.evictKey(second));
+  }
+
+  @Test
+  void testPrefetchBoundsRequestsInFlight() {
+    // Given: a MetadataStore allowing 2 HEAD requests in flight for a prefetch, with one cached key
+    List<CompletableFuture<ObjectMetadata>> requests = new ArrayList<>();
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.headObject(any()))
+        .thenAnswer(
+            invocation -> {
+              CompletableFuture<ObjectMetadata> request = new CompletableFuture<>();
+              requests.add(request);
+              return request;
+            });
+    MetadataStore metadataStore =
+        getTestMetadataStore(
+            objectClient,
+            new AtomicLong(),
+            PhysicalIOConfiguration.builder().metadataStorePrefetchConcurrency(2));
+    S3URI cached = S3URI.of("foo", "cached");
+    metadataStore.storeObjectMetadata(cached, ObjectMetadata.builder().etag("etag").build());
+
+    // When: 4 keys are prefetched, including the cached one
+    CompletableFuture<Void> prefetch =
+        metadataStore.prefetch(
+            Arrays.asList(
+                S3URI.of("foo", "a"), cached, S3URI.of("foo", "b"), S3URI.of("foo", "c")));
+
+    // Then: 2 requests are in flight, and each completed request makes room for the next one
+    assertEquals(2, requests.size());
+    requests.get(0).complete(ObjectMetadata.builder().etag("etag").build());
+    assertEquals(3, requests.size());
+    requests.get(1).completeExceptionally(new IllegalStateException("Connection reset"));
+    assertFalse(prefetch.isDone());
+    requests.get(2).complete(ObjectMetadata.builder().etag("etag").build());
+    assertEquals(3, requests.size());
+    assertTrue(prefetch.isDone());
+    assertTrue(metadataStore.prefetch(new ArrayList<>()).isDone());
+  }
+
+  @Test
+  void testPinnedEntriesAreExemptFromCapacityAndTtl() throws IOException {
+    // Given: a MetadataStore holding 2 entries, with metadata pinned for 4 objects
+    AtomicLong clock = new AtomicLong();
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.headObject(any()))
+        .thenAnswer(
+            invocation ->
+                CompletableFuture.completedFuture(ObjectMetadata.builder().etag("etag").build()));
+    MetadataStore metadataStore =
+        getTestMetadataStore(
+            objectClient, clock, PhysicalIOConfiguration.builder().metadataStoreCapacity(2));
+    List<S3URI> keys = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      keys.add(S3URI.of("foo", "key" + i));
+    }
+    metadataStore.pinObjectMetadata(keys.get(0), ObjectMetadata.builder().etag("etag").build());
+    metadataStore.prefetch(keys.subList(1, keys.size())).join();
+
+    // When: the objects are looked up after the TTL, with other objects added in the meantime
+    metadataStore.get(S3URI.of("foo", "other1"));
+    metadataStore.get(S3URI.of("foo", "other2"));
+    metadataStore.get(S3URI.of("foo", "other3"));
+    clock.set(TimeUnit.SECONDS.toNanos(2));
+    for (S3URI key : keys) {
+      assertTrue(metadataStore.contains(key));
+      metadataStore.get(key);
+    }
+
+    // Then: no pinned entry was evicted nor revalidated
+    verify(objectClient, times(6)).headObject(any());
+
+    // When: an object is unpinned, and looked up again after the TTL
+    metadataStore.unpin(keys.get(0));
+    metadataStore.get(keys.get(0));
+    clock.set(TimeUnit.SECONDS.toNanos(4));
+    metadataStore.get(keys.get(0));
+
+    // Then: its entry is regular again, and goes stale
+    verify(objectClient, times(7)).headObject(any());
+  }
+
+  private static MetadataStore getTestMetadataStore(
+      ObjectClient objectClient,
+      AtomicLong clock,
+      PhysicalIOConfiguration.PhysicalIOConfigurationBuilder configuration) {
+    return new MetadataStore(
+        objectClient,
+        TestTelemetry.DEFAULT,
+        configuration.metadataStoreTtl(1000).metadataStoreNegativeTtl(1000).build(),
+        clock::get);
+  }
+
+  private static CompletableFuture<ObjectMetadata> failedFuture(Throwable error) {
+    CompletableFuture<ObjectMetadata> future = new CompletableFuture<>();
+    future.completeExceptionally(error);
+    return future;
+  }
 }
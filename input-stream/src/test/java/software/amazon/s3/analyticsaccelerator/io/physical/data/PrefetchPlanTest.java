@@ -0,0 +1,175 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class PrefetchPlanTest {
+  private static final String ETAG = "RandomString";
+  private static final ObjectKey objectKey =
+      ObjectKey.builder().s3URI(S3URI.of("foo", "bar")).etag(ETAG).build();
+
+  @Test
+  void testCreateBoundaries() {
+    assertThrows(NullPointerException.class, () -> new PrefetchPlan(null, block -> true));
+    assertThrows(NullPointerException.class, () -> new PrefetchPlan(TestTelemetry.DEFAULT, null));
+  }
+
+  @Test
+  void testMovingPastPrefetchedBlocksRetiresThem() throws IOException {
+    // Given: a plan which prefetched three blocks that are still in flight, the first of which was
+    // read
+    BlockManager blockManager = getTestBlockManager();
+    PrefetchPlan prefetchPlan = blockManager.createPrefetchPlan();
+    blockManager.makeRangeAvailable(0, 100, ReadMode.ASYNC, prefetchPlan);
+    blockManager.makeRangeAvailable(200, 100, ReadMode.ASYNC, prefetchPlan);
+    blockManager.makeRangeAvailable(400, 100, ReadMode.ASYNC, prefetchPlan);
+    prefetchPlan.cancelBefore(50);
+    blockManager.acquireBlock(50).get().release();
+
+    // When: the reader skips ahead into the last block
+    prefetchPlan.cancelBefore(450);
+
+    // Then: the skipped block is canceled and dropped, the read block is kept
+    assertEquals(300, prefetchPlan.getPrefetchedBytes());
+    assertEquals(100, prefetchPlan.getUsedBytes());
+    assertEquals(100, prefetchPlan.getWastedBytes());
+    assertEquals(100, prefetchPlan.getCanceledBytes());
+    assertTrue(blockManager.getBlock(50).isPresent());
+    assertFalse(blockManager.getBlock(250).isPresent());
+    assertTrue(blockManager.getBlock(450).isPresent());
+    assertTrue(prefetchPlan.hasPendingBlocks());
+  }
+
+  @Test
+  void testReadingALaterBlockFirstKeepsEarlierBlocks() throws IOException {
+    // Given: a plan which prefetched two columns that are still in flight
+    BlockManager blockManager = getTestBlockManager();
+    PrefetchPlan prefetchPlan = blockManager.createPrefetchPlan();
+    blockManager.makeRangeAvailable(0, 100, ReadMode.ASYNC, prefetchPlan);
+    blockManager.makeRangeAvailable(200, 100, ReadMode.ASYNC, prefetchPlan);
+
+    // When: the reader reads the second column before the first one
+    prefetchPlan.cancelBefore(250);
+    blockManager.acquireBlock(250).get().release();
+    prefetchPlan.cancelBefore(299);
+
+    // Then: the first column is still being fetched
+    assertEquals(0, prefetchPlan.getWastedBytes());
+    assertTrue(blockManager.getBlock(50).isPresent());
+
+    // When: the reader reads the first column, then moves past both
+    prefetchPlan.cancelBefore(0);
+    blockManager.acquireBlock(50).get().release();
+    prefetchPlan.cancelBefore(450);
+
+    // Then: both blocks are retired as used
+    assertEquals(200, prefetchPlan.getUsedBytes());
+    assertEquals(0, prefetchPlan.getWastedBytes());
+    assertFalse(prefetchPlan.hasPendingBlocks());
+  }
+
+  @Test
+  void testReadsOutsideThePlanDoNotRetireBlocks() throws IOException {
+    // Given: a plan which prefetched a block in the middle of the object
+    BlockManager blockManager = getTestBlockManager();
+    PrefetchPlan prefetchPlan = blockManager.createPrefetchPlan();
+    blockManager.makeRangeAvailable(200, 100, ReadMode.ASYNC, prefetchPlan);
+
+    // When: the reader reads before and after the span of the plan
+    prefetchPlan.cancelBefore(100);
+    prefetchPlan.cancelBefore(900);
+
+    // Then: the block is left alone
+    assertEquals(0, prefetchPlan.getWastedBytes());
+    assertTrue(blockManager.getBlock(250).isPresent());
+  }
+
+  @Test
+  void testCancelRetiresAllBlocks() throws IOException {
+    // Given: a plan with two blocks in flight
+    BlockManager blockManager = getTestBlockManager();
+    PrefetchPlan prefetchPlan = blockManager.createPrefetchPlan();
+    blockManager.makeRangeAvailable(0, 100, ReadMode.ASYNC, prefetchPlan);
+    blockManager.makeRangeAvailable(200, 100, ReadMode.ASYNC, prefetchPlan);
+
+    // When: the plan is canceled, twice
+    prefetchPlan.cancel();
+    prefetchPlan.cancel();
+
+    // Then: both blocks are counted once as wasted, and dropped
+    assertFalse(prefetchPlan.hasPendingBlocks());
+    assertEquals(200, prefetchPlan.getWastedBytes());
+    assertEquals(200, prefetchPlan.getCanceledBytes());
+    assertFalse(blockManager.getBlock(50).isPresent());
+    assertFalse(blockManager.getBlock(250).isPresent());
+  }
+
+  @Test
+  void testCancelKeepsBlocksHeldByAnotherStream() throws IOException {
+    // Given: two streams sharing a blob, one of which prefetched a block that is still in flight,
+    // and the other holding that block, about to wait on it
+    BlockManager blockManager = getTestBlockManager();
+    PrefetchPlan prefetchPlan = blockManager.createPrefetchPlan();
+    blockManager.makeRangeAvailable(200, 100, ReadMode.ASYNC, prefetchPlan);
+    Block block = blockManager.getBlock(250).get();
+    assertTrue(block.retain());
+
+    // When: the stream that prefetched the block cancels its plan
+    prefetchPlan.cancel();
+
+    // Then: the plan drops its claim, but the fetch the other stream waits on is left running
+    assertFalse(prefetchPlan.hasPendingBlocks());
+    assertEquals(100, prefetchPlan.getWastedBytes());
+    assertEquals(0, prefetchPlan.getCanceledBytes());
+    assertFalse(block.isDataReady());
+    assertTrue(blockManager.getBlock(250).isPresent());
+    block.release();
+  }
+
+  private static BlockManager getTestBlockManager() {
+    // Responses never arrive, so that blocks stay in flight
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(GetRequest.class), any()))
+        .thenAnswer(invocation -> new CompletableFuture<>());
+    ObjectMetadata metadata = ObjectMetadata.builder().contentLength(1000).etag(ETAG).build();
+    return new BlockManager(
+        objectKey,
+        objectClient,
+        metadata,
+        TestTelemetry.DEFAULT,
+        PhysicalIOConfiguration.builder().readAheadBytes(1).build());
+  }
+}
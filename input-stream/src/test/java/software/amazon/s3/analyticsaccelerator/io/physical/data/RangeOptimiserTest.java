@@ -18,9 +18,12 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.common.ObjectRange;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 
@@ -59,4 +62,68 @@ public class RangeOptimiserTest {
     expected.add(new Range(8 * ONE_MB, 16 * ONE_MB - 1));
     assertEquals(expected, splitRanges);
   }
+
+  @Test
+  public void test__splitRanges__partSplittingClientGetsBigRanges() {
+    // Given: a 160MB range
+    RangeOptimiser rangeOptimiser = new RangeOptimiser(PhysicalIOConfiguration.DEFAULT);
+    List<Range> ranges = new LinkedList<>();
+    ranges.add(new Range(0, 160 * ONE_MB - 1));
+
+    // When: splitRanges is called for a client that splits ranges into parts itself
+    List<Range> splitRanges = rangeOptimiser.splitRanges(ranges, true);
+
+    // Then: the range is only split at the part splitting limit of 64MB
+    List<Range> expected = new LinkedList<>();
+    expected.add(new Range(0, 64 * ONE_MB - 1));
+    expected.add(new Range(64 * ONE_MB, 128 * ONE_MB - 1));
+    expected.add(new Range(128 * ONE_MB, 160 * ONE_MB - 1));
+    assertEquals(expected, splitRanges);
+    assertEquals(20, rangeOptimiser.splitRanges(ranges, false).size());
+  }
+
+  @Test
+  public void test__coalesceRanges__mergesNearbyRanges() {
+    // Given: ranges out of order, with gaps of 0, 10, 11 and an overlap
+    RangeOptimiser rangeOptimiser =
+        new RangeOptimiser(
+            PhysicalIOConfiguration.builder()
+                .vectoredReadMergeGapBytes(10)
+                .vectoredReadMaxMergedSizeBytes(1000)
+                .build());
+    ObjectRange a = new ObjectRange(0, 100);
+    ObjectRange b = new ObjectRange(100, 50);
+    ObjectRange c = new ObjectRange(160, 10);
+    ObjectRange d = new ObjectRange(181, 10);
+    ObjectRange e = new ObjectRange(185, 2);
+
+    // When: coalesceRanges is called
+    List<List<ObjectRange>> groups = rangeOptimiser.coalesceRanges(Arrays.asList(d, b, e, a, c));
+
+    // Then: ranges up to 10 bytes apart end up in the same group
+    assertEquals(Arrays.asList(Arrays.asList(a, b, c), Arrays.asList(d, e)), groups);
+  }
+
+  @Test
+  public void test__coalesceRanges__respectsMaxMergedSize() {
+    // Given: adjacent ranges which together exceed the max merged size
+    RangeOptimiser rangeOptimiser =
+        new RangeOptimiser(
+            PhysicalIOConfiguration.builder()
+                .vectoredReadMergeGapBytes(10)
+                .vectoredReadMaxMergedSizeBytes(200)
+                .build());
+    ObjectRange a = new ObjectRange(0, 100);
+    ObjectRange b = new ObjectRange(100, 100);
+    ObjectRange c = new ObjectRange(200, 1);
+    ObjectRange d = new ObjectRange(201, 500);
+
+    // When: coalesceRanges is called
+    List<List<ObjectRange>> groups = rangeOptimiser.coalesceRanges(Arrays.asList(a, b, c, d));
+
+    // Then: groups are cut at the max merged size, and big ranges stay on their own
+    assertEquals(
+        Arrays.asList(Arrays.asList(a, b), Arrays.asList(c), Arrays.asList(d)), groups);
+    assertEquals(Collections.emptyList(), rangeOptimiser.coalesceRanges(Collections.emptyList()));
+  }
 }
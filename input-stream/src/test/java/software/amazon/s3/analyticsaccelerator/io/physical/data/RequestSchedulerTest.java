@@ -0,0 +1,619 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.S3SdkObjectClient;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.Referrer;
+import software.amazon.s3.analyticsaccelerator.request.RequestThrottledException;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.util.FakeThrottlingS3AsyncClient;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class RequestSchedulerTest {
+  private static final S3URI TEST_URI = S3URI.of("foo", "bar");
+
+  @Test
+  void testCreateBoundaries() {
+    assertThrows(
+        NullPointerException.class,
+        () -> new RequestScheduler(null, PhysicalIOConfiguration.DEFAULT));
+    assertThrows(
+        NullPointerException.class, () -> new RequestScheduler(mock(Telemetry.class), null));
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new RequestScheduler(TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT)
+                .forObject(null));
+  }
+
+  @Test
+  void testRequestsAreIssuedInOrderWithinLimits() throws IOException {
+    // Given: a scheduler allowing 2 requests per object and 3 overall, and two objects
+    RequestScheduler scheduler = scheduler(2, 3);
+    StubObjectClient first = new StubObjectClient();
+    StubObjectClient second = new StubObjectClient();
+    ObjectClient firstRequests = scheduler.forObject(first);
+    ObjectClient secondRequests = scheduler.forObject(second);
+
+    // When: 4 requests for the first object are queued, then 2 for the second
+    List<CompletableFuture<ObjectContent>> firstResults = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      firstResults.add(firstRequests.getObject(request(i, ReadMode.SYNC)));
+    }
+    secondRequests.getObject(request(0, ReadMode.SYNC));
+    secondRequests.getObject(request(1, ReadMode.SYNC));
+
+    // Then: the head of each object is issued, up to the limits
+    assertEquals(Arrays.asList(new Range(0, 0), new Range(1, 1)), first.requestedRanges());
+    assertEquals(Arrays.asList(new Range(0, 0)), second.requestedRanges());
+    assertEquals(3, scheduler.getRequestsInFlight());
+    assertEquals(3, scheduler.getQueuedRequests());
+
+    // When: the body of the first request is read and closed
+    first.respond(0);
+    firstResults.get(0).join().getStream().close();
+
+    // Then: the next request of the first object takes its slot
+    assertEquals(
+        Arrays.asList(new Range(0, 0), new Range(1, 1), new Range(2, 2)),
+        first.requestedRanges());
+    assertEquals(1, second.requestedRanges().size());
+    assertEquals(3, scheduler.getRequestsInFlight());
+  }
+
+  @Test
+  void testObjectsTakeTurns() throws IOException {
+    // Given: a scheduler allowing 2 requests overall, busy with the first of two objects
+    RequestScheduler scheduler = scheduler(16, 2);
+    StubObjectClient first = new StubObjectClient();
+    StubObjectClient second = new StubObjectClient();
+    ObjectClient firstRequests = scheduler.forObject(first);
+    ObjectClient secondRequests = scheduler.forObject(second);
+    List<CompletableFuture<ObjectContent>> firstResults = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      firstResults.add(firstRequests.getObject(request(i, ReadMode.SYNC)));
+    }
+    CompletableFuture<ObjectContent> secondResult =
+        secondRequests.getObject(request(0, ReadMode.SYNC));
+    secondRequests.getObject(request(1, ReadMode.SYNC));
+
+    // When & Then: as requests complete, the objects alternate, rather than the first object
+    // being drained before the second gets a slot
+    finish(first, firstResults, 0);
+    assertEquals(3, first.requestedRanges().size());
+    assertEquals(0, second.requestedRanges().size());
+
+    finish(first, firstResults, 1);
+    assertEquals(3, first.requestedRanges().size());
+    assertEquals(1, second.requestedRanges().size());
+
+    finish(first, firstResults, 2);
+    assertEquals(4, first.requestedRanges().size());
+    assertEquals(1, second.requestedRanges().size());
+
+    second.respond(0);
+    secondResult.join().getStream().close();
+    assertEquals(2, second.requestedRanges().size());
+    assertEquals(0, scheduler.getQueuedRequests());
+  }
+
+  @Test
+  void testSyncRequestsPreemptQueuedPrefetches() throws IOException {
+    // Given: a scheduler allowing 4 requests overall, of which prefetches may take 3
+    RequestScheduler scheduler = scheduler(16, 4);
+    StubObjectClient first = new StubObjectClient();
+    StubObjectClient second = new StubObjectClient();
+    ObjectClient firstRequests = scheduler.forObject(first);
+    ObjectClient secondRequests = scheduler.forObject(second);
+
+    // When: 5 prefetches are queued
+    List<CompletableFuture<ObjectContent>> prefetches = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      prefetches.add(firstRequests.getObject(request(i, ReadMode.ASYNC)));
+    }
+
+    // Then: a slot is left for synchronous reads, which is taken right away
+    assertEquals(3, first.requestedRanges().size());
+    secondRequests.getObject(request(0, ReadMode.SYNC));
+    assertEquals(1, second.requestedRanges().size());
+    assertEquals(4, scheduler.getRequestsInFlight());
+
+    // When: a synchronous read is queued behind the prefetches, and a prefetch completes
+    firstRequests.getObject(request(100, ReadMode.SYNC));
+    first.respond(0);
+    prefetches.get(0).join().getStream().close();
+
+    // Then: the synchronous read is issued before the queued prefetches
+    assertEquals(new Range(100, 100), first.requestedRanges().get(3));
+    assertEquals(2, scheduler.getQueuedRequests());
+  }
+
+  @Test
+  void testSyncRequestsAbortPrefetchesInFlight() throws IOException {
+    // Given: a scheduler allowing 4 requests overall, filled with 3 prefetches and a read, where
+    // the body of the second prefetch has arrived
+    RequestScheduler scheduler = scheduler(16, 4);
+    StubObjectClient first = new StubObjectClient();
+    StubObjectClient second = new StubObjectClient();
+    ObjectClient firstRequests = scheduler.forObject(first);
+    ObjectClient secondRequests = scheduler.forObject(second);
+    List<CompletableFuture<ObjectContent>> prefetches = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      prefetches.add(firstRequests.getObject(request(i, ReadMode.ASYNC)));
+    }
+    secondRequests.getObject(request(0, ReadMode.SYNC));
+    InputStream body = mock(InputStream.class);
+    first.futures.get(1).complete(ObjectContent.builder().stream(body).build());
+
+    // When: another read is queued
+    secondRequests.getObject(request(1, ReadMode.SYNC));
+
+    // Then: the last prefetch is canceled, and its slot is taken by the read once its response
+    // arrives
+    assertTrue(prefetches.get(2).isCancelled());
+    assertFalse(prefetches.get(1).isCancelled());
+    assertEquals(1, second.requestedRanges().size());
+    first.respond(2);
+    assertEquals(2, second.requestedRanges().size());
+
+    // When: yet another read is queued
+    secondRequests.getObject(request(2, ReadMode.SYNC));
+
+    // Then: the first prefetch, still waiting for its response, is canceled rather than the second
+    // one, whose body may already be read
+    assertTrue(prefetches.get(0).isCancelled());
+    assertFalse(prefetches.get(1).isCancelled());
+    verify(body, never()).close();
+    assertEquals(2, second.requestedRanges().size());
+
+    // When: the response of the first prefetch arrives
+    first.respond(0);
+
+    // Then: its body is closed, which frees its slot for the read
+    assertEquals(3, second.requestedRanges().size());
+    assertEquals(4, scheduler.getRequestsInFlight());
+    assertEquals(0, scheduler.getQueuedRequests());
+  }
+
+  @Test
+  void testPromotedPrefetchesAreIssuedAheadOfQueuedPrefetches() throws IOException {
+    // Given: a scheduler allowing 4 requests overall, filled with 3 prefetches whose bodies are
+    // streaming and a read, with two more prefetches queued
+    RequestScheduler scheduler = scheduler(16, 4);
+    StubObjectClient first = new StubObjectClient();
+    StubObjectClient second = new StubObjectClient();
+    ObjectClient firstRequests = scheduler.forObject(first);
+    ObjectClient secondRequests = scheduler.forObject(second);
+    List<CompletableFuture<ObjectContent>> prefetches = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      prefetches.add(firstRequests.getObject(request(i, ReadMode.ASYNC)));
+    }
+    for (int i = 0; i < 3; i++) {
+      first.respond(i);
+    }
+    secondRequests.getObject(request(0, ReadMode.SYNC));
+
+    // When: a reader starts waiting on the last queued prefetch, and a slot frees up
+    RequestScheduler.promote(prefetches.get(4));
+    prefetches.get(0).join().getStream().close();
+
+    // Then: the promoted request is issued ahead of the prefetch queued before it
+    assertEquals(new Range(4, 4), first.requestedRanges().get(3));
+    assertEquals(1, scheduler.getQueuedRequests());
+  }
+
+  @Test
+  void testPromotedPrefetchesInFlightAreNotAborted() throws IOException {
+    // Given: a scheduler allowing 4 requests overall, filled with 3 prefetches and a read
+    RequestScheduler scheduler = scheduler(16, 4);
+    StubObjectClient first = new StubObjectClient();
+    StubObjectClient second = new StubObjectClient();
+    ObjectClient firstRequests = scheduler.forObject(first);
+    ObjectClient secondRequests = scheduler.forObject(second);
+    List<CompletableFuture<ObjectContent>> prefetches = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      prefetches.add(firstRequests.getObject(request(i, ReadMode.ASYNC)));
+    }
+    secondRequests.getObject(request(0, ReadMode.SYNC));
+
+    // When: a reader starts waiting on the last prefetch, and another read is queued
+    RequestScheduler.promote(prefetches.get(2));
+    secondRequests.getObject(request(1, ReadMode.SYNC));
+
+    // Then: an earlier prefetch is aborted to make room for the read instead
+    assertFalse(prefetches.get(2).isCancelled());
+    assertTrue(prefetches.get(1).isCancelled());
+  }
+
+  @Test
+  void testBlockLatencyExcludesTimeSpentQueued() throws IOException, InterruptedException {
+    // Given: a scheduler allowing 1 request per object, busy with the request of a first block,
+    // and a second block whose request is queued
+    RequestScheduler scheduler = scheduler(1, 64);
+    StubObjectClient objectClient = new StubObjectClient();
+    ObjectClient requests = scheduler.forObject(objectClient);
+    Block first = block(requests, 0);
+    Block second = block(requests, 1);
+    CompletableFuture<Long> timeToFirstByteNanos = new CompletableFuture<>();
+    second.whenFetched((bytes, ttfb, duration) -> timeToFirstByteNanos.complete(ttfb));
+
+    // When: the second block waits in the queue before its request is issued and answered
+    Thread.sleep(100);
+    objectClient.respond(0);
+    assertEquals(0, first.read(0));
+    while (objectClient.requestedRanges().size() < 2) {
+      Thread.sleep(1);
+    }
+    objectClient.respond(1);
+
+    // Then: its latency is only counted from when its request was issued
+    assertTrue(timeToFirstByteNanos.join() < TimeUnit.MILLISECONDS.toNanos(100));
+  }
+
+  @Test
+  void testThrottlingHalvesTheLimitOfTheObject() throws IOException {
+    // Given: a scheduler allowing 4 requests per object, and 4 requests in flight
+    RequestScheduler scheduler = scheduler(4, 64);
+    StubObjectClient objectClient = new StubObjectClient();
+    ObjectClient requests = scheduler.forObject(objectClient);
+    List<CompletableFuture<ObjectContent>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(requests.getObject(request(i, ReadMode.SYNC)));
+    }
+    assertEquals(4, objectClient.requestedRanges().size());
+
+    // When: the first request is throttled
+    objectClient.fail(0, new RequestThrottledException("Slow down", null));
+
+    // Then: the request fails, and nothing is issued while 2 or more requests are in flight
+    assertThrows(CompletionException.class, () -> results.get(0).join());
+    assertEquals(4, objectClient.requestedRanges().size());
+    assertEquals(3, scheduler.getRequestsInFlight());
+
+    // When: a request succeeds
+    objectClient.respond(1);
+    results.get(1).join().getStream().close();
+
+    // Then: the limit is raised by one, so that one more request is issued
+    assertEquals(5, objectClient.requestedRanges().size());
+    assertEquals(3, scheduler.getRequestsInFlight());
+
+    // When: another request succeeds
+    objectClient.respond(2);
+    results.get(2).join().getStream().close();
+
+    // Then: the limit is back at 4
+    assertEquals(7, objectClient.requestedRanges().size());
+    assertEquals(4, scheduler.getRequestsInFlight());
+  }
+
+  @Test
+  void testThrottlingShrinksTheWindowOfThePrefix() throws IOException {
+    // Given: a scheduler allowing 16 requests, all taken by an object under a hot prefix
+    RequestScheduler scheduler = scheduler(16, 16);
+    S3URI hotUri = S3URI.of("foo", "hot/a");
+    StubObjectClient hot = new StubObjectClient();
+    ObjectClient hotRequests = scheduler.forObject(hot);
+    List<CompletableFuture<ObjectContent>> results = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      results.add(hotRequests.getObject(request(hotUri, i, ReadMode.SYNC)));
+    }
+
+    // When: three of its requests are throttled
+    for (int i = 0; i < 3; i++) {
+      hot.fail(i, new RequestThrottledException("Slow down", null));
+    }
+
+    // Then: the window of the prefix is halved three times
+    assertEquals(2, scheduler.getPrefixWindow(hotUri));
+    assertEquals(16, scheduler.getPrefixWindow(S3URI.of("foo", "cold/c")));
+
+    // When: another object under the same prefix and one under another prefix are read
+    StubObjectClient samePrefix = new StubObjectClient();
+    StubObjectClient otherPrefix = new StubObjectClient();
+    ObjectClient samePrefixRequests = scheduler.forObject(samePrefix);
+    ObjectClient otherPrefixRequests = scheduler.forObject(otherPrefix);
+    for (int i = 0; i < 2; i++) {
+      samePrefixRequests.getObject(request(S3URI.of("foo", "hot/b"), i, ReadMode.SYNC));
+      otherPrefixRequests.getObject(request(S3URI.of("foo", "cold/c"), i, ReadMode.SYNC));
+    }
+
+    // Then: only the object under the other prefix gets its requests issued
+    assertEquals(0, samePrefix.requestedRanges().size());
+    assertEquals(2, otherPrefix.requestedRanges().size());
+
+    // When: the remaining requests of the hot object succeed
+    for (int i = 3; i < 16; i++) {
+      finish(hot, results, i);
+    }
+
+    // Then: the window recovers, and the other object of the prefix gets its requests issued
+    assertEquals(15, scheduler.getPrefixWindow(hotUri));
+    assertEquals(2, samePrefix.requestedRanges().size());
+  }
+
+  @Test
+  void testPrefixWindowAvoidsThrottlingFromTheObjectStore() throws IOException {
+    // Given: an object store throttling prefixes with more than 4 outstanding requests, and a
+    // scheduler allowing 8 requests per object
+    FakeThrottlingS3AsyncClient s3AsyncClient = new FakeThrottlingS3AsyncClient(4);
+    ObjectClient objectClient = new S3SdkObjectClient(s3AsyncClient);
+    Telemetry telemetry = mock(Telemetry.class);
+    RequestScheduler scheduler =
+        new RequestScheduler(
+            telemetry,
+            PhysicalIOConfiguration.builder()
+                .requestConcurrencyPerObject(8)
+                .requestConcurrency(64)
+                .build());
+    S3URI firstUri = S3URI.of("bucket", "hot/first");
+    S3URI secondUri = S3URI.of("bucket", "hot/second");
+
+    // When: 8 requests of an object are issued, and their bodies are not closed yet
+    ObjectClient firstRequests = scheduler.forObject(objectClient);
+    List<CompletableFuture<ObjectContent>> firstResults = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      firstResults.add(firstRequests.getObject(request(firstUri, i, ReadMode.SYNC)));
+    }
+
+    // Then: the requests above the rate of the object store are throttled, and the window of the
+    // prefix shrinks to what the object store accepts
+    assertEquals(4, s3AsyncClient.getThrottledRequests());
+    assertEquals(4, scheduler.getPrefixWindow(firstUri));
+    verify(telemetry)
+        .measure(
+            argThat(metric -> metric.getName().equals("request.scheduler.prefix.window")),
+            eq(4.0));
+
+    // When: another object under the same prefix is read
+    ObjectClient secondRequests = scheduler.forObject(objectClient);
+    List<CompletableFuture<ObjectContent>> secondResults = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      secondResults.add(secondRequests.getObject(request(secondUri, i, ReadMode.SYNC)));
+    }
+
+    // Then: its requests wait for the window, rather than being throttled
+    assertEquals(4, s3AsyncClient.getThrottledRequests());
+    assertEquals(4, s3AsyncClient.getOutstandingRequests("bucket/hot/"));
+    assertEquals(8, scheduler.getQueuedRequests());
+
+    // When: the bodies of the first object are closed
+    for (int i = 0; i < 4; i++) {
+      firstResults.get(i).join().getStream().close();
+    }
+
+    // Then: the second object makes progress within the window
+    assertTrue(scheduler.getQueuedRequests() < 8);
+    assertTrue(s3AsyncClient.getOutstandingRequests("bucket/hot/") <= 4);
+    assertTrue(
+        secondResults.stream()
+            .anyMatch(result -> result.isDone() && !result.isCompletedExceptionally()));
+  }
+
+  @Test
+  void testDuplicatesOnlyTakeSlotsNobodyWaitsFor() throws IOException {
+    // Given: a scheduler allowing 1 request per object and 2 overall, with one request in flight
+    RequestScheduler scheduler = scheduler(1, 2);
+    StubObjectClient objectClient = new StubObjectClient();
+    ObjectClient requests = scheduler.forObject(objectClient);
+    List<CompletableFuture<ObjectContent>> results = new ArrayList<>();
+    results.add(requests.getObject(request(0, ReadMode.SYNC)));
+
+    // When: the request is duplicated
+    Optional<CompletableFuture<ObjectContent>> duplicate =
+        scheduler.tryIssueDuplicate(objectClient, request(0, ReadMode.SYNC), null);
+
+    // Then: the duplicate takes the free slot, regardless of the limit of the object
+    assertTrue(duplicate.isPresent());
+    assertEquals(2, scheduler.getRequestsInFlight());
+
+    // When: another request is queued
+    results.add(requests.getObject(request(1, ReadMode.SYNC)));
+
+    // Then: no further duplicate is issued while it waits
+    assertFalse(
+        scheduler.tryIssueDuplicate(objectClient, request(0, ReadMode.SYNC), null).isPresent());
+    assertEquals(2, objectClient.requestedRanges().size());
+
+    // When: the body of the duplicate is read and closed
+    objectClient.respond(1);
+    duplicate.get().join().getStream().close();
+
+    // Then: its slot is freed
+    assertEquals(1, scheduler.getRequestsInFlight());
+    assertEquals(1, scheduler.getQueuedRequests());
+  }
+
+  @Test
+  void testDuplicatesAreRefusedWhileThePrefixIsThrottled() {
+    // Given: a scheduler allowing 4 requests, and a prefix whose request was throttled
+    RequestScheduler scheduler = scheduler(4, 4);
+    StubObjectClient objectClient = new StubObjectClient();
+    CompletableFuture<ObjectContent> result =
+        scheduler.forObject(objectClient).getObject(request(0, ReadMode.SYNC));
+    objectClient.fail(0, new RequestThrottledException("Slow down", null));
+    assertThrows(CompletionException.class, result::join);
+    assertEquals(2, scheduler.getPrefixWindow(TEST_URI));
+
+    // When & Then: requests under the prefix are not duplicated, although every slot is free
+    assertFalse(
+        scheduler.tryIssueDuplicate(objectClient, request(0, ReadMode.SYNC), null).isPresent());
+    GetRequest otherPrefix = request(S3URI.of("foo", "cold/c"), 0, ReadMode.SYNC);
+    assertTrue(scheduler.tryIssueDuplicate(objectClient, otherPrefix, null).isPresent());
+  }
+
+  @Test
+  void testCanceledRequestsFreeTheirSlots() throws IOException {
+    // Given: a scheduler allowing 1 request per object, with one request in flight and two queued
+    RequestScheduler scheduler = scheduler(1, 64);
+    StubObjectClient objectClient = new StubObjectClient();
+    ObjectClient requests = scheduler.forObject(objectClient);
+    CompletableFuture<ObjectContent> inFlight = requests.getObject(request(0, ReadMode.SYNC));
+    CompletableFuture<ObjectContent> queued = requests.getObject(request(1, ReadMode.SYNC));
+    requests.getObject(request(2, ReadMode.SYNC));
+
+    // When: both are canceled, and the response of the request in flight arrives
+    queued.cancel(false);
+    inFlight.cancel(false);
+    InputStream body = mock(InputStream.class);
+    objectClient.futures.get(0).complete(ObjectContent.builder().stream(body).build());
+
+    // Then: the unread body is closed, and the canceled queued request is skipped
+    verify(body).close();
+    assertEquals(Arrays.asList(new Range(0, 0), new Range(2, 2)), objectClient.requestedRanges());
+    assertEquals(0, scheduler.getQueuedRequests());
+  }
+
+  @Test
+  void testClientExceptionsAreRethrownToTheCaller() {
+    // Given: a client which throws when a request is issued
+    RequestScheduler scheduler = scheduler(1, 64);
+    StubObjectClient objectClient = new StubObjectClient();
+    objectClient.rejection = new IllegalStateException("Rejected");
+    ObjectClient requests = scheduler.forObject(objectClient);
+
+    // When & Then: the caller issuing the request gets the exception, and the slot is freed
+    IllegalStateException exception =
+        assertThrows(
+            IllegalStateException.class, () -> requests.getObject(request(0, ReadMode.SYNC)));
+    assertSame(objectClient.rejection, exception);
+    assertEquals(0, scheduler.getRequestsInFlight());
+  }
+
+  private static void finish(
+      StubObjectClient objectClient, List<CompletableFuture<ObjectContent>> results, int index)
+      throws IOException {
+    objectClient.respond(index);
+    results.get(index).join().getStream().close();
+  }
+
+  private static Block block(ObjectClient objectClient, long position) throws IOException {
+    return new Block(
+        ObjectKey.builder().s3URI(TEST_URI).etag("etag").build(),
+        objectClient,
+        TestTelemetry.DEFAULT,
+        position,
+        position,
+        0,
+        ReadMode.SYNC,
+        120_000,
+        1);
+  }
+
+  private static RequestScheduler scheduler(int perObject, int overall) {
+    return new RequestScheduler(
+        TestTelemetry.DEFAULT,
+        PhysicalIOConfiguration.builder()
+            .requestConcurrencyPerObject(perObject)
+            .requestConcurrency(overall)
+            .build());
+  }
+
+  private static GetRequest request(long position, ReadMode readMode) {
+    return request(TEST_URI, position, readMode);
+  }
+
+  private static GetRequest request(S3URI s3URI, long position, ReadMode readMode) {
+    Range range = new Range(position, position);
+    return GetRequest.builder()
+        .s3Uri(s3URI)
+        .range(range)
+        .referrer(new Referrer(range.toHttpString(), readMode))
+        .etag("etag")
+        .build();
+  }
+
+  /** Records the GET requests it receives, and lets the test complete them. */
+  private static class StubObjectClient implements ObjectClient {
+    private final List<GetRequest> requests = new ArrayList<>();
+    private final List<CompletableFuture<ObjectContent>> futures = new ArrayList<>();
+    private RuntimeException rejection;
+
+    @Override
+    public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+      return getObject(getRequest, null);
+    }
+
+    @Override
+    public synchronized CompletableFuture<ObjectContent> getObject(
+        GetRequest getRequest, StreamContext streamContext) {
+      if (rejection != null) {
+        throw rejection;
+      }
+      CompletableFuture<ObjectContent> future = new CompletableFuture<>();
+      requests.add(getRequest);
+      futures.add(future);
+      return future;
+    }
+
+    @Override
+    public void close() {}
+
+    synchronized List<Range> requestedRanges() {
+      List<Range> ranges = new ArrayList<>();
+      requests.forEach(request -> ranges.add(request.getRange()));
+      return ranges;
+    }
+
+    void respond(int index) {
+      futures
+          .get(index)
+          .complete(ObjectContent.builder().stream(new ByteArrayInputStream(new byte[1])).build());
+    }
+
+    void fail(int index, Throwable error) {
+      futures.get(index).completeExceptionally(error);
+    }
+  }
+}
@@ -21,6 +21,9 @@ import static org.mockito.Mockito.*;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
 import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
@@ -132,6 +135,24 @@ public class PhysicalIOImplTest {
     assertEquals(99, physicalIOImplV2.read(2)); // c
   }
 
+  @Test
+  void testOptimisticOpenSkipsMetadataLookup() throws IOException {
+    // Given: a blob store that learns the metadata from a GET of the tail
+    ObjectMetadata objectMetadata = ObjectMetadata.builder().contentLength(100).etag(etag).build();
+    MetadataStore metadataStore = mock(MetadataStore.class);
+    BlobStore blobStore = mock(BlobStore.class);
+    when(blobStore.openWithTail(s3URI, metadataStore, null))
+        .thenReturn(Optional.of(objectMetadata));
+
+    // When: the stream is opened
+    PhysicalIOImpl physicalIOImpl =
+        new PhysicalIOImpl(s3URI, metadataStore, blobStore, TestTelemetry.DEFAULT);
+
+    // Then: the metadata store is not asked for the metadata
+    assertEquals(objectMetadata, physicalIOImpl.metadata());
+    verify(metadataStore, never()).get(any());
+  }
+
   @Test
   public void test__regression_singleByteStream() throws IOException {
     // Given: physicalIOImplV2 backed by a single byte object
@@ -164,6 +185,40 @@ public class PhysicalIOImplTest {
     assertEquals(5, physicalIOImplV2.read(buffer, 0, 5, 5));
   }
 
+  @Test
+  void testReadWithByteBuffer() throws IOException {
+    final String TEST_DATA = "abcdef0123456789";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    MetadataStore metadataStore =
+        new MetadataStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    BlobStore blobStore =
+        new BlobStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    PhysicalIOImpl physicalIOImplV2 =
+        new PhysicalIOImpl(s3URI, metadataStore, blobStore, TestTelemetry.DEFAULT);
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(5);
+    assertEquals(5, physicalIOImplV2.read(buffer, 5));
+    assertEquals(5, buffer.position());
+    assertThrows(IllegalArgumentException.class, () -> physicalIOImplV2.read(buffer, -1));
+    assertThrows(IllegalArgumentException.class, () -> physicalIOImplV2.read(buffer, 100));
+  }
+
+  @Test
+  void testReadForPlanning() throws IOException {
+    final String TEST_DATA = "abcdef0123456789";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    MetadataStore metadataStore =
+        new MetadataStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    BlobStore blobStore =
+        new BlobStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    PhysicalIOImpl physicalIOImplV2 =
+        new PhysicalIOImpl(s3URI, metadataStore, blobStore, TestTelemetry.DEFAULT);
+
+    byte[] buffer = new byte[5];
+    assertEquals(5, physicalIOImplV2.readForPlanning(buffer, 0, 5, 5));
+    assertEquals("f0123", new String(buffer, StandardCharsets.UTF_8));
+  }
+
   @Test
   void testReadTail() throws IOException {
     final String TEST_DATA = "abcdef0123456789";
@@ -220,7 +275,7 @@ public class PhysicalIOImplTest {
 
   @SuppressWarnings("unchecked")
   @Test
-  public void test_FailureEvictsObjectsAsExpected_WhenSDKClientGetsStuck() throws IOException {
+  public void test_FailureKeepsObjectsCached_WhenSDKClientGetsStuck() throws IOException {
     IOException ioException = new IOException(new IOException("Error while getting block"));
 
     S3AsyncClient mockS3AsyncClient = mock(S3AsyncClient.class);
@@ -242,7 +297,7 @@ public class PhysicalIOImplTest {
         new PhysicalIOImpl(s3URI, metadataStore, blobStore, TestTelemetry.DEFAULT);
 
     assertThrows(IOException.class, () -> physicalIOImplV2.read(0));
-    assertEquals(0, blobStore.blobCount());
-    assertThrows(Exception.class, () -> metadataStore.get(s3URI));
+    assertEquals(1, blobStore.blobCount());
+    assertEquals(objectMetadata, metadataStore.get(s3URI));
   }
 }
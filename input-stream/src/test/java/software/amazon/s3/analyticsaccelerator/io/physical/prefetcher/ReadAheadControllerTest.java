@@ -0,0 +1,148 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.prefetcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class ReadAheadControllerTest {
+  private static final PhysicalIOConfiguration ADAPTIVE =
+      PhysicalIOConfiguration.builder()
+          .adaptiveReadAheadEnabled(true)
+          .adaptiveReadAheadMinBytes(2 * ONE_MB)
+          .adaptiveReadAheadMaxBytes(64 * ONE_MB)
+          .build();
+
+  @Test
+  void testCreateBoundaries() {
+    assertThrows(
+        NullPointerException.class, () -> new ReadAheadController(null, TestTelemetry.DEFAULT));
+    assertThrows(
+        NullPointerException.class,
+        () -> new ReadAheadController(PhysicalIOConfiguration.DEFAULT, null));
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new ReadAheadController(PhysicalIOConfiguration.DEFAULT, TestTelemetry.DEFAULT, null));
+  }
+
+  @Test
+  void testFollowsSequentialReadProgressionWhenDisabled() {
+    // Given: a controller with adaptive read-ahead disabled, which has observed reads and fetches
+    AtomicLong clock = new AtomicLong();
+    ReadAheadController controller =
+        new ReadAheadController(PhysicalIOConfiguration.DEFAULT, TestTelemetry.DEFAULT, clock::get);
+    observe(controller, clock, 100, 50, 200);
+
+    // When & Then: the window follows the fixed progression
+    assertEquals(2 * ONE_MB, controller.getReadAheadBytes(0));
+    assertEquals(8 * ONE_MB, controller.getReadAheadBytes(2));
+  }
+
+  @Test
+  void testFollowsSequentialReadProgressionUntilObserved() {
+    // Given: an adaptive controller which has not observed anything yet
+    ReadAheadController controller = new ReadAheadController(ADAPTIVE, TestTelemetry.DEFAULT);
+
+    // When & Then: the window follows the fixed progression
+    assertEquals(2 * ONE_MB, controller.getReadAheadBytes(0));
+    assertEquals(16 * ONE_MB, controller.getReadAheadBytes(3));
+  }
+
+  @Test
+  void testSizesWindowToBandwidthDelayProduct() {
+    // Given: a consumer reading at 100MB/s from GETs with 50ms latency and 200MB/s throughput
+    AtomicLong clock = new AtomicLong();
+    Telemetry telemetry = mock(Telemetry.class);
+    ReadAheadController controller = new ReadAheadController(ADAPTIVE, telemetry, clock::get);
+    observe(controller, clock, 100, 50, 200);
+
+    // When: the window is requested
+    long window = controller.getReadAheadBytes(0);
+
+    // Then: it covers what is consumed while the window itself is fetched, and is reported
+    // 100MB/s * 50ms / (1 - 100/200) = 10MB
+    assertEquals(10 * ONE_MB, window, 1);
+    verify(telemetry).measure(any(Metric.class), eq((double) window));
+  }
+
+  @Test
+  void testUsesLargestWindowWhenConsumerOutpacesFetches() {
+    // Given: a consumer reading faster than a single GET can deliver
+    AtomicLong clock = new AtomicLong();
+    ReadAheadController controller =
+        new ReadAheadController(ADAPTIVE, TestTelemetry.DEFAULT, clock::get);
+    observe(controller, clock, 300, 50, 200);
+
+    // When & Then: the window is as large as allowed
+    assertEquals(64 * ONE_MB, controller.getReadAheadBytes(0));
+  }
+
+  @Test
+  void testShrinksWindowWhenPrefetchesGoUnread() {
+    // Given: an adaptive controller sizing a 10MB window
+    AtomicLong clock = new AtomicLong();
+    ReadAheadController controller =
+        new ReadAheadController(ADAPTIVE, TestTelemetry.DEFAULT, clock::get);
+    observe(controller, clock, 100, 50, 200);
+
+    // When: prefetched blocks are evicted unread, the window halves down to the smallest window
+    controller.recordPrefetchWasted();
+    assertEquals(5 * ONE_MB, controller.getReadAheadBytes(0), 1);
+    controller.recordPrefetchWasted();
+    controller.recordPrefetchWasted();
+    assertEquals(2 * ONE_MB, controller.getReadAheadBytes(0));
+
+    // Then: prefetched blocks being read grow it back
+    controller.recordPrefetchUsed();
+    controller.recordPrefetchUsed();
+    controller.recordPrefetchUsed();
+    assertEquals(10 * ONE_MB, controller.getReadAheadBytes(0), 1);
+  }
+
+  /** Feeds the controller a consumption rate and a GET, rates in MB/s and latency in ms. */
+  private static void observe(
+      ReadAheadController controller,
+      AtomicLong clock,
+      long consumptionMBps,
+      long latencyMs,
+      long throughputMBps) {
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    controller.recordConsumption(consumptionMBps * ONE_MB / 10);
+
+    long bytes = 8L * ONE_MB;
+    long transferNanos = TimeUnit.SECONDS.toNanos(bytes) / (throughputMBps * ONE_MB);
+    long latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMs);
+    controller.recordFetch(bytes, latencyNanos, latencyNanos + transferNanos);
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * A fake {@link S3AsyncClient} serving GET requests with zeroed bodies, which throttles requests
+ * with a 503 Slow Down while too many requests of the same bucket and key prefix are outstanding.
+ * A request is outstanding until its body has been closed.
+ */
+public class FakeThrottlingS3AsyncClient implements S3AsyncClient {
+  private final int maxOutstandingPerPrefix;
+  private final Map<String, AtomicInteger> outstanding = new ConcurrentHashMap<>();
+  private final AtomicInteger throttledRequests = new AtomicInteger();
+
+  /**
+   * Instantiate a fake client.
+   *
+   * @param maxOutstandingPerPrefix the number of requests per prefix above which requests are
+   *     throttled
+   */
+  public FakeThrottlingS3AsyncClient(int maxOutstandingPerPrefix) {
+    this.maxOutstandingPerPrefix = maxOutstandingPerPrefix;
+  }
+
+  /**
+   * Returns the number of requests that were throttled so far.
+   *
+   * @return the number of throttled requests
+   */
+  public int getThrottledRequests() {
+    return throttledRequests.get();
+  }
+
+  /**
+   * Returns the number of requests of a prefix whose body has not been closed yet.
+   *
+   * @param prefix the bucket and key prefix, as in "bucket/prefix/"
+   * @return the number of outstanding requests
+   */
+  public int getOutstandingRequests(String prefix) {
+    AtomicInteger count = outstanding.get(prefix);
+    return count == null ? 0 : count.get();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <ReturnT> CompletableFuture<ReturnT> getObject(
+      GetObjectRequest getObjectRequest,
+      AsyncResponseTransformer<GetObjectResponse, ReturnT> asyncResponseTransformer) {
+    String key = getObjectRequest.key();
+    String prefix = getObjectRequest.bucket() + "/" + key.substring(0, key.lastIndexOf('/') + 1);
+    AtomicInteger count = outstanding.computeIfAbsent(prefix, p -> new AtomicInteger());
+
+    CompletableFuture<ReturnT> result = new CompletableFuture<>();
+    if (count.incrementAndGet() > maxOutstandingPerPrefix) {
+      count.decrementAndGet();
+      throttledRequests.incrementAndGet();
+      result.completeExceptionally(
+          S3Exception.builder().statusCode(503).message("Slow Down").build());
+      return result;
+    }
+
+    int length = rangeLength(getObjectRequest.range());
+    OutstandingBody body = new OutstandingBody(new byte[length], count);
+    GetObjectResponse response = GetObjectResponse.builder().contentLength((long) length).build();
+    // The transformer is ignored, as the object client always asks for a blocking input stream
+    result.complete(
+        (ReturnT) new ResponseInputStream<>(response, AbortableInputStream.create(body)));
+    return result;
+  }
+
+  @Override
+  public String serviceName() {
+    return "s3";
+  }
+
+  @Override
+  public void close() {}
+
+  private static int rangeLength(String range) {
+    // Ranges are of the form "bytes=start-end"
+    String[] bounds = range.substring(range.indexOf('=') + 1).split("-");
+    return Math.toIntExact(Long.parseLong(bounds[1]) - Long.parseLong(bounds[0]) + 1);
+  }
+
+  /** A body which stops counting as outstanding once closed. */
+  private static final class OutstandingBody extends FilterInputStream {
+    private final AtomicInteger outstanding;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private OutstandingBody(byte[] data, AtomicInteger outstanding) {
+      super(new ByteArrayInputStream(data));
+      this.outstanding = outstanding;
+    }
+
+    @Override
+    public void close() throws IOException {
+      super.close();
+      if (closed.compareAndSet(false, true)) {
+        outstanding.decrementAndGet();
+      }
+    }
+  }
+}
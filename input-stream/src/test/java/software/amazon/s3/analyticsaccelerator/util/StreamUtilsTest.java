@@ -16,19 +16,36 @@
 package software.amazon.s3.analyticsaccelerator.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.request.BodyPublisher;
 import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
 
 public class StreamUtilsTest {
 
@@ -36,44 +53,229 @@ public class StreamUtilsTest {
   private static final S3URI TEST_S3URI = S3URI.of("test-bucket", "test-key");
   private static final String TEST_ETAG = "test-etag";
   private static final Range TEST_RANGE = new Range(0, 20);
+  private static final int TEST_BUFFER_SIZE = 21;
   private static final ObjectKey TEST_OBJECT_KEY =
       ObjectKey.builder().s3URI(TEST_S3URI).etag(TEST_ETAG).build();
 
   @SneakyThrows
   @Test
-  public void testToByteArrayWorksWithEmptyStream() {
+  public void testReadFullyWorksWithEmptyStream() {
     // Given: objectContent with an empty stream
     ObjectContent objectContent =
         ObjectContent.builder().stream(new ByteArrayInputStream(new byte[0])).build();
+    ByteBuffer buffer = ByteBuffer.allocate(TEST_BUFFER_SIZE);
 
-    // When: toByteArray is called
-    byte[] buf =
-        StreamUtils.toByteArray(objectContent, TEST_OBJECT_KEY, TEST_RANGE, TIMEOUT_MILLIS);
+    // When: readFully is called
+    StreamUtils.readFully(objectContent, buffer, TEST_OBJECT_KEY, TEST_RANGE, TIMEOUT_MILLIS);
 
-    // Then: returned byte array is empty
-    String content = new String(buf, StandardCharsets.UTF_8);
-    assertEquals(0, buf.length);
-    assertEquals("", content);
+    // Then: the buffer holds no data
+    assertEquals(0, buffer.position());
+    assertEquals(0, buffer.remaining());
   }
 
   @SneakyThrows
   @Test
-  public void testToByteArrayConvertsCorrectly() {
+  public void testReadFullyReadsIntoHeapBuffer() {
     // Given: objectContent with "Hello World" in it
     InputStream inputStream =
         new ByteArrayInputStream("Hello World".getBytes(StandardCharsets.UTF_8));
     ObjectContent objectContent = ObjectContent.builder().stream(inputStream).build();
+    ByteBuffer buffer = ByteBuffer.allocate(TEST_BUFFER_SIZE);
 
-    // When: toByteArray is called
-    byte[] buf =
-        StreamUtils.toByteArray(objectContent, TEST_OBJECT_KEY, TEST_RANGE, TIMEOUT_MILLIS);
+    // When: readFully is called
+    StreamUtils.readFully(objectContent, buffer, TEST_OBJECT_KEY, TEST_RANGE, TIMEOUT_MILLIS);
 
-    // Then: 'Hello World' is returned
-    assertEquals("Hello World", new String(buf, StandardCharsets.UTF_8));
+    // Then: 'Hello World' is in the buffer
+    assertEquals("Hello World", StandardCharsets.UTF_8.decode(buffer).toString());
   }
 
+  @SneakyThrows
+  @Test
+  public void testReadFullyReadsIntoDirectBuffer() {
+    // Given: objectContent with "Hello World" in it
+    InputStream inputStream =
+        new ByteArrayInputStream("Hello World".getBytes(StandardCharsets.UTF_8));
+    ObjectContent objectContent = ObjectContent.builder().stream(inputStream).build();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(TEST_BUFFER_SIZE);
+
+    // When: readFully is called
+    StreamUtils.readFully(objectContent, buffer, TEST_OBJECT_KEY, TEST_RANGE, TIMEOUT_MILLIS);
+
+    // Then: 'Hello World' is in the buffer
+    assertEquals("Hello World", StandardCharsets.UTF_8.decode(buffer).toString());
+  }
+
+  @SneakyThrows
+  @Test
+  public void testReadFullyStopsWhenBufferIsFull() {
+    // Given: objectContent with more data than fits into the buffer
+    InputStream inputStream =
+        new ByteArrayInputStream("Hello World".getBytes(StandardCharsets.UTF_8));
+    ObjectContent objectContent = ObjectContent.builder().stream(inputStream).build();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(5);
+
+    // When: readFully is called
+    StreamUtils.readFully(objectContent, buffer, TEST_OBJECT_KEY, TEST_RANGE, TIMEOUT_MILLIS);
+
+    // Then: only the bytes that fit are in the buffer
+    assertEquals("Hello", StandardCharsets.UTF_8.decode(buffer).toString());
+  }
+
+  @SneakyThrows
+  @Test
+  public void testReadFullyAsyncCopiesContentReceivedIntoMemory() {
+    // Given: objectContent whose body is already in memory, and a stream that must not be read
+    InputStream inputStream = mock(InputStream.class);
+    ByteBuffer data = ByteBuffer.wrap("Hello World".getBytes(StandardCharsets.UTF_8));
+    ObjectContent objectContent = ObjectContent.builder().stream(inputStream).data(data).build();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(5);
+
+    // When: readFullyAsync is called
+    CompletableFuture<ByteBuffer> result =
+        StreamUtils.readFullyAsync(
+            objectContent, buffer, TEST_OBJECT_KEY, TEST_RANGE, TIMEOUT_MILLIS);
+
+    // Then: the bytes that fit are copied right away, and the stream is only closed
+    assertTrue(result.isDone());
+    assertEquals("Hello", StandardCharsets.UTF_8.decode(result.get()).toString());
+    assertEquals(0, data.position());
+    verify(inputStream, never()).read(any(), anyInt(), anyInt());
+    verify(inputStream).close();
+  }
+
+  @SneakyThrows
+  @Test
+  public void testReadFullyAsyncWritesPushedChunksAsTheyArrive() {
+    // Given: objectContent whose body is pushed by the object client
+    InputStream inputStream = mock(InputStream.class);
+    List<Consumer<ByteBuffer>> consumers = new ArrayList<>();
+    CompletableFuture<Void> delivered = new CompletableFuture<>();
+    BodyPublisher publisher =
+        consumer -> {
+          consumers.add(consumer);
+          return delivered;
+        };
+    ObjectContent objectContent =
+        ObjectContent.builder().stream(inputStream).publisher(publisher).build();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+    List<Integer> progress = new ArrayList<>();
+
+    // When: readFullyAsync is called, and the body arrives in two chunks
+    CompletableFuture<ByteBuffer> result =
+        StreamUtils.readFullyAsync(
+            objectContent,
+            buffer,
+            TEST_OBJECT_KEY,
+            TEST_RANGE,
+            TIMEOUT_MILLIS,
+            ReadMode.SYNC,
+            progress::add);
+    consumers.get(0).accept(ByteBuffer.wrap("Hello".getBytes(StandardCharsets.UTF_8)));
+
+    // Then: each chunk is written into the buffer as soon as it arrives
+    assertEquals(Collections.singletonList(5), progress);
+    assertFalse(result.isDone());
+
+    // When: the rest of the body arrives
+    consumers.get(0).accept(ByteBuffer.wrap(" World".getBytes(StandardCharsets.UTF_8)));
+    delivered.complete(null);
+
+    // Then: the bytes that fit are in the buffer, and the stream is closed without being read
+    assertEquals("Hello Wo", StandardCharsets.UTF_8.decode(result.get()).toString());
+    assertEquals(Arrays.asList(5, 8), progress);
+    verify(inputStream, never()).read(any(), anyInt(), anyInt());
+    verify(inputStream).close();
+  }
+
+  @SneakyThrows
   @Test
-  void toByteArrayShouldThrowTimeoutExceptionWhenStreamReadTakesTooLong() throws Exception {
+  public void testReadFullyAsyncReadsManyStreamsConcurrently() {
+    // Given: more streams than there are threads draining them
+    List<CompletableFuture<ByteBuffer>> futures = new ArrayList<>();
+
+    // When: readFullyAsync is called for each of them
+    for (int i = 0; i < 1000; i++) {
+      InputStream inputStream =
+          new ByteArrayInputStream(("Hello " + i).getBytes(StandardCharsets.UTF_8));
+      ObjectContent objectContent = ObjectContent.builder().stream(inputStream).build();
+      futures.add(
+          StreamUtils.readFullyAsync(
+              objectContent,
+              ByteBuffer.allocate(TEST_BUFFER_SIZE),
+              TEST_OBJECT_KEY,
+              TEST_RANGE,
+              TIMEOUT_MILLIS));
+    }
+
+    // Then: every buffer ends up holding its own stream
+    for (int i = 0; i < futures.size(); i++) {
+      ByteBuffer buffer = futures.get(i).get(5, TimeUnit.SECONDS);
+      assertEquals("Hello " + i, StandardCharsets.UTF_8.decode(buffer).toString());
+    }
+  }
+
+  @Test
+  void testSyncReadsGoAheadOfQueuedPrefetches() throws Exception {
+    // Given: every reader thread is blocked on a stream
+    CountDownLatch started = new CountDownLatch(StreamUtils.READER_THREADS);
+    Semaphore unblocked = new Semaphore(0);
+    List<CompletableFuture<ByteBuffer>> blockers = new ArrayList<>();
+    for (int i = 0; i < StreamUtils.READER_THREADS; i++) {
+      blockers.add(
+          readAsync(
+              () -> {
+                started.countDown();
+                unblocked.acquireUninterruptibly();
+              },
+              ReadMode.ASYNC));
+    }
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    // When: a prefetch is queued before a synchronous read, and a single thread frees up
+    List<ReadMode> readOrder = Collections.synchronizedList(new ArrayList<>());
+    CompletableFuture<ByteBuffer> prefetch =
+        readAsync(() -> readOrder.add(ReadMode.ASYNC), ReadMode.ASYNC);
+    CompletableFuture<ByteBuffer> syncRead =
+        readAsync(() -> readOrder.add(ReadMode.SYNC), ReadMode.SYNC);
+    unblocked.release();
+
+    // Then: the synchronous read is drained first
+    syncRead.get(5, TimeUnit.SECONDS);
+    assertEquals(ReadMode.SYNC, readOrder.get(0));
+
+    unblocked.release(StreamUtils.READER_THREADS);
+    prefetch.get(5, TimeUnit.SECONDS);
+    for (CompletableFuture<ByteBuffer> blocker : blockers) {
+      blocker.get(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  void readFullyAsyncShouldCompleteExceptionallyWhenStreamFails() throws Exception {
+    // Given: a stream which fails to read
+    InputStream failingInputStream = mock(InputStream.class);
+    when(failingInputStream.read(any(byte[].class), anyInt(), anyInt()))
+        .thenThrow(new IOException("Connection reset"));
+    ObjectContent objectContent = ObjectContent.builder().stream(failingInputStream).build();
+
+    // When: readFullyAsync is called
+    CompletableFuture<ByteBuffer> future =
+        StreamUtils.readFullyAsync(
+            objectContent,
+            ByteBuffer.allocate(TEST_BUFFER_SIZE),
+            TEST_OBJECT_KEY,
+            TEST_RANGE,
+            TIMEOUT_MILLIS);
+
+    // Then: the future fails with the IOException, and the stream is closed
+    ExecutionException exception =
+        assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(IOException.class, exception.getCause());
+    verify(failingInputStream, timeout(5_000)).close();
+  }
+
+  @Test
+  void readFullyShouldThrowTimeoutExceptionWhenStreamReadTakesTooLong() throws Exception {
     // Mock ObjectContent
     ObjectContent mockContent = mock(ObjectContent.class);
 
@@ -91,9 +293,35 @@ public class StreamUtilsTest {
     // Test the timeout behavior
     assertThrows(
         TimeoutException.class,
-        () -> StreamUtils.toByteArray(mockContent, TEST_OBJECT_KEY, TEST_RANGE, TIMEOUT_MILLIS));
+        () ->
+            StreamUtils.readFully(
+                mockContent,
+                ByteBuffer.allocate(TEST_BUFFER_SIZE),
+                TEST_OBJECT_KEY,
+                TEST_RANGE,
+                TIMEOUT_MILLIS));
 
     // Verify the stream was accessed
     verify(mockContent).getStream();
   }
+
+  /** Reads an empty stream at the given priority, running the action when the read starts. */
+  private static CompletableFuture<ByteBuffer> readAsync(Runnable onRead, ReadMode readMode) {
+    InputStream inputStream =
+        new InputStream() {
+          @Override
+          public int read() {
+            onRead.run();
+            return -1;
+          }
+        };
+    return StreamUtils.readFullyAsync(
+        ObjectContent.builder().stream(inputStream).build(),
+        ByteBuffer.allocate(TEST_BUFFER_SIZE),
+        TEST_OBJECT_KEY,
+        TEST_RANGE,
+        30_000,
+        readMode,
+        bytesRead -> {});
+  }
 }
@@ -0,0 +1,264 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.CompletableFuture;
+import lombok.Getter;
+import lombok.NonNull;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.exceptions.ExceptionHandler;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Object client serving objects from a local directory tree, for running the library against
+ * local disks or cache mounts, and for measuring its own overhead without a network in the way.
+ * The object {@code s3://bucket/key} is read from the file {@code <root>/bucket/key}.
+ *
+ * <p>Ranges are read through memory-mapped regions of the file, mapped a chunk at a time as the
+ * body is consumed. The ETag of an object is derived from the modification time and size of its
+ * file, so that rewriting a file is detected by reads holding on to the ETag of the previous
+ * version.
+ *
+ * <p>Failures are reported the way {@link S3SdkObjectClient} reports them: a missing file fails
+ * with a {@link java.io.FileNotFoundException}, and an ETag that no longer matches fails like an
+ * HTTP 412 would. Requests are served on the calling thread, so the returned futures are already
+ * complete.
+ */
+public class FileSystemObjectClient implements ObjectClient {
+  private static final int DEFAULT_MAPPING_CHUNK_BYTES = 64 * 1024 * 1024;
+  private static final int HTTP_PRECONDITION_FAILED = 412;
+  private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+  @Getter private final Path root;
+  private final int mappingChunkBytes;
+
+  /**
+   * Creates an object client serving objects from the given directory. Each bucket is a directory
+   * directly under it.
+   *
+   * @param root the directory holding one directory per bucket
+   */
+  public FileSystemObjectClient(@NonNull Path root) {
+    this(root, DEFAULT_MAPPING_CHUNK_BYTES);
+  }
+
+  /**
+   * Creates an object client serving objects from the given directory.
+   *
+   * @param root the directory holding one directory per bucket
+   * @param mappingChunkBytes the largest region of a file mapped at once
+   */
+  FileSystemObjectClient(@NonNull Path root, int mappingChunkBytes) {
+    Preconditions.checkArgument(
+        mappingChunkBytes > 0, "`mappingChunkBytes` must be positive; was: %s", mappingChunkBytes);
+    this.root = root.toAbsolutePath().normalize();
+    this.mappingChunkBytes = mappingChunkBytes;
+  }
+
+  /** Nothing to release, as files are only held open while their bodies are being read. */
+  @Override
+  public void close() {}
+
+  @Override
+  public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+    S3URI s3URI = headRequest.getS3Uri();
+    try {
+      return CompletableFuture.completedFuture(readMetadata(s3URI));
+    } catch (IOException | RuntimeException e) {
+      return failed(e, s3URI);
+    }
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+    return getObject(getRequest, null);
+  }
+
+  /**
+   * Reads a range of an object. The stream context is ignored, as there are no request headers to
+   * attach it to.
+   */
+  @Override
+  public CompletableFuture<ObjectContent> getObject(
+      GetRequest getRequest, StreamContext streamContext) {
+    S3URI s3URI = getRequest.getS3Uri();
+    try {
+      ObjectMetadata metadata = readMetadata(s3URI);
+      if (getRequest.getEtag() != null && !metadata.getEtag().equals(getRequest.getEtag())) {
+        throw S3Exception.builder()
+            .statusCode(HTTP_PRECONDITION_FAILED)
+            .message("At least one of the pre-conditions you specified did not hold")
+            .build();
+      }
+
+      long start = getRequest.getRange().getStart();
+      if (start >= metadata.getContentLength()) {
+        throw S3Exception.builder()
+            .statusCode(HTTP_RANGE_NOT_SATISFIABLE)
+            .message("The requested range is not satisfiable")
+            .build();
+      }
+      // Like S3, serve the part of the range that exists
+      long end = Math.min(getRequest.getRange().getEnd(), metadata.getContentLength() - 1);
+
+      FileChannel channel = FileChannel.open(pathOf(s3URI), StandardOpenOption.READ);
+      return CompletableFuture.completedFuture(
+          ObjectContent.builder()
+              .stream(new MappedRangeInputStream(channel, start, end + 1, mappingChunkBytes))
+              .build());
+    } catch (IOException | RuntimeException e) {
+      return failed(e, s3URI);
+    }
+  }
+
+  private ObjectMetadata readMetadata(S3URI s3URI) throws IOException {
+    Path path = pathOf(s3URI);
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      throw NoSuchKeyException.builder().message("The specified key does not exist").build();
+    }
+    if (!attributes.isRegularFile()) {
+      throw NoSuchKeyException.builder().message("The specified key does not exist").build();
+    }
+
+    return ObjectMetadata.builder()
+        .contentLength(attributes.size())
+        .etag(etagOf(attributes.lastModifiedTime().toMillis(), attributes.size()))
+        .build();
+  }
+
+  /**
+   * Resolves the file holding an object, refusing keys which would escape the directory of the
+   * bucket.
+   */
+  private Path pathOf(S3URI s3URI) {
+    Path bucket = root.resolve(s3URI.getBucket()).normalize();
+    Path path = bucket.resolve(s3URI.getKey()).normalize();
+    if (!bucket.startsWith(root) || bucket.equals(root) || !path.startsWith(bucket)) {
+      throw NoSuchKeyException.builder().message("The specified key does not exist").build();
+    }
+    return path;
+  }
+
+  /**
+   * Builds the ETag of a file from its modification time and size, quoted as S3 quotes ETags.
+   *
+   * @param lastModifiedMillis the modification time of the file
+   * @param size the size of the file
+   * @return the ETag of the file
+   */
+  static String etagOf(long lastModifiedMillis, long size) {
+    return "\"" + Long.toHexString(lastModifiedMillis) + "-" + Long.toHexString(size) + "\"";
+  }
+
+  private static <T> CompletableFuture<T> failed(Exception e, S3URI s3URI) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(
+        e instanceof IOException
+            ? new UncheckedIOException((IOException) e)
+            : new UncheckedIOException(ExceptionHandler.toIOException(e, s3URI)));
+    return future;
+  }
+
+  /**
+   * Streams a range of a file through memory-mapped chunks, mapping the next chunk once the
+   * previous one has been consumed. Closing the stream closes the file.
+   */
+  private static final class MappedRangeInputStream extends InputStream {
+    private final FileChannel channel;
+    private final long end;
+    private final int mappingChunkBytes;
+    private long nextChunkStart;
+    private MappedByteBuffer chunk;
+
+    private MappedRangeInputStream(
+        FileChannel channel, long start, long end, int mappingChunkBytes) {
+      this.channel = channel;
+      this.nextChunkStart = start;
+      this.end = end;
+      this.mappingChunkBytes = mappingChunkBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!ensureChunk()) {
+        return -1;
+      }
+      return Byte.toUnsignedInt(chunk.get());
+    }
+
+    @Override
+    public int read(byte @NonNull [] buffer, int offset, int length) throws IOException {
+      if (offset < 0 || length < 0 || length > buffer.length - offset) {
+        throw new IndexOutOfBoundsException();
+      }
+      if (length == 0) {
+        return 0;
+      }
+      if (!ensureChunk()) {
+        return -1;
+      }
+
+      int bytesToCopy = Math.min(length, chunk.remaining());
+      chunk.get(buffer, offset, bytesToCopy);
+      return bytesToCopy;
+    }
+
+    @Override
+    public int available() {
+      return chunk == null ? 0 : chunk.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+
+    private boolean ensureChunk() throws IOException {
+      if (chunk != null && chunk.hasRemaining()) {
+        return true;
+      }
+      if (nextChunkStart >= end) {
+        return false;
+      }
+
+      long size = Math.min(mappingChunkBytes, end - nextChunkStart);
+      chunk = channel.map(FileChannel.MapMode.READ_ONLY, nextChunkStart, size);
+      nextChunkStart += size;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.s3.analyticsaccelerator.request.BodyPublisher;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+
+/**
+ * Completes a GET request with its content as soon as the response starts, leaving the body to be
+ * pushed to a {@link BodyPublisher} consumer as its chunks arrive. Consumers can then write each
+ * chunk straight into their own buffer, instead of the body being buffered in memory first.
+ */
+final class PushedBodyTransformer
+    implements AsyncResponseTransformer<GetObjectResponse, ObjectContent> {
+  private volatile CompletableFuture<ObjectContent> future;
+
+  @Override
+  public CompletableFuture<ObjectContent> prepare() {
+    future = new CompletableFuture<>();
+    return future;
+  }
+
+  @Override
+  public void onResponse(GetObjectResponse response) {}
+
+  @Override
+  public void onStream(SdkPublisher<ByteBuffer> publisher) {
+    PushedBody body = new PushedBody(publisher);
+    future.complete(ObjectContent.builder().stream(body.stream).publisher(body).build());
+  }
+
+  @Override
+  public void exceptionOccurred(Throwable error) {
+    future.completeExceptionally(error);
+  }
+
+  /**
+   * The body of a response, delivered either to a consumer or through a stream, whichever asks for
+   * it first. Consumers take every chunk as it arrives, while the stream buffers one chunk at a
+   * time. Closing the stream aborts the transfer.
+   */
+  static final class PushedBody implements BodyPublisher, Subscriber<ByteBuffer> {
+    // Marks the end of the body in the chunks handed to the stream
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final Publisher<ByteBuffer> publisher;
+    private final InputStream stream = new BodyStream();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private final BlockingQueue<ByteBuffer> chunks = new LinkedBlockingQueue<>();
+    // Set before subscribing, null if the body is read through the stream
+    private volatile Consumer<ByteBuffer> consumer;
+    private volatile Subscription subscription;
+    private volatile boolean closed;
+
+    PushedBody(Publisher<ByteBuffer> publisher) {
+      this.publisher = publisher;
+    }
+
+    @Override
+    public CompletableFuture<Void> subscribe(Consumer<ByteBuffer> consumer) {
+      if (!subscribed.compareAndSet(false, true)) {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("The body was already delivered"));
+        return failed;
+      }
+      this.consumer = consumer;
+      publisher.subscribe(this);
+      return done;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+      if (closed) {
+        subscription.cancel();
+        return;
+      }
+      // Consumers take chunks as fast as they arrive, the stream one at a time
+      subscription.request(consumer != null ? Long.MAX_VALUE : 1);
+    }
+
+    @Override
+    public void onNext(ByteBuffer chunk) {
+      Consumer<ByteBuffer> pushTo = consumer;
+      if (pushTo == null) {
+        chunks.add(chunk);
+        return;
+      }
+
+      try {
+        pushTo.accept(chunk);
+      } catch (RuntimeException e) {
+        subscription.cancel();
+        done.completeExceptionally(e);
+      }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      done.completeExceptionally(error);
+      chunks.add(END);
+    }
+
+    @Override
+    public void onComplete() {
+      done.complete(null);
+      chunks.add(END);
+    }
+
+    private void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      Subscription current = subscription;
+      if (current != null) {
+        current.cancel();
+      } else if (subscribed.compareAndSet(false, true)) {
+        // Nobody asked for the body, which must still be canceled to release the connection
+        publisher.subscribe(this);
+      }
+      done.completeExceptionally(new IOException("The body was closed before it was received"));
+      chunks.add(END);
+    }
+
+    /** Reads the body one chunk at a time, unless it is pushed to a consumer instead. */
+    private final class BodyStream extends InputStream {
+      private ByteBuffer current;
+
+      @Override
+      public int read() throws IOException {
+        ByteBuffer chunk = nextChunk();
+        return chunk == null ? -1 : chunk.get() & 0xFF;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+          return 0;
+        }
+        ByteBuffer chunk = nextChunk();
+        if (chunk == null) {
+          return -1;
+        }
+        int bytesRead = Math.min(len, chunk.remaining());
+        chunk.get(b, off, bytesRead);
+        return bytesRead;
+      }
+
+      @Override
+      public void close() {
+        PushedBody.this.close();
+      }
+
+      /** Returns a chunk with bytes left, or null at the end of the body. */
+      private ByteBuffer nextChunk() throws IOException {
+        if (closed) {
+          throw new IOException("The body was closed");
+        }
+        if (current == END) {
+          return null;
+        }
+        if (current != null && current.hasRemaining()) {
+          return current;
+        }
+
+        if (subscribed.compareAndSet(false, true)) {
+          publisher.subscribe(PushedBody.this);
+        } else if (consumer != null) {
+          throw new IOException("The body is delivered to a consumer");
+        }
+
+        do {
+          try {
+            current = chunks.take();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading the body", e);
+          }
+          if (current == END) {
+            if (done.isCompletedExceptionally()) {
+              throw new IOException("Failed to read the body", done.handle((v, e) -> e).join());
+            }
+            return null;
+          }
+          subscription.request(1);
+        } while (!current.hasRemaining());
+        return current;
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator;
+
+import java.util.concurrent.CompletableFuture;
+import lombok.NonNull;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+
+/**
+ * Object client tuned for the AWS CRT based S3 client, created with {@link
+ * S3AsyncClient#crtBuilder()}. The CRT splits large ranged GETs into parallel part requests over
+ * its own connection pool, sized by its target throughput, so this client asks callers not to split
+ * large sequential reads themselves.
+ *
+ * <p>Responses complete as soon as they start, and their body is exposed as {@link
+ * ObjectContent#getPublisher()}, which pushes each chunk as the CRT receives it. Callers can then
+ * write the body straight into their own buffers while it arrives, rather than waiting for it to
+ * be received into memory or draining it through a blocking input stream. Requests are otherwise
+ * built, measured and failed exactly like {@link S3SdkObjectClient}'s.
+ */
+public class S3CrtObjectClient extends S3SdkObjectClient {
+  /**
+   * Create an instance of a CRT based S3 client, with default configuration. This takes ownership
+   * of the passed client and will close it on its own close().
+   *
+   * @param crtClient Underlying CRT based client to be used for making requests to S3.
+   */
+  public S3CrtObjectClient(@NonNull S3AsyncClient crtClient) {
+    this(crtClient, ObjectClientConfiguration.DEFAULT);
+  }
+
+  /**
+   * Create an instance of a CRT based S3 client. This takes ownership of the passed client and will
+   * close it on its own close().
+   *
+   * @param crtClient Underlying CRT based client to be used for making requests to S3.
+   * @param objectClientConfiguration Configuration for object client.
+   */
+  public S3CrtObjectClient(
+      @NonNull S3AsyncClient crtClient,
+      @NonNull ObjectClientConfiguration objectClientConfiguration) {
+    this(crtClient, objectClientConfiguration, true);
+  }
+
+  /**
+   * Create an instance of a CRT based S3 client.
+   *
+   * @param crtClient Underlying CRT based client to be used for making requests to S3.
+   * @param objectClientConfiguration Configuration for object client.
+   * @param closeAsyncClient if true, close the passed client on close.
+   */
+  public S3CrtObjectClient(
+      @NonNull S3AsyncClient crtClient,
+      @NonNull ObjectClientConfiguration objectClientConfiguration,
+      boolean closeAsyncClient) {
+    super(crtClient, objectClientConfiguration, closeAsyncClient);
+  }
+
+  /** Pushes the body as it arrives, while the CRT downloads its parts in parallel. */
+  @Override
+  protected CompletableFuture<ObjectContent> fetchObject(GetObjectRequest getObjectRequest) {
+    return getS3AsyncClient().getObject(getObjectRequest, new PushedBodyTransformer());
+  }
+
+  /**
+   * The CRT splits large ranges into parts itself.
+   *
+   * @return true
+   */
+  @Override
+  public boolean splitsRangesIntoParts() {
+    return true;
+  }
+}
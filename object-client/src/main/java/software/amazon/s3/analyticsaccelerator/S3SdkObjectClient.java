@@ -15,6 +15,7 @@
  */
 package software.amazon.s3.analyticsaccelerator;
 
+import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -24,9 +25,11 @@ import java.util.function.Function;
 import lombok.Getter;
 import lombok.NonNull;
 import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.async.AsyncResponseTransformer;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.ConfigurableTelemetry;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
@@ -178,11 +181,95 @@ public class S3SdkObjectClient implements ObjectClient {
                 .attribute(ObjectClientTelemetry.rangeLength(getRequest.getRange()))
                 .attribute(ObjectClientTelemetry.range(getRequest.getRange()))
                 .build(),
+        fetchObject(builder.build()).exceptionally(handleException(getRequest.getS3Uri())));
+  }
+
+  /**
+   * Sends a ranged getObject request built by {@link #getObject(GetRequest, StreamContext)}. The
+   * body is streamed as it arrives, through a blocking input stream. Telemetry and error handling
+   * are applied by the caller.
+   *
+   * @param getObjectRequest the request to send
+   * @return a future completing with the content of the response
+   */
+  protected CompletableFuture<ObjectContent> fetchObject(GetObjectRequest getObjectRequest) {
+    return s3AsyncClient
+        .getObject(getObjectRequest, AsyncResponseTransformer.toBlockingInputStream())
+        .thenApply(
+            responseInputStream -> ObjectContent.builder().stream(responseInputStream).build());
+  }
+
+  /**
+   * Makes a single getObject request with a suffix range, learning the size and the ETag of the
+   * object from the response. The request is not conditional, as the ETag is not known yet. Audit
+   * headers of a {@link StreamContext} are built from a {@link GetRequest}, so the referrer of the
+   * request is used as is.
+   */
+  @Override
+  public CompletableFuture<ObjectContent> getObjectTail(TailRequest tailRequest) {
+    GetObjectRequest.Builder builder =
+        GetObjectRequest.builder()
+            .bucket(tailRequest.getS3Uri().getBucket())
+            .key(tailRequest.getS3Uri().getKey())
+            .range(tailRequest.toHttpString());
+
+    builder.overrideConfiguration(
+        AwsRequestOverrideConfiguration.builder()
+            .putHeader(HEADER_REFERER, tailRequest.getReferrer().toString())
+            .putHeader(HEADER_USER_AGENT, this.userAgent.getUserAgent())
+            .build());
+
+    return this.telemetry.measureCritical(
+        () ->
+            Operation.builder()
+                .name(ObjectClientTelemetry.OPERATION_GET)
+                .attribute(ObjectClientTelemetry.uri(tailRequest.getS3Uri()))
+                .build(),
         s3AsyncClient
             .getObject(builder.build(), AsyncResponseTransformer.toBlockingInputStream())
-            .thenApply(
-                responseInputStream -> ObjectContent.builder().stream(responseInputStream).build())
-            .exceptionally(handleException(getRequest.getS3Uri())));
+            .thenApply(S3SdkObjectClient::toTailContent)
+            .exceptionally(handleException(tailRequest.getS3Uri())));
+  }
+
+  /**
+   * Describes the response to a suffix range request. S3 answers it with a Content-Range header of
+   * the form "bytes 900-999/1000", which holds both the returned range and the object size. The
+   * header is missing if the whole object was returned.
+   */
+  private static ObjectContent toTailContent(
+      ResponseInputStream<GetObjectResponse> responseInputStream) {
+    GetObjectResponse response = responseInputStream.response();
+    try {
+      final long contentLength;
+      final Range range;
+      String contentRange = response.contentRange();
+      if (contentRange != null) {
+        int dash = contentRange.indexOf('-');
+        int slash = contentRange.indexOf('/');
+        contentLength = Long.parseLong(contentRange.substring(slash + 1).trim());
+        range =
+            new Range(
+                Long.parseLong(contentRange.substring(contentRange.indexOf(' ') + 1, dash).trim()),
+                Long.parseLong(contentRange.substring(dash + 1, slash).trim()));
+      } else {
+        contentLength = response.contentLength();
+        range = contentLength > 0 ? new Range(0, contentLength - 1) : null;
+      }
+
+      return ObjectContent.builder()
+          .stream(responseInputStream)
+          .metadata(
+              ObjectMetadata.builder().contentLength(contentLength).etag(response.eTag()).build())
+          .range(range)
+          .build();
+    } catch (RuntimeException e) {
+      try {
+        responseInputStream.close();
+      } catch (IOException closeException) {
+        e.addSuppressed(closeException);
+      }
+      throw e;
+    }
   }
 
   private <T> Function<Throwable, T> handleException(S3URI s3Uri) {
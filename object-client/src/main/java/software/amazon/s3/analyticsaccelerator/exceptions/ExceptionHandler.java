@@ -17,16 +17,29 @@ package software.amazon.s3.analyticsaccelerator.exceptions;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.services.s3.model.InvalidObjectStateException;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.s3.analyticsaccelerator.request.RequestThrottledException;
+import software.amazon.s3.analyticsaccelerator.retry.ErrorKind;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
 /** Handles mapping of S3 exceptions to IO exceptions. */
 public enum ExceptionHandler {
+  THROTTLED(
+      ExceptionHandler::isThrottlingException,
+      (cause, uri) -> createThrottledException("Throttled accessing %s", uri, cause)),
+
   NO_SUCH_KEY(
       NoSuchKeyException.class,
       (cause, uri) -> createFileNotFoundException("Object not found %s", uri)),
@@ -46,7 +59,12 @@ public enum ExceptionHandler {
   SDK_GENERAL(
       SdkException.class, (cause, uri) -> createIOException("SDK error accessing %s", uri, cause));
 
-  private final Class<? extends Exception> exceptionClass;
+  private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+  private static final int HTTP_REQUEST_TIMEOUT = 408;
+  private static final int HTTP_PRECONDITION_FAILED = 412;
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+  private final Predicate<Throwable> matcher;
   private final ExceptionMapper mapper;
 
   @FunctionalInterface
@@ -55,7 +73,11 @@ public enum ExceptionHandler {
   }
 
   ExceptionHandler(Class<? extends Exception> exceptionClass, ExceptionMapper mapper) {
-    this.exceptionClass = exceptionClass;
+    this(exceptionClass::isInstance, mapper);
+  }
+
+  ExceptionHandler(Predicate<Throwable> matcher, ExceptionMapper mapper) {
+    this.matcher = matcher;
     this.mapper = mapper;
   }
 
@@ -69,12 +91,46 @@ public enum ExceptionHandler {
    */
   public static IOException toIOException(Throwable cause, S3URI uri) {
     return Stream.of(values())
-        .filter(handler -> handler.exceptionClass.isInstance(cause))
+        .filter(handler -> handler.matcher.test(cause))
         .findFirst()
         .map(handler -> handler.mapper.toIOException(cause, uri))
         .orElseGet(() -> createIOException("Error accessing %s", uri, cause));
   }
 
+  /**
+   * Classifies a failure, looking through the chain of causes for the exceptions this handler maps
+   * and the exceptions they were mapped from. Canceled requests are not retried, as nobody is
+   * waiting for them. Failures that are not recognised are assumed to be transient.
+   *
+   * @param error the failure to classify
+   * @return the kind of the failure
+   */
+  public static ErrorKind classify(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof CancellationException) {
+        return ErrorKind.CANCELED;
+      }
+      if (cause instanceof RequestThrottledException || isThrottlingException(cause)) {
+        return ErrorKind.THROTTLED;
+      }
+      if (cause instanceof FileNotFoundException
+          || cause instanceof NoSuchKeyException
+          || cause instanceof InvalidObjectStateException) {
+        return ErrorKind.CLIENT_ERROR;
+      }
+      if (cause instanceof TimeoutException
+          || cause instanceof SocketTimeoutException
+          || cause instanceof ApiCallTimeoutException
+          || cause instanceof ApiCallAttemptTimeoutException) {
+        return ErrorKind.TIMEOUT;
+      }
+      if (cause instanceof SdkServiceException) {
+        return classifyStatusCode(((SdkServiceException) cause).statusCode());
+      }
+    }
+    return ErrorKind.TRANSIENT;
+  }
+
   /**
    * Provides sample exceptions for all the exception types handled
    *
@@ -82,6 +138,7 @@ public enum ExceptionHandler {
    */
   public static Exception[] getSampleExceptions() {
     return new Exception[] {
+      S3Exception.builder().statusCode(HTTP_SERVICE_UNAVAILABLE).build(),
       NoSuchKeyException.builder().build(),
       InvalidObjectStateException.builder().build(),
       SdkClientException.builder().build(),
@@ -90,10 +147,42 @@ public enum ExceptionHandler {
     };
   }
 
+  /**
+   * Throttling is reported either through the SDK's own classification, or as a 503 Slow Down.
+   */
+  private static boolean isThrottlingException(Throwable cause) {
+    if (!(cause instanceof SdkServiceException)) {
+      return false;
+    }
+    SdkServiceException serviceException = (SdkServiceException) cause;
+    return serviceException.isThrottlingException()
+        || serviceException.statusCode() == HTTP_SERVICE_UNAVAILABLE;
+  }
+
+  private static ErrorKind classifyStatusCode(int statusCode) {
+    if (statusCode == HTTP_PRECONDITION_FAILED) {
+      return ErrorKind.PRECONDITION_FAILED;
+    }
+    if (statusCode == HTTP_REQUEST_TIMEOUT) {
+      return ErrorKind.TIMEOUT;
+    }
+    if (statusCode == HTTP_TOO_MANY_REQUESTS) {
+      return ErrorKind.THROTTLED;
+    }
+    if (statusCode >= 400 && statusCode < 500) {
+      return ErrorKind.CLIENT_ERROR;
+    }
+    return ErrorKind.TRANSIENT;
+  }
+
   private static IOException createIOException(String message, S3URI uri, Throwable cause) {
     return new IOException(String.format(message, uri), cause);
   }
 
+  private static IOException createThrottledException(String message, S3URI uri, Throwable cause) {
+    return new RequestThrottledException(String.format(message, uri), cause);
+  }
+
   private static FileNotFoundException createFileNotFoundException(String message, S3URI uri) {
     return new FileNotFoundException(String.format(message, uri));
   }
@@ -0,0 +1,144 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.retry;
+
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Builder;
+import lombok.Getter;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.exceptions.ExceptionHandler;
+
+/**
+ * A {@link RetryPolicy} that classifies failures with {@link ExceptionHandler#classify(Throwable)},
+ * waits between attempts with decorrelated jitter, and spends tokens from a retry budget for every
+ * retry. Successful requests refill the budget slowly, so that a failing dependency is not
+ * hammered with retries from every stream at once, while occasional failures are still retried.
+ */
+public class DefaultRetryPolicy implements RetryPolicy {
+  /** Default smallest delay before a retry, kept short as the SDK client retries on its own. */
+  public static final long DEFAULT_BASE_DELAY_MILLIS = 10;
+  /** Default largest delay before a retry. */
+  public static final long DEFAULT_MAX_DELAY_MILLIS = 100;
+  /** Default number of tokens in a full retry budget. */
+  public static final int DEFAULT_BUDGET_CAPACITY = 500;
+
+  /** Tokens spent on retrying a request. */
+  static final int RETRY_COST = 5;
+  /** Tokens spent on retrying a request that timed out, as those tie up resources for longer. */
+  static final int TIMEOUT_RETRY_COST = 10;
+  /** Tokens returned to the budget by a successful request. */
+  static final int SUCCESS_REFUND = 1;
+
+  @Getter private final long baseDelayMillis;
+  @Getter private final long maxDelayMillis;
+  @Getter private final int budgetCapacity;
+  private final AtomicInteger tokens;
+
+  /** A retry policy with the default settings. */
+  public DefaultRetryPolicy() {
+    this(DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_BUDGET_CAPACITY);
+  }
+
+  /**
+   * Constructs a new DefaultRetryPolicy.
+   *
+   * @param baseDelayMillis the smallest delay before a retry
+   * @param maxDelayMillis the largest delay before a retry
+   * @param budgetCapacity the number of tokens in a full retry budget
+   */
+  @Builder
+  private DefaultRetryPolicy(long baseDelayMillis, long maxDelayMillis, int budgetCapacity) {
+    Preconditions.checkArgument(baseDelayMillis >= 0, "`baseDelayMillis` must not be negative");
+    Preconditions.checkArgument(
+        maxDelayMillis >= baseDelayMillis,
+        "`maxDelayMillis` must not be less than `baseDelayMillis`");
+    Preconditions.checkArgument(budgetCapacity >= 0, "`budgetCapacity` must not be negative");
+
+    this.baseDelayMillis = baseDelayMillis;
+    this.maxDelayMillis = maxDelayMillis;
+    this.budgetCapacity = budgetCapacity;
+    this.tokens = new AtomicInteger(budgetCapacity);
+  }
+
+  @Override
+  public ErrorKind classify(Throwable error) {
+    return ExceptionHandler.classify(error);
+  }
+
+  @Override
+  public OptionalLong retryDelayMillis(Throwable error, long previousDelayMillis) {
+    ErrorKind kind = classify(error);
+    if (!kind.isRetryable()) {
+      return OptionalLong.empty();
+    }
+    if (!acquire(kind == ErrorKind.TIMEOUT ? TIMEOUT_RETRY_COST : RETRY_COST)) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(nextDelayMillis(previousDelayMillis));
+  }
+
+  @Override
+  public void recordSuccess() {
+    int current;
+    do {
+      current = tokens.get();
+      if (current >= budgetCapacity) {
+        return;
+      }
+    } while (!tokens.compareAndSet(current, Math.min(budgetCapacity, current + SUCCESS_REFUND)));
+  }
+
+  /**
+   * Returns the number of tokens currently left in the retry budget.
+   *
+   * @return the available tokens
+   */
+  public int getAvailableTokens() {
+    return tokens.get();
+  }
+
+  /**
+   * Picks the next delay with decorrelated jitter: a random value between the base delay and three
+   * times the previous delay, capped at the maximum delay.
+   */
+  private long nextDelayMillis(long previousDelayMillis) {
+    long upper = Math.max(baseDelayMillis, Math.min(maxDelayMillis, previousDelayMillis * 3));
+    if (upper <= baseDelayMillis) {
+      return baseDelayMillis;
+    }
+    return ThreadLocalRandom.current().nextLong(baseDelayMillis, upper + 1);
+  }
+
+  /** Builder for {@link DefaultRetryPolicy}, with every setting defaulted. */
+  public static class DefaultRetryPolicyBuilder {
+    private long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+    private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private int budgetCapacity = DEFAULT_BUDGET_CAPACITY;
+  }
+
+  private boolean acquire(int cost) {
+    int current;
+    do {
+      current = tokens.get();
+      if (current < cost) {
+        return false;
+      }
+    } while (!tokens.compareAndSet(current, current - cost));
+    return true;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.retry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Kinds of failed requests, as far as retrying them is concerned. */
+@AllArgsConstructor
+@Getter
+public enum ErrorKind {
+  /** The object store asked for fewer requests, for example with an HTTP 503 Slow Down. */
+  THROTTLED(true),
+  /** The request or the read of its response timed out. */
+  TIMEOUT(true),
+  /** A server or network error that is expected to go away, such as an HTTP 500. */
+  TRANSIENT(true),
+  /** The object changed since its metadata was read, reported as an HTTP 412. */
+  PRECONDITION_FAILED(false),
+  /** The request can never succeed as is, for example because the object does not exist. */
+  CLIENT_ERROR(false),
+  /** The request was canceled, for example because a prefetch was no longer going to be read. */
+  CANCELED(false);
+
+  private final boolean retryable;
+}
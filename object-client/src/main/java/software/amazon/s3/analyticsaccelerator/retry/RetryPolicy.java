@@ -0,0 +1,45 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.retry;
+
+import java.util.OptionalLong;
+
+/**
+ * Decides whether and when a failed request should be retried. Implementations must be thread safe,
+ * as a single policy is shared by all the streams created by the same factory.
+ */
+public interface RetryPolicy {
+  /**
+   * Classifies a failure.
+   *
+   * @param error the failure
+   * @return the kind of the failure
+   */
+  ErrorKind classify(Throwable error);
+
+  /**
+   * Decides whether a failed request should be retried, and if so, how long to wait first.
+   *
+   * @param error the failure
+   * @param previousDelayMillis the delay before the previous attempt, or 0 for the first retry
+   * @return the delay before the next attempt in milliseconds, or empty if the request should not
+   *     be retried
+   */
+  OptionalLong retryDelayMillis(Throwable error, long previousDelayMillis);
+
+  /** Records that a request succeeded, which lets the policy afford future retries. */
+  void recordSuccess();
+}
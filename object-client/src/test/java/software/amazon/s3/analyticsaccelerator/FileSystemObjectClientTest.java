@@ -0,0 +1,200 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.s3.analyticsaccelerator.exceptions.ExceptionHandler;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.Referrer;
+import software.amazon.s3.analyticsaccelerator.request.TailRequest;
+import software.amazon.s3.analyticsaccelerator.retry.ErrorKind;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class FileSystemObjectClientTest {
+  private static final String TEST_DATA = "0123456789abcdefghij";
+  private static final S3URI TEST_URI = S3URI.of("bucket", "dir/object.bin");
+
+  @TempDir Path root;
+
+  @Test
+  void testConstructorRejectsNulls() {
+    assertThrows(NullPointerException.class, () -> new FileSystemObjectClient(null));
+  }
+
+  @Test
+  void testHeadObject() throws IOException {
+    // Given: a file with a known modification time
+    Path file = writeObject(TEST_URI, TEST_DATA);
+    Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000));
+    FileSystemObjectClient client = new FileSystemObjectClient(root);
+
+    // When: its metadata is requested
+    ObjectMetadata metadata =
+        client.headObject(HeadRequest.builder().s3Uri(TEST_URI).build()).join();
+
+    // Then: the size and ETag are derived from the file
+    assertEquals(TEST_DATA.length(), metadata.getContentLength());
+    assertEquals(FileSystemObjectClient.etagOf(1_000_000, TEST_DATA.length()), metadata.getEtag());
+
+    // When: the file is rewritten
+    Files.setLastModifiedTime(file, FileTime.fromMillis(2_000_000));
+
+    // Then: the ETag changes
+    assertNotEquals(
+        metadata.getEtag(),
+        client.headObject(HeadRequest.builder().s3Uri(TEST_URI).build()).join().getEtag());
+  }
+
+  @Test
+  void testHeadMissingObject() {
+    FileSystemObjectClient client = new FileSystemObjectClient(root);
+
+    CompletionException exception =
+        assertThrows(
+            CompletionException.class,
+            () -> client.headObject(HeadRequest.builder().s3Uri(TEST_URI).build()).join());
+    assertInstanceOf(UncheckedIOException.class, exception.getCause());
+    assertInstanceOf(FileNotFoundException.class, exception.getCause().getCause());
+  }
+
+  @Test
+  void testGetObjectAcrossMappedChunks() throws IOException {
+    // Given: a client mapping 3 bytes at a time
+    writeObject(TEST_URI, TEST_DATA);
+    FileSystemObjectClient client = new FileSystemObjectClient(root, 3);
+    String etag = client.headObject(HeadRequest.builder().s3Uri(TEST_URI).build()).join().getEtag();
+
+    // When: a range spanning several chunks is read
+    ObjectContent content = client.getObject(request(new Range(2, 11), etag)).join();
+
+    // Then: the bytes of the range are returned
+    assertEquals("23456789ab", readFully(content.getStream()));
+  }
+
+  @Test
+  void testGetObjectClampsRangeToObject() throws IOException {
+    writeObject(TEST_URI, TEST_DATA);
+    FileSystemObjectClient client = new FileSystemObjectClient(root);
+    String etag = client.headObject(HeadRequest.builder().s3Uri(TEST_URI).build()).join().getEtag();
+
+    ObjectContent content = client.getObject(request(new Range(15, 100), etag)).join();
+
+    assertEquals("fghij", readFully(content.getStream()));
+    assertThrows(
+        CompletionException.class,
+        () -> client.getObject(request(new Range(20, 30), etag)).join());
+  }
+
+  @Test
+  void testGetObjectWithStaleEtagFailsThePrecondition() throws IOException {
+    // Given: an object whose ETag changed since it was looked up
+    writeObject(TEST_URI, TEST_DATA);
+    FileSystemObjectClient client = new FileSystemObjectClient(root);
+
+    // When: a range is requested with the old ETag
+    CompletableFuture<ObjectContent> result = client.getObject(request(new Range(0, 3), "\"old\""));
+
+    // Then: the request fails like a 412 from S3
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertEquals(ErrorKind.PRECONDITION_FAILED, ExceptionHandler.classify(exception));
+  }
+
+  @Test
+  void testGetObjectTail() throws IOException {
+    writeObject(TEST_URI, TEST_DATA);
+    FileSystemObjectClient client = new FileSystemObjectClient(root);
+
+    ObjectContent content =
+        client
+            .getObjectTail(
+                TailRequest.builder()
+                    .s3Uri(TEST_URI)
+                    .length(4)
+                    .referrer(new Referrer("bytes=-4", ReadMode.SYNC))
+                    .build())
+            .join();
+
+    assertEquals(new Range(16, 19), content.getRange());
+    assertEquals(TEST_DATA.length(), content.getMetadata().getContentLength());
+    assertEquals("ghij", readFully(content.getStream()));
+  }
+
+  @Test
+  void testKeysCannotEscapeTheBucket() throws IOException {
+    writeObject(S3URI.of("other", "secret"), TEST_DATA);
+    FileSystemObjectClient client = new FileSystemObjectClient(root);
+
+    CompletionException exception =
+        assertThrows(
+            CompletionException.class,
+            () ->
+                client
+                    .headObject(
+                        HeadRequest.builder().s3Uri(S3URI.of("bucket", "../other/secret")).build())
+                    .join());
+    assertInstanceOf(FileNotFoundException.class, exception.getCause().getCause());
+  }
+
+  private Path writeObject(S3URI s3URI, String data) throws IOException {
+    Path file = root.resolve(s3URI.getBucket()).resolve(s3URI.getKey());
+    Files.createDirectories(file.getParent());
+    Files.write(file, data.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static GetRequest request(Range range, String etag) {
+    return GetRequest.builder()
+        .s3Uri(TEST_URI)
+        .range(range)
+        .etag(etag)
+        .referrer(new Referrer(range.toHttpString(), ReadMode.SYNC))
+        .build();
+  }
+
+  private static String readFully(InputStream stream) throws IOException {
+    try (InputStream in = stream) {
+      StringBuilder builder = new StringBuilder();
+      byte[] buffer = new byte[4];
+      int read;
+      while ((read = in.read(buffer, 0, buffer.length)) != -1) {
+        builder.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+      }
+      return builder.toString();
+    }
+  }
+}
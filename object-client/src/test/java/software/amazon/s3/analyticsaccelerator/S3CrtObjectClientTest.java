@@ -0,0 +1,201 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.s3.analyticsaccelerator.exceptions.ExceptionHandler;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.Referrer;
+import software.amazon.s3.analyticsaccelerator.retry.ErrorKind;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class S3CrtObjectClientTest {
+  private static final S3URI TEST_URI = S3URI.of("test-bucket", "test-key");
+  private static final String ETAG = "RandomString";
+  private static final GetRequest GET_REQUEST =
+      GetRequest.builder()
+          .s3Uri(TEST_URI)
+          .range(new Range(0, 10))
+          .etag(ETAG)
+          .referrer(new Referrer("bytes=0-10", ReadMode.SYNC))
+          .build();
+
+  @Test
+  void testForNullsInConstructor() {
+    try (S3AsyncClient client = mock(S3AsyncClient.class)) {
+      SpotBugsLambdaWorkaround.assertThrowsClosableResult(
+          NullPointerException.class, () -> new S3CrtObjectClient(null));
+      SpotBugsLambdaWorkaround.assertThrowsClosableResult(
+          NullPointerException.class, () -> new S3CrtObjectClient(client, null));
+      SpotBugsLambdaWorkaround.assertThrowsClosableResult(
+          NullPointerException.class,
+          () -> new S3CrtObjectClient(null, ObjectClientConfiguration.DEFAULT, true));
+    }
+  }
+
+  @Test
+  void testSplitsRangesIntoParts() {
+    try (S3CrtObjectClient client = new S3CrtObjectClient(mock(S3AsyncClient.class))) {
+      assertTrue(client.splitsRangesIntoParts());
+    }
+    try (S3SdkObjectClient client = new S3SdkObjectClient(mock(S3AsyncClient.class))) {
+      assertFalse(client.splitsRangesIntoParts());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testGetObjectPushesBodyAsItArrives() {
+    // Given: a CRT client answering with a body
+    S3AsyncClient crtClient = mock(S3AsyncClient.class);
+    byte[] body = "Hello World".getBytes(StandardCharsets.UTF_8);
+    respondWith(crtClient, AsyncRequestBody.fromBytes(body));
+    S3CrtObjectClient client = new S3CrtObjectClient(crtClient);
+
+    // When: a range is requested, and its body is subscribed to
+    ObjectContent content = client.getObject(GET_REQUEST).join();
+    ByteArrayOutputStream received = new ByteArrayOutputStream();
+    content
+        .getPublisher()
+        .subscribe(
+            chunk -> {
+              byte[] bytes = new byte[chunk.remaining()];
+              chunk.get(bytes);
+              received.write(bytes, 0, bytes.length);
+            })
+        .join();
+
+    // Then: the request is built like any other, and the body is pushed rather than buffered
+    ArgumentCaptor<GetObjectRequest> requestCaptor =
+        ArgumentCaptor.forClass(GetObjectRequest.class);
+    verify(crtClient).getObject(requestCaptor.capture(), any(AsyncResponseTransformer.class));
+    assertEquals("bytes=0-10", requestCaptor.getValue().range());
+    assertEquals(ETAG, requestCaptor.getValue().ifMatch());
+    assertNull(content.getData());
+    assertArrayEquals(body, received.toByteArray());
+    assertThrows(IOException.class, () -> content.getStream().read());
+  }
+
+  @Test
+  void testGetObjectBodyCanBeReadThroughTheStream() throws IOException {
+    // Given: a CRT client answering with a body
+    S3AsyncClient crtClient = mock(S3AsyncClient.class);
+    byte[] body = "Hello World".getBytes(StandardCharsets.UTF_8);
+    respondWith(crtClient, AsyncRequestBody.fromBytes(body));
+    S3CrtObjectClient client = new S3CrtObjectClient(crtClient);
+
+    // When: the body is read through the stream
+    ObjectContent content = client.getObject(GET_REQUEST).join();
+
+    // Then: the whole body is read, and can no longer be subscribed to
+    assertArrayEquals(body, readFully(content.getStream()));
+    assertThrows(
+        CompletionException.class, () -> content.getPublisher().subscribe(chunk -> {}).join());
+  }
+
+  @Test
+  void testClosingTheStreamAbortsTheBody() throws IOException {
+    // Given: a CRT client whose body never arrives
+    S3AsyncClient crtClient = mock(S3AsyncClient.class);
+    Subscription subscription = mock(Subscription.class);
+    respondWith(crtClient, subscriber -> subscriber.onSubscribe(subscription));
+    S3CrtObjectClient client = new S3CrtObjectClient(crtClient);
+    ObjectContent content = client.getObject(GET_REQUEST).join();
+    CompletableFuture<Void> delivered = content.getPublisher().subscribe(chunk -> {});
+
+    // When: the stream is closed
+    content.getStream().close();
+
+    // Then: the transfer is canceled, and the delivery fails
+    verify(subscription).cancel();
+    CompletionException exception = assertThrows(CompletionException.class, delivered::join);
+    assertInstanceOf(IOException.class, exception.getCause());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testGetObjectFailures() {
+    // Given: a CRT client failing the precondition
+    S3AsyncClient crtClient = mock(S3AsyncClient.class);
+    CompletableFuture<ObjectContent> failedFuture = new CompletableFuture<>();
+    failedFuture.completeExceptionally(S3Exception.builder().statusCode(412).build());
+    when(crtClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+        .thenReturn(failedFuture);
+    S3CrtObjectClient client = new S3CrtObjectClient(crtClient);
+
+    // When: a range is requested
+    CompletableFuture<ObjectContent> result = client.getObject(GET_REQUEST);
+
+    // Then: the failure surfaces like it does for S3SdkObjectClient
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertInstanceOf(UncheckedIOException.class, exception.getCause());
+    assertEquals(ErrorKind.PRECONDITION_FAILED, ExceptionHandler.classify(exception));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void respondWith(S3AsyncClient crtClient, SdkPublisher<ByteBuffer> body) {
+    when(crtClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+        .thenAnswer(
+            invocation -> {
+              AsyncResponseTransformer<GetObjectResponse, ObjectContent> transformer =
+                  invocation.getArgument(1);
+              CompletableFuture<ObjectContent> result = transformer.prepare();
+              transformer.onResponse(GetObjectResponse.builder().build());
+              transformer.onStream(body);
+              return result;
+            });
+  }
+
+  private static byte[] readFully(InputStream stream) throws IOException {
+    try (InputStream in = stream) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+}
@@ -284,6 +284,81 @@ public class S3SdkObjectClientTest {
     assertEquals(ETAG, capturedRequest.ifMatch());
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void testGetObjectTail() {
+    // Given: S3 answering a suffix range with the last 100 bytes of a 1000 byte object
+    S3AsyncClient mockS3AsyncClient = mock(S3AsyncClient.class);
+    when(mockS3AsyncClient.getObject(
+            any(GetObjectRequest.class),
+            (AsyncResponseTransformer<GetObjectResponse, Object>) any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                new ResponseInputStream<>(
+                    GetObjectResponse.builder()
+                        .contentRange("bytes 900-999/1000")
+                        .contentLength(100L)
+                        .eTag(ETAG)
+                        .build(),
+                    AbortableInputStreamSubscriber.builder().build())));
+    S3SdkObjectClient client = new S3SdkObjectClient(mockS3AsyncClient);
+
+    // When: the tail of the object is requested
+    ObjectContent content =
+        client
+            .getObjectTail(
+                TailRequest.builder()
+                    .s3Uri(TEST_URI)
+                    .length(100)
+                    .referrer(new Referrer("bytes=-100", ReadMode.SYNC))
+                    .build())
+            .join();
+
+    // Then: a single unconditional suffix range GET is made, and the response describes the object
+    ArgumentCaptor<GetObjectRequest> requestCaptor =
+        ArgumentCaptor.forClass(GetObjectRequest.class);
+    verify(mockS3AsyncClient)
+        .getObject(
+            requestCaptor.capture(),
+            ArgumentMatchers
+                .<AsyncResponseTransformer<
+                        GetObjectResponse, ResponseInputStream<GetObjectResponse>>>
+                    any());
+    verify(mockS3AsyncClient, never()).headObject(any(HeadObjectRequest.class));
+    assertEquals("bytes=-100", requestCaptor.getValue().range());
+    assertNull(requestCaptor.getValue().ifMatch());
+    assertEquals(
+        ObjectMetadata.builder().contentLength(1000).etag(ETAG).build(), content.getMetadata());
+    assertEquals(new Range(900, 999), content.getRange());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testGetObjectTailWithMalformedContentRange() {
+    // Given: S3 answering with a Content-Range header that cannot be parsed
+    S3AsyncClient mockS3AsyncClient = mock(S3AsyncClient.class);
+    when(mockS3AsyncClient.getObject(
+            any(GetObjectRequest.class),
+            (AsyncResponseTransformer<GetObjectResponse, Object>) any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                new ResponseInputStream<>(
+                    GetObjectResponse.builder().contentRange("bytes */1000").eTag(ETAG).build(),
+                    AbortableInputStreamSubscriber.builder().build())));
+    S3SdkObjectClient client = new S3SdkObjectClient(mockS3AsyncClient);
+
+    // When & Then: the request fails like any other
+    CompletableFuture<ObjectContent> future =
+        client.getObjectTail(
+            TailRequest.builder()
+                .s3Uri(TEST_URI)
+                .length(100)
+                .referrer(new Referrer("bytes=-100", ReadMode.SYNC))
+                .build());
+    Throwable thrown = assertThrows(CompletionException.class, future::join).getCause();
+    assertInstanceOf(UncheckedIOException.class, thrown);
+  }
+
   @Test
   void testObjectClientClose() {
     try (S3AsyncClient s3AsyncClient = createMockClient()) {
@@ -19,6 +19,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 import org.junit.jupiter.api.Test;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.exception.SdkClientException;
@@ -26,6 +31,8 @@ import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.s3.model.InvalidObjectStateException;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.s3.analyticsaccelerator.request.RequestThrottledException;
+import software.amazon.s3.analyticsaccelerator.retry.ErrorKind;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
 public class ExceptionHandlerTest {
@@ -64,6 +71,23 @@ public class ExceptionHandlerTest {
     assertSame(cause, exception.getCause());
   }
 
+  @Test
+  void testHandleThrottlingException() {
+    AwsServiceException slowDown = S3Exception.builder().statusCode(503).build();
+    IOException exception = ExceptionHandler.toIOException(slowDown, TEST_URI);
+    assertInstanceOf(RequestThrottledException.class, exception);
+    assertSame(slowDown, exception.getCause());
+
+    AwsServiceException tooManyRequests = S3Exception.builder().statusCode(429).build();
+    assertInstanceOf(
+        RequestThrottledException.class, ExceptionHandler.toIOException(tooManyRequests, TEST_URI));
+
+    AwsServiceException serverError = S3Exception.builder().statusCode(500).build();
+    assertFalse(
+        ExceptionHandler.toIOException(serverError, TEST_URI)
+            instanceof RequestThrottledException);
+  }
+
   @Test
   void testHandleSdkException() {
     RuntimeException cause = SdkException.builder().build();
@@ -79,4 +103,48 @@ public class ExceptionHandlerTest {
     assertInstanceOf(IOException.class, exception);
     assertSame(cause, exception.getCause());
   }
+
+  @Test
+  void testClassify() {
+    assertEquals(
+        ErrorKind.THROTTLED,
+        ExceptionHandler.classify(S3Exception.builder().statusCode(503).build()));
+    assertEquals(
+        ErrorKind.PRECONDITION_FAILED,
+        ExceptionHandler.classify(S3Exception.builder().statusCode(412).build()));
+    assertEquals(
+        ErrorKind.CLIENT_ERROR,
+        ExceptionHandler.classify(S3Exception.builder().statusCode(403).build()));
+    assertEquals(
+        ErrorKind.TRANSIENT,
+        ExceptionHandler.classify(S3Exception.builder().statusCode(500).build()));
+    assertEquals(ErrorKind.CLIENT_ERROR, ExceptionHandler.classify(new FileNotFoundException()));
+    assertEquals(ErrorKind.TIMEOUT, ExceptionHandler.classify(new TimeoutException()));
+    assertEquals(ErrorKind.TIMEOUT, ExceptionHandler.classify(new SocketTimeoutException()));
+    assertEquals(ErrorKind.TRANSIENT, ExceptionHandler.classify(new RuntimeException()));
+    assertEquals(ErrorKind.CANCELED, ExceptionHandler.classify(new CancellationException()));
+    assertEquals(
+        ErrorKind.CANCELED,
+        ExceptionHandler.classify(new IOException(new CancellationException())));
+  }
+
+  @Test
+  void testClassifyLooksThroughWrappers() {
+    // Given: a failure as it is surfaced by the object client
+    IOException mapped =
+        ExceptionHandler.toIOException(S3Exception.builder().statusCode(412).build(), TEST_URI);
+    Throwable wrapped = new CompletionException(new UncheckedIOException(mapped));
+
+    // When: the failure is classified
+    ErrorKind kind = ExceptionHandler.classify(wrapped);
+
+    // Then: the original cause decides
+    assertEquals(ErrorKind.PRECONDITION_FAILED, kind);
+    assertEquals(
+        ErrorKind.THROTTLED,
+        ExceptionHandler.classify(
+            new IOException(
+                ExceptionHandler.toIOException(
+                    S3Exception.builder().statusCode(503).build(), TEST_URI))));
+  }
 }
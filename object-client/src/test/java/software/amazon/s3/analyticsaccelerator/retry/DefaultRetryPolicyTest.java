@@ -0,0 +1,102 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.retry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+public class DefaultRetryPolicyTest {
+  private static final IOException SERVER_ERROR =
+      new IOException(S3Exception.builder().statusCode(500).build());
+
+  @Test
+  void testDefaults() {
+    DefaultRetryPolicy policy = DefaultRetryPolicy.builder().build();
+    assertEquals(DefaultRetryPolicy.DEFAULT_BASE_DELAY_MILLIS, policy.getBaseDelayMillis());
+    assertEquals(DefaultRetryPolicy.DEFAULT_MAX_DELAY_MILLIS, policy.getMaxDelayMillis());
+    assertEquals(DefaultRetryPolicy.DEFAULT_BUDGET_CAPACITY, policy.getBudgetCapacity());
+    assertEquals(DefaultRetryPolicy.DEFAULT_BUDGET_CAPACITY, policy.getAvailableTokens());
+  }
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> DefaultRetryPolicy.builder().baseDelayMillis(-1).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> DefaultRetryPolicy.builder().baseDelayMillis(20).maxDelayMillis(10).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> DefaultRetryPolicy.builder().budgetCapacity(-1).build());
+  }
+
+  @Test
+  void testDoesNotRetryNonRetryableErrors() {
+    DefaultRetryPolicy policy = DefaultRetryPolicy.builder().build();
+    IOException preconditionFailed = new IOException(S3Exception.builder().statusCode(412).build());
+
+    assertFalse(policy.retryDelayMillis(preconditionFailed, 0).isPresent());
+    assertEquals(DefaultRetryPolicy.DEFAULT_BUDGET_CAPACITY, policy.getAvailableTokens());
+  }
+
+  @Test
+  void testDelaysStayWithinBounds() {
+    DefaultRetryPolicy policy =
+        DefaultRetryPolicy.builder().baseDelayMillis(5).maxDelayMillis(50).build();
+
+    long previous = 0;
+    for (int i = 0; i < 50; i++) {
+      OptionalLong delay = policy.retryDelayMillis(SERVER_ERROR, previous);
+      assertTrue(delay.isPresent());
+      assertTrue(delay.getAsLong() >= 5 && delay.getAsLong() <= 50);
+      assertTrue(delay.getAsLong() <= Math.max(5, previous * 3));
+      previous = delay.getAsLong();
+    }
+  }
+
+  @Test
+  void testBudgetIsSpentAndRefilled() {
+    // Given: a budget that affords two retries
+    DefaultRetryPolicy policy =
+        DefaultRetryPolicy.builder().budgetCapacity(2 * DefaultRetryPolicy.RETRY_COST).build();
+
+    // When: three retries are requested
+    assertTrue(policy.retryDelayMillis(SERVER_ERROR, 0).isPresent());
+    assertTrue(policy.retryDelayMillis(SERVER_ERROR, 0).isPresent());
+
+    // Then: the third one is denied
+    assertFalse(policy.retryDelayMillis(SERVER_ERROR, 0).isPresent());
+    assertFalse(policy.retryDelayMillis(new TimeoutException(), 0).isPresent());
+
+    // When: enough requests succeed
+    for (int i = 0; i < DefaultRetryPolicy.RETRY_COST; i++) {
+      policy.recordSuccess();
+    }
+
+    // Then: retries are allowed again, and the budget never exceeds its capacity
+    assertTrue(policy.retryDelayMillis(SERVER_ERROR, 0).isPresent());
+    for (int i = 0; i < 100; i++) {
+      policy.recordSuccess();
+    }
+    assertEquals(2 * DefaultRetryPolicy.RETRY_COST, policy.getAvailableTokens());
+  }
+}